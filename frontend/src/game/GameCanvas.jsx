@@ -19,6 +19,7 @@ const GameCanvas = forwardRef(({ isDrawer, onDrawStroke, onClear, onUndo }, ref)
     // Optimization: Offscreen canvas for baking old history
     const mergedCanvasRef = useRef(null);
     const MAX_HISTORY = 10;
+    const canvasGen = useRef(0); // bumped on clear so a late checkpoint image load is ignored
 
     useEffect(() => {
         // Initialize offscreen canvas
@@ -30,30 +31,74 @@ const GameCanvas = forwardRef(({ isDrawer, onDrawStroke, onClear, onUndo }, ref)
         }
     }, []);
 
+    // Append a remote segment to the action history, baking the oldest action when over the limit
+    const recordSegment = (data) => {
+        if (data.newStroke || !currentRemoteAction.current || currentRemoteAction.current.id !== data.actionId) {
+            // Check limit
+            if (history.current.length >= MAX_HISTORY) {
+                // Bake the oldest action into mergedCanvas
+                const oldest = history.current.shift();
+                const mCtx = mergedCanvasRef.current.getContext('2d');
+                drawSegments(mCtx, oldest.segs);
+            }
+
+            currentRemoteAction.current = { id: data.actionId, segs: [] };
+            history.current.push(currentRemoteAction.current);
+        }
+        currentRemoteAction.current.segs.push(data);
+    };
+
+    // Repaint visible canvas: baked background + active history
+    const redraw = () => {
+        const cvs = canvasRef.current;
+        const ctx = cvs.getContext('2d');
+        ctx.clearRect(0, 0, cvs.width, cvs.height);
+        if (mergedCanvasRef.current) {
+            ctx.drawImage(mergedCanvasRef.current, 0, 0);
+        }
+        history.current.forEach(action => drawSegments(ctx, action.segs));
+    };
+
     // Expose methods
     useImperativeHandle(ref, () => ({
         drawSegment: (data) => {
             const ctx = canvasRef.current.getContext('2d');
 
             // 1. Update History
-            if (data.newStroke || !currentRemoteAction.current || currentRemoteAction.current.id !== data.actionId) {
-                // Check limit
-                if (history.current.length >= MAX_HISTORY) {
-                    // Bake the oldest action into mergedCanvas
-                    const oldest = history.current.shift();
-                    const mCtx = mergedCanvasRef.current.getContext('2d');
-                    oldest.segs.forEach(s => drawLine(mCtx, s));
-                }
-
-                currentRemoteAction.current = { id: data.actionId, segs: [] };
-                history.current.push(currentRemoteAction.current);
-            }
-            currentRemoteAction.current.segs.push(data);
+            recordSegment(data);
 
             // 2. Draw direct (interactive)
             drawLine(ctx, data);
         },
+        // Snapshot chunk: record everything, then draw in a single pass of joined paths
+        applySnapshot: (segs) => {
+            if (!segs || segs.length === 0) return;
+            segs.forEach(recordSegment);
+            drawSegments(canvasRef.current.getContext('2d'), segs);
+        },
+        // Server checkpoint (PNG data URL): strokes older than the snapshot, composited under the baked canvas
+        setCheckpoint: (dataUrl) => {
+            if (!dataUrl) return;
+            const gen = canvasGen.current;
+            const img = new Image();
+            img.onload = () => {
+                if (gen !== canvasGen.current || !mergedCanvasRef.current) return;
+                const merged = mergedCanvasRef.current;
+                const tmp = document.createElement('canvas');
+                tmp.width = merged.width;
+                tmp.height = merged.height;
+                const tCtx = tmp.getContext('2d');
+                tCtx.drawImage(img, 0, 0);
+                tCtx.drawImage(merged, 0, 0);
+                const mCtx = merged.getContext('2d');
+                mCtx.clearRect(0, 0, merged.width, merged.height);
+                mCtx.drawImage(tmp, 0, 0);
+                redraw();
+            };
+            img.src = dataUrl;
+        },
         clearCanvas: () => {
+            canvasGen.current++;
             const cvs = canvasRef.current;
             const ctx = cvs.getContext('2d');
             ctx.clearRect(0, 0, cvs.width, cvs.height);
@@ -83,20 +128,7 @@ const GameCanvas = forwardRef(({ isDrawer, onDrawStroke, onClear, onUndo }, ref)
 
             if (!removed) return;
 
-            // Redraw: Merged + History
-            const cvs = canvasRef.current;
-            const ctx = cvs.getContext('2d');
-            ctx.clearRect(0, 0, cvs.width, cvs.height);
-
-            // 1. Draw baked background
-            if (mergedCanvasRef.current) {
-                ctx.drawImage(mergedCanvasRef.current, 0, 0);
-            }
-
-            // 2. Draw active history
-            history.current.forEach(action => {
-                action.segs.forEach(seg => drawLine(ctx, seg));
-            });
+            redraw();
 
             currentRemoteAction.current = history.current.length > 0 ? history.current[history.current.length - 1] : null;
         }
@@ -140,6 +172,39 @@ const GameCanvas = forwardRef(({ isDrawer, onDrawStroke, onClear, onUndo }, ref)
         ctx.restore();
     };
 
+    const sameStyle = (a, b) => a.mode === b.mode && a.color === b.color && a.width === b.width;
+
+    // Draw many segments, joining connected same-style runs into one path (one stroke() per run)
+    const drawSegments = (ctx, segs) => {
+        let i = 0;
+        while (i < segs.length) {
+            const first = segs[i];
+            ctx.save();
+            if (first.mode === 'eraser') {
+                ctx.globalCompositeOperation = 'destination-out';
+                ctx.strokeStyle = 'rgba(0,0,0,1)';
+            } else {
+                ctx.globalCompositeOperation = 'source-over';
+                ctx.strokeStyle = first.color;
+            }
+            ctx.lineWidth = first.width;
+            ctx.lineCap = 'round';
+            ctx.lineJoin = 'round';
+            ctx.beginPath();
+            ctx.moveTo(first.x1, first.y1);
+            ctx.lineTo(first.x2, first.y2);
+            let j = i + 1;
+            while (j < segs.length && sameStyle(segs[j], first)
+                && segs[j].x1 === segs[j - 1].x2 && segs[j].y1 === segs[j - 1].y2) {
+                ctx.lineTo(segs[j].x2, segs[j].y2);
+                j++;
+            }
+            ctx.stroke();
+            ctx.restore();
+            i = j;
+        }
+    };
+
     const startDrawing = (e) => {
         if (!isDrawer) return;
         if (e.type === 'mousedown' && e.button !== 0) return;
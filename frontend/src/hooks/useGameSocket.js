@@ -2,8 +2,19 @@ import { useState, useEffect, useRef, useCallback } from 'react';
 import SockJS from 'sockjs-client';
 import { Client } from '@stomp/stompjs';
 import { backendUrl } from '../lib/backend';
+import { decodeStrokeFrame } from '../lib/strokeCodec';
+import { createUserListState, createScoreboardState, sortRanking } from '../lib/versionedState';
 
-export const useGameSocket = (user, onDraw) => {
+export const DEFAULT_ROOM = 'lobby';
+
+// 'binary' subscribes to the compact draw.bin stream instead of JSON draw segments.
+const DRAW_FORMAT = import.meta.env.VITE_DRAW_FORMAT === 'binary' ? 'binary' : 'json';
+const useBinaryDraw = DRAW_FORMAT === 'binary';
+
+// In binary mode actions are keyed by the server-assigned seq so live, snapshot and undo agree.
+const actionKey = (seg) => (useBinaryDraw && seg.seq != null ? '#' + seg.seq : seg.actionId);
+
+export const useGameSocket = (user, onDraw, roomId = DEFAULT_ROOM) => {
     const [connected, setConnected] = useState(false);
     const [chatMessages, setChatMessages] = useState([]);
     const [users, setUsers] = useState([]); // [{name, role}]
@@ -19,16 +30,12 @@ export const useGameSocket = (user, onDraw) => {
         onDrawRef.current = onDraw;
     }, [onDraw]);
 
-    // Helper to parse "Name (ROLE)" string from backend
-    const parseUserEntry = useCallback((str) => {
-        const m = (str || '').match(/^(.+?)\s+\((ADMIN|DRAWER|PARTICIPANT)\)$/);
-        return m ? { name: m[1], role: m[2] } : { name: str, role: null };
-    }, []);
+    // Versioned user list / scoreboard: full snapshot first, then deltas
+    const userListState = useRef(createUserListState());
+    const scoreboardState = useRef(createScoreboardState());
 
     // Helper to update users and derived roles
-    const updateUsers = useCallback((rawList) => {
-        // Parse the list of strings into objects
-        const userList = (rawList || []).map(parseUserEntry);
+    const updateUsers = useCallback((userList) => {
         setUsers(userList);
 
         const me = userList.find(u => u.name === user?.name);
@@ -38,7 +45,11 @@ export const useGameSocket = (user, onDraw) => {
                 isAdmin: (me.role === 'ADMIN')
             });
         }
-    }, [parseUserEntry, user?.name]);
+    }, [user?.name]);
+
+    // Room-scoped destinations: /topic/room/{id}/... and /app/room/{id}/...
+    const roomTopic = useCallback((suffix) => `/topic/room/${roomId}/${suffix}`, [roomId]);
+    const roomApp = useCallback((suffix) => `/app/room/${roomId}/${suffix}`, [roomId]);
 
     useEffect(() => {
         if (!user?.name) return;
@@ -52,40 +63,58 @@ export const useGameSocket = (user, onDraw) => {
                 // console.log('STOMP Connected');
 
                 // 1. Subscribe to Broadcasts
-                client.subscribe('/topic/chat', (msg) => {
+                client.subscribe(roomTopic('chat'), (msg) => {
                     const data = JSON.parse(msg.body);
                     setChatMessages(prev => [...prev, data]);
                 });
 
-                client.subscribe('/topic/users', (msg) => {
-                    updateUsers(JSON.parse(msg.body));
-                });
-
-                client.subscribe('/topic/scoreboard', (msg) => {
-                    setRanking(JSON.parse(msg.body));
-                });
-
-                client.subscribe('/topic/wordlen', (msg) => {
+                // A missed version means our copy is stale: ask for the full lists again
+                const onUsersUpdate = (msg) => {
+                    const result = userListState.current.apply(JSON.parse(msg.body));
+                    if (result === 'applied') updateUsers(userListState.current.values());
+                    else if (result === 'gap') client.publish({ destination: roomApp('state.resync'), body: '{}' });
+                };
+                const onScoreboardUpdate = (msg) => {
+                    const result = scoreboardState.current.apply(JSON.parse(msg.body));
+                    if (result === 'applied') setRanking(sortRanking(scoreboardState.current.values()));
+                    else if (result === 'gap') client.publish({ destination: roomApp('state.resync'), body: '{}' });
+                };
+
+                userListState.current = createUserListState();
+                scoreboardState.current = createScoreboardState();
+                client.subscribe(roomTopic('users'), onUsersUpdate);
+                client.subscribe('/topic/scoreboard', onScoreboardUpdate);
+
+                client.subscribe(roomTopic('wordlen'), (msg) => {
                     setWordLen(parseInt(msg.body, 10));
                 });
 
-                client.subscribe('/topic/draw', (msg) => {
-                    const drawData = JSON.parse(msg.body);
-                    if (onDrawRef.current) onDrawRef.current(drawData);
-                });
-
-                client.subscribe('/topic/canvas/clear', () => {
+                if (useBinaryDraw) {
+                    client.subscribe(roomTopic('draw.bin'), (msg) => {
+                        const segs = decodeStrokeFrame(msg.body);
+                        if (onDrawRef.current) segs.forEach(seg => onDrawRef.current(seg));
+                    });
+                } else {
+                    client.subscribe(roomTopic('draw'), (msg) => {
+                        // Server coalesces segments into one frame (array); a single object is still accepted.
+                        const drawData = JSON.parse(msg.body);
+                        const segs = Array.isArray(drawData) ? drawData : [drawData];
+                        if (onDrawRef.current) segs.forEach(seg => onDrawRef.current(seg));
+                    });
+                }
+
+                client.subscribe(roomTopic('canvas/clear'), () => {
                     if (onDrawRef.current) onDrawRef.current({ type: 'clear' });
                 });
 
-                client.subscribe('/topic/undo', (msg) => {
-                    const { actionId } = JSON.parse(msg.body);
-                    if (onDrawRef.current) onDrawRef.current({ type: 'undo', actionId });
+                client.subscribe(roomTopic('undo'), (msg) => {
+                    const undo = JSON.parse(msg.body);
+                    if (onDrawRef.current) onDrawRef.current({ type: 'undo', actionId: actionKey(undo) });
                 });
 
                 // 2. Subscribe to User Queue (Private)
-                client.subscribe('/user/queue/users', (msg) => updateUsers(JSON.parse(msg.body)));
-                client.subscribe('/user/queue/scoreboard', (msg) => setRanking(JSON.parse(msg.body)));
+                client.subscribe('/user/queue/users', onUsersUpdate);
+                client.subscribe('/user/queue/scoreboard', onScoreboardUpdate);
                 client.subscribe('/user/queue/word', (msg) => setMySecretWord(msg.body || null));
                 client.subscribe('/user/queue/wordlen', (msg) => setWordLen(parseInt(msg.body, 10)));
 
@@ -93,13 +122,16 @@ export const useGameSocket = (user, onDraw) => {
                     setChatMessages(prev => [...prev, { from: 'SYSTEM', text: msg.body, system: true }]);
                 });
 
-                client.subscribe('/user/queue/draw', (msg) => {
-                    // Snapshot replay
-                    if (onDrawRef.current) onDrawRef.current(JSON.parse(msg.body));
+                client.subscribe('/user/queue/hint', (msg) => {
+                    // Near-miss guess ("close!") — only sent to the guesser
+                    setChatMessages(prev => [...prev, { from: 'SYSTEM', text: msg.body, system: true }]);
                 });
 
-                client.subscribe('/user/queue/canvas/clear', () => {
-                    if (onDrawRef.current) onDrawRef.current({ type: 'clear' });
+                client.subscribe('/user/queue/canvas/snapshot', (msg) => {
+                    // Snapshot: a few large chunks; chunk 0 resets the canvas and may carry a raster checkpoint
+                    const { chunk, chunks, segments, checkpoint } = JSON.parse(msg.body);
+                    const segs = (segments || []).map(seg => ({ ...seg, actionId: actionKey(seg) }));
+                    if (onDrawRef.current) onDrawRef.current({ type: 'snapshot', chunk, chunks, segments: segs, checkpoint });
                 });
 
                 client.subscribe('/user/queue/force-logout', (msg) => {
@@ -108,7 +140,7 @@ export const useGameSocket = (user, onDraw) => {
                 });
 
                 // 3. Request Initial State
-                client.publish({ destination: '/app/state.sync', body: '{}' });
+                client.publish({ destination: roomApp('state.sync'), body: '{}' });
             },
             onStompError: (frame) => {
                 console.error('Broker error:', frame.headers['message']);
@@ -123,13 +155,13 @@ export const useGameSocket = (user, onDraw) => {
                 clientRef.current.deactivate();
             }
         };
-    }, [user?.name, updateUsers]);
+    }, [user?.name, updateUsers, roomTopic, roomApp]);
 
     // Actions
     const sendChat = (text) => {
         if (!clientRef.current || !connected || !user?.name) return;
         clientRef.current.publish({
-            destination: '/app/chat.send',
+            destination: roomApp('chat.send'),
             body: JSON.stringify({ from: user.name, text })
         });
     };
@@ -137,37 +169,37 @@ export const useGameSocket = (user, onDraw) => {
     const sendDraw = (payload) => {
         if (!clientRef.current || !connected) return;
         clientRef.current.publish({
-            destination: '/app/draw.stroke',
+            destination: roomApp('draw.stroke'),
             body: JSON.stringify(payload)
         });
     };
 
     const sendClear = () => {
         if (!clientRef.current || !connected) return;
-        clientRef.current.publish({ destination: '/app/canvas.clear', body: '{}' });
+        clientRef.current.publish({ destination: roomApp('canvas.clear'), body: '{}' });
     };
 
     const sendUndo = () => {
         if (!clientRef.current || !connected) return;
-        clientRef.current.publish({ destination: '/app/draw.undo', body: '{}' });
+        clientRef.current.publish({ destination: roomApp('draw.undo'), body: '{}' });
     };
 
     const setDrawer = (targetName) => {
         if (!clientRef.current || !connected) return;
         clientRef.current.publish({
-            destination: '/app/admin.setDrawer',
+            destination: roomApp('admin.setDrawer'),
             body: JSON.stringify({ name: targetName })
         });
     };
 
     const rerollWord = () => {
         if (!clientRef.current || !connected) return;
-        clientRef.current.publish({ destination: '/app/word.reroll', body: '{}' });
+        clientRef.current.publish({ destination: roomApp('word.reroll'), body: '{}' });
     };
 
     const reqMeDraw = () => {
         if (!clientRef.current || !connected) return;
-        clientRef.current.publish({ destination: '/app/drawer.me', body: '{}' });
+        clientRef.current.publish({ destination: roomApp('drawer.me'), body: '{}' });
     };
 
     return {
@@ -0,0 +1,87 @@
+// Decoder for the compact binary stroke format (server: support/StrokeCodec.java).
+// frame   := VERSION segment*
+// segment := flags [seq] [x1 y1] dx dy [width color]
+// Coordinates/width are fixed-point (1/SCALE px), varints are LEB128, signed ones zigzag.
+
+const VERSION = 1;
+const SCALE = 4;
+
+const F_NEW_STROKE = 1;
+const F_ERASER = 1 << 1;
+const F_SAME_ACTION = 1 << 2;
+const F_CONTINUES = 1 << 3;
+const F_SAME_STYLE = 1 << 4;
+const F_RGB = 1 << 5;
+
+// Must match StrokeCodec.PALETTE order.
+const PALETTE = [
+    '#000000', '#ffffff', '#ff0000', '#00ff00', '#0000ff', '#ffff00', '#ff00ff', '#00ffff',
+    '#808080', '#c0c0c0', '#800000', '#008000', '#000080', '#ffa500', '#a52a2a', '#ffc0cb'
+];
+
+const base64ToBytes = (b64) => {
+    const bin = atob(b64);
+    const bytes = new Uint8Array(bin.length);
+    for (let i = 0; i < bin.length; i++) bytes[i] = bin.charCodeAt(i);
+    return bytes;
+};
+
+// Returns segments shaped like the JSON DrawEvent; actionId is '#<seq>'.
+export const decodeStrokeFrame = (b64) => {
+    const buf = base64ToBytes(b64);
+    if (buf.length === 0 || buf[0] !== VERSION) throw new Error('unsupported stroke frame');
+    let pos = 1;
+
+    const readByte = () => {
+        if (pos >= buf.length) throw new Error('truncated stroke frame');
+        return buf[pos++];
+    };
+    const readUVarint = () => {
+        let result = 0;
+        for (let shift = 0; shift < 35; shift += 7) {
+            const b = readByte();
+            result |= (b & 0x7f) << shift;
+            if ((b & 0x80) === 0) return result >>> 0;
+        }
+        throw new Error('bad varint');
+    };
+    const readSVarint = () => {
+        const v = readUVarint();
+        return (v >>> 1) ^ -(v & 1);
+    };
+
+    const out = [];
+    let seq = 0, px = 0, py = 0, width = 0, color = PALETTE[0];
+    while (pos < buf.length) {
+        const flags = readByte();
+        if (!(flags & F_SAME_ACTION)) seq = readUVarint();
+        let x1 = px, y1 = py;
+        if (!(flags & F_CONTINUES)) {
+            x1 = readSVarint();
+            y1 = readSVarint();
+        }
+        const x2 = x1 + readSVarint();
+        const y2 = y1 + readSVarint();
+        if (!(flags & F_SAME_STYLE)) {
+            width = readUVarint();
+            if (flags & F_RGB) {
+                const rgb = (readByte() << 16) | (readByte() << 8) | readByte();
+                color = '#' + rgb.toString(16).padStart(6, '0');
+            } else {
+                color = PALETTE[readByte()] || PALETTE[0];
+            }
+        }
+        out.push({
+            x1: x1 / SCALE, y1: y1 / SCALE, x2: x2 / SCALE, y2: y2 / SCALE,
+            width: width / SCALE,
+            color,
+            mode: (flags & F_ERASER) ? 'eraser' : 'pen',
+            actionId: '#' + seq,
+            newStroke: !!(flags & F_NEW_STROKE),
+            seq
+        });
+        px = x2;
+        py = y2;
+    }
+    return out;
+};
@@ -0,0 +1,23 @@
+// Cross-checks the decoder against frames produced by the Java encoder (StrokeCodecCompatibilityTest
+// asserts the same golden file on the server side). Run with `npm test`.
+import { test } from 'node:test';
+import assert from 'node:assert/strict';
+import { readFileSync } from 'node:fs';
+import { decodeStrokeFrame } from './strokeCodec.js';
+
+const golden = JSON.parse(readFileSync(
+    new URL('../../../src/test/resources/stroke-codec-golden.json', import.meta.url), 'utf8'));
+
+for (const { name, frame, decoded } of golden) {
+    test(`decodes golden frame: ${name}`, () => {
+        assert.deepEqual(decodeStrokeFrame(frame), decoded);
+    });
+}
+
+test('rejects unknown versions and truncated frames', () => {
+    assert.throws(() => decodeStrokeFrame(''));
+    assert.throws(() => decodeStrokeFrame(btoa('\u0002')));
+    const full = atob(golden.find((c) => c.segments.length === 1).frame);
+    for (let length = 2; length < full.length; length++)
+        assert.throws(() => decodeStrokeFrame(btoa(full.slice(0, length))));
+});
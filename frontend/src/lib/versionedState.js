@@ -0,0 +1,49 @@
+// Client side of the versioned state topics (server: dto/UsersUpdate, dto/ScoreboardUpdate).
+// A full update replaces everything; a delta must carry exactly version + 1, otherwise
+// the caller should request a resync. Deltas that arrive before the first full update are ignored.
+
+export const createVersionedMap = ({ keyOf, fullList, upserts, removals }) => {
+    let version = null;
+    let map = new Map();
+
+    return {
+        // Returns 'applied', 'ignored' or 'gap'
+        apply(update) {
+            if (!update) return 'ignored';
+            if (update.full) {
+                map = new Map((fullList(update) || []).map(item => [keyOf(item), item]));
+                version = update.version;
+                return 'applied';
+            }
+            if (version === null || update.version <= version) return 'ignored';
+            if (update.version !== version + 1) return 'gap';
+
+            (removals(update) || []).forEach(key => map.delete(key));
+            (upserts(update) || []).forEach(item => map.set(keyOf(item), item));
+            version = update.version;
+            return 'applied';
+        },
+        values() {
+            return [...map.values()];
+        },
+    };
+};
+
+export const createUserListState = () => createVersionedMap({
+    keyOf: u => u.name,
+    fullList: u => u.users,
+    upserts: u => [...(u.joined || []), ...(u.changed || [])],
+    removals: u => u.left,
+});
+
+export const createScoreboardState = () => createVersionedMap({
+    keyOf: e => e.name,
+    fullList: u => u.entries,
+    upserts: u => u.changed,
+    removals: u => u.removed,
+});
+
+// Same order as the server leaderboard: score desc, then name
+export const sortRanking = (entries) => entries
+    .filter(e => e.score > 0)
+    .sort((a, b) => (b.score - a.score) || (a.name < b.name ? -1 : a.name > b.name ? 1 : 0));
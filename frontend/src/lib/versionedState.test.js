@@ -0,0 +1,65 @@
+// Versioned user list / scoreboard deltas. The server sends the full state and the deltas of one
+// session in publish order; these tests pin down what the client does when that order is broken.
+// Run with `npm test`.
+import { test } from 'node:test';
+import assert from 'node:assert/strict';
+import { createUserListState, createScoreboardState, sortRanking } from './versionedState.js';
+
+const full = (version, ...names) => ({ full: true, version, users: names.map(name => ({ name, role: 'PARTICIPANT' })) });
+const joined = (version, ...names) => ({ full: false, version, joined: names.map(name => ({ name, role: 'PARTICIPANT' })) });
+const left = (version, ...names) => ({ full: false, version, left: names });
+const namesOf = (state) => state.values().map(u => u.name).sort();
+
+test('applies the full state and then consecutive deltas', () => {
+    const state = createUserListState();
+    assert.equal(state.apply(full(3, 'amy')), 'applied');
+    assert.equal(state.apply(joined(4, 'bob')), 'applied');
+    assert.equal(state.apply(left(5, 'amy')), 'applied');
+    assert.deepEqual(namesOf(state), ['bob']);
+});
+
+test('ignores a delta that arrives before the full state', () => {
+    const state = createUserListState();
+    assert.equal(state.apply(joined(4, 'bob')), 'ignored');
+    assert.deepEqual(state.values(), []);
+
+    // The full state already contains that change
+    assert.equal(state.apply(full(4, 'amy', 'bob')), 'applied');
+    assert.equal(state.apply(joined(4, 'bob')), 'ignored');
+    assert.equal(state.apply(joined(5, 'cat')), 'applied');
+    assert.deepEqual(namesOf(state), ['amy', 'bob', 'cat']);
+});
+
+test('reports a gap when the early delta was newer than the full state', () => {
+    const state = createUserListState();
+    assert.equal(state.apply(joined(4, 'bob')), 'ignored');
+    assert.equal(state.apply(full(3, 'amy')), 'applied');
+
+    // Version 4 was dropped before the full state arrived, so the next delta cannot be applied
+    assert.equal(state.apply(joined(5, 'cat')), 'gap');
+    assert.deepEqual(namesOf(state), ['amy']);
+});
+
+test('reports a gap for two deltas out of order and applies nothing until resynced', () => {
+    const state = createUserListState();
+    state.apply(full(1, 'amy'));
+
+    assert.equal(state.apply(joined(3, 'cat')), 'gap');
+    assert.deepEqual(namesOf(state), ['amy']);
+    assert.equal(state.apply(joined(2, 'bob')), 'applied');
+    assert.deepEqual(namesOf(state), ['amy', 'bob']);
+
+    // The resync answer replaces everything, including the change carried by the skipped delta
+    assert.equal(state.apply(full(3, 'amy', 'bob', 'cat')), 'applied');
+    assert.equal(state.apply(joined(3, 'cat')), 'ignored');
+    assert.deepEqual(namesOf(state), ['amy', 'bob', 'cat']);
+});
+
+test('scoreboard deltas follow the same rules', () => {
+    const state = createScoreboardState();
+    assert.equal(state.apply({ full: false, version: 2, changed: [{ name: 'amy', score: 9 }] }), 'ignored');
+    assert.equal(state.apply({ full: true, version: 1, entries: [{ name: 'amy', score: 1 }, { name: 'bob', score: 2 }] }), 'applied');
+    assert.equal(state.apply({ full: false, version: 3, changed: [{ name: 'amy', score: 3 }] }), 'gap');
+    assert.equal(state.apply({ full: false, version: 2, changed: [{ name: 'amy', score: 3 }], removed: ['bob'] }), 'applied');
+    assert.deepEqual(sortRanking(state.values()), [{ name: 'amy', score: 3 }]);
+});
@@ -1,7 +1,7 @@
 import React, { useEffect, useRef } from 'react';
-import { useNavigate } from 'react-router-dom';
+import { useNavigate, useSearchParams } from 'react-router-dom';
 import { useAuth } from '../context/AuthContext';
-import { useGameSocket } from '../hooks/useGameSocket';
+import { useGameSocket, DEFAULT_ROOM } from '../hooks/useGameSocket';
 
 import GameHeader from '../game/GameHeader';
 import GameCanvas from '../game/GameCanvas';
@@ -14,6 +14,8 @@ import './GamePage.css';
 export default function GamePage() {
     const { user, loading } = useAuth();
     const nav = useNavigate();
+    const [searchParams] = useSearchParams();
+    const roomId = searchParams.get('room') || DEFAULT_ROOM;
     const canvasRef = useRef(null);
 
     // Auth Guard
@@ -29,6 +31,13 @@ export default function GamePage() {
 
         if (data.type === 'clear') {
             canvasRef.current.clearCanvas();
+        } else if (data.type === 'snapshot') {
+            // First chunk replaces the canvas, the rest append
+            if (data.chunk === 0) {
+                canvasRef.current.clearCanvas();
+                if (data.checkpoint) canvasRef.current.setCheckpoint(data.checkpoint);
+            }
+            canvasRef.current.applySnapshot(data.segments);
         } else if (data.type === 'undo') {
             // Undo is handled complexly in legacy (redraw all). 
             // For now, let's trigger a clear and re-fetch logic if possible, 
@@ -62,7 +71,7 @@ export default function GamePage() {
         mySecretWord,
         roleInfo,
         actions
-    } = useGameSocket(user, onRemoteDraw);
+    } = useGameSocket(user, onRemoteDraw, roomId);
 
     if (loading || !user) return <div className="game-loading">로딩 중...</div>;
 
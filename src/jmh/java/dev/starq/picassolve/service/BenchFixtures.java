@@ -0,0 +1,135 @@
+package dev.starq.picassolve.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.starq.picassolve.dto.DrawEvent;
+import dev.starq.picassolve.entity.User;
+import dev.starq.picassolve.entity.Word;
+import dev.starq.picassolve.repository.RoundArchiveRepository;
+import dev.starq.picassolve.repository.UserRepository;
+import dev.starq.picassolve.repository.WordRepository;
+import dev.starq.picassolve.support.BinaryDrawSubscribers;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+/**
+ * 벤치마크용 GameService 조립. DB 저장소는 프록시 스텁, 브로커는 JSON 변환까지만 하고 버리는 채널이다.
+ * 저널/라운드 보관은 끄고, 체크포인트는 굽지 않는다(히스토리는 하드 한도에서 잘린다).
+ */
+final class BenchFixtures {
+
+    static final String DRAWER = "drawer";
+    static final String WORD = "무지개";
+
+    final GameRoomRegistry rooms = new GameRoomRegistry();
+    final ObjectMapper json = new ObjectMapper();
+    final SimpMessagingTemplate broker = broker();
+    final Leaderboard leaderboard;
+    final GameMetrics metrics = new GameMetrics(new SimpleMeterRegistry(), rooms);
+    final RoomCommandLoop replication = new RoomCommandLoop(rooms, broker, metrics, 1);
+    final GameService service;
+
+    BenchFixtures(List<String> players) {
+        UserRepository users = repository(UserRepository.class, Map.of(
+                "findByName", args -> Optional.of(user((String) args[0], 0)),
+                "findAll", args -> IntStream.range(0, 500).mapToObj(i -> user("user" + i, i % 97)).toList(),
+                "updateRoleByName", args -> 1,
+                "incrementScoreByName", args -> 1));
+        WordRepository words = repository(WordRepository.class, Map.of(
+                "findAll", args -> IntStream.range(0, 1_000).mapToObj(i -> new Word((long) i, "단어" + i)).toList()));
+        WordDictionary dictionary = new WordDictionary(words, 20);
+        dictionary.reload();
+        leaderboard = new Leaderboard(users);
+        leaderboard.reload();
+
+        StrokeBroadcaster strokeBroadcaster = new StrokeBroadcaster(broker, new BinaryDrawSubscribers(false), 25, 32);
+        service = new GameService(users, dictionary, leaderboard, new PresenceAggregator(150), broker, rooms,
+                strokeBroadcaster, new NoopCheckpointer(rooms),
+                new InProcessBackplane(new InProcessBackplane.Hub(), "bench"),
+                new GameJournal(false, "build/jmh-journal", 64, 16),
+                new RoundArchiver(repository(RoundArchiveRepository.class, Map.of()), json, false, "build/jmh-rounds",
+                        2_000),
+                metrics, replication);
+
+        service.login(DRAWER);
+        for (String p : players)
+            service.login(p);
+        GameRoom room = room();
+        room.drawerName = DRAWER;
+        room.currentWord = WordDictionary.Entry.of(WORD);
+    }
+
+    /** 방 명령 대기열. 워커 스레드를 만들므로 쓰는 벤치마크에서만 만들고 끝나면 닫는다 */
+    RoomCommandLoop commandLoop(int threads) {
+        return new RoomCommandLoop(rooms, broker, metrics, threads);
+    }
+
+    GameRoom room() {
+        return rooms.getOrCreate(GameRoomRegistry.DEFAULT_ROOM);
+    }
+
+    static DrawEvent segment(String actionId, int i, boolean newStroke) {
+        return DrawEvent.builder()
+                .x1(100 + (i % 400)).y1(200 + (i % 300))
+                .x2(101.5 + (i % 400)).y2(201.25 + (i % 300))
+                .width(4).color("#1e90ff").mode("pen")
+                .actionId(actionId).newStroke(newStroke)
+                .build();
+    }
+
+    static User user(String name, int score) {
+        return User.builder().name(name).password("x").team(score % 2).score(score).build();
+    }
+
+    /** 브로커 대신: 메시지로 변환(직렬화)만 하고 버린다. */
+    static SimpMessagingTemplate broker() {
+        SimpMessagingTemplate template = new SimpMessagingTemplate((message, timeout) -> true);
+        template.setMessageConverter(new MappingJackson2MessageConverter());
+        return template;
+    }
+
+    /** 지정한 메서드만 답하고 나머지는 빈 값(Optional.empty, 빈 목록, 0, false)을 돌려주는 저장소 스텁 */
+    @SuppressWarnings("unchecked")
+    static <T> T repository(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        Map<String, Function<Object[], Object>> copy = new HashMap<>(answers);
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+            Function<Object[], Object> answer = copy.get(method.getName());
+            if (answer != null)
+                return answer.apply(args);
+            if (method.getDeclaringClass() == Object.class)
+                return switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> type.getSimpleName() + "Stub";
+                };
+            Class<?> r = method.getReturnType();
+            if (r == Optional.class)
+                return Optional.empty();
+            if (List.class.isAssignableFrom(r) || r == Iterable.class)
+                return List.of();
+            if (r == boolean.class)
+                return false;
+            if (r == int.class || r == long.class)
+                return r == int.class ? (Object) 0 : (Object) 0L;
+            return null;
+        });
+    }
+
+    /** 체크포인트를 굽지 않는다. (배경 스레드의 PNG 인코딩이 측정에 섞이지 않게) */
+    static final class NoopCheckpointer extends CanvasCheckpointer {
+        NoopCheckpointer(GameRoomRegistry rooms) {
+            super(rooms, 20, 2_000);
+        }
+
+        @Override
+        void request(GameRoom room) {
+        }
+    }
+}
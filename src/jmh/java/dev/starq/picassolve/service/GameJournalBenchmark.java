@@ -0,0 +1,162 @@
+package dev.starq.picassolve.service;
+
+import dev.starq.picassolve.dto.DrawEvent;
+import dev.starq.picassolve.service.GameStateBackplane.RoomState;
+import dev.starq.picassolve.service.GameStateBackplane.RoundChanged;
+import dev.starq.picassolve.service.GameStateBackplane.StrokeAppended;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 게임 저널: 스트로크 한 개 기록 비용(호출 스레드 몫, 여러 방에서 동시에), 저널 스레드까지 포함한 처리량,
+ * 재시작 때 저널을 재생하는 시간.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameJournalBenchmark {
+
+    private static final int REPLAY_RECORDS = 200_000;
+
+    private static DrawEvent[] events() {
+        DrawEvent[] ev = new DrawEvent[1_024];
+        for (int k = 0; k < ev.length; k++) {
+            ev[k] = BenchFixtures.segment("a" + k / 64, k, k % 64 == 0);
+            ev[k].setSeq(k / 64 + 1);
+        }
+        return ev;
+    }
+
+    /** 반복마다 새 디렉터리에 쓰고 지운다. (초당 수백 MB 가 쌓이므로) */
+    @State(Scope.Thread)
+    public static class Writing {
+        final DrawEvent[] ev = events();
+        Path dir;
+        GameJournal journal;
+        int i;
+
+        @Setup(Level.Iteration)
+        public void open() throws IOException {
+            dir = Files.createTempDirectory("jmh-journal");
+            journal = new GameJournal(true, dir.toString(), 64, 16);
+            journal.replay(); // 기록 파일을 연다
+        }
+
+        @TearDown(Level.Iteration)
+        public void close() throws IOException {
+            journal.shutdown();
+            deleteAll(dir);
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void appendStroke(Writing w) {
+        w.journal.append(new StrokeAppended(GameRoomRegistry.DEFAULT_ROOM, w.ev[w.i++ & 1023]));
+    }
+
+    /** 1,024개를 넘기고 저널 스레드가 다 쓸 때까지 기다린다. (지속 처리량, 연산 하나 = 1,024 레코드) */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void appendStrokeBatchWritten(Writing w) throws InterruptedException {
+        for (int k = 0; k < 1_024; k++)
+            w.journal.append(new StrokeAppended(GameRoomRegistry.DEFAULT_ROOM, w.ev[k]));
+        w.journal.awaitWritten();
+    }
+
+    /** 여러 방이 한 저널을 함께 쓴다. 방마다 자기 lock 만 잡으므로 스레드끼리 모니터를 두고 다투지 않아야 한다. */
+    @State(Scope.Benchmark)
+    public static class SharedWriting {
+        final DrawEvent[] ev = events();
+        Path dir;
+        GameJournal journal;
+
+        @Setup(Level.Iteration)
+        public void open() throws IOException {
+            dir = Files.createTempDirectory("jmh-journal");
+            journal = new GameJournal(true, dir.toString(), 64, 16);
+            journal.replay();
+        }
+
+        @TearDown(Level.Iteration)
+        public void close() throws IOException {
+            journal.shutdown();
+            deleteAll(dir);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class RoomOfThread {
+        final GameRoom room = new GameRoom("room-" + System.identityHashCode(this));
+        int i;
+    }
+
+    @Benchmark
+    @Threads(4)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void appendStroke4Rooms(SharedWriting w, RoomOfThread r) {
+        synchronized (r.room.strokes) {
+            w.journal.append(new StrokeAppended(r.room.id, w.ev[r.i++ & 1023]));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Written {
+        Path dir;
+
+        @Setup(Level.Trial)
+        public void write() throws IOException {
+            DrawEvent[] ev = events();
+            dir = Files.createTempDirectory("jmh-journal");
+            GameJournal journal = new GameJournal(true, dir.toString(), 64, 16);
+            journal.replay();
+            journal.append(new RoundChanged(GameRoomRegistry.DEFAULT_ROOM, 1, "bench", "무지개", "drawer"));
+            for (int k = 0; k < REPLAY_RECORDS; k++)
+                journal.append(new StrokeAppended(GameRoomRegistry.DEFAULT_ROOM, ev[k & 1023]));
+            journal.shutdown();
+        }
+
+        @TearDown(Level.Trial)
+        public void delete() throws IOException {
+            deleteAll(dir);
+        }
+    }
+
+    /** 20만 개 기록을 읽어 방 상태로 되살린다. */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<RoomState> replay(Written w) {
+        GameJournal journal = new GameJournal(true, w.dir.toString(), 64, 16);
+        try {
+            return journal.replay();
+        } finally {
+            journal.shutdown();
+        }
+    }
+
+    private static void deleteAll(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : files.sorted(Comparator.reverseOrder()).toList())
+                Files.deleteIfExists(p);
+        }
+    }
+}
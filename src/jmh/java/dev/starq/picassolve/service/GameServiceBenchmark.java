@@ -0,0 +1,207 @@
+package dev.starq.picassolve.service;
+
+import dev.starq.picassolve.dto.DrawEvent;
+import java.security.Principal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * GameService 의 실시간 경로: 스트로크 추가(단독/경합), 히스토리 한도 정리, 캔버스 스냅샷, 채팅 정답 확인,
+ * 그리고 정답 판정기({@link AnswerMatcher}) 단독 비용.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameServiceBenchmark {
+
+    private static final Principal DRAWER = () -> BenchFixtures.DRAWER;
+
+    /* -------------------------------------------------------------------------- */
+    /* addStroke */
+    /* -------------------------------------------------------------------------- */
+
+    @State(Scope.Benchmark)
+    public static class Drawing {
+        BenchFixtures fx;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            fx = new BenchFixtures(List.of());
+        }
+    }
+
+    /** 스레드마다 자기 액션(선)을 이어 그린다. 64개마다 새 선을 시작한다. */
+    @State(Scope.Thread)
+    public static class Pen {
+        String actionId;
+        int i;
+
+        DrawEvent next() {
+            if (i % 64 == 0)
+                actionId = Thread.currentThread().getName() + "-" + i;
+            DrawEvent e = BenchFixtures.segment(actionId, i, i % 64 == 0);
+            i++;
+            return e;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void addStroke(Drawing s, Pen pen) {
+        s.fx.service.addStroke(DRAWER, GameRoomRegistry.DEFAULT_ROOM, pen.next());
+    }
+
+    /** 한 방에 여러 스레드가 동시에 그릴 때 (strokes 모니터/flushLock 경합) */
+    @Benchmark
+    @Threads(4)
+    public void addStrokeContended(Drawing s, Pen pen) {
+        s.fx.service.addStroke(DRAWER, GameRoomRegistry.DEFAULT_ROOM, pen.next());
+    }
+
+    /* -------------------------------------------------------------------------- */
+    /* trimStrokeHistoryLocked */
+    /* -------------------------------------------------------------------------- */
+
+    /**
+     * soft: 1,200 액션 / 40,000 세그먼트(체크포인트 요청만 한다)
+     * hard: 그 두 배(체크포인트가 따라오지 못해 가장 오래된 액션을 버린다)
+     * 매번 액션 하나를 덧붙여 정리한다. soft 는 크기를 유지하도록 덧붙인 액션을 다시 지운다.
+     */
+    @State(Scope.Benchmark)
+    public static class History {
+        @Param({ "soft", "hard" })
+        String cap;
+
+        BenchFixtures fx;
+        GameRoom room;
+        boolean hard;
+        int i;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            fx = new BenchFixtures(List.of());
+            room = fx.room();
+            hard = "hard".equals(cap);
+            int factor = hard ? 2 : 1;
+            int actions = 1_200 * factor;
+            int perAction = 40_000 * factor / actions - 1; // 한도 바로 아래에서 시작
+            synchronized (room.strokes) {
+                for (int a = 0; a < actions; a++)
+                    for (int k = 0; k < perAction; k++)
+                        room.strokes.append(BenchFixtures.segment("seed-" + a, k, k == 0));
+            }
+        }
+    }
+
+    @Benchmark
+    public int trimAtCap(History h) {
+        GameRoom room = h.room;
+        synchronized (room.strokes) {
+            room.strokes.append(BenchFixtures.segment("trim-" + h.i, h.i++, true));
+            h.fx.service.trimStrokeHistoryLocked(room);
+            int size = room.strokes.segmentCount();
+            if (!h.hard)
+                room.strokes.removeLast();
+            return size;
+        }
+    }
+
+    /* -------------------------------------------------------------------------- */
+    /* sendCanvasSnapshotTo */
+    /* -------------------------------------------------------------------------- */
+
+    @State(Scope.Benchmark)
+    public static class Canvas {
+        @Param({ "1000", "10000", "40000" })
+        int segments;
+
+        BenchFixtures fx;
+        GameRoom room;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            fx = new BenchFixtures(List.of("viewer"));
+            room = fx.room();
+            synchronized (room.strokes) {
+                for (int k = 0; k < segments; k++)
+                    room.strokes.append(BenchFixtures.segment("a" + k / 64, k, k % 64 == 0));
+            }
+        }
+    }
+
+    /** 복사 + DrawEvent 변환 + 조각별 JSON 직렬화 */
+    @Benchmark
+    public void canvasSnapshot(Canvas c) {
+        c.fx.service.sendCanvasSnapshotTo(c.room, "viewer", null);
+    }
+
+    /* -------------------------------------------------------------------------- */
+    /* handleChat */
+    /* -------------------------------------------------------------------------- */
+
+    @State(Scope.Benchmark)
+    public static class Chat {
+        BenchFixtures fx;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            fx = new BenchFixtures(List.of("p1", "p2"));
+        }
+    }
+
+    /** 대부분의 채팅: 오답 */
+    @Benchmark
+    public void chatMiss(Chat c) {
+        c.fx.service.handleChat("p1", GameRoomRegistry.DEFAULT_ROOM, "아마 고양이?");
+    }
+
+    /** 정답: 점수 반영, 출제자 교대, 새 라운드 발행까지. 두 참여자가 번갈아 맞힌다. */
+    @Benchmark
+    public void chatCorrectAnswer(Chat c) {
+        GameRoom room = c.fx.room();
+        String from = room.isDrawer("p1") ? "p2" : "p1";
+        c.fx.service.handleChat(from, GameRoomRegistry.DEFAULT_ROOM, room.currentWord.text());
+    }
+
+    /* -------------------------------------------------------------------------- */
+    /* AnswerMatcher */
+    /* -------------------------------------------------------------------------- */
+
+    @State(Scope.Benchmark)
+    public static class Matcher {
+        final AnswerMatcher matcher = AnswerMatcher.compile("고양이 장난감");
+    }
+
+    /** 참가자 오답 한 줄 */
+    @Benchmark
+    public boolean matcherMiss(Matcher m) {
+        return m.matcher.matches("아마 고양이?");
+    }
+
+    /** 출제자의 긴 채팅에서 정답(완성형/자모) 찾기 */
+    @Benchmark
+    public boolean matcherLeakScan(Matcher m) {
+        return m.matcher.leaks("집에서 키우는 동물이 가지고 노는 물건이에요. 힌트는 ㄱㅇㅇ 으로 시작합니다");
+    }
+
+    /** 한 글자 차이 오답의 근접 판정 */
+    @Benchmark
+    public boolean matcherClose(Matcher m) {
+        return m.matcher.isClose("고양이 장난깜");
+    }
+}
@@ -0,0 +1,81 @@
+package dev.starq.picassolve.service;
+
+import dev.starq.picassolve.dto.ScoreBoardEntry;
+import dev.starq.picassolve.entity.ScoreSnapshot.SnapshotPeriod;
+import dev.starq.picassolve.repository.ScoreSnapshotRepository;
+import dev.starq.picassolve.repository.UserRepository;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 기간별 랭킹 조회. 정렬/합산은 DB 쿼리와 월간 롤업으로 내려갔으므로, 저장소 스텁은 DB 가 돌려줄
+ * 정렬된 {@value #USERS}명을 그대로 돌려주고 여기서는 서비스 쪽 비용(결과 크기에 비례)만 잰다.
+ * 500명 기준이며 LIVE 는 메모리 점수판이다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RankingBenchmark {
+
+    private static final int USERS = 500;
+
+    @Param({ "LIVE", "DAILY", "WEEKLY", "MONTHLY" })
+    String period;
+
+    RankingQueryService rankings;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        LocalDate today = LocalDate.now();
+        List<ScoreBoardEntry> daily = ranked(1);
+        List<ScoreBoardEntry> weekly = ranked(7);
+        List<ScoreBoardEntry> monthly = ranked(30);
+
+        ScoreSnapshotRepository snapshots = BenchFixtures.repository(ScoreSnapshotRepository.class, Map.of(
+                "findLatestSnapshotDate", args -> Optional.of(today),
+                "findRanking", args -> switch ((SnapshotPeriod) args[0]) {
+                    case DAILY -> daily;
+                    case WEEKLY -> weekly;
+                    case MONTHLY -> monthly;
+                }));
+        UserRepository users = BenchFixtures.repository(UserRepository.class, Map.of(
+                "findAll", args -> IntStream.range(0, USERS).mapToObj(i -> BenchFixtures.user("user" + i, i % 97))
+                        .toList()));
+        Leaderboard leaderboard = new Leaderboard(users);
+        leaderboard.reload();
+        rankings = new RankingQueryService(snapshots, leaderboard);
+    }
+
+    @Benchmark
+    public List<ScoreBoardEntry> getRanking() {
+        return rankings.getRanking(period);
+    }
+
+    /** DB 가 점수 내림차순으로 돌려주는 전체 목록 */
+    private static List<ScoreBoardEntry> ranked(int days) {
+        List<ScoreBoardEntry> out = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++)
+            out.add(new ScoreBoardEntry("user" + i, i % 2, (USERS - i) * days));
+        return out;
+    }
+}
@@ -0,0 +1,126 @@
+package dev.starq.picassolve.service;
+
+import dev.starq.picassolve.dto.DrawEvent;
+import java.security.Principal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 한 방에 인바운드 스레드 4개가 동시에 명령을 보낼 때: 예전처럼 각 스레드가 lock 을 두고 다투며 직접 실행(locked)하는 경우와
+ * {@link RoomCommandLoop} 대기열에 넣는 경우(queued: 인바운드 스레드가 넣고 바로 돌아감,
+ * roundTrip: 넣은 명령이 끝날 때까지 기다림)의 처리량을 비교한다.
+ * queued 는 대기열이 {@value #BACKLOG}개를 넘으면 생산자가 기다리므로(링이 꽉 찬 Disruptor 와 같은 조건)
+ * 길게 보면 워커 하나의 처리량에 수렴한다.
+ * 기다리는 쪽은 {@code Thread.yield()} 로 양보한다. 코어가 스레드 수보다 적으면 {@code onSpinWait} 로 도는 생산자가
+ * 워커의 CPU 를 빼앗아 대기열 비용이 아니라 굶주림을 재게 된다.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class RoomCommandLoopBenchmark {
+
+    private static final Principal DRAWER = () -> BenchFixtures.DRAWER;
+    private static final String ROOM = GameRoomRegistry.DEFAULT_ROOM;
+    private static final int BACKLOG = 1_024;
+
+    @State(Scope.Benchmark)
+    public static class Room {
+        BenchFixtures fx;
+        RoomCommandLoop loop;
+        GameRoom room;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            fx = new BenchFixtures(List.of("p1", "p2", "p3", "p4"));
+            loop = fx.commandLoop(4);
+            room = fx.room();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws InterruptedException {
+            loop.shutdown();
+        }
+
+        void submitBounded(String user, Runnable action) {
+            while (room.queuedCommands.get() > BACKLOG)
+                Thread.yield();
+            loop.submit(ROOM, user, action);
+        }
+    }
+
+    /** roundTrip 용: 스레드마다 자기 명령이 끝났는지 */
+    @State(Scope.Thread)
+    public static class Waiter {
+        volatile boolean done;
+
+        void await() {
+            while (!done)
+                Thread.yield();
+            done = false;
+        }
+    }
+
+    /* -------------------------------------------------------------------------- */
+    /* 스트로크 (strokes 모니터) */
+    /* -------------------------------------------------------------------------- */
+
+    @Benchmark
+    public void strokeLocked(Room r, GameServiceBenchmark.Pen pen) {
+        r.fx.service.addStroke(DRAWER, ROOM, pen.next());
+    }
+
+    @Benchmark
+    public void strokeQueued(Room r, GameServiceBenchmark.Pen pen) {
+        DrawEvent e = pen.next();
+        r.submitBounded(BenchFixtures.DRAWER, () -> r.fx.service.addStroke(DRAWER, ROOM, e));
+    }
+
+    @Benchmark
+    public void strokeRoundTrip(Room r, GameServiceBenchmark.Pen pen, Waiter w) {
+        DrawEvent e = pen.next();
+        r.loop.submit(ROOM, BenchFixtures.DRAWER, () -> {
+            r.fx.service.addStroke(DRAWER, ROOM, e);
+            w.done = true;
+        });
+        w.await();
+    }
+
+    /* -------------------------------------------------------------------------- */
+    /* 채팅 (방 lock) */
+    /* -------------------------------------------------------------------------- */
+
+    @Benchmark
+    public void chatLocked(Room r) {
+        r.fx.service.handleChat("p1", ROOM, "아마 고양이?");
+    }
+
+    @Benchmark
+    public void chatQueued(Room r) {
+        r.submitBounded("p1", () -> r.fx.service.handleChat("p1", ROOM, "아마 고양이?"));
+    }
+
+    @Benchmark
+    public void chatRoundTrip(Room r, Waiter w) {
+        r.loop.submit(ROOM, "p1", () -> {
+            r.fx.service.handleChat("p1", ROOM, "아마 고양이?");
+            w.done = true;
+        });
+        w.await();
+    }
+}
@@ -0,0 +1,87 @@
+package dev.starq.picassolve.service;
+
+import dev.starq.picassolve.dto.DrawEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 스트로크 히스토리 저장 방식 비교: 열 단위 배열({@link StrokeStore}) vs DrawEvent 목록.
+ * 덧붙이기와, 늦게 들어온 유저에게 보낼 전체 복사(스냅샷)를 잰다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StrokeStoreBenchmark {
+
+    private static final int SEGMENTS = 40_000;
+
+    private final DrawEvent[] events = new DrawEvent[1_024];
+    private StrokeStore store;
+    private List<DrawEvent> list;
+    private StrokeStore fullStore;
+    private List<DrawEvent> fullList;
+    private int i;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        for (int k = 0; k < events.length; k++)
+            events[k] = BenchFixtures.segment("a" + k / 64, k, k % 64 == 0);
+        store = new StrokeStore();
+        list = new ArrayList<>();
+        fullStore = new StrokeStore();
+        fullList = new ArrayList<>();
+        for (int k = 0; k < SEGMENTS; k++) {
+            fullStore.append(events[k & 1023]);
+            fullList.add(events[k & 1023]);
+        }
+    }
+
+    @Benchmark
+    public int appendStrokeStore() {
+        if (store.segmentCount() == SEGMENTS)
+            store.clear();
+        return store.append(events[i++ & 1023]);
+    }
+
+    @Benchmark
+    public boolean appendList() {
+        if (list.size() == SEGMENTS)
+            list.clear();
+        return list.add(events[i++ & 1023]);
+    }
+
+    /** 모니터 안에서 하는 복사만 (변환은 모니터 밖) */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public StrokeStore.Slice copyStrokeStore() {
+        return fullStore.copy(0, fullStore.segmentCount());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<DrawEvent> copyList() {
+        return new ArrayList<>(fullList);
+    }
+
+    /** 복사 + 클라이언트로 보낼 DrawEvent 로 펼치기 */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<DrawEvent> snapshotStrokeStore() {
+        return fullStore.copy(0, fullStore.segmentCount()).toEvents();
+    }
+}
@@ -0,0 +1,62 @@
+package dev.starq.picassolve.support;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.starq.picassolve.dto.DrawEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 드로잉 세그먼트 인코딩: 토픽으로 나가는 JSON(세그먼트 하나 / 묶음 32개)과 draw.bin 바이너리.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DrawEventCodecBenchmark {
+
+    private final ObjectMapper json = new ObjectMapper();
+    private DrawEvent single;
+    private List<DrawEvent> batch;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        batch = new ArrayList<>();
+        for (int i = 0; i < 32; i++)
+            batch.add(DrawEvent.builder()
+                    .x1(100.5 + i).y1(200.25 + i).x2(101.5 + i).y2(201.25 + i)
+                    .width(4).color("#1e90ff").mode("pen")
+                    .actionId("0f8fad5b-d9cb-469f-a165-70867728950e").newStroke(i == 0).seq(17)
+                    .build());
+        single = batch.get(0);
+    }
+
+    @Benchmark
+    public byte[] jsonSingle() throws JsonProcessingException {
+        return json.writeValueAsBytes(single);
+    }
+
+    @Benchmark
+    public byte[] jsonBatch() throws JsonProcessingException {
+        return json.writeValueAsBytes(batch);
+    }
+
+    @Benchmark
+    public String binaryBatch() {
+        return StrokeCodec.encodeBase64(batch);
+    }
+}
@@ -0,0 +1,101 @@
+package dev.starq.picassolve.support;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.starq.picassolve.dto.DrawEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * draw.bin 코덱의 크기와 처리량. 묶음 크기(1 / 기본 묶음 32 / 큰 묶음 1000)와 모양별로
+ * 인코딩·디코딩 처리량을 재고, 세그먼트당 바이트(바이너리/Base64/JSON)는 셋업에서 한 번 출력한다.
+ * <ul>
+ * <li>stroke: 한 액션의 이어진 선, 팔레트 색 (가장 흔한 경우)</li>
+ * <li>scatter: 세그먼트마다 다른 액션·위치·RGB 색 (생략할 필드가 없는 최악의 경우)</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StrokeCodecBenchmark {
+
+    @Param({ "1", "32", "1000" })
+    public int segments;
+
+    @Param({ "stroke", "scatter" })
+    public String shape;
+
+    private final ObjectMapper json = new ObjectMapper();
+    private List<DrawEvent> batch;
+    private byte[] frame;
+    private String frameBase64;
+
+    @Setup(Level.Trial)
+    public void setUp() throws JsonProcessingException {
+        batch = new ArrayList<>(segments);
+        double x = 400, y = 300;
+        for (int i = 0; i < segments; i++) {
+            if (shape.equals("stroke")) {
+                double nx = x + Math.cos(i * 0.1) * 3, ny = y + Math.sin(i * 0.1) * 3;
+                batch.add(DrawEvent.builder()
+                        .x1(x).y1(y).x2(nx).y2(ny)
+                        .width(4).color("#ff0000").mode("pen")
+                        .newStroke(i == 0).seq(1200)
+                        .build());
+                x = nx;
+                y = ny;
+            } else {
+                double sx = (i * 37 % 800) + 0.25, sy = (i * 53 % 600) + 0.5;
+                batch.add(DrawEvent.builder()
+                        .x1(sx).y1(sy).x2(sx + 5.75).y2(sy - 3.25)
+                        .width(1 + i % 16).color(String.format(Locale.ROOT, "#%06x", (i * 2654435761L) & 0xFFFFFF))
+                        .mode(i % 4 == 0 ? "eraser" : "pen")
+                        .newStroke(true).seq(100_000 + i)
+                        .build());
+            }
+        }
+        frame = StrokeCodec.encode(batch);
+        frameBase64 = StrokeCodec.encodeBase64(batch);
+        int jsonBytes = json.writeValueAsBytes(batch).length;
+        System.out.printf(Locale.ROOT, "%n[%s x %d] 세그먼트당 바이너리 %.2fB / Base64 %.2fB / JSON %.1fB%n",
+                shape, segments,
+                (double) frame.length / segments, (double) frameBase64.length() / segments, (double) jsonBytes / segments);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return StrokeCodec.encode(batch);
+    }
+
+    @Benchmark
+    public String encodeBase64() {
+        return StrokeCodec.encodeBase64(batch);
+    }
+
+    @Benchmark
+    public List<DrawEvent> decode() {
+        return StrokeCodec.decode(frame);
+    }
+
+    @Benchmark
+    public byte[] json() throws JsonProcessingException {
+        return json.writeValueAsBytes(batch);
+    }
+}
@@ -0,0 +1,71 @@
+package dev.starq.picassolve.loadtest;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 마이크로초 단위 지연 히스토그램. 2의 거듭제곱 구간마다 32칸(오차 약 3%)으로 나누어,
+ * 수백만 개를 기록해도 메모리가 고정이고 여러 수신 스레드가 동시에 기록할 수 있다.
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BITS = 5;
+    private static final int SUB = 1 << SUB_BITS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(64 * SUB);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    void recordNanos(long nanos) {
+        long us = Math.max(0, nanos / 1_000);
+        counts.incrementAndGet(index(us));
+        total.incrementAndGet();
+        max.accumulateAndGet(us, Math::max);
+    }
+
+    void reset() {
+        for (int i = 0; i < counts.length(); i++)
+            counts.set(i, 0);
+        total.set(0);
+        max.set(0);
+    }
+
+    long count() {
+        return total.get();
+    }
+
+    long maxMicros() {
+        return max.get();
+    }
+
+    /** p(0~1) 분위수의 구간 하한값(µs). 기록이 없으면 0. */
+    long percentileMicros(double p) {
+        long n = total.get();
+        if (n == 0)
+            return 0;
+        long target = Math.max(1, (long) Math.ceil(p * n));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= target)
+                return Math.min(lowerBound(i), max.get());
+        }
+        return max.get();
+    }
+
+    static int index(long v) {
+        if (v < SUB)
+            return (int) v;
+        int exp = 63 - Long.numberOfLeadingZeros(v);
+        int sub = (int) (v >>> (exp - SUB_BITS)) & (SUB - 1);
+        return (exp - SUB_BITS + 1) * SUB + sub;
+    }
+
+    static long lowerBound(int index) {
+        if (index < SUB)
+            return index;
+        int exp = index / SUB + SUB_BITS - 1;
+        int sub = index % SUB;
+        return (1L << exp) + ((long) sub << (exp - SUB_BITS));
+    }
+}
@@ -0,0 +1,225 @@
+package dev.starq.picassolve.loadtest;
+
+import java.io.File;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 헤드리스 부하 발생기. 앱을 h2 프로필로 직접 띄우고(또는 --url 로 떠 있는 서버에 붙고) 시나리오마다
+ * 가상 클라이언트 N명을 접속시켜 그림/채팅을 보낸 뒤, 스트로크 팬아웃 지연 분위수와 끊긴 연결, 서버 CPU/힙을 표로 출력한다.
+ *
+ * <pre>
+ * ./gradlew loadtest -Ploadtest.args="--scenarios=1x8,5x20,20x30 --duration=60"
+ * </pre>
+ *
+ * 옵션: --url, --boot-jar(있으면 서버를 띄움), --scenarios(방수x방당인원, 쉼표 구분), --duration, --warmup(초),
+ * --stroke-rate(출제자당 초당 세그먼트), --chat-rate(참가자당 초당 채팅), --server-jvm-args(공백 구분),
+ * --compare-virtual-threads(서버를 app.ws.virtual-threads=false/true 로 한 번씩 띄워 같은 시나리오를 비교)
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] argv) throws Exception {
+        Map<String, String> args = parse(argv);
+        String url = args.getOrDefault("url", "http://localhost:8099");
+        int duration = Integer.parseInt(args.getOrDefault("duration", "30"));
+        int warmup = Integer.parseInt(args.getOrDefault("warmup", "5"));
+        double strokeRate = Double.parseDouble(args.getOrDefault("stroke-rate", "60"));
+        double chatRate = Double.parseDouble(args.getOrDefault("chat-rate", "0.2"));
+        List<Scenario> scenarios = new ArrayList<>();
+        for (String spec : args.getOrDefault("scenarios", "1x8,5x20,10x30").split(","))
+            scenarios.add(Scenario.parse(spec));
+
+        // 비교 모드: 서버 설정만 바꿔 같은 시나리오를 다시 돌린다 (null 이면 서버 기본값 한 번)
+        List<String> virtualModes = new ArrayList<>();
+        if (args.containsKey("compare-virtual-threads")) {
+            if (!args.containsKey("boot-jar"))
+                throw new IllegalArgumentException("--compare-virtual-threads 는 --boot-jar 로 서버를 띄울 때만 쓸 수 있습니다.");
+            virtualModes.add("false");
+            virtualModes.add("true");
+        } else {
+            virtualModes.add(null);
+        }
+
+        String runId = Long.toString(System.currentTimeMillis() % 1_000_000, 36);
+        List<String> rows = new ArrayList<>();
+        for (int m = 0; m < virtualModes.size(); m++) {
+            String virtual = virtualModes.get(m);
+            List<String> serverArgs = new ArrayList<>();
+            if (virtual != null)
+                serverArgs.add("--app.ws.virtual-threads=" + virtual);
+            Process server = null;
+            if (args.containsKey("boot-jar"))
+                server = startServer(args.get("boot-jar"), url,
+                        args.getOrDefault("server-jvm-args", "-XX:MaxRAM=650m"), serverArgs);
+            try {
+                ServerProbe probe = new ServerProbe(url);
+                probe.awaitHealthy(Duration.ofSeconds(120));
+                String suffix = virtual == null ? "" : ("true".equals(virtual) ? "/vt" : "/pt");
+                for (int i = 0; i < scenarios.size(); i++) {
+                    Scenario s = scenarios.get(i);
+                    System.out.printf("[부하] 시나리오 %s%s: %d명 접속 중...%n", s.label, suffix, s.totalClients());
+                    String prefix = "lt" + runId + "m" + m + "s" + i;
+                    rows.add(run(url, probe, s, s.label + suffix, prefix, duration, warmup, strokeRate, chatRate));
+                    Thread.sleep(3_000); // 앞 시나리오의 로그아웃/정리가 끝나도록
+                }
+            } finally {
+                if (server != null) {
+                    server.destroy();
+                    server.waitFor(20, TimeUnit.SECONDS);
+                }
+            }
+        }
+
+        System.out.println();
+        System.out.println(header());
+        rows.forEach(System.out::println);
+    }
+
+    /* -------------------------------------------------------------------------- */
+    /* 시나리오 */
+    /* -------------------------------------------------------------------------- */
+
+    private static String run(String url, ServerProbe probe, Scenario s, String label, String prefix, int duration,
+            int warmup, double strokeRate, double chatRate) throws Exception {
+        List<SimClient> clients = new ArrayList<>();
+        List<SimClient> drawers = new ArrayList<>();
+        ExecutorService connector = Executors.newFixedThreadPool(16);
+        ScheduledExecutorService timer = Executors.newScheduledThreadPool(
+                Math.max(2, Runtime.getRuntime().availableProcessors() / 2), r -> {
+                    Thread t = new Thread(r, "loadtest-timer");
+                    t.setDaemon(true);
+                    return t;
+                });
+        try {
+            List<Future<Boolean>> joins = new ArrayList<>();
+            for (int r = 0; r < s.rooms; r++) {
+                String roomId = prefix + "r" + r;
+                for (int c = 0; c < s.clientsPerRoom; c++) {
+                    SimClient client = new SimClient(url, s, roomId, roomId + "c" + c, c == 0);
+                    clients.add(client);
+                    if (c == 0)
+                        drawers.add(client);
+                    joins.add(connector.submit(client::connect));
+                }
+            }
+            for (Future<Boolean> join : joins) {
+                if (!join.get())
+                    s.connectFailures.incrementAndGet();
+            }
+            for (SimClient drawer : drawers) {
+                if (!drawer.becomeDrawer())
+                    System.out.println("[부하] 출제자 지정 실패 (제시어를 받지 못함)");
+            }
+
+            for (SimClient client : clients)
+                client.start(timer, strokeRate, chatRate);
+            ScheduledFuture<?> sweep = timer.scheduleAtFixedRate(() -> s.expireStrokes(TimeUnit.SECONDS.toNanos(30)),
+                    10, 10, TimeUnit.SECONDS);
+            Thread.sleep(TimeUnit.SECONDS.toMillis(warmup));
+
+            ServerProbe.Usage usage = new ServerProbe.Usage();
+            ScheduledFuture<?> sampling = probe.sample(usage);
+            s.startMeasuring();
+            Thread.sleep(TimeUnit.SECONDS.toMillis(duration));
+            clients.forEach(SimClient::stop);
+            Thread.sleep(1_000); // 이미 보낸 세그먼트가 도착하도록
+            s.measuring = false;
+            sampling.cancel(false);
+            sweep.cancel(false);
+
+            return row(s, label, usage, duration);
+        } finally {
+            clients.forEach(SimClient::disconnect);
+            connector.shutdownNow();
+            timer.shutdownNow();
+        }
+    }
+
+    /* -------------------------------------------------------------------------- */
+    /* 출력 */
+    /* -------------------------------------------------------------------------- */
+
+    private static String header() {
+        return String.format("%-10s %6s %9s %11s %8s %8s %8s %8s %7s %7s %6s %7s %7s %8s",
+                "scenario", "users", "seg/s", "fanout/s", "p50ms", "p99ms", "p999ms", "maxms", "recv%",
+                "dropped", "fail", "cpu%", "cpuMax", "heapMB");
+    }
+
+    private static String row(Scenario s, String label, ServerProbe.Usage usage, int duration) {
+        LatencyHistogram h = s.latency;
+        // 방마다 출제자 1명이 보내고 같은 방의 모두(출제자 포함)가 받는다
+        long expected = s.segmentsSent.get() * s.clientsPerRoom;
+        double recv = expected == 0 ? 0 : 100.0 * h.count() / expected;
+        return String.format("%-10s %6d %9.0f %11.0f %8.2f %8.2f %8.2f %8.2f %7.1f %7d %6d %7.1f %7.1f %8d",
+                label, s.connected.get(),
+                (double) s.segmentsSent.get() / duration,
+                (double) h.count() / duration,
+                h.percentileMicros(0.50) / 1000.0,
+                h.percentileMicros(0.99) / 1000.0,
+                h.percentileMicros(0.999) / 1000.0,
+                h.maxMicros() / 1000.0,
+                recv,
+                s.dropped.get(),
+                s.connectFailures.get(),
+                usage.cpuAvg() * 100,
+                usage.cpuMax() * 100,
+                usage.heapMaxBytes() / (1024 * 1024));
+    }
+
+    /* -------------------------------------------------------------------------- */
+    /* Helpers */
+    /* -------------------------------------------------------------------------- */
+
+    private static Process startServer(String bootJar, String url, String jvmArgs, List<String> appArgs)
+            throws Exception {
+        int port = URI.create(url).getPort();
+        Path log = Path.of("build", "loadtest", "server.log");
+        Files.createDirectories(log.getParent());
+        List<String> cmd = new ArrayList<>();
+        cmd.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        for (String a : jvmArgs.trim().split("\\s+"))
+            if (!a.isEmpty())
+                cmd.add(a);
+        cmd.add("-jar");
+        cmd.add(bootJar);
+        cmd.add("--spring.profiles.active=h2");
+        cmd.add("--server.port=" + (port > 0 ? port : 8099));
+        cmd.addAll(appArgs);
+        System.out.printf("[부하] 서버 시작: %s (로그: %s)%n", String.join(" ", cmd), log);
+        Process p = new ProcessBuilder(cmd)
+                .redirectErrorStream(true)
+                // 비교 모드에서 두 번 띄워도 이어서 남는다
+                .redirectOutput(ProcessBuilder.Redirect.appendTo(log.toFile()))
+                .start();
+        Runtime.getRuntime().addShutdownHook(new Thread(p::destroy));
+        return p;
+    }
+
+    private static Map<String, String> parse(String[] argv) {
+        Map<String, String> args = new HashMap<>();
+        for (String a : argv) {
+            if (!a.startsWith("--"))
+                throw new IllegalArgumentException("알 수 없는 인자: " + a);
+            int eq = a.indexOf('=');
+            args.put(eq < 0 ? a.substring(2) : a.substring(2, eq), eq < 0 ? "true" : a.substring(eq + 1));
+        }
+        if (args.containsKey("boot-jar") && !new File(args.get("boot-jar")).isFile())
+            throw new IllegalArgumentException("boot jar 가 없습니다: " + args.get("boot-jar"));
+        return args;
+    }
+}
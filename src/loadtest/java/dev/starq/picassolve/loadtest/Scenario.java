@@ -0,0 +1,101 @@
+package dev.starq.picassolve.loadtest;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 시나리오 하나(방 수 × 방당 인원)의 설정과, 모든 가상 클라이언트가 함께 쓰는 측정값.
+ * 세그먼트를 보낸 시각은 {@link #strokes} 에 두고, 받은 쪽이 같은 JVM 의 nanoTime 으로 지연을 계산한다.
+ */
+final class Scenario {
+
+    /** 스트로크 하나를 이루는 세그먼트 수. x 좌표가 {@link #STEP} 씩 늘어나므로 x2 로 몇 번째인지 알 수 있다. */
+    static final int SEGMENTS_PER_STROKE = 30;
+    static final double STEP = 3;
+
+    /** 보낸 스트로크 하나: 세그먼트별 송신 시각 */
+    static final class Stroke {
+        final double x0;
+        final long createdNanos = System.nanoTime();
+        final AtomicLongArray sentNanos = new AtomicLongArray(SEGMENTS_PER_STROKE);
+
+        Stroke(double x0) {
+            this.x0 = x0;
+        }
+    }
+
+    final String label;
+    final int rooms;
+    final int clientsPerRoom;
+
+    final LatencyHistogram latency = new LatencyHistogram();
+    final Map<String, Stroke> strokes = new ConcurrentHashMap<>();
+    final AtomicLong segmentsSent = new AtomicLong();
+    final AtomicLong framesReceived = new AtomicLong();
+    final AtomicLong chatsSent = new AtomicLong();
+    final AtomicInteger connected = new AtomicInteger();
+    final AtomicInteger connectFailures = new AtomicInteger();
+    final AtomicInteger dropped = new AtomicInteger();
+    final AtomicInteger serverErrors = new AtomicInteger();
+
+    /** 로그인하면 먼저 로비(최대 30명)에 들어가므로, 방으로 옮겨 갈 때까지 동시에 입장하는 인원을 제한한다 */
+    final Semaphore onboarding = new Semaphore(8);
+
+    /** 워밍업이 끝난 뒤에만 지연과 카운터를 기록한다 */
+    volatile boolean measuring;
+
+    Scenario(String label, int rooms, int clientsPerRoom) {
+        this.label = label;
+        this.rooms = rooms;
+        this.clientsPerRoom = clientsPerRoom;
+    }
+
+    /** "5x8" → 방 5개 × 방당 8명 */
+    static Scenario parse(String spec) {
+        String[] parts = spec.trim().toLowerCase().split("x");
+        if (parts.length != 2)
+            throw new IllegalArgumentException("시나리오는 '방수x방당인원' 형식이어야 합니다: " + spec);
+        int rooms = Integer.parseInt(parts[0]);
+        int clients = Integer.parseInt(parts[1]);
+        if (rooms < 1 || clients < 2 || clients > 30)
+            throw new IllegalArgumentException("방은 1개 이상, 방당 인원은 2~30명이어야 합니다: " + spec);
+        return new Scenario(spec.trim(), rooms, clients);
+    }
+
+    int totalClients() {
+        return rooms * clientsPerRoom;
+    }
+
+    void startMeasuring() {
+        latency.reset();
+        segmentsSent.set(0);
+        framesReceived.set(0);
+        chatsSent.set(0);
+        measuring = true;
+    }
+
+    /** 수신 쪽: 세그먼트 하나의 지연을 기록한다 */
+    void received(String actionId, double x2, long nowNanos) {
+        if (!measuring || actionId == null)
+            return;
+        Stroke s = strokes.get(actionId);
+        if (s == null)
+            return;
+        int k = (int) Math.round((x2 - s.x0) / STEP) - 1;
+        if (k < 0 || k >= SEGMENTS_PER_STROKE)
+            return;
+        long sent = s.sentNanos.get(k);
+        if (sent != 0)
+            latency.recordNanos(nowNanos - sent);
+    }
+
+    /** 오래된 스트로크의 송신 기록을 버린다. (이후 도착분은 측정하지 않는다) */
+    void expireStrokes(long olderThanNanos) {
+        long cutoff = System.nanoTime() - olderThanNanos;
+        strokes.values().removeIf(s -> s.createdNanos < cutoff);
+    }
+}
@@ -0,0 +1,109 @@
+package dev.starq.picassolve.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 서버 상태 확인: /actuator/health 로 기동을 기다리고, 시나리오 동안 /actuator/prometheus 에서
+ * CPU 사용률(process_cpu_usage)과 힙 사용량(jvm_memory_used_bytes{area="heap"})을 1초마다 읽는다.
+ */
+final class ServerProbe {
+
+    /** 한 시나리오 동안 모은 서버 자원 사용량 */
+    static final class Usage {
+        private double cpuSum;
+        private double cpuMax;
+        private long heapMax;
+        private int samples;
+
+        synchronized void add(double cpu, long heap) {
+            cpuSum += cpu;
+            cpuMax = Math.max(cpuMax, cpu);
+            heapMax = Math.max(heapMax, heap);
+            samples++;
+        }
+
+        synchronized double cpuAvg() {
+            return samples == 0 ? Double.NaN : cpuSum / samples;
+        }
+
+        synchronized double cpuMax() {
+            return samples == 0 ? Double.NaN : cpuMax;
+        }
+
+        synchronized long heapMaxBytes() {
+            return heapMax;
+        }
+    }
+
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+    private final String baseUrl;
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "server-probe");
+        t.setDaemon(true);
+        return t;
+    });
+
+    ServerProbe(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    void awaitHealthy(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                HttpResponse<String> res = get("/actuator/health");
+                if (res.statusCode() == 200 && res.body().contains("\"UP\""))
+                    return;
+            } catch (IOException ignored) {
+                // 아직 뜨는 중
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException("서버가 " + timeout.toSeconds() + "초 안에 뜨지 않았습니다: " + baseUrl);
+    }
+
+    /** 측정을 시작한다. 돌려받은 future 를 취소하면 멈춘다. */
+    ScheduledFuture<?> sample(Usage usage) {
+        return timer.scheduleAtFixedRate(() -> {
+            try {
+                scrape(usage);
+            } catch (IOException | InterruptedException ex) {
+                // 한 번 빠져도 다음 표본으로 충분하다
+            }
+        }, 0, 1, TimeUnit.SECONDS);
+    }
+
+    private void scrape(Usage usage) throws IOException, InterruptedException {
+        HttpResponse<String> res = get("/actuator/prometheus");
+        if (res.statusCode() != 200)
+            return;
+        double cpu = Double.NaN;
+        long heap = 0;
+        for (String line : res.body().split("\n")) {
+            if (line.startsWith("process_cpu_usage"))
+                cpu = value(line);
+            else if (line.startsWith("jvm_memory_used_bytes") && line.contains("area=\"heap\""))
+                heap += (long) value(line);
+        }
+        if (!Double.isNaN(cpu))
+            usage.add(cpu, heap);
+    }
+
+    private static double value(String line) {
+        return Double.parseDouble(line.substring(line.lastIndexOf(' ') + 1));
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        return http.send(HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(5)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,294 @@
+package dev.starq.picassolve.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.websocket.ContainerProvider;
+import jakarta.websocket.WebSocketContainer;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.springframework.messaging.converter.ByteArrayMessageConverter;
+import org.springframework.messaging.converter.CompositeMessageConverter;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.stomp.ConnectionLostException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+/**
+ * 브라우저 한 명을 흉내 내는 가상 클라이언트.
+ * 폼 로그인으로 세션 쿠키를 받고, SockJS/STOMP 로 붙어 useGameSocket.js 와 같은 목적지를 구독한 뒤
+ * state.sync 로 방에 들어간다. 출제자는 일정한 속도로 세그먼트를 보내고, 나머지는 가끔 채팅을 친다.
+ */
+final class SimClient {
+
+    private static final String PASSWORD = "loadtest";
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final HttpClient HTTP = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+    private static final WebSocketStompClient STOMP = stompClient();
+
+    private final String baseUrl;
+    private final Scenario scenario;
+    private final String roomId;
+    private final String name;
+    private final boolean drawer;
+
+    private volatile StompSession session;
+    private volatile boolean closing;
+    private volatile ScheduledFuture<?> task;
+    private final CountDownLatch inRoom = new CountDownLatch(1);
+    private final CountDownLatch gotWord = new CountDownLatch(1);
+    private int strokeNo;
+    private int segmentNo;
+    private Scenario.Stroke stroke;
+    private String actionId;
+    private double y;
+
+    SimClient(String baseUrl, Scenario scenario, String roomId, String name, boolean drawer) {
+        this.baseUrl = baseUrl;
+        this.scenario = scenario;
+        this.roomId = roomId;
+        this.name = name;
+        this.drawer = drawer;
+    }
+
+    /* -------------------------------------------------------------------------- */
+    /* 접속 */
+    /* -------------------------------------------------------------------------- */
+
+    /** 가입 → 로그인 → STOMP 연결 → 구독 → 방 입장. 실패하면 false. */
+    boolean connect() throws InterruptedException {
+        scenario.onboarding.acquire();
+        try {
+            String cookie = login();
+            if (cookie == null)
+                return false;
+
+            WebSocketHttpHeaders headers = new WebSocketHttpHeaders();
+            headers.add("Cookie", cookie);
+            session = STOMP.connectAsync(baseUrl + "/ws", headers, new Handler()).get(15, TimeUnit.SECONDS);
+            subscribe();
+            send("state.sync", Map.of());
+            if (!inRoom.await(15, TimeUnit.SECONDS))
+                return false;
+            scenario.connected.incrementAndGet();
+            return true;
+        } catch (Exception ex) {
+            if (ex instanceof InterruptedException ie)
+                throw ie;
+            return false;
+        } finally {
+            scenario.onboarding.release();
+        }
+    }
+
+    private String login() throws IOException, InterruptedException {
+        // 이미 있는 이름이면 가입은 실패하지만 상관없다
+        HTTP.send(form("/register", Map.of("name", name, "password", PASSWORD, "team", "1")),
+                HttpResponse.BodyHandlers.discarding());
+        HttpResponse<Void> res = HTTP.send(form("/login", Map.of("name", name, "password", PASSWORD)),
+                HttpResponse.BodyHandlers.discarding());
+        if (res.statusCode() != 200) // 302 는 비밀번호 오류 또는 로비 정원 초과
+            return null;
+        return res.headers().allValues("Set-Cookie").stream()
+                .filter(c -> c.startsWith("JSESSIONID="))
+                .map(c -> c.split(";", 2)[0])
+                .findFirst()
+                .orElse(null);
+    }
+
+    private HttpRequest form(String path, Map<String, String> fields) {
+        StringBuilder body = new StringBuilder();
+        fields.forEach((k, v) -> {
+            if (body.length() > 0)
+                body.append('&');
+            body.append(k).append('=').append(URLEncoder.encode(v, StandardCharsets.UTF_8));
+        });
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(10))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .header("Accept", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+    }
+
+    private void subscribe() {
+        String topic = "/topic/room/" + roomId + "/";
+        session.subscribe(topic + "draw", frames(this::onDraw));
+        for (String d : List.of(topic + "chat", topic + "users", topic + "wordlen", topic + "canvas/clear",
+                topic + "undo", "/topic/scoreboard", "/user/queue/users", "/user/queue/scoreboard",
+                "/user/queue/wordlen", "/user/queue/force-logout"))
+            session.subscribe(d, frames(body -> {
+            }));
+        session.subscribe("/user/queue/word", frames(body -> gotWord.countDown()));
+        session.subscribe("/user/queue/canvas/snapshot", frames(body -> inRoom.countDown()));
+        session.subscribe("/user/queue/errors", frames(body -> scenario.serverErrors.incrementAndGet()));
+    }
+
+    /** 방마다 첫 번째 클라이언트가 출제자가 된다. 제시어를 받으면 true. */
+    boolean becomeDrawer() throws InterruptedException {
+        send("drawer.me", Map.of());
+        return gotWord.await(10, TimeUnit.SECONDS);
+    }
+
+    /* -------------------------------------------------------------------------- */
+    /* 부하 */
+    /* -------------------------------------------------------------------------- */
+
+    /** 출제자는 초당 strokeRate 개 세그먼트를, 나머지는 평균 초당 chatRate 번 채팅을 보낸다. */
+    void start(ScheduledExecutorService timer, double strokeRate, double chatRate) {
+        if (drawer) {
+            long periodNs = (long) (1_000_000_000L / strokeRate);
+            task = timer.scheduleAtFixedRate(this::drawNext, ThreadLocalRandom.current().nextLong(periodNs),
+                    periodNs, TimeUnit.NANOSECONDS);
+        } else if (chatRate > 0) {
+            long periodNs = (long) (1_000_000_000L / chatRate);
+            task = timer.scheduleAtFixedRate(() -> {
+                // 고정 주기에 난수를 섞어 모든 클라이언트가 한꺼번에 보내지 않게 한다
+                if (ThreadLocalRandom.current().nextInt(4) == 0) {
+                    send("chat.send", Map.of("text", "loadtest " + ThreadLocalRandom.current().nextInt(1_000_000)));
+                    if (scenario.measuring)
+                        scenario.chatsSent.incrementAndGet();
+                }
+            }, ThreadLocalRandom.current().nextLong(periodNs / 4 + 1), periodNs / 4 + 1, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void drawNext() {
+        if (segmentNo == 0 || segmentNo == Scenario.SEGMENTS_PER_STROKE) {
+            segmentNo = 0;
+            actionId = name + "-" + (++strokeNo);
+            stroke = new Scenario.Stroke(20 + ThreadLocalRandom.current().nextInt(600));
+            y = 20 + ThreadLocalRandom.current().nextInt(500);
+            scenario.strokes.put(actionId, stroke);
+        }
+        int i = segmentNo++;
+        double x1 = stroke.x0 + i * Scenario.STEP;
+        Map<String, Object> seg = Map.of(
+                "x1", x1, "y1", y, "x2", x1 + Scenario.STEP, "y2", y,
+                "width", 4, "color", "#222222", "mode", "draw",
+                "actionId", actionId, "newStroke", i == 0);
+        stroke.sentNanos.set(i, System.nanoTime());
+        send("draw.stroke", seg);
+        if (scenario.measuring)
+            scenario.segmentsSent.incrementAndGet();
+    }
+
+    private void onDraw(byte[] body) {
+        long now = System.nanoTime();
+        if (!scenario.measuring)
+            return;
+        scenario.framesReceived.incrementAndGet();
+        try {
+            JsonNode node = JSON.readTree(body);
+            if (node.isArray()) {
+                for (JsonNode seg : node)
+                    scenario.received(seg.path("actionId").asText(null), seg.path("x2").asDouble(), now);
+            } else {
+                scenario.received(node.path("actionId").asText(null), node.path("x2").asDouble(), now);
+            }
+        } catch (IOException ex) {
+            scenario.serverErrors.incrementAndGet();
+        }
+    }
+
+    void stop() {
+        ScheduledFuture<?> t = task;
+        if (t != null)
+            t.cancel(false);
+    }
+
+    void disconnect() {
+        closing = true;
+        stop();
+        StompSession s = session;
+        if (s != null && s.isConnected())
+            s.disconnect();
+    }
+
+    /* -------------------------------------------------------------------------- */
+    /* Helpers */
+    /* -------------------------------------------------------------------------- */
+
+    private void send(String action, Object payload) {
+        StompSession s = session;
+        if (s == null || !s.isConnected())
+            return;
+        try {
+            s.send("/app/room/" + roomId + "/" + action, payload);
+        } catch (RuntimeException ex) {
+            // 끊긴 세션은 Handler 가 집계한다
+        }
+    }
+
+    private interface BodyHandler {
+        void handle(byte[] body);
+    }
+
+    private static StompFrameHandler frames(BodyHandler handler) {
+        return new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return byte[].class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                handler.handle((byte[]) payload);
+            }
+        };
+    }
+
+    private final class Handler extends StompSessionHandlerAdapter {
+        @Override
+        public void handleException(StompSession s, StompCommand command, StompHeaders headers, byte[] payload,
+                Throwable ex) {
+            scenario.serverErrors.incrementAndGet();
+        }
+
+        @Override
+        public void handleTransportError(StompSession s, Throwable ex) {
+            if (!closing && ex instanceof ConnectionLostException)
+                scenario.dropped.incrementAndGet();
+        }
+    }
+
+    private static WebSocketStompClient stompClient() {
+        // 캔버스 스냅샷 조각은 Tomcat 클라이언트 기본 버퍼(8KB)보다 크다
+        WebSocketContainer container = ContainerProvider.getWebSocketContainer();
+        container.setDefaultMaxTextMessageBufferSize(4 * 1024 * 1024);
+        SockJsClient sockJs = new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient(container))));
+        WebSocketStompClient client = new WebSocketStompClient(sockJs);
+        client.setInboundMessageSizeLimit(16 * 1024 * 1024);
+        // 받은 본문은 byte[] 그대로 받아 필요한 것만 파싱하고, 보낼 때는 JSON 으로 직렬화한다
+        ByteArrayMessageConverter bytes = new ByteArrayMessageConverter();
+        bytes.setContentTypeResolver(null);
+        client.setMessageConverter(new CompositeMessageConverter(
+                List.of(bytes, new StringMessageConverter(), new MappingJackson2MessageConverter())));
+        return client;
+    }
+}
@@ -0,0 +1,43 @@
+package dev.starq.picassolve.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.starq.picassolve.service.GameStateBackplane;
+import dev.starq.picassolve.service.InProcessBackplane;
+import dev.starq.picassolve.service.UnixSocketBackplane;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 게임 상태 백플레인 선택. 기본(local)은 단일 노드, unix 는 같은 머신의 여러 노드를 공유 디렉터리로 묶는다.
+ */
+@Configuration
+public class BackplaneConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.backplane.mode", havingValue = "local", matchIfMissing = true)
+    public GameStateBackplane inProcessBackplane(@Value("${app.backplane.node-id:}") String nodeId) {
+        return new InProcessBackplane(new InProcessBackplane.Hub(), resolveNodeId(nodeId));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.backplane.mode", havingValue = "unix")
+    public GameStateBackplane unixSocketBackplane(ObjectMapper objectMapper,
+            @Value("${app.backplane.dir:${java.io.tmpdir}/picassolve-backplane}") String dir,
+            @Value("${app.backplane.node-id:}") String nodeId,
+            @Value("${app.backplane.outbox-capacity:65536}") int outboxCapacity) throws IOException {
+        return new UnixSocketBackplane(objectMapper, Path.of(dir), resolveNodeId(nodeId), outboxCapacity);
+    }
+
+    /** 지정하지 않으면 PID 와 난수로 만든다. (컨테이너마다 PID 가 1일 수 있으므로 난수를 붙인다) */
+    private static String resolveNodeId(String configured) {
+        if (configured != null && !configured.isBlank())
+            return configured.strip();
+        return "node-" + ProcessHandle.current().pid() + "-"
+                + Integer.toHexString(ThreadLocalRandom.current().nextInt(0x10000));
+    }
+}
@@ -0,0 +1,83 @@
+package dev.starq.picassolve.config;
+
+import dev.starq.picassolve.service.GameMetrics;
+import java.util.ArrayDeque;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.annotation.support.SimpAnnotationMethodMessageHandler;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+
+/**
+ * STOMP 채널 지표.
+ * <ul>
+ * <li>clientInboundChannel: @MessageMapping 메서드 처리 시간 (다른 핸들러(브로커 등)를 거치는 것은 세지 않는다)</li>
+ * <li>brokerChannel: 브로커로 보내는 시간. simple broker 는 보내는 스레드에서 구독자 큐까지 팬아웃하므로
+ * 목적지별 브로드캐스트 비용이 된다. 유저 목적지는 풀린 뒤 같은 채널로 다시 보내지므로 스택으로 잰다.</li>
+ * </ul>
+ */
+public class MessageMetricsInterceptor implements ExecutorChannelInterceptor {
+
+    private final GameMetrics metrics;
+    private final boolean brokerChannel;
+    private final ThreadLocal<Long> handleStart = new ThreadLocal<>();
+    private final ThreadLocal<ArrayDeque<Long>> sendStart = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private MessageMetricsInterceptor(GameMetrics metrics, boolean brokerChannel) {
+        this.metrics = metrics;
+        this.brokerChannel = brokerChannel;
+    }
+
+    public static MessageMetricsInterceptor forInbound(GameMetrics metrics) {
+        return new MessageMetricsInterceptor(metrics, false);
+    }
+
+    public static MessageMetricsInterceptor forBroker(GameMetrics metrics) {
+        return new MessageMetricsInterceptor(metrics, true);
+    }
+
+    /* -------------------------------------------------------------------------- */
+    /* brokerChannel (보내는 쪽) */
+    /* -------------------------------------------------------------------------- */
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        if (brokerChannel)
+            sendStart.get().push(System.nanoTime());
+        return message;
+    }
+
+    @Override
+    public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+        if (!brokerChannel)
+            return;
+        Long started = sendStart.get().poll();
+        if (started != null)
+            metrics.broadcast(SimpMessageHeaderAccessor.getDestination(message.getHeaders()),
+                    System.nanoTime() - started);
+    }
+
+    /* -------------------------------------------------------------------------- */
+    /* clientInboundChannel (처리하는 쪽) */
+    /* -------------------------------------------------------------------------- */
+
+    @Override
+    public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
+        if (!brokerChannel && handler instanceof SimpAnnotationMethodMessageHandler)
+            handleStart.set(System.nanoTime());
+        return message;
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler,
+            Exception ex) {
+        if (brokerChannel || !(handler instanceof SimpAnnotationMethodMessageHandler))
+            return;
+        Long started = handleStart.get();
+        handleStart.remove();
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (started != null && destination != null && destination.startsWith("/app/"))
+            metrics.inbound(destination, System.nanoTime() - started);
+    }
+}
@@ -6,7 +6,10 @@ import dev.starq.picassolve.repository.ScoreSnapshotRepository;
 import dev.starq.picassolve.repository.UserRepository;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
@@ -55,6 +58,10 @@ public class RankingBatchConfig {
                     LocalDate today = LocalDate.now(KST);
                     log.info("[배치] 일간 스코어 스냅샷 시작 (날짜: {})", today);
 
+                    // 같은 날 다시 돌면 월간 롤업에서 앞서 더한 점수를 빼야 한다
+                    Map<UUID, Integer> previous = new HashMap<>();
+                    snapshotRepository.findByPeriodAndSnapshotDate(SnapshotPeriod.DAILY, today)
+                            .forEach(s -> previous.merge(s.getUserId(), s.getScore(), Integer::sum));
                     snapshotRepository.deleteBySnapshotDateAndPeriod(today, SnapshotPeriod.DAILY);
                     log.info("[배치] 기존 일간 스냅샷 데이터 삭제 완료");
 
@@ -71,11 +78,59 @@ public class RankingBatchConfig {
 
                     snapshotRepository.saveAll(snapshots);
                     log.info("[배치] 일간 스냅샷 저장 완료 (건수: {}건)", snapshots.size());
+
+                    int rolled = updateMonthlyRollup(today, snapshots, previous);
+                    log.info("[배치] 월간 롤업 갱신 완료 (건수: {}건)", rolled);
                     return RepeatStatus.FINISHED;
                 }, transactionManager)
                 .build();
     }
 
+    /**
+     * 월간 롤업(MONTHLY, 날짜는 그 달 1일)에 오늘 일간 점수를 더한다. 유저마다 한 행이라 월간 랭킹은 이 행들만 읽는다.
+     * 이번 달 롤업이 아직 없으면(새 달의 첫 실행이 아니라 배포 직후라도) 이번 달 일간 스냅샷을 DB 에서 합산해 채운다.
+     */
+    int updateMonthlyRollup(LocalDate today, List<ScoreSnapshot> daily, Map<UUID, Integer> previous) {
+        LocalDate monthStart = today.withDayOfMonth(1);
+        Map<UUID, ScoreSnapshot> rollup = new HashMap<>();
+        snapshotRepository.findByPeriodAndSnapshotDate(SnapshotPeriod.MONTHLY, monthStart)
+                .forEach(m -> rollup.put(m.getUserId(), m));
+
+        if (rollup.isEmpty()) {
+            List<ScoreSnapshot> filled = snapshotRepository.sumByUser(SnapshotPeriod.DAILY, monthStart, today).stream()
+                    .map(t -> ScoreSnapshot.builder()
+                            .userId(t.getUserId())
+                            .username(t.getUsername())
+                            .team(t.getTeam())
+                            .score((int) Math.min(Integer.MAX_VALUE, t.getScore()))
+                            .snapshotDate(monthStart)
+                            .period(SnapshotPeriod.MONTHLY)
+                            .build())
+                    .toList();
+            snapshotRepository.saveAll(filled);
+            return filled.size();
+        }
+
+        for (ScoreSnapshot d : daily) {
+            int delta = d.getScore() - previous.getOrDefault(d.getUserId(), 0);
+            ScoreSnapshot m = rollup.get(d.getUserId());
+            if (m != null) {
+                m.accumulate(delta, d.getUsername(), d.getTeam());
+            } else {
+                rollup.put(d.getUserId(), ScoreSnapshot.builder()
+                        .userId(d.getUserId())
+                        .username(d.getUsername())
+                        .team(d.getTeam())
+                        .score(delta)
+                        .snapshotDate(monthStart)
+                        .period(SnapshotPeriod.MONTHLY)
+                        .build());
+            }
+        }
+        snapshotRepository.saveAll(rollup.values());
+        return rollup.size();
+    }
+
     @Bean
     public Step weeklyScoreSnapshotStep() {
         return new StepBuilder("weeklyScoreSnapshotStep", jobRepository)
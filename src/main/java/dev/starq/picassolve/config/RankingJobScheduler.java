@@ -1,5 +1,7 @@
 package dev.starq.picassolve.config;
 
+import dev.starq.picassolve.service.Leaderboard;
+import dev.starq.picassolve.service.ScoreboardChanged;
 import java.time.LocalDateTime;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -7,6 +9,7 @@ import org.springframework.batch.core.Job;
 import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.JobParametersBuilder;
 import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -20,6 +23,8 @@ public class RankingJobScheduler {
     private final JobLauncher jobLauncher;
     private final Job dailyScoreSnapshotJob;
     private final Job weeklyResetScoresJob;
+    private final Leaderboard leaderboard;
+    private final ApplicationEventPublisher events;
 
     /** 매일 00:00 KST 스코어 스냅샷. */
     @Scheduled(cron = "0 0 0 * * *", zone = "Asia/Seoul")
@@ -33,6 +38,8 @@ public class RankingJobScheduler {
     public void runWeeklyResetJob() {
         log.info("[스케줄러] 주간 스코어 초기화 작업을 실행합니다.");
         runJob(weeklyResetScoresJob);
+        leaderboard.reload(); // 초기화된 점수를 실시간 점수판에 반영하고
+        events.publishEvent(new ScoreboardChanged()); // 접속 중인 클라이언트에도 바로 보낸다
     }
 
     private void runJob(Job job) {
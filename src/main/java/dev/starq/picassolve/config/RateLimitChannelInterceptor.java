@@ -0,0 +1,181 @@
+package dev.starq.picassolve.config;
+
+import dev.starq.picassolve.service.GameMetrics;
+import java.security.Principal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.ChannelInterceptor;
+
+/**
+ * 유저(principal)별, 발행 경로별 속도 제한. /app/room/{roomId}/{action} 의 action 마다
+ * "초당 개수/버스트" 규칙을 두고, 넘는 메시지는 컨트롤러에 닿기 전에 버린다.
+ * 버린 메시지는 지표로 세고, 유저에게는 1초에 한 번까지만 /queue/errors 로 알린다.
+ * <p>
+ * 버킷은 GCRA(다음 토큰이 허용되는 이론상 시각 하나)로 구현해 CAS 한 번으로 판정하며 lock 을 잡지 않는다.
+ * <p>
+ * 버킷은 세션이 아니라 유저 이름에 묶여 있어 탭을 여러 개 열어도 한도를 나눠 쓰고, 연결이 끊겨도 지우지 않는다.
+ * (끊고 다시 붙는 것만으로 버스트를 다시 받지 못하게) 대신 모든 버킷이 {@link #IDLE_NS} 이상 가득 찬 채로
+ * 쉬고 있는 유저는 주기적으로 정리한다. 그 상태는 새로 만든 버킷과 같으므로 지워도 한도가 풀리지 않는다.
+ */
+@Slf4j
+public class RateLimitChannelInterceptor implements ChannelInterceptor {
+
+    private static final String ROOM_PREFIX = "/app/room/";
+    private static final long REPORT_INTERVAL_NS = TimeUnit.SECONDS.toNanos(1);
+    static final long IDLE_NS = TimeUnit.MINUTES.toNanos(1);
+
+    /** action 하나의 규칙: 평균 간격과 한꺼번에 허용하는 여유 */
+    record Rule(String action, int index, long intervalNs, long toleranceNs) {
+    }
+
+    /** 유저 한 명의 버킷들 (규칙 순서대로) */
+    private static final class Limits {
+        final AtomicLong[] theoreticalArrival;
+        final AtomicLong lastReportNs;
+
+        Limits(int rules, long now) {
+            lastReportNs = new AtomicLong(now - REPORT_INTERVAL_NS);
+            theoreticalArrival = new AtomicLong[rules];
+            for (int i = 0; i < rules; i++)
+                theoreticalArrival[i] = new AtomicLong(now);
+        }
+
+        /** 모든 버킷이 가득 찬 뒤로 idleNs 이상 지났는지 (이론상 도착 시각이 모두 그만큼 과거) */
+        boolean idleSince(long now, long idleNs) {
+            for (AtomicLong tat : theoreticalArrival)
+                if (now - tat.get() < idleNs)
+                    return false;
+            return true;
+        }
+    }
+
+    private final Map<String, Rule> rules;
+    private final GameMetrics metrics;
+    private final Supplier<SimpMessagingTemplate> broker;
+    private final LongSupplier clock;
+    private final Map<String, Limits> limitsByUser = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweepNs;
+
+    public RateLimitChannelInterceptor(String spec, GameMetrics metrics, Supplier<SimpMessagingTemplate> broker) {
+        this(spec, metrics, broker, System::nanoTime);
+    }
+
+    RateLimitChannelInterceptor(String spec, GameMetrics metrics, Supplier<SimpMessagingTemplate> broker,
+            LongSupplier clock) {
+        this.rules = parse(spec);
+        this.metrics = metrics;
+        this.broker = broker;
+        this.clock = clock;
+        this.lastSweepNs = new AtomicLong(clock.getAsLong());
+        if (!rules.isEmpty())
+            log.info("[웹소켓] 발행 속도 제한: {}", spec);
+    }
+
+    /**
+     * "draw.stroke=240/480,chat.send=5/10" → action 별 (초당 개수 / 버스트).
+     * 버스트를 생략하면 초당 개수와 같다.
+     */
+    static Map<String, Rule> parse(String spec) {
+        Map<String, Rule> parsed = new HashMap<>();
+        if (spec == null || spec.isBlank())
+            return parsed;
+        for (String entry : spec.split(",")) {
+            String e = entry.trim();
+            if (e.isEmpty())
+                continue;
+            int eq = e.indexOf('=');
+            if (eq <= 0)
+                throw new IllegalArgumentException("속도 제한 규칙 형식이 잘못되었습니다: " + e);
+            String action = e.substring(0, eq).trim();
+            String[] value = e.substring(eq + 1).trim().split("/");
+            double perSecond = Double.parseDouble(value[0].trim());
+            int burst = value.length > 1 ? Integer.parseInt(value[1].trim()) : (int) Math.max(1, Math.ceil(perSecond));
+            if (perSecond <= 0 || burst < 1)
+                throw new IllegalArgumentException("속도 제한은 0보다 커야 합니다: " + e);
+            long interval = (long) (TimeUnit.SECONDS.toNanos(1) / perSecond);
+            parsed.put(action, new Rule(action, parsed.size(), interval, interval * (burst - 1)));
+        }
+        return parsed;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        if (rules.isEmpty())
+            return message;
+        SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(message.getHeaders());
+        Principal user = SimpMessageHeaderAccessor.getUser(message.getHeaders());
+        if (user == null || type != SimpMessageType.MESSAGE)
+            return message;
+
+        Rule rule = ruleFor(SimpMessageHeaderAccessor.getDestination(message.getHeaders()));
+        if (rule == null)
+            return message;
+        long now = clock.getAsLong();
+        sweepIdle(now);
+        Limits limits = limitsByUser.get(user.getName());
+        if (limits == null)
+            limits = limitsByUser.computeIfAbsent(user.getName(), k -> new Limits(rules.size(), now));
+        if (tryAcquire(limits.theoreticalArrival[rule.index()], rule, now))
+            return message;
+
+        metrics.rateLimited(rule.action());
+        report(user.getName(), limits, rule, now);
+        return null;
+    }
+
+    /** GCRA: 이론상 도착 시각이 지금보다 여유(toleranceNs) 이상 앞서 있으면 거절, 아니면 간격만큼 민다. */
+    static boolean tryAcquire(AtomicLong theoreticalArrival, Rule rule, long now) {
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long base = Math.max(tat, now);
+            if (base - now > rule.toleranceNs())
+                return false;
+            if (theoreticalArrival.compareAndSet(tat, base + rule.intervalNs()))
+                return true;
+        }
+    }
+
+    /** {@link #IDLE_NS} 마다 한 번, 쉬고 있는 유저의 버킷을 지운다. CAS 를 이긴 스레드 하나만 돈다. */
+    private void sweepIdle(long now) {
+        long last = lastSweepNs.get();
+        if (now - last < IDLE_NS || !lastSweepNs.compareAndSet(last, now))
+            return;
+        limitsByUser.values().removeIf(limits -> limits.idleSince(now, IDLE_NS));
+    }
+
+    /** 버킷을 들고 있는 유저 수 (테스트용) */
+    int trackedUsers() {
+        return limitsByUser.size();
+    }
+
+    private Rule ruleFor(String destination) {
+        if (destination == null || !destination.startsWith(ROOM_PREFIX))
+            return null;
+        return rules.get(destination.substring(destination.lastIndexOf('/') + 1));
+    }
+
+    /** 거절 알림은 유저마다 1초에 한 번까지만 보낸다. (알림이 또 하나의 홍수가 되지 않게) */
+    private void report(String user, Limits limits, Rule rule, long now) {
+        long last = limits.lastReportNs.get();
+        if (now - last < REPORT_INTERVAL_NS || !limits.lastReportNs.compareAndSet(last, now))
+            return;
+        log.debug("[웹소켓] 발행 속도 제한 초과: {} ({})", user, rule.action());
+        try {
+            broker.get().convertAndSendToUser(user, "/queue/errors",
+                    "메시지를 너무 빠르게 보내고 있습니다. 잠시 후 다시 시도해 주세요. (" + rule.action() + ")");
+        } catch (Exception ex) {
+            log.warn("[웹소켓] 속도 제한 알림 전송 실패 ({}): {}", user, ex.toString());
+        }
+    }
+}
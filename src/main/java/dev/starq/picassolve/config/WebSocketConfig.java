@@ -1,32 +1,102 @@
 package dev.starq.picassolve.config;
 
+import dev.starq.picassolve.service.GameMetrics;
+import dev.starq.picassolve.support.OutboundSessionQueues;
 import java.util.Arrays;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 import org.springframework.web.socket.server.support.HttpSessionHandshakeInterceptor;
 
 @Configuration
 @EnableWebSocketMessageBroker
+@Slf4j
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private static final int VIRTUAL_POOL_SIZE = 4_096;
+
     private final String[] allowedOriginPatterns;
+    private final GameMetrics metrics;
+    private final OutboundSessionQueues outboundQueues;
+    private final RateLimitChannelInterceptor rateLimit;
+    private final boolean virtualThreads;
+
+    // 외부 STOMP 브로커 릴레이 (여러 인스턴스 운영 시)
+    private final boolean relayEnabled;
+    private final String relayHost;
+    private final int relayPort;
+    private final String relayVirtualHost;
+    private final String relayLogin;
+    private final String relayPasscode;
 
-    public WebSocketConfig(@Value("${APP_ALLOWED_ORIGINS:*}") String allowedOrigins) {
+    public WebSocketConfig(@Value("${APP_ALLOWED_ORIGINS:*}") String allowedOrigins,
+            @Value("${app.broker.relay.enabled:false}") boolean relayEnabled,
+            @Value("${app.broker.relay.host:localhost}") String relayHost,
+            @Value("${app.broker.relay.port:61613}") int relayPort,
+            @Value("${app.broker.relay.virtual-host:}") String relayVirtualHost,
+            @Value("${app.broker.relay.login:guest}") String relayLogin,
+            @Value("${app.broker.relay.passcode:guest}") String relayPasscode,
+            @Value("${app.ws.virtual-threads:false}") boolean virtualThreads,
+            @Value("${app.ws.rate-limit.rules:}") String rateLimitRules,
+            GameMetrics metrics,
+            OutboundSessionQueues outboundQueues,
+            ObjectProvider<SimpMessagingTemplate> brokerTemplate) {
         this.allowedOriginPatterns = Arrays.stream(allowedOrigins.split(","))
                 .map(String::trim)
                 .filter(s -> !s.isEmpty())
                 .toArray(String[]::new);
+        this.relayEnabled = relayEnabled;
+        this.relayHost = relayHost;
+        this.relayPort = relayPort;
+        this.relayVirtualHost = relayVirtualHost;
+        this.relayLogin = relayLogin;
+        this.relayPasscode = relayPasscode;
+        this.metrics = metrics;
+        this.outboundQueues = outboundQueues;
+        // 템플릿은 이 설정으로 만들어지는 빈이라 거절 알림을 보낼 때 꺼낸다
+        this.rateLimit = new RateLimitChannelInterceptor(rateLimitRules, metrics, brokerTemplate::getObject);
+        this.virtualThreads = virtualThreads;
+        if (virtualThreads)
+            log.info("[웹소켓] 인바운드/아웃바운드 채널을 가상 스레드로 실행 (실험적)");
     }
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic", "/queue");      // 구독 엔드포인트
+        if (relayEnabled) {
+            // 구독/팬아웃을 외부 브로커로 넘긴다. 다른 인스턴스에 붙은 사용자에게 보내는 /user/** 메시지와
+            // 사용자 목록(SimpUserRegistry)은 아래 두 토픽으로 인스턴스 사이에 공유된다.
+            var relay = config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode)
+                    .setUserDestinationBroadcast("/topic/unresolved-user-destination")
+                    .setUserRegistryBroadcast("/topic/simp-user-registry");
+            if (!relayVirtualHost.isBlank())
+                relay.setVirtualHost(relayVirtualHost);
+            log.info("[웹소켓] 외부 STOMP 브로커 릴레이 사용: {}:{}", relayHost, relayPort);
+        } else {
+            config.enableSimpleBroker("/topic", "/queue");  // 구독 엔드포인트
+        }
+        // brokerChannel 은 보내는 스레드에서 바로 처리한다(실행기 없음). 스트로크/실행취소 발송 순서와
+        // 브로드캐스트 시간 측정이 이 동기 전달에 기대므로 가상 스레드 모드에서도 그대로 둔다
+        config.configureBrokerChannel()
+                .interceptors(MessageMetricsInterceptor.forBroker(metrics)); // 목적지별 브로드캐스트 시간
+        // clientOutboundChannel 은 풀에서 병렬로 내보내므로, 스냅샷 -> 밀린 세그먼트 -> 실행취소처럼 한 세션에 보낸 순서가
+        // 뒤바뀌지 않게 모든 모드에서 세션마다 보낸 순서대로 내려보낸다
+        config.setPreservePublishOrder(true);
         config.setApplicationDestinationPrefixes("/app");   // 발행 prefix
         config.setUserDestinationPrefix("/user");           // 사용자 큐 prefix
     }
@@ -38,10 +108,43 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .setHandshakeHandler(new CustomHandshakeHandler())      // 세션 name을 Principal로 설정
                 .setAllowedOriginPatterns(allowedOriginPatterns)
                 .withSockJS();
+        // 인바운드 채널도 풀에서 병렬로 처리하므로, 그리기 -> 실행취소처럼 한 세션이 보낸 순서가 뒤바뀌지 않게
+        // 가상 스레드 여부와 상관없이 세션마다 받은 순서대로 처리한다
+        registry.setPreserveReceiveOrder(true);
+    }
+
+    /** 연결마다 보낼 대기열을 둔다. 느린 연결은 드로잉 프레임을 건너뛰고 나중에 스냅샷으로 따라잡는다 */
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.addDecoratorFactory(outboundQueues::decorate);
     }
 
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
-        registration.interceptors(new UserPrincipalChannelInterceptor());
+        registration.interceptors(new UserPrincipalChannelInterceptor(), rateLimit,
+                MessageMetricsInterceptor.forInbound(metrics));
+        if (virtualThreads)
+            registration.taskExecutor(virtualThreadExecutor("ws-inbound-"));
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        if (virtualThreads)
+            registration.taskExecutor(virtualThreadExecutor("ws-outbound-"));
+    }
+
+    /**
+     * 가상 스레드를 만드는 실행기. Spring 6.1 의 채널 등록은 ThreadPoolTaskExecutor 만 받으므로 스레드 팩토리를 바꾸고,
+     * 풀 크기는 JPA 호출 등으로 잠시 막힌 작업이 다른 메시지를 붙잡지 않을 만큼 크게 잡는다. 쉬는 스레드는 곧 정리된다.
+     * 세션 단위 순서는 풀 크기와 무관하게 preserve 설정이 보장한다.
+     */
+    private static ThreadPoolTaskExecutor virtualThreadExecutor(String namePrefix) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadFactory(Thread.ofVirtual().name(namePrefix, 0).factory());
+        executor.setCorePoolSize(VIRTUAL_POOL_SIZE);
+        executor.setMaxPoolSize(VIRTUAL_POOL_SIZE);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setKeepAliveSeconds(10);
+        return executor;
     }
 }
@@ -0,0 +1,63 @@
+package dev.starq.picassolve.controller;
+
+import dev.starq.picassolve.dto.RoundArchiveSummary;
+import dev.starq.picassolve.service.RoundArchiver;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * 보관된 라운드 목록과 다시보기.
+ * {@code /data} 는 원본 파일을 그대로 내려주며 Range 요청을 지원한다. (앞부분 색인 → 필요한 청크만)
+ * {@code /replay} 는 서버에서 풀어 시간 순서대로 청크를 NDJSON 으로 흘려보낸다.
+ */
+@RestController
+@RequestMapping("/api/rounds")
+@RequiredArgsConstructor
+public class RoundArchiveController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final RoundArchiver archiver;
+
+    @GetMapping
+    public List<RoundArchiveSummary> list(@RequestParam(required = false) String room,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return archiver.list(room, page, size);
+    }
+
+    @GetMapping("/{id}")
+    public RoundArchiveSummary detail(@PathVariable UUID id) throws IOException {
+        return archiver.detail(id);
+    }
+
+    @GetMapping("/{id}/data")
+    public ResponseEntity<Resource> data(@PathVariable UUID id) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(new FileSystemResource(archiver.file(id)));
+    }
+
+    @GetMapping("/{id}/replay")
+    public ResponseEntity<StreamingResponseBody> replay(@PathVariable UUID id,
+            @RequestParam(defaultValue = "0") long fromMs,
+            @RequestParam(required = false) Long toMs) {
+        Path file = archiver.file(id); // 없는 라운드는 스트리밍을 시작하기 전에 400으로 응답
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .body(out -> archiver.writeReplay(file, fromMs, toMs == null ? Long.MAX_VALUE : toMs, out));
+    }
+}
@@ -4,40 +4,48 @@ import dev.starq.picassolve.dto.ChatMessage;
 import dev.starq.picassolve.dto.DrawEvent;
 import dev.starq.picassolve.dto.SetDrawerRequest;
 import dev.starq.picassolve.service.GameService;
+import dev.starq.picassolve.service.RoomCommandLoop;
 import java.security.Principal;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.simp.annotation.SendToUser;
 import org.springframework.stereotype.Controller;
 
+/**
+ * 방 단위 STOMP 엔드포인트. 모든 발행 경로는 /app/room/{roomId}/... 형태이다.
+ * 게임 명령은 {@link RoomCommandLoop}의 방 대기열에 넣고 바로 돌아간다. (오류는 대기열에서 /queue/errors 로 응답)
+ * 방 입장/상태 동기화와 관리자 사전 갱신은 특정 방의 명령이 아니므로 인바운드 스레드에서 처리한다.
+ */
 @Slf4j
 @Controller
 @RequiredArgsConstructor
 public class WsGameController {
 
     private final GameService gameService;
+    private final RoomCommandLoop commands;
 
     /* -------------------------------------------------------------------------- */
     /* Chat & Core Logic */
     /* -------------------------------------------------------------------------- */
 
-    @MessageMapping("/chat.send")
-    public void onChat(@Payload ChatMessage msg, Principal p) {
+    @MessageMapping("/room/{roomId}/chat.send")
+    public void onChat(@DestinationVariable String roomId, @Payload ChatMessage msg, Principal p) {
         final String sender = (p != null) ? p.getName()
                 : (msg != null && msg.getFrom() != null ? msg.getFrom() : "guest");
         final String text = (msg != null && msg.getText() != null) ? msg.getText() : "";
-        log.trace("[웹소켓] 채팅 메시지 수신 - 보낸이: {}, 내용: {}", sender, text);
-        gameService.handleChat(sender, text);
+        log.trace("[웹소켓] 채팅 메시지 수신 - 방: {}, 보낸이: {}, 내용: {}", roomId, sender, text);
+        commands.submit(roomId, sender, () -> gameService.handleChat(sender, roomId, text));
     }
 
-    @MessageMapping("/word.reroll")
-    public void onReroll(Principal p) {
+    @MessageMapping("/room/{roomId}/word.reroll")
+    public void onReroll(@DestinationVariable String roomId, Principal p) {
         if (p != null) {
-            log.info("[웹소켓] 제시어 다시받기 요청: {}", p.getName());
-            gameService.rerollWord(p);
+            log.info("[웹소켓] 제시어 다시받기 요청: {} (방: {})", p.getName(), roomId);
+            commands.submit(roomId, p.getName(), () -> gameService.rerollWord(p, roomId));
         }
     }
 
@@ -45,53 +53,76 @@ public class WsGameController {
     /* Canvas & Drawing */
     /* -------------------------------------------------------------------------- */
 
-    @MessageMapping("/draw.stroke")
-    public void onDraw(@Payload DrawEvent event, Principal p) {
-        gameService.addStroke(p, event);
+    @MessageMapping("/room/{roomId}/draw.stroke")
+    public void onDraw(@DestinationVariable String roomId, @Payload DrawEvent event, Principal p) {
+        commands.submit(roomId, nameOf(p), () -> gameService.addStroke(p, roomId, event));
     }
 
-    @MessageMapping("/draw.undo")
-    public void onUndo(Principal p) {
-        gameService.undoLastStroke(p);
+    @MessageMapping("/room/{roomId}/draw.undo")
+    public void onUndo(@DestinationVariable String roomId, Principal p) {
+        commands.submit(roomId, nameOf(p), () -> gameService.undoLastStroke(p, roomId));
     }
 
-    @MessageMapping("/canvas.clear")
-    public void onClear(Principal p) {
-        gameService.clearCanvas(p);
+    @MessageMapping("/room/{roomId}/canvas.clear")
+    public void onClear(@DestinationVariable String roomId, Principal p) {
+        commands.submit(roomId, nameOf(p), () -> gameService.clearCanvas(p, roomId));
     }
 
     /* -------------------------------------------------------------------------- */
     /* Role & Admin */
     /* -------------------------------------------------------------------------- */
 
-    @MessageMapping("/drawer.me")
-    public void onSetMeAsDrawer(Principal p) {
+    @MessageMapping("/room/{roomId}/drawer.me")
+    public void onSetMeAsDrawer(@DestinationVariable String roomId, Principal p) {
         if (p != null) {
-            log.info("[웹소켓] 내가 그리기 요청: {}", p.getName());
-            gameService.setMeAsDrawer(p);
+            log.info("[웹소켓] 내가 그리기 요청: {} (방: {})", p.getName(), roomId);
+            commands.submit(roomId, p.getName(), () -> gameService.setMeAsDrawer(p, roomId));
         }
     }
 
-    @MessageMapping("/admin.setDrawer")
-    public void onSetDrawer(@Payload SetDrawerRequest req, Principal p) {
+    @MessageMapping("/room/{roomId}/admin.setDrawer")
+    public void onSetDrawer(@DestinationVariable String roomId, @Payload SetDrawerRequest req, Principal p) {
         if (p == null || req == null || req.getName() == null || req.getName().isBlank())
             return;
-        log.info("[웹소켓] 관리자 요청 - 출제자 지정: {} -> {}", p.getName(), req.getName());
-        gameService.setDrawerByAdmin(p.getName(), req.getName());
+        log.info("[웹소켓] 관리자 요청 - 출제자 지정: {} -> {} (방: {})", p.getName(), req.getName(), roomId);
+        commands.submit(roomId, p.getName(), () -> gameService.setDrawerByAdmin(p.getName(), roomId, req.getName()));
+    }
+
+    @MessageMapping("/admin.words.reload")
+    public void onReloadWords(Principal p) {
+        if (p == null)
+            return;
+        log.info("[웹소켓] 관리자 요청 - 제시어 사전 갱신: {}", p.getName());
+        gameService.reloadWordsByAdmin(p.getName());
     }
 
     /* -------------------------------------------------------------------------- */
     /* State Logging */
     /* -------------------------------------------------------------------------- */
 
-    @MessageMapping("/state.sync")
-    public void onStateSync(Principal p) {
+    /** 방 입장 겸 상태 동기화. 다른 방에 있었다면 이 방으로 옮긴 뒤 스냅샷을 보낸다. */
+    @MessageMapping("/room/{roomId}/state.sync")
+    public void onStateSync(@DestinationVariable String roomId, Principal p) {
         if (p != null) {
-            log.debug("[웹소켓] 상태 동기화 요청: {}", p.getName());
+            log.debug("[웹소켓] 상태 동기화 요청: {} (방: {})", p.getName(), roomId);
+            gameService.joinRoom(p.getName(), roomId);
             gameService.sendSnapshotTo(p.getName());
         }
     }
 
+    /** 접속자/점수판 변경분의 버전을 놓친 클라이언트가 전체 목록만 다시 받는다. (캔버스는 건드리지 않음) */
+    @MessageMapping("/room/{roomId}/state.resync")
+    public void onStateResync(@DestinationVariable String roomId, Principal p) {
+        if (p != null) {
+            log.debug("[웹소켓] 목록 재동기화 요청: {} (방: {})", p.getName(), roomId);
+            gameService.sendRosterSnapshotTo(p.getName());
+        }
+    }
+
+    private static String nameOf(Principal p) {
+        return p != null ? p.getName() : null;
+    }
+
     /* -------------------------------------------------------------------------- */
     /* Error Handling */
     /* -------------------------------------------------------------------------- */
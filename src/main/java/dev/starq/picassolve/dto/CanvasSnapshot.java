@@ -0,0 +1,16 @@
+package dev.starq.picassolve.dto;
+
+import java.util.List;
+import lombok.*;
+
+/**
+ * 늦게 들어온 유저에게 보내는 캔버스 스냅샷 조각. chunk 0을 받으면 캔버스를 비우고 순서대로 적용한다.
+ * checkpoint(PNG data URL)는 chunk 0에만 실리며, 세그먼트보다 아래에 깔리는 배경이다.
+ */
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class CanvasSnapshot {
+    private int chunk;
+    private int chunks;
+    private List<DrawEvent> segments;
+    private String checkpoint;
+}
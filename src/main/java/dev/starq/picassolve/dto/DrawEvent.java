@@ -10,4 +10,5 @@ public class DrawEvent {
     public String mode;
     public String actionId;
     public Boolean newStroke;
+    public Integer seq; // 서버가 부여하는 방 단위 액션 번호 (클라이언트 값은 무시)
 }
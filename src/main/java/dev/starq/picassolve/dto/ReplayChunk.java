@@ -0,0 +1,16 @@
+package dev.starq.picassolve.dto;
+
+import java.util.List;
+import lombok.*;
+
+/**
+ * 라운드 다시보기의 한 청크. offsetsMs[i] 는 segments[i] 가 그려진 시각(라운드 시작 기준 ms)이다.
+ */
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class ReplayChunk {
+    private int index;
+    private long startMs;
+    private long endMs;
+    private List<Integer> offsetsMs;
+    private List<DrawEvent> segments;
+}
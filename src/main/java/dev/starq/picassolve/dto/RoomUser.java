@@ -0,0 +1,11 @@
+package dev.starq.picassolve.dto;
+
+import dev.starq.picassolve.entity.User.Role;
+import lombok.*;
+
+/** 방 접속자 목록의 한 항목 (방 안에서의 역할 기준) */
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class RoomUser {
+    private String name;
+    private Role role;
+}
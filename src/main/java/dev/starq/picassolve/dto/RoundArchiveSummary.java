@@ -0,0 +1,38 @@
+package dev.starq.picassolve.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import lombok.*;
+
+/**
+ * 보관된 라운드 정보. 단건 조회일 때만 chunks(청크 색인: 시간 구간과 파일 안의 바이트 범위)를 채운다.
+ */
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class RoundArchiveSummary {
+    private UUID id;
+    private String roomId;
+    private String word;
+    private String drawer;
+    private String winner;
+    private OffsetDateTime startedAt;
+    private OffsetDateTime endedAt;
+    private long durationMs;
+    private int segmentCount;
+    private int chunkCount;
+    private long byteSize;
+    private boolean truncated;
+    private List<ChunkInfo> chunks;
+
+    @Getter @Setter @NoArgsConstructor @AllArgsConstructor
+    public static class ChunkInfo {
+        private int index;
+        private long startMs;
+        private long endMs;
+        private int segments;
+        private long offset;
+        private int length;
+    }
+}
@@ -0,0 +1,27 @@
+package dev.starq.picassolve.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+import lombok.*;
+
+/**
+ * 실시간 점수판 갱신. full 이면 entries 가 정렬된 전체 목록이고, 아니면 점수가 바뀐 항목(changed)과
+ * 빠진 이름(removed)만 담는다. version 은 발행마다 1씩 증가한다.
+ */
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class ScoreboardUpdate {
+    private long version;
+    private boolean full;
+    private List<ScoreBoardEntry> entries;
+    private List<ScoreBoardEntry> changed;
+    private List<String> removed;
+
+    public static ScoreboardUpdate full(long version, List<ScoreBoardEntry> entries) {
+        return ScoreboardUpdate.builder().version(version).full(true).entries(entries).build();
+    }
+
+    public static ScoreboardUpdate delta(long version, List<ScoreBoardEntry> changed, List<String> removed) {
+        return ScoreboardUpdate.builder().version(version).changed(changed).removed(removed).build();
+    }
+}
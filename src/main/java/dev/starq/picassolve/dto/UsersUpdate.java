@@ -0,0 +1,28 @@
+package dev.starq.picassolve.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+import lombok.*;
+
+/**
+ * 방 접속자 목록 갱신. full 이면 users 가 전체 목록이고, 아니면 직전 버전 대비 변경분(joined/left/changed)만 담는다.
+ * version 은 방마다 1씩 증가하며, 클라이언트가 중간 버전을 놓치면 state.resync 로 전체 목록을 다시 받는다.
+ */
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class UsersUpdate {
+    private long version;
+    private boolean full;
+    private List<RoomUser> users;
+    private List<RoomUser> joined;
+    private List<String> left;
+    private List<RoomUser> changed;
+
+    public static UsersUpdate full(long version, List<RoomUser> users) {
+        return UsersUpdate.builder().version(version).full(true).users(users).build();
+    }
+
+    public static UsersUpdate delta(long version, List<RoomUser> joined, List<String> left, List<RoomUser> changed) {
+        return UsersUpdate.builder().version(version).joined(joined).left(left).changed(changed).build();
+    }
+}
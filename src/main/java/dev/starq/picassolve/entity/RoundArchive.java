@@ -0,0 +1,65 @@
+package dev.starq.picassolve.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * 끝난 라운드의 메타데이터. 스트로크는 {@code fileName} 의 압축 아카이브 파일에 따로 보관한다.
+ */
+@Entity
+@Table(name = "round_archives")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RoundArchive {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(nullable = false, length = 32)
+    private String roomId;
+
+    @Column(nullable = false, length = 100)
+    private String word;
+
+    @Column(length = 50)
+    private String drawer;
+
+    @Column(length = 50)
+    private String winner;
+
+    @Column(nullable = false)
+    private OffsetDateTime startedAt;
+
+    @Column(nullable = false)
+    private OffsetDateTime endedAt;
+
+    @Column(nullable = false)
+    private long durationMs;
+
+    @Column(nullable = false)
+    private int segmentCount;
+
+    @Column(nullable = false)
+    private int chunkCount;
+
+    @Column(nullable = false)
+    private long byteSize;
+
+    @Column(nullable = false)
+    private boolean truncated;
+
+    @Column(nullable = false, length = 200)
+    private String fileName;
+}
@@ -7,6 +7,7 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
@@ -18,9 +19,11 @@ import lombok.NoArgsConstructor;
 
 /**
  * 일간/주간/월간 랭킹 스냅샷을 보관한다.
+ * 월간(MONTHLY)은 그 달 1일 날짜로 유저마다 한 행을 두고, 일간 스냅샷을 찍을 때마다 그날 점수를 더해 간다.
  */
 @Entity
-@Table(name = "score_snapshots")
+@Table(name = "score_snapshots", indexes = @Index(name = "idx_score_snapshots_period_date",
+        columnList = "period, snapshot_date, score DESC"))
 @Getter
 @NoArgsConstructor
 @AllArgsConstructor
@@ -53,6 +56,13 @@ public class ScoreSnapshot {
     @Builder.Default
     private OffsetDateTime createdAt = OffsetDateTime.now();
 
+    /** 월간 롤업에 하루치 점수를 더한다. 이름/팀은 가장 최근 값으로 맞춘다. */
+    public void accumulate(int delta, String username, int team) {
+        this.score += delta;
+        this.username = username;
+        this.team = team;
+    }
+
     public enum SnapshotPeriod {
         DAILY,
         WEEKLY,
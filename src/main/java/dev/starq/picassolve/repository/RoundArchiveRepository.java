@@ -0,0 +1,13 @@
+package dev.starq.picassolve.repository;
+
+import dev.starq.picassolve.entity.RoundArchive;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface RoundArchiveRepository extends JpaRepository<RoundArchive, UUID> {
+    List<RoundArchive> findAllByOrderByEndedAtDesc(Pageable pageable);
+
+    List<RoundArchive> findByRoomIdOrderByEndedAtDesc(String roomId, Pageable pageable);
+}
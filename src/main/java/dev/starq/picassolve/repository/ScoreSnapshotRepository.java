@@ -1,8 +1,10 @@
 package dev.starq.picassolve.repository;
 
+import dev.starq.picassolve.dto.ScoreBoardEntry;
 import dev.starq.picassolve.entity.ScoreSnapshot;
 import dev.starq.picassolve.entity.ScoreSnapshot.SnapshotPeriod;
 import java.time.LocalDate;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import java.util.List;
 import java.util.Optional;
@@ -12,16 +14,39 @@ import org.springframework.data.jpa.repository.Query;
 import java.util.UUID;
 
 public interface ScoreSnapshotRepository extends JpaRepository<ScoreSnapshot, UUID> {
+
+    /** 유저별 합계 (월간 롤업 채우기용) */
+    interface ScoreTotal {
+        UUID getUserId();
+        String getUsername();
+        int getTeam();
+        long getScore();
+    }
+
     @Modifying
     @Query("delete from ScoreSnapshot s where s.snapshotDate = :snapshotDate and s.period = :period")
     void deleteBySnapshotDateAndPeriod(LocalDate snapshotDate, SnapshotPeriod period);
 
-    Optional<ScoreSnapshot> findTopByPeriodOrderBySnapshotDateDesc(SnapshotPeriod period);
+    /** 가장 최근 스냅샷 날짜. (period, snapshot_date) 인덱스의 끝에서 바로 읽는다 */
+    @Query("select max(s.snapshotDate) from ScoreSnapshot s where s.period = :period")
+    Optional<LocalDate> findLatestSnapshotDate(SnapshotPeriod period);
 
     List<ScoreSnapshot> findByPeriodAndSnapshotDate(SnapshotPeriod period, LocalDate snapshotDate);
 
-    List<ScoreSnapshot> findByPeriodAndSnapshotDateBetween(
-            SnapshotPeriod period,
-            LocalDate start,
-            LocalDate end);
+    /** 한 날짜 스냅샷의 랭킹. 0점은 빼고 정렬까지 DB 에서 한다. 개수 제한이 필요하면 page 로 넘긴다 */
+    @Query("select new dev.starq.picassolve.dto.ScoreBoardEntry(s.username, s.team, s.score) from ScoreSnapshot s"
+            + " where s.period = :period and s.snapshotDate = :snapshotDate and s.score > 0"
+            + " order by s.score desc")
+    List<ScoreBoardEntry> findRanking(SnapshotPeriod period, LocalDate snapshotDate, Pageable page);
+
+    /** 기간 안의 스냅샷을 유저별로 합산한 랭킹 (월간 롤업이 아직 없을 때) */
+    @Query("select new dev.starq.picassolve.dto.ScoreBoardEntry(max(s.username), max(s.team), cast(sum(s.score) as Integer))"
+            + " from ScoreSnapshot s where s.period = :period and s.snapshotDate between :start and :end"
+            + " group by s.userId having sum(s.score) > 0 order by sum(s.score) desc")
+    List<ScoreBoardEntry> sumRanking(SnapshotPeriod period, LocalDate start, LocalDate end, Pageable page);
+
+    @Query("select s.userId as userId, max(s.username) as username, max(s.team) as team, sum(s.score) as score"
+            + " from ScoreSnapshot s where s.period = :period and s.snapshotDate between :start and :end"
+            + " group by s.userId")
+    List<ScoreTotal> sumByUser(SnapshotPeriod period, LocalDate start, LocalDate end);
 }
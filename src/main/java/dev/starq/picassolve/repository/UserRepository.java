@@ -17,4 +17,12 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     @Modifying
     @Query("update User u set u.score = 0")
     void resetAllScores();
+
+    @Modifying
+    @Query("update User u set u.role = :role where u.name = :name")
+    int updateRoleByName(String name, User.Role role);
+
+    @Modifying
+    @Query("update User u set u.score = u.score + 1 where u.name = :name")
+    int incrementScoreByName(String name);
 }
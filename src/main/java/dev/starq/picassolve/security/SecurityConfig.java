@@ -37,6 +37,9 @@ public class SecurityConfig {
                                                                 "/images/**",
                                                                 "/webjars/**")
                                                 .permitAll()
+                                                // 지표 수집기(Prometheus)는 로그인하지 않는다. 외부 노출은 Nginx 에서 막는다
+                                                .requestMatchers("/actuator/health", "/actuator/prometheus")
+                                                .permitAll()
                                                 .anyRequest().authenticated())
                                 .formLogin(form -> form
                                                 .loginPage("/login")
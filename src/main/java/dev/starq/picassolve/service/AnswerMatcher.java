@@ -0,0 +1,346 @@
+package dev.starq.picassolve.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 제시어 하나에 대한 채팅 판정기. 단어를 사전에 올릴 때 한 번 만들어 두고 라운드 내내 여러 방에서 함께 쓴다. (불변)
+ * <ul>
+ * <li>{@link #matches}: 공백/대소문자를 무시하고 NFC 로 맞춘 채팅이 정답과 같은지</li>
+ * <li>{@link #leaks}: 출제자/관리자 채팅 어딘가에 정답이 들어 있는지. 완성형 글자, 자모로 풀어 쓴 형태
+ * ("ㅅㅏㄱㅘ", "ㅅㅏㄱㅗㅏ")를 패턴으로 하는 Aho–Corasick 오토마톤으로 한 번에 찾는다</li>
+ * <li>{@link #isClose}: 자모(자판 입력) 단위로 한 글자만 다른 오답인지 ("아깝다" 힌트용)</li>
+ * </ul>
+ * 채팅은 {@link #next}로 한 글자씩 정규화하며 읽으므로 정답/유출 판정은 문자열을 새로 만들지 않는다.
+ * 한글이 아닌 결합 문자가 섞인 드문 경우에만 {@link Normalizer}로 먼저 NFC 변환한다.
+ */
+final class AnswerMatcher {
+
+    // 유니코드 한글 음절/첫가끝 자모 구성 상수
+    private static final int S_BASE = 0xAC00, L_BASE = 0x1100, V_BASE = 0x1161, T_BASE = 0x11A7;
+    private static final int L_COUNT = 19, V_COUNT = 21, T_COUNT = 28, S_COUNT = L_COUNT * V_COUNT * T_COUNT;
+
+    // 호환 자모: 초성, 종성(겹받침 포함, 인덱스 1부터), 중성은 0x314F 부터 순서대로
+    private static final String L_COMPAT = "ㄱㄲㄴㄷㄸㄹㅁㅂㅃㅅㅆㅇㅈㅉㅊㅋㅌㅍㅎ";
+    private static final String T_COMPAT = "ㄱㄲㄳㄴㄵㄶㄷㄹㄺㄻㄼㄽㄾㄿㅀㅁㅂㅄㅅㅆㅇㅈㅊㅋㅌㅍㅎ";
+    private static final char V_COMPAT_BASE = 0x314F;
+
+    // 자판으로 치는 순서 (겹모음/겹받침은 두 글자)
+    private static final String[] V_KEYS = { "ㅏ", "ㅐ", "ㅑ", "ㅒ", "ㅓ", "ㅔ", "ㅕ", "ㅖ", "ㅗ", "ㅗㅏ", "ㅗㅐ", "ㅗㅣ",
+            "ㅛ", "ㅜ", "ㅜㅓ", "ㅜㅔ", "ㅜㅣ", "ㅠ", "ㅡ", "ㅡㅣ", "ㅣ" };
+    private static final String[] T_KEYS = { "", "ㄱ", "ㄲ", "ㄱㅅ", "ㄴ", "ㄴㅈ", "ㄴㅎ", "ㄷ", "ㄹ", "ㄹㄱ", "ㄹㅁ", "ㄹㅂ",
+            "ㄹㅅ", "ㄹㅌ", "ㄹㅍ", "ㄹㅎ", "ㅁ", "ㅂ", "ㅂㅅ", "ㅅ", "ㅆ", "ㅇ", "ㅈ", "ㅊ", "ㅋ", "ㅌ", "ㅍ", "ㅎ" };
+
+    /** 호환 자모(0x3131~0x3163) → 자판 순서. 겹자모만 두 글자다 */
+    private static final String[] COMPAT_KEYS = new String[0x3163 - 0x3131 + 1];
+
+    static {
+        for (int i = 0; i < COMPAT_KEYS.length; i++)
+            COMPAT_KEYS[i] = String.valueOf((char) (0x3131 + i));
+        for (int t = 1; t < T_COUNT; t++)
+            COMPAT_KEYS[T_COMPAT.charAt(t - 1) - 0x3131] = T_KEYS[t];
+        for (int v = 0; v < V_COUNT; v++)
+            COMPAT_KEYS[V_COMPAT_BASE + v - 0x3131] = V_KEYS[v];
+    }
+
+    /** 자판 단위로 이만큼은 되어야 "아깝다" 힌트를 준다. (짧은 단어는 한 글자 차이가 너무 흔하다) */
+    private static final int MIN_CLOSE_KEYS = 4;
+
+    private final char[] answer;
+    private final char[] keys;
+
+    // Aho–Corasick: 상태마다 나가는 글자/다음 상태(작은 배열, 선형 탐색), 실패 링크, 패턴 끝 여부
+    private final char[][] edgeChars;
+    private final int[][] edgeTargets;
+    private final int[] fail;
+    private final boolean[] terminal;
+
+    private AnswerMatcher(char[] answer, char[] keys, char[][] edgeChars, int[][] edgeTargets, int[] fail,
+            boolean[] terminal) {
+        this.answer = answer;
+        this.keys = keys;
+        this.edgeChars = edgeChars;
+        this.edgeTargets = edgeTargets;
+        this.fail = fail;
+        this.terminal = terminal;
+    }
+
+    static AnswerMatcher compile(String word) {
+        char[] answer = normalize(word);
+        StringBuilder compat = new StringBuilder();
+        StringBuilder keys = new StringBuilder();
+        for (char c : answer) {
+            appendCompat(c, compat);
+            appendKeys(c, keys);
+        }
+        Set<String> patterns = new LinkedHashSet<>();
+        if (answer.length > 0) {
+            patterns.add(new String(answer));
+            patterns.add(compat.toString());
+            patterns.add(keys.toString());
+        }
+        return build(answer, keys.toString().toCharArray(), patterns);
+    }
+
+    /* -------------------------------------------------------------------------- */
+    /* 판정 */
+    /* -------------------------------------------------------------------------- */
+
+    /** 정규화한 채팅이 정답과 같은지 */
+    boolean matches(String message) {
+        if (message == null || answer.length == 0)
+            return false;
+        CharSequence m = prepare(message);
+        int i = 0;
+        for (long p = next(m, 0); p >= 0; p = next(m, (int) p)) {
+            if (i == answer.length || answer[i++] != (char) (p >>> 32))
+                return false;
+        }
+        return i == answer.length;
+    }
+
+    /** 채팅 어딘가에 정답(완성형 또는 자모로 풀어 쓴 형태)이 들어 있는지 */
+    boolean leaks(String message) {
+        if (message == null || fail.length <= 1)
+            return false;
+        CharSequence m = prepare(message);
+        int state = 0;
+        for (long p = next(m, 0); p >= 0; p = next(m, (int) p)) {
+            char c = (char) (p >>> 32);
+            int to;
+            while ((to = target(state, c)) < 0 && state != 0)
+                state = fail[state];
+            state = Math.max(0, to);
+            if (terminal[state])
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * 자판 단위로 정답과 한 번의 삽입/삭제/치환 안쪽인지. {@link #matches}가 false 인 채팅에만 부른다.
+     * 정답 길이에 맞춘 작은 버퍼 하나를 쓰고, 그보다 길어지면 바로 포기한다.
+     */
+    boolean isClose(String message) {
+        if (message == null || keys.length < MIN_CLOSE_KEYS)
+            return false;
+        CharSequence m = prepare(message);
+        char[] typed = new char[keys.length + 6];
+        int n = 0;
+        for (long p = next(m, 0); p >= 0; p = next(m, (int) p)) {
+            n = appendKeys((char) (p >>> 32), typed, n);
+            if (n > keys.length + 1)
+                return false;
+        }
+        return withinOneEdit(keys, typed, n);
+    }
+
+    /* -------------------------------------------------------------------------- */
+    /* 정규화 */
+    /* -------------------------------------------------------------------------- */
+
+    /**
+     * s[i..] 에서 공백을 건너뛰고 정규화한 다음 글자를 (글자 << 32 | 다음 위치)로 돌려준다. 끝이면 -1.
+     * 첫가끝 자모(초성+중성[+종성])와 종성 없는 음절+종성은 완성형 음절로 합치고(NFC), 나머지는 소문자로 바꾼다.
+     */
+    static long next(CharSequence s, int i) {
+        int n = s.length();
+        while (i < n && Character.isWhitespace(s.charAt(i)))
+            i++;
+        if (i >= n)
+            return -1;
+        char c = s.charAt(i++);
+        if (c >= L_BASE && c < L_BASE + L_COUNT && i < n && isVowel(s.charAt(i))) {
+            int syllable = S_BASE + ((c - L_BASE) * V_COUNT + (s.charAt(i++) - V_BASE)) * T_COUNT;
+            if (i < n && isFinal(s.charAt(i)))
+                syllable += s.charAt(i++) - T_BASE;
+            c = (char) syllable;
+        } else if (c >= S_BASE && c < S_BASE + S_COUNT && (c - S_BASE) % T_COUNT == 0 && i < n
+                && isFinal(s.charAt(i))) {
+            c = (char) (c + s.charAt(i++) - T_BASE);
+        } else {
+            c = Character.toLowerCase(c);
+        }
+        return ((long) c << 32) | i;
+    }
+
+    private static boolean isVowel(char c) {
+        return c >= V_BASE && c < V_BASE + V_COUNT;
+    }
+
+    private static boolean isFinal(char c) {
+        return c > T_BASE && c < T_BASE + T_COUNT;
+    }
+
+    /** 한글 밖의 결합 문자(악센트 등)가 있으면 NFC 로 먼저 합친다. 대부분의 채팅은 그대로 돌려준다. */
+    private static CharSequence prepare(String message) {
+        for (int i = 0; i < message.length(); i++) {
+            char c = message.charAt(i);
+            if (c >= 0x0300 && (c < L_BASE || c > 0x11FF)) {
+                int type = Character.getType(c);
+                if (type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK)
+                    return Normalizer.normalize(message, Normalizer.Form.NFC);
+            }
+        }
+        return message;
+    }
+
+    private static char[] normalize(String word) {
+        CharSequence s = Normalizer.normalize(word, Normalizer.Form.NFC);
+        StringBuilder out = new StringBuilder(s.length());
+        for (long p = next(s, 0); p >= 0; p = next(s, (int) p))
+            out.append((char) (p >>> 32));
+        return out.toString().toCharArray();
+    }
+
+    /** 음절 → 호환 자모 (겹모음/겹받침은 한 글자) */
+    private static void appendCompat(char c, StringBuilder out) {
+        if (c < S_BASE || c >= S_BASE + S_COUNT) {
+            out.append(c);
+            return;
+        }
+        int s = c - S_BASE;
+        out.append(L_COMPAT.charAt(s / (V_COUNT * T_COUNT)));
+        out.append((char) (V_COMPAT_BASE + (s % (V_COUNT * T_COUNT)) / T_COUNT));
+        if (s % T_COUNT != 0)
+            out.append(T_COMPAT.charAt(s % T_COUNT - 1));
+    }
+
+    /** 음절/호환 자모 → 자판으로 치는 순서 */
+    private static void appendKeys(char c, StringBuilder out) {
+        if (c >= S_BASE && c < S_BASE + S_COUNT) {
+            int s = c - S_BASE;
+            out.append(L_COMPAT.charAt(s / (V_COUNT * T_COUNT)));
+            out.append(V_KEYS[(s % (V_COUNT * T_COUNT)) / T_COUNT]);
+            out.append(T_KEYS[s % T_COUNT]);
+        } else if (c >= 0x3131 && c <= 0x3163) {
+            out.append(COMPAT_KEYS[c - 0x3131]);
+        } else {
+            out.append(c);
+        }
+    }
+
+    /** {@link #appendKeys(char, StringBuilder)}와 같지만 배열에 쓴다. 음절 하나는 최대 5글자다 */
+    private static int appendKeys(char c, char[] out, int n) {
+        if (c >= S_BASE && c < S_BASE + S_COUNT) {
+            int s = c - S_BASE;
+            out[n++] = L_COMPAT.charAt(s / (V_COUNT * T_COUNT));
+            n = copy(V_KEYS[(s % (V_COUNT * T_COUNT)) / T_COUNT], out, n);
+            return copy(T_KEYS[s % T_COUNT], out, n);
+        }
+        if (c >= 0x3131 && c <= 0x3163)
+            return copy(COMPAT_KEYS[c - 0x3131], out, n);
+        out[n++] = c;
+        return n;
+    }
+
+    private static int copy(String keys, char[] out, int n) {
+        for (int i = 0; i < keys.length(); i++)
+            out[n++] = keys.charAt(i);
+        return n;
+    }
+
+    private static boolean withinOneEdit(char[] a, char[] b, int bn) {
+        int an = a.length;
+        if (Math.abs(an - bn) > 1)
+            return false;
+        int i = 0, j = 0;
+        boolean edited = false;
+        while (i < an && j < bn) {
+            if (a[i] == b[j]) {
+                i++;
+                j++;
+                continue;
+            }
+            if (edited)
+                return false;
+            edited = true;
+            if (an > bn)
+                i++;
+            else if (an < bn)
+                j++;
+            else {
+                i++;
+                j++;
+            }
+        }
+        return !edited || (i == an && j == bn);
+    }
+
+    /* -------------------------------------------------------------------------- */
+    /* Aho–Corasick */
+    /* -------------------------------------------------------------------------- */
+
+    private int target(int state, char c) {
+        char[] chars = edgeChars[state];
+        for (int k = 0; k < chars.length; k++) {
+            if (chars[k] == c)
+                return edgeTargets[state][k];
+        }
+        return -1;
+    }
+
+    private static AnswerMatcher build(char[] answer, char[] keys, Set<String> patterns) {
+        // 트라이
+        List<StringBuilder> chars = new ArrayList<>();
+        List<List<Integer>> targets = new ArrayList<>();
+        List<Boolean> terminal = new ArrayList<>();
+        chars.add(new StringBuilder());
+        targets.add(new ArrayList<>());
+        terminal.add(false);
+        for (String pattern : patterns) {
+            int state = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                int k = chars.get(state).indexOf(String.valueOf(c));
+                if (k >= 0) {
+                    state = targets.get(state).get(k);
+                    continue;
+                }
+                chars.get(state).append(c);
+                targets.get(state).add(chars.size());
+                state = chars.size();
+                chars.add(new StringBuilder());
+                targets.add(new ArrayList<>());
+                terminal.add(false);
+            }
+            terminal.set(state, true);
+        }
+
+        int size = chars.size();
+        char[][] edgeChars = new char[size][];
+        int[][] edgeTargets = new int[size][];
+        boolean[] term = new boolean[size];
+        for (int s = 0; s < size; s++) {
+            edgeChars[s] = chars.get(s).toString().toCharArray();
+            edgeTargets[s] = targets.get(s).stream().mapToInt(Integer::intValue).toArray();
+            term[s] = terminal.get(s);
+        }
+
+        // 실패 링크 (너비 우선). 실패 상태가 패턴 끝이면 이 상태도 끝으로 본다
+        int[] fail = new int[size];
+        int[] queue = new int[size];
+        int head = 0, tail = 0;
+        for (int t : edgeTargets[0])
+            queue[tail++] = t;
+        AnswerMatcher m = new AnswerMatcher(answer, keys, edgeChars, edgeTargets, fail, term);
+        while (head < tail) {
+            int s = queue[head++];
+            for (int k = 0; k < edgeChars[s].length; k++) {
+                char c = edgeChars[s][k];
+                int t = edgeTargets[s][k];
+                int f = fail[s];
+                int to;
+                while ((to = m.target(f, c)) < 0 && f != 0)
+                    f = fail[f];
+                fail[t] = (to >= 0 && to != t) ? to : 0;
+                term[t] |= term[fail[t]];
+                queue[tail++] = t;
+            }
+        }
+        return m;
+    }
+}
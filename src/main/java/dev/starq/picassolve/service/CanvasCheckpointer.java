@@ -0,0 +1,113 @@
+package dev.starq.picassolve.service;
+
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 오래된 스트로크를 주기적으로 래스터 체크포인트(PNG)로 구워 히스토리에서 덜어낸다.
+ * 스냅샷은 "체크포인트 이미지 + 그 이후 스트로크"가 되므로 라운드 길이와 무관하게 크기가 제한되고,
+ * 히스토리를 잘라내도 화면에서 선이 사라지지 않는다. 최근 몇 개의 액션은 실행취소를 위해 남겨둔다.
+ */
+@Component
+@Slf4j
+public class CanvasCheckpointer {
+
+    private final GameRoomRegistry rooms;
+    private final int keepActions;
+    private final int minSegments;
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "canvas-checkpoint");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public CanvasCheckpointer(GameRoomRegistry rooms,
+            @Value("${app.canvas.checkpoint-keep-actions:20}") int keepActions,
+            @Value("${app.canvas.checkpoint-min-segments:2000}") int minSegments) {
+        this.rooms = rooms;
+        this.keepActions = Math.max(1, keepActions); // 대기 중인 브로드캐스트 꼬리는 굽지 않도록 최소 1개 유지
+        this.minSegments = Math.max(0, minSegments);
+    }
+
+    /** 히스토리 한도를 넘었을 때 바로 체크포인트를 요청한다. strokes 모니터 안에서 호출해도 된다. */
+    void request(GameRoom room) {
+        if (room.checkpointRequested.compareAndSet(false, true)) {
+            worker.execute(() -> {
+                room.checkpointRequested.set(false);
+                checkpoint(room, 0);
+            });
+        }
+    }
+
+    /** 방마다 하나씩만 예약한다. 굽는 데 주기보다 오래 걸려도 같은 방의 작업이 쌓이지 않는다 */
+    @Scheduled(fixedDelayString = "${app.canvas.checkpoint-interval-ms:10000}")
+    public void checkpointAll() {
+        for (GameRoom room : rooms.rooms()) {
+            if (!room.checkpointScheduled.compareAndSet(false, true))
+                continue;
+            worker.execute(() -> {
+                try {
+                    checkpoint(room, minSegments);
+                } finally {
+                    room.checkpointScheduled.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * 앞쪽 액션을 복사해 모니터 밖에서 굽고, 그 사이 캔버스가 초기화되거나 히스토리 앞부분이 바뀌지 않았을 때만
+     * 결과를 반영한다.
+     */
+    void checkpoint(GameRoom room, int threshold) {
+        synchronized (room.rasterLock) {
+            StrokeStore strokes = room.strokes;
+            StrokeStore.Slice toBake;
+            int bakeCount, firstSeq, lastSeq;
+            byte[] base;
+            int epoch;
+            synchronized (strokes) {
+                bakeCount = strokes.actionCount() - keepActions;
+                if (bakeCount <= 0)
+                    return;
+                int bakedSegments = strokes.segmentOffsetOf(bakeCount);
+                if (bakedSegments < threshold)
+                    return;
+                toBake = strokes.copy(0, bakedSegments);
+                firstSeq = strokes.seqAt(0);
+                lastSeq = strokes.seqAt(bakeCount - 1);
+                base = room.checkpointPng;
+                epoch = room.canvasEpoch;
+            }
+
+            long started = System.nanoTime();
+            byte[] png;
+            try {
+                png = CanvasRasterizer.render(base, toBake);
+            } catch (RuntimeException ex) {
+                log.warn("[캔버스] 체크포인트 생성 실패 (방: {}): {}", room.id, ex.toString());
+                return;
+            }
+
+            synchronized (strokes) {
+                if (room.canvasEpoch != epoch || strokes.actionCount() < bakeCount
+                        || strokes.seqAt(0) != firstSeq || strokes.seqAt(bakeCount - 1) != lastSeq)
+                    return;
+                strokes.removeFirst(bakeCount);
+                room.checkpointPng = png;
+            }
+            log.debug("[캔버스] 체크포인트 생성 (방: {}, 액션 {}개/세그먼트 {}개, {}KB, {}ms)", room.id, bakeCount,
+                    toBake.size(), png.length / 1024, (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        worker.shutdownNow();
+    }
+}
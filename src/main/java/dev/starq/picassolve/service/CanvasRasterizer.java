@@ -0,0 +1,82 @@
+package dev.starq.picassolve.service;
+
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import javax.imageio.ImageIO;
+
+/**
+ * 헤드리스 Java2D로 스트로크를 캔버스와 같은 크기의 PNG에 굽는다.
+ * 클라이언트의 canvas 렌더링(round cap/join, 지우개 = destination-out)과 같은 규칙을 따른다.
+ */
+final class CanvasRasterizer {
+
+    static final int WIDTH = 770;
+    static final int HEIGHT = 600;
+
+    private CanvasRasterizer() {
+    }
+
+    /** 기존 체크포인트(없으면 투명 캔버스) 위에 세그먼트를 순서대로 그린 PNG를 돌려준다. */
+    static byte[] render(byte[] basePng, StrokeStore.Slice segs) {
+        BufferedImage img = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = img.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+            if (basePng != null)
+                g.drawImage(ImageIO.read(new ByteArrayInputStream(basePng)), 0, 0, null);
+            drawSegments(g, segs);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            g.dispose();
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(32 * 1024);
+        try {
+            ImageIO.write(img, "png", out);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return out.toByteArray();
+    }
+
+    /** 이어지는 같은 스타일의 세그먼트는 하나의 path로 그린다. */
+    private static void drawSegments(Graphics2D g, StrokeStore.Slice segs) {
+        int i = 0;
+        while (i < segs.size()) {
+            Path2D.Float path = new Path2D.Float();
+            path.moveTo(segs.x1[i], segs.y1[i]);
+            path.lineTo(segs.x2[i], segs.y2[i]);
+            int j = i + 1;
+            while (j < segs.size() && sameStyle(segs, i, j)
+                    && segs.x1[j] == segs.x2[j - 1] && segs.y1[j] == segs.y2[j - 1]) {
+                path.lineTo(segs.x2[j], segs.y2[j]);
+                j++;
+            }
+
+            g.setStroke(new BasicStroke(Math.max(0.1f, segs.width[i]), BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+            if (segs.isEraser(i)) {
+                g.setComposite(AlphaComposite.Clear);
+            } else {
+                g.setComposite(AlphaComposite.SrcOver);
+                g.setColor(new Color(segs.rgb[i]));
+            }
+            g.draw(path);
+            i = j;
+        }
+    }
+
+    private static boolean sameStyle(StrokeStore.Slice s, int a, int b) {
+        return s.isEraser(a) == s.isEraser(b) && s.rgb[a] == s.rgb[b] && s.width[a] == s.width[b];
+    }
+}
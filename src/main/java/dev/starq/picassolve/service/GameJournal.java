@@ -0,0 +1,559 @@
+package dev.starq.picassolve.service;
+
+import dev.starq.picassolve.dto.DrawEvent;
+import dev.starq.picassolve.service.GameStateBackplane.*;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 게임 상태 변경(라운드 시작, 스트로크, 실행취소, 초기화, 정답, 방 정리)을 메모리 맵 파일에 덧붙여 기록하는 저널.
+ * 서버가 재시작하면 {@link #replay()}로 방마다 진행 중이던 라운드와 캔버스를 되살린다.
+ *
+ * <p>호출 스레드는 레코드를 인코딩해 큐에 넣기만 하고, 저널 스레드 하나가 맵 버퍼에 복사한다.
+ * 그래서 방마다 잡고 있는 lock 밖의 공용 모니터가 없고, 파일 생성/매핑도 호출 스레드를 막지 않는다.
+ * 같은 방의 기록은 방 lock 안에서 큐에 넣으므로 파일에도 적용 순서대로 남는다.
+ * 파일이 차면 미리 만들어 둔 다음 세대 파일로 넘어가고, {@link #compact}가 방마다 현재 상태 스냅샷을 새 세대에 쓴 뒤
+ * 이전 세대를 지운다. 레코드 형식: [길이 int][CRC32 int][본문]. 길이 0 이나 CRC 불일치에서 그 파일 읽기를 멈춘다.
+ */
+@Component
+@Slf4j
+public class GameJournal {
+
+    private static final byte T_ROUND = 1, T_STROKE = 2, T_UNDO = 3, T_CLEAR = 4, T_ANSWER = 5, T_DROP = 6,
+            T_SNAPSHOT = 7;
+    private static final byte F_NEW_STROKE = 1, F_ERASER = 1 << 1;
+    private static final int HEADER = 8;
+    private static final long IDLE_PARK_NS = 10_000_000L;
+    private static final String PREFIX = "journal-";
+    private static final String SUFFIX = ".log";
+
+    private final boolean enabled;
+    private final Path dir;
+    private final int fileBytes;
+    private final long compactBytes;
+
+    // 인코딩된 레코드(ByteBuffer)와 저널 스레드에서 실행할 작업(Runnable). 여러 스레드가 넣고 저널 스레드만 꺼낸다
+    private final Queue<Object> pending = new ConcurrentLinkedQueue<>();
+    private final Thread writer;
+    private volatile boolean writerIdle = false;
+    private volatile boolean stopping = false;
+    private volatile boolean compacting = false;
+
+    // 아래는 저널 스레드만 쓴다 (replay 는 저널 스레드가 기록을 시작하기 전에 끝난다)
+    private final CRC32 crc = new CRC32();
+    private MappedByteBuffer out;
+    private MappedByteBuffer prepared; // generation + 1 세대 파일
+    private volatile long generation = 0;
+    private volatile long writtenSinceCompaction = 0;
+
+    public GameJournal(@Value("${app.journal.enabled:true}") boolean enabled,
+            @Value("${app.journal.dir:./data/journal}") String dir,
+            @Value("${app.journal.file-mb:64}") int fileMb,
+            @Value("${app.journal.compact-after-mb:16}") int compactAfterMb) {
+        this.enabled = enabled;
+        this.dir = Path.of(dir);
+        this.fileBytes = Math.max(1, fileMb) << 20;
+        this.compactBytes = (long) Math.max(1, compactAfterMb) << 20;
+        this.writer = new Thread(this::writeLoop, "game-journal");
+        writer.setDaemon(true);
+        if (enabled)
+            writer.start();
+    }
+
+    /* -------------------------------------------------------------------------- */
+    /* 기록 */
+    /* -------------------------------------------------------------------------- */
+
+    /** 상태를 바꾸는 이벤트만 기록한다. 호출자가 잡고 있는 방 lock 안에서 불러 기록 순서가 적용 순서와 같게 한다. */
+    public void append(Event event) {
+        if (!enabled)
+            return;
+        Record r = new Record();
+        if (event instanceof RoundChanged e) {
+            r.putByte(T_ROUND);
+            r.putString(e.roomId());
+            r.putLong(e.round());
+            r.putString(e.origin());
+            r.putString(e.word());
+            r.putString(e.drawer());
+        } else if (event instanceof StrokeAppended e) {
+            r.putByte(T_STROKE);
+            r.putString(e.roomId());
+            r.putSegment(e.segment());
+        } else if (event instanceof StrokeUndone e) {
+            r.putByte(T_UNDO);
+            r.putString(e.roomId());
+            r.putInt(e.seq());
+        } else if (event instanceof CanvasCleared e) {
+            r.putByte(T_CLEAR);
+            r.putString(e.roomId());
+        } else if (event instanceof RoomState e) {
+            r.putSnapshot(e);
+        } else {
+            return;
+        }
+        submit(r.buf.flip());
+    }
+
+    /** 정답 기록. 점수는 DB가 원본이므로 복구에는 쓰지 않고 재생 시 통계로만 남긴다. */
+    public void answer(String roomId, String winner, String word) {
+        if (!enabled)
+            return;
+        Record r = new Record();
+        r.putByte(T_ANSWER);
+        r.putString(roomId);
+        r.putString(winner);
+        r.putString(word);
+        submit(r.buf.flip());
+    }
+
+    /** 빈 방이 정리되었다. 재생할 때 이 방의 이전 기록은 버린다. */
+    public void dropRoom(String roomId) {
+        if (!enabled)
+            return;
+        Record r = new Record();
+        r.putByte(T_DROP);
+        r.putString(roomId);
+        submit(r.buf.flip());
+    }
+
+    /** 레코드나 작업을 저널 스레드에 넘긴다. 쉬고 있으면 깨운다. */
+    private void submit(Object op) {
+        if (stopping)
+            return;
+        pending.add(op);
+        if (writerIdle)
+            LockSupport.unpark(writer);
+    }
+
+    /** 지금까지 넘긴 기록이 맵 버퍼에 복사될 때까지 기다린다. (테스트, 벤치마크용) */
+    void awaitWritten() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        submit((Runnable) done::countDown);
+        done.await();
+    }
+
+    private void writeLoop() {
+        while (true) {
+            Object op = pending.poll();
+            if (op == null) {
+                if (stopping)
+                    break;
+                writerIdle = true;
+                if (pending.isEmpty() && !stopping)
+                    LockSupport.parkNanos(IDLE_PARK_NS);
+                writerIdle = false;
+                continue;
+            }
+            try {
+                if (op instanceof ByteBuffer record)
+                    write(record);
+                else
+                    ((Runnable) op).run();
+            } catch (RuntimeException ex) {
+                log.warn("[게임] 저널 기록 실패: {}", ex.toString());
+            }
+        }
+        if (out != null)
+            out.force();
+        discardPrepared();
+    }
+
+    private void write(ByteBuffer record) {
+        int len = record.remaining();
+        try {
+            if (out == null || out.remaining() < HEADER + len + 4) // 다음 레코드 자리에 길이 0 이 남도록 4바이트 여유
+                rollover(len);
+        } catch (IOException ex) {
+            log.warn("[게임] 저널 파일 생성 실패, 기록을 건너뜀: {}", ex.toString());
+            out = null;
+            return;
+        }
+        crc.reset();
+        crc.update(record.duplicate());
+        out.putInt(len).putInt((int) crc.getValue()).put(record);
+        writtenSinceCompaction += HEADER + len;
+    }
+
+    /**
+     * 다음 세대 파일로 넘어간다. 미리 만들어 둔 파일이 있으면 바꿔 끼우기만 하고, 레코드 하나가 기본 크기보다 크면
+     * 그만큼 키워서 연다. 넘어간 뒤 그다음 세대 파일을 미리 만들어 둔다.
+     */
+    private void rollover(int need) throws IOException {
+        int size = Math.max(fileBytes, HEADER + need + 4);
+        long next = generation + 1;
+        MappedByteBuffer file = prepared != null && prepared.capacity() >= size ? prepared : openFile(next, size);
+        prepared = null;
+        out = file;
+        generation = next;
+        log.debug("[게임] 저널 파일 열기: {}", fileOf(next).getFileName());
+        try {
+            prepared = openFile(next + 1, fileBytes);
+        } catch (IOException ex) {
+            log.warn("[게임] 다음 저널 파일 준비 실패: {}", ex.toString()); // 다음 전환 때 다시 만든다
+        }
+    }
+
+    private MappedByteBuffer openFile(long gen, int size) throws IOException {
+        Files.createDirectories(dir);
+        try (FileChannel ch = FileChannel.open(fileOf(gen), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            return ch.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    /** 쓰지 않은 채 남은 다음 세대 파일을 지운다. (비어 있으므로 남아도 재생 결과는 같다) */
+    private void discardPrepared() {
+        if (prepared == null)
+            return;
+        prepared = null;
+        try {
+            Files.deleteIfExists(fileOf(generation + 1));
+        } catch (IOException ignored) {
+        }
+    }
+
+    /* -------------------------------------------------------------------------- */
+    /* 압축 */
+    /* -------------------------------------------------------------------------- */
+
+    /** 이전 압축 뒤로 충분히 쌓였으면 true. (재생한 이전 세대가 있으면 바로 압축한다) */
+    public boolean needsCompaction() {
+        return enabled && !compacting && writtenSinceCompaction >= compactBytes;
+    }
+
+    /**
+     * 새 세대로 넘어간 뒤 방마다 현재 상태 스냅샷을 기록하고 이전 세대 파일을 지운다.
+     * <ul>
+     * <li>세대 전환을 큐에 넣은 다음에 방 목록을 읽는다. 그 사이 생긴 방의 기록은 전환 뒤에 들어가므로 새 세대에 남는다.</li>
+     * <li>스냅샷은 방 lock 과 strokes 모니터를 잡은 채로 넣으므로 그 방의 다른 기록과 순서가 섞이지 않는다.</li>
+     * <li>이전 세대는 스냅샷이 모두 파일에 쓰인 뒤에 지운다. 도중에 죽으면 이전 세대가 남아 있으므로 재생 결과는 같다
+     * (스냅샷은 그 방의 상태를 통째로 덮어쓴다).</li>
+     * </ul>
+     */
+    public void compact(Supplier<? extends Collection<GameRoom>> live, Function<GameRoom, RoomState> snapshot) {
+        if (!enabled || compacting)
+            return;
+        compacting = true;
+        long started = System.nanoTime();
+        long[] keepFrom = new long[1];
+        submit((Runnable) () -> {
+            try {
+                rollover(0);
+            } catch (IOException ex) {
+                log.warn("[게임] 저널 압축 실패: {}", ex.toString());
+                return;
+            }
+            keepFrom[0] = generation;
+        });
+        Collection<GameRoom> rooms = live.get();
+        for (GameRoom room : rooms) {
+            synchronized (room.lock) {
+                synchronized (room.strokes) {
+                    append(snapshot.apply(room));
+                }
+            }
+        }
+        submit((Runnable) () -> {
+            compacting = false;
+            writtenSinceCompaction = 0;
+            if (keepFrom[0] == 0)
+                return; // 전환 실패: 이전 세대를 지우지 않는다
+            int deleted = 0;
+            for (Map.Entry<Long, Path> old : generations().entrySet()) {
+                if (old.getKey() >= keepFrom[0])
+                    continue;
+                try {
+                    Files.deleteIfExists(old.getValue());
+                    deleted++;
+                } catch (IOException ex) {
+                    log.warn("[게임] 이전 저널 삭제 실패: {}", old.getValue().getFileName());
+                }
+            }
+            log.info("[게임] 저널 압축: 방 {}개, 이전 파일 {}개 삭제 ({}ms)", rooms.size(), deleted,
+                    (System.nanoTime() - started) / 1_000_000);
+        });
+    }
+
+    /* -------------------------------------------------------------------------- */
+    /* 재생 */
+    /* -------------------------------------------------------------------------- */
+
+    /** 재생 중 방 하나의 상태 */
+    private static final class RoomImage {
+        long round;
+        String origin = "";
+        String word;
+        String drawer;
+        byte[] checkpoint;
+        final StrokeStore strokes = new StrokeStore();
+    }
+
+    /**
+     * 남아 있는 저널 파일을 세대 순서대로 읽어 방마다 마지막 상태를 돌려준다. 이후 기록은 새 세대 파일에 한다.
+     * 서버 시작 시 한 번, 요청을 받기 전(저널 스레드가 기록을 시작하기 전)에 부른다.
+     */
+    public List<RoomState> replay() {
+        if (!enabled)
+            return List.of();
+        long started = System.nanoTime();
+        Map<String, RoomImage> images = new LinkedHashMap<>();
+        int records = 0, answers = 0;
+        CRC32 crc = new CRC32();
+        Map<Long, Path> files = generations();
+        for (Map.Entry<Long, Path> file : files.entrySet()) {
+            generation = Math.max(generation, file.getKey());
+            ByteBuffer in;
+            try (FileChannel ch = FileChannel.open(file.getValue(), StandardOpenOption.READ)) {
+                in = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            } catch (IOException ex) {
+                log.warn("[게임] 저널 읽기 실패: {} ({})", file.getValue().getFileName(), ex.toString());
+                continue;
+            }
+            while (in.remaining() >= HEADER) {
+                int len = in.getInt();
+                int sum = in.getInt();
+                if (len <= 0 || len > in.remaining())
+                    break;
+                ByteBuffer body = in.slice(in.position(), len);
+                crc.reset();
+                crc.update(body.duplicate());
+                if ((int) crc.getValue() != sum) {
+                    log.warn("[게임] 저널 손상 레코드에서 읽기 중단: {}", file.getValue().getFileName());
+                    break;
+                }
+                in.position(in.position() + len);
+                if (applyRecord(images, body))
+                    answers++;
+                records++;
+            }
+        }
+
+        List<RoomState> states = new ArrayList<>(images.size());
+        images.forEach((roomId, img) -> states.add(new RoomState(roomId, img.round, img.origin, img.word, img.drawer,
+                img.strokes.copy(0, img.strokes.segmentCount()).toEvents(), img.checkpoint, 0, Map.of(), false)));
+        writtenSinceCompaction = files.isEmpty() ? 0 : compactBytes; // 이전 세대가 있으면 곧 압축한다
+        out = null; // 다음 기록은 새 세대 파일에
+        if (!files.isEmpty())
+            log.info("[게임] 저널 재생: 파일 {}개, 레코드 {}개, 방 {}개, 정답 {}회 ({}ms)", files.size(), records,
+                    states.size(), answers, (System.nanoTime() - started) / 1_000_000);
+        return states;
+    }
+
+    /** 레코드 하나를 적용한다. 정답 레코드였으면 true. */
+    private boolean applyRecord(Map<String, RoomImage> images, ByteBuffer b) {
+        byte type = b.get();
+        String roomId = getString(b);
+        switch (type) {
+            case T_ROUND -> {
+                RoomImage img = images.computeIfAbsent(roomId, id -> new RoomImage());
+                img.round = b.getLong();
+                img.origin = getString(b);
+                img.word = getString(b);
+                img.drawer = getString(b);
+                img.strokes.clear();
+                img.checkpoint = null;
+            }
+            case T_STROKE -> images.computeIfAbsent(roomId, id -> new RoomImage()).strokes.appendReplicated(getSegment(b));
+            case T_UNDO -> {
+                RoomImage img = images.get(roomId);
+                int seq = b.getInt();
+                if (img != null && !img.strokes.isEmpty() && img.strokes.seqAt(img.strokes.actionCount() - 1) == seq)
+                    img.strokes.removeLast();
+            }
+            case T_CLEAR -> {
+                RoomImage img = images.get(roomId);
+                if (img != null) {
+                    img.strokes.clear();
+                    img.checkpoint = null;
+                }
+            }
+            case T_ANSWER -> {
+                return true;
+            }
+            case T_DROP -> images.remove(roomId);
+            case T_SNAPSHOT -> {
+                RoomImage img = new RoomImage();
+                img.round = b.getLong();
+                img.origin = getString(b);
+                img.word = getString(b);
+                img.drawer = getString(b);
+                int pngLen = b.getInt();
+                if (pngLen >= 0) {
+                    img.checkpoint = new byte[pngLen];
+                    b.get(img.checkpoint);
+                }
+                int segments = b.getInt();
+                for (int i = 0; i < segments; i++)
+                    img.strokes.appendReplicated(getSegment(b));
+                images.put(roomId, img);
+            }
+            default -> log.warn("[게임] 알 수 없는 저널 레코드: {}", type);
+        }
+        return false;
+    }
+
+    /** 남은 기록을 모두 쓰고 저널 스레드를 멈춘다. */
+    @PreDestroy
+    void shutdown() {
+        stopping = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /* -------------------------------------------------------------------------- */
+    /* 인코딩 */
+    /* -------------------------------------------------------------------------- */
+
+    /** 호출 스레드에서 레코드 본문 하나를 인코딩하는 버퍼. */
+    private static final class Record {
+        ByteBuffer buf = ByteBuffer.allocate(64);
+
+        void putSnapshot(RoomState s) {
+            putByte(T_SNAPSHOT);
+            putString(s.roomId());
+            putLong(s.round());
+            putString(s.origin());
+            putString(s.word());
+            putString(s.drawer());
+            byte[] png = s.checkpoint();
+            putInt(png == null ? -1 : png.length);
+            if (png != null) {
+                ensure(png.length);
+                buf.put(png);
+            }
+            putInt(s.segments().size());
+            for (DrawEvent seg : s.segments())
+                putSegment(seg);
+        }
+
+        void putSegment(DrawEvent e) {
+            ensure(5 * 4 + 4 + 4 + 1);
+            buf.putFloat((float) e.getX1()).putFloat((float) e.getY1())
+                    .putFloat((float) e.getX2()).putFloat((float) e.getY2())
+                    .putFloat((float) e.getWidth())
+                    .putInt(StrokeStore.parseRgb(e.getColor()))
+                    .putInt(e.getSeq() == null ? 0 : e.getSeq())
+                    .put((byte) ((Boolean.TRUE.equals(e.getNewStroke()) ? F_NEW_STROKE : 0)
+                            | ("eraser".equals(e.getMode()) ? F_ERASER : 0)));
+            putString(e.getActionId());
+        }
+
+        void putByte(byte v) {
+            ensure(1);
+            buf.put(v);
+        }
+
+        void putInt(int v) {
+            ensure(4);
+            buf.putInt(v);
+        }
+
+        void putLong(long v) {
+            ensure(8);
+            buf.putLong(v);
+        }
+
+        /** 길이(short, null 이면 -1) + UTF-8 */
+        void putString(String s) {
+            if (s == null) {
+                ensure(2);
+                buf.putShort((short) -1);
+                return;
+            }
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            int len = Math.min(bytes.length, Short.MAX_VALUE);
+            ensure(2 + len);
+            buf.putShort((short) len).put(bytes, 0, len);
+        }
+
+        void ensure(int n) {
+            if (buf.remaining() >= n)
+                return;
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(buf.capacity() * 2, buf.position() + n));
+            buf.flip();
+            bigger.put(buf);
+            buf = bigger;
+        }
+    }
+
+    private static DrawEvent getSegment(ByteBuffer b) {
+        float x1 = b.getFloat(), y1 = b.getFloat(), x2 = b.getFloat(), y2 = b.getFloat(), width = b.getFloat();
+        int rgb = b.getInt();
+        int seq = b.getInt();
+        byte flags = b.get();
+        return DrawEvent.builder()
+                .x1(x1).y1(y1).x2(x2).y2(y2).width(width)
+                .color(StrokeStore.toHex(rgb))
+                .mode((flags & F_ERASER) != 0 ? "eraser" : "pen")
+                .newStroke((flags & F_NEW_STROKE) != 0)
+                .seq(seq)
+                .actionId(getString(b))
+                .build();
+    }
+
+    private static String getString(ByteBuffer b) {
+        short len = b.getShort();
+        if (len < 0)
+            return null;
+        byte[] bytes = new byte[len];
+        b.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /* -------------------------------------------------------------------------- */
+    /* Helpers */
+    /* -------------------------------------------------------------------------- */
+
+    private Path fileOf(long gen) {
+        return dir.resolve(String.format("%s%010d%s", PREFIX, gen, SUFFIX));
+    }
+
+    /** 디렉터리의 저널 파일 (세대 -> 경로) */
+    private Map<Long, Path> generations() {
+        Map<Long, Path> files = new TreeMap<>();
+        if (!Files.isDirectory(dir))
+            return files;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, PREFIX + "*" + SUFFIX)) {
+            for (Path p : stream) {
+                String name = p.getFileName().toString();
+                try {
+                    long gen = Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+                    files.put(gen, p);
+                } catch (NumberFormatException ignored) {
+                }
+            }
+        } catch (IOException ex) {
+            log.warn("[게임] 저널 디렉터리 읽기 실패: {}", ex.toString());
+        }
+        return files;
+    }
+}
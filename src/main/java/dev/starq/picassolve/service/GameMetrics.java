@@ -0,0 +1,220 @@
+package dev.starq.picassolve.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.springframework.stereotype.Component;
+
+/**
+ * 실시간 게임 경로의 지표. Actuator 의 {@code /actuator/prometheus} 로 노출된다.
+ * <ul>
+ * <li>{@code picassolve.ws.inbound{mapping}}: @MessageMapping 별 처리 횟수와 시간</li>
+ * <li>{@code picassolve.broadcast{destination}}: 브로커로 보내는 데 걸린 시간(구독자 팬아웃 포함)</li>
+ * <li>{@code picassolve.lock.wait / held{lock}}: GameService 가 방 lock(입장/퇴장, 출제자 변경, 채팅, 목록 발행,
+ * 빈 방 정리, 복제 상태 반영)과 strokes 모니터(그리기, 실행취소, 초기화, 라운드 보관, 다른 노드의 스트로크,
+ * 상태 이어받기)를 기다린/잡고 있던 시간. 같은 lock 을 다시 잡는 안쪽 구간은 바깥 구간에 포함되므로 따로 세지 않는다.
+ * GameService 밖(스트로크 묶음 전송과 스냅샷 복사, 체크포인트, 저널 압축, 지표 게이지)에서 잡는 lock 은 세지 않는다.</li>
+ * <li>{@code picassolve.ws.rate.limited{action}}: 발행 속도 제한으로 버린 메시지 수</li>
+ * <li>{@code picassolve.room.queue.*}: 방 명령 대기열에서 기다린 시간, 넘쳐서 버린 명령 수</li>
+ * <li>{@code picassolve.strokes.simplified}: 끝난 액션을 단순화해 줄인 세그먼트 수</li>
+ * <li>{@code picassolve.snapshot.*}: 캔버스 스냅샷 크기와 준비 시간</li>
+ * <li>게이지: 접속자, 방, 스트로크 히스토리 액션/세그먼트 수</li>
+ * </ul>
+ * 목적지 태그의 방 ID/유저 이름은 {@code {roomId}}, {@code {user}} 로 바꾸고, 그래도 종류가
+ * {@value #MAX_TAG_VALUES}개를 넘으면(임의의 목적지로 보내는 클라이언트) {@code other} 로 묶는다.
+ */
+@Component
+public class GameMetrics {
+
+    public static final String INBOUND = "picassolve.ws.inbound";
+    public static final String BROADCAST = "picassolve.broadcast";
+
+    private static final int MAX_TAG_VALUES = 64;
+    private static final Pattern APP_ROOM = Pattern.compile("^/app/room/[^/]+/");
+    private static final Pattern TOPIC_ROOM = Pattern.compile("^/topic/room/[^/]+/");
+    private static final Pattern USER_PREFIX = Pattern.compile("^/user/[^/]+/");
+    private static final Pattern SESSION_SUFFIX = Pattern.compile("-user[^/]+$");
+
+    private final MeterRegistry registry;
+    private final Map<String, Timer> inbound = new ConcurrentHashMap<>();
+    private final Map<String, Timer> broadcast = new ConcurrentHashMap<>();
+    private final Map<String, Counter> rateLimited = new ConcurrentHashMap<>();
+    private final Timer roomLockWait;
+    private final Timer roomLockHeld;
+    private final Timer strokesLockWait;
+    private final Timer strokesLockHeld;
+    private final Timer commandQueueWait;
+    private final Counter commandsRejected;
+    private final Counter strokesSimplified;
+    private final Timer snapshotTime;
+    private final DistributionSummary snapshotSegments;
+    private final DistributionSummary snapshotCheckpointBytes;
+
+    public GameMetrics(MeterRegistry registry, GameRoomRegistry rooms) {
+        this.registry = registry;
+        this.roomLockWait = lockTimer("picassolve.lock.wait", "room");
+        this.roomLockHeld = lockTimer("picassolve.lock.held", "room");
+        this.strokesLockWait = lockTimer("picassolve.lock.wait", "strokes");
+        this.strokesLockHeld = lockTimer("picassolve.lock.held", "strokes");
+        this.commandQueueWait = Timer.builder("picassolve.room.queue.wait")
+                .description("게임 명령이 방 대기열에서 실행되기까지 기다린 시간")
+                .register(registry);
+        this.commandsRejected = Counter.builder("picassolve.room.queue.rejected")
+                .description("방 대기열이 가득 차서 버린 게임 명령 수")
+                .register(registry);
+        this.strokesSimplified = Counter.builder("picassolve.strokes.simplified")
+                .description("끝난 액션을 단순화해 히스토리/라운드 기록에서 줄인 세그먼트 수")
+                .register(registry);
+        this.snapshotTime = Timer.builder("picassolve.snapshot.duration")
+                .description("캔버스 스냅샷 복사/변환/전송 시간")
+                .register(registry);
+        this.snapshotSegments = DistributionSummary.builder("picassolve.snapshot.segments")
+                .description("캔버스 스냅샷에 담긴 세그먼트 수")
+                .register(registry);
+        this.snapshotCheckpointBytes = DistributionSummary.builder("picassolve.snapshot.checkpoint")
+                .description("캔버스 스냅샷에 실린 체크포인트 PNG 크기")
+                .baseUnit("bytes")
+                .register(registry);
+
+        Gauge.builder("picassolve.users.online", rooms, GameMetrics::localOnline)
+                .description("이 노드에 접속한 유저 수")
+                .register(registry);
+        Gauge.builder("picassolve.rooms", rooms, r -> r.rooms().size())
+                .register(registry);
+        Gauge.builder("picassolve.strokes.actions", rooms, r -> strokeTotal(r, false))
+                .description("모든 방의 스트로크 히스토리 액션 수")
+                .register(registry);
+        Gauge.builder("picassolve.strokes.segments", rooms, r -> strokeTotal(r, true))
+                .description("모든 방의 스트로크 히스토리 세그먼트 수")
+                .register(registry);
+    }
+
+    /* -------------------------------------------------------------------------- */
+    /* 메시지 */
+    /* -------------------------------------------------------------------------- */
+
+    /** 들어온 메시지 처리 시간. destination 은 /app/... 그대로 넘긴다. */
+    public void inbound(String destination, long nanos) {
+        timer(inbound, INBOUND, "mapping", mappingOf(destination)).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void broadcast(String destination, long nanos) {
+        timer(broadcast, BROADCAST, "destination", destinationOf(destination)).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** 속도 제한으로 버린 메시지. action 은 설정된 규칙 이름뿐이라 태그 종류가 늘지 않는다. */
+    public void rateLimited(String action) {
+        rateLimited.computeIfAbsent(action, a -> Counter.builder("picassolve.ws.rate.limited")
+                .description("발행 속도 제한을 넘어 버린 메시지 수")
+                .tag("action", a)
+                .register(registry)).increment();
+    }
+
+    /** /app/room/abc/draw.stroke → /room/{roomId}/draw.stroke (@MessageMapping 패턴과 같은 모양) */
+    static String mappingOf(String destination) {
+        if (destination == null)
+            return "unknown";
+        String d = APP_ROOM.matcher(destination).replaceFirst("/app/room/{roomId}/");
+        return d.startsWith("/app/") ? d.substring(4) : d;
+    }
+
+    static String destinationOf(String destination) {
+        if (destination == null)
+            return "unknown";
+        String d = TOPIC_ROOM.matcher(destination).replaceFirst("/topic/room/{roomId}/");
+        d = USER_PREFIX.matcher(d).replaceFirst("/user/{user}/");
+        return SESSION_SUFFIX.matcher(d).replaceFirst(""); // 세션별로 풀린 /queue/x-user{sessionId}
+    }
+
+    /* -------------------------------------------------------------------------- */
+    /* Lock: 진입 직전 시각을 재고, 진입 직후 acquired, 나가기 직전 released 를 부른다 */
+    /* -------------------------------------------------------------------------- */
+
+    long roomLockAcquired(long waitStartNs) {
+        return acquired(roomLockWait, waitStartNs);
+    }
+
+    void roomLockReleased(long acquiredNs) {
+        roomLockHeld.record(System.nanoTime() - acquiredNs, TimeUnit.NANOSECONDS);
+    }
+
+    long strokesLockAcquired(long waitStartNs) {
+        return acquired(strokesLockWait, waitStartNs);
+    }
+
+    void strokesLockReleased(long acquiredNs) {
+        strokesLockHeld.record(System.nanoTime() - acquiredNs, TimeUnit.NANOSECONDS);
+    }
+
+    /* -------------------------------------------------------------------------- */
+    /* 방 명령 대기열 */
+    /* -------------------------------------------------------------------------- */
+
+    void commandDequeued(long waitNanos) {
+        commandQueueWait.record(waitNanos, TimeUnit.NANOSECONDS);
+    }
+
+    void commandRejected() {
+        commandsRejected.increment();
+    }
+
+    void strokesSimplified(int removedSegments) {
+        strokesSimplified.increment(removedSegments);
+    }
+
+    /* -------------------------------------------------------------------------- */
+    /* 스냅샷 */
+    /* -------------------------------------------------------------------------- */
+
+    void snapshotSent(int segments, int checkpointBytes, long nanos) {
+        snapshotTime.record(nanos, TimeUnit.NANOSECONDS);
+        snapshotSegments.record(segments);
+        if (checkpointBytes > 0)
+            snapshotCheckpointBytes.record(checkpointBytes);
+    }
+
+    /* -------------------------------------------------------------------------- */
+    /* Helpers */
+    /* -------------------------------------------------------------------------- */
+
+    private Timer timer(Map<String, Timer> cache, String name, String tag, String value) {
+        Timer t = cache.get(value);
+        if (t != null)
+            return t;
+        String v = cache.size() < MAX_TAG_VALUES ? value : "other";
+        return cache.computeIfAbsent(v, k -> Timer.builder(name).tag(tag, k).register(registry));
+    }
+
+    private Timer lockTimer(String name, String lock) {
+        return Timer.builder(name).tag("lock", lock).register(registry);
+    }
+
+    private static long acquired(Timer wait, long waitStartNs) {
+        long now = System.nanoTime();
+        wait.record(now - waitStartNs, TimeUnit.NANOSECONDS);
+        return now;
+    }
+
+    private static double localOnline(GameRoomRegistry rooms) {
+        int n = 0;
+        for (GameRoom room : rooms.rooms())
+            n += room.online.size();
+        return n;
+    }
+
+    private static double strokeTotal(GameRoomRegistry rooms, boolean segments) {
+        long n = 0;
+        for (GameRoom room : rooms.rooms()) {
+            synchronized (room.strokes) {
+                n += segments ? room.strokes.segmentCount() : room.strokes.actionCount();
+            }
+        }
+        return n;
+    }
+}
@@ -0,0 +1,99 @@
+package dev.starq.picassolve.service;
+
+import dev.starq.picassolve.dto.DrawEvent;
+import dev.starq.picassolve.entity.User.Role;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 방 하나의 게임 상태(제시어, 출제자, 스트로크 히스토리, 접속자)를 보관한다.
+ * 라운드/역할 변경은 방 단위 {@link #lock}, 스트로크와 체크포인트는 {@link #strokes} 모니터로 보호한다.
+ * 유저가 보낸 게임 명령과 복제된 방 이벤트는 {@link RoomCommandLoop}가 방마다 한 번에 하나씩 실행한다.
+ */
+public class GameRoom {
+
+    final String id;
+    final Object lock = new Object();
+    final Set<String> online = ConcurrentHashMap.newKeySet();
+    // 다른 노드에 접속한 유저 (노드 ID -> 이름 -> 기본 역할, 값은 불변 맵)
+    final Map<String, Map<String, Role>> remoteUsers = new ConcurrentHashMap<>();
+
+    volatile WordDictionary.Entry currentWord = null;
+    volatile String drawerName = null;
+    volatile long lastDrawAtMs = 0L;
+    final LinkedHashSet<String> recentWords = new LinkedHashSet<>(); // 최근 제시어 (lock 으로 보호)
+    // 라운드 번호와 그 라운드를 시작한 노드 (lock 으로 보호). 노드 사이 충돌은 (round, roundOrigin)이 큰 쪽이 이긴다
+    long round = 0;
+    String roundOrigin = "";
+    long roundStartedAtMs = 0L; // 라운드 보관용 시작 시각 (lock 으로 보호)
+
+    // 마지막으로 발행한 접속자 목록과 버전 (lock 으로 보호, 변경분 계산에 사용)
+    Map<String, Role> publishedUsers = new LinkedHashMap<>();
+    long usersVersion = 0;
+
+    final StrokeStore strokes = new StrokeStore();
+    // 라운드 보관용 전체 기록 (strokes 모니터로 보호). 체크포인트로 잘리지 않고, 한도를 넘으면 더 적지 않는다
+    final StrokeStore roundStrokes = new StrokeStore();
+    boolean roundTruncated = false;
+
+    // 래스터 체크포인트: 히스토리에서 빠진 오래된 스트로크를 구운 PNG (strokes 모니터로 보호)
+    byte[] checkpointPng = null;
+    int canvasEpoch = 0; // 캔버스가 초기화될 때마다 증가, 진행 중이던 체크포인트 결과를 버리는 데 사용
+    final AtomicBoolean checkpointRequested = new AtomicBoolean();
+    final AtomicBoolean checkpointScheduled = new AtomicBoolean(); // 주기 체크포인트가 대기/실행 중
+    final Object rasterLock = new Object();
+
+    // 브로드캐스트 대기 중인 세그먼트 (strokes 모니터로 보호, 발송 순서는 flushLock으로 보장)
+    final List<DrawEvent> pendingDraw = new ArrayList<>();
+    boolean flushScheduled = false;
+    final Object flushLock = new Object();
+    int flushHolds = 0; // 준비 중인 스냅샷 수. 0 이 아니면 세그먼트 발송을 미룬다 (flushLock 으로 보호)
+
+    // 게임 명령 대기열 ({@link RoomCommandLoop}). 카운터가 0 에서 1 로 바뀔 때 워커 하나가 드레인을 맡는다
+    final Queue<RoomCommandLoop.Command> commands = new ConcurrentLinkedQueue<>();
+    final AtomicInteger queuedCommands = new AtomicInteger();
+
+    GameRoom(String id) {
+        this.id = id;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /** 다른 노드에 접속한 유저까지 합친 인원 */
+    public int onlineCount() {
+        int n = online.size();
+        for (Map<String, Role> users : remoteUsers.values())
+            n += users.size();
+        return n;
+    }
+
+    boolean hasUser(String name) {
+        if (online.contains(name))
+            return true;
+        for (Map<String, Role> users : remoteUsers.values()) {
+            if (users.containsKey(name))
+                return true;
+        }
+        return false;
+    }
+
+    boolean isDrawer(String name) {
+        return name != null && name.equals(drawerName);
+    }
+
+    /** 이 방 전용 브로드캐스트 목적지: /topic/room/{id}/{suffix} */
+    String topic(String suffix) {
+        return "/topic/room/" + id + "/" + suffix;
+    }
+}
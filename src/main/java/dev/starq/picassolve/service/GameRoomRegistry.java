@@ -0,0 +1,88 @@
+package dev.starq.picassolve.service;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * 방 ID → {@link GameRoom} 레지스트리.
+ * 유저는 한 번에 하나의 방에만 속하며, 기본 방은 항상 존재한다.
+ */
+@Component
+@Slf4j
+public class GameRoomRegistry {
+
+    public static final String DEFAULT_ROOM = "lobby";
+    private static final int MAX_ROOMS = 500;
+    private static final Pattern ROOM_ID = Pattern.compile("[A-Za-z0-9_-]{1,32}");
+
+    private final Map<String, GameRoom> rooms = new ConcurrentHashMap<>();
+    private final Map<String, String> roomOfUser = new ConcurrentHashMap<>();
+
+    public GameRoomRegistry() {
+        rooms.put(DEFAULT_ROOM, new GameRoom(DEFAULT_ROOM));
+    }
+
+    public static boolean isValidId(String roomId) {
+        return roomId != null && ROOM_ID.matcher(roomId).matches();
+    }
+
+    public Optional<GameRoom> find(String roomId) {
+        return roomId == null ? Optional.empty() : Optional.ofNullable(rooms.get(roomId));
+    }
+
+    public GameRoom getOrCreate(String roomId) {
+        if (!isValidId(roomId))
+            throw new IllegalArgumentException("유효하지 않은 방 이름입니다.");
+        GameRoom existing = rooms.get(roomId);
+        if (existing != null)
+            return existing;
+        if (rooms.size() >= MAX_ROOMS)
+            throw new IllegalStateException("더 이상 방을 만들 수 없습니다.");
+        return rooms.computeIfAbsent(roomId, id -> {
+            log.info("[게임] 방 생성: {}", id);
+            return new GameRoom(id);
+        });
+    }
+
+    /** 유저가 현재 속한 방. 아직 배정되지 않았다면 기본 방. */
+    public GameRoom roomOf(String username) {
+        String id = roomOfUser.getOrDefault(username, DEFAULT_ROOM);
+        GameRoom room = rooms.get(id);
+        return room != null ? room : rooms.get(DEFAULT_ROOM);
+    }
+
+    public Optional<GameRoom> currentRoomOf(String username) {
+        String id = roomOfUser.get(username);
+        return id == null ? Optional.empty() : find(id);
+    }
+
+    /** 아직 정리되지 않고 레지스트리에 등록된 방인지 확인한다. (room.lock 안에서 호출) */
+    boolean isLive(GameRoom room) {
+        return rooms.get(room.id) == room;
+    }
+
+    void bind(String username, GameRoom room) {
+        roomOfUser.put(username, room.id);
+    }
+
+    void unbind(String username, GameRoom room) {
+        roomOfUser.remove(username, room.id);
+    }
+
+    /** 기본 방이 아닌 빈 방을 정리한다. (room.lock 안에서 호출) */
+    void removeIfEmpty(GameRoom room) {
+        if (DEFAULT_ROOM.equals(room.id) || room.onlineCount() > 0)
+            return;
+        if (rooms.remove(room.id, room))
+            log.info("[게임] 빈 방 정리: {}", room.id);
+    }
+
+    public Collection<GameRoom> rooms() {
+        return rooms.values();
+    }
+}
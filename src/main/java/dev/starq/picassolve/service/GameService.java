@@ -1,24 +1,36 @@
 package dev.starq.picassolve.service;
 
+import dev.starq.picassolve.dto.CanvasSnapshot;
 import dev.starq.picassolve.dto.DrawEvent;
-import dev.starq.picassolve.dto.ScoreBoardEntry;
+import dev.starq.picassolve.dto.RoomUser;
+import dev.starq.picassolve.dto.UsersUpdate;
 import dev.starq.picassolve.entity.User;
 import dev.starq.picassolve.entity.User.Role;
-import dev.starq.picassolve.entity.Word;
 import dev.starq.picassolve.repository.UserRepository;
-import dev.starq.picassolve.repository.WordRepository;
+import dev.starq.picassolve.service.GameStateBackplane.*;
+import dev.starq.picassolve.support.CanvasResyncRequest;
+import jakarta.annotation.PostConstruct;
 import java.security.Principal;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ThreadLocalRandom;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
  * 게임의 핵심 상태 및 브로드캐스트를 관리하는 서비스.
+ * 상태는 방({@link GameRoom}) 단위로 분리되어 있으며, 방마다 독립된 lock을 사용한다.
+ * 유저의 게임 명령과 다른 노드에서 복제된 방 이벤트는 {@link RoomCommandLoop}를 거쳐 방마다 한 번에 하나씩 들어온다.
+ * 여러 노드로 운영할 때는 상태 변경을 {@link GameStateBackplane}으로 복제한다.
  */
 @Service
 @RequiredArgsConstructor
@@ -26,54 +38,183 @@ import org.springframework.transaction.annotation.Transactional;
 public class GameService {
 
     private final UserRepository userRepo;
-    private final WordRepository wordRepo;
+    private final WordDictionary words;
+    private final Leaderboard leaderboard;
+    private final PresenceAggregator presence;
     private final SimpMessagingTemplate broker;
+    private final GameRoomRegistry rooms;
+    private final StrokeBroadcaster strokeBroadcaster;
+    private final CanvasCheckpointer checkpointer;
+    private final GameStateBackplane backplane;
+    private final GameJournal journal;
+    private final RoundArchiver archiver;
+    private final GameMetrics metrics;
+    private final RoomCommandLoop commands;
 
-    // --- 게임 상태 변수 ---
-    private volatile String currentWord = null;
-    private final Object lock = new Object();
-    private final Set<String> online = ConcurrentHashMap.newKeySet();
-    private volatile long lastDrawAtMs = 0L;
+    // 외부 브로커를 함께 쓰면 토픽 메시지는 이미 모든 노드의 구독자에게 가므로, 복제된 이벤트를 다시 브로드캐스트하지 않는다
+    @Value("${app.broker.relay.enabled:false}")
+    private boolean sharedBroker;
+
+    // 끝난 액션을 선 두께 × 이 값 안의 오차로 단순화한다 (0이면 원본 그대로 보관)
+    @Value("${app.canvas.simplify-tolerance:0.25}")
+    private float simplifyTolerance;
+
+    // 참가자의 오답이 자모 한 글자 차이면 본인에게 "아깝다" 힌트를 보낸다
+    @Value("${app.game.close-hint:true}")
+    private boolean closeHints;
+
+    // --- 접속자 로스터 (이름 -> 메모리 상태, DB write-through) ---
+    private final Map<String, Player> roster = new ConcurrentHashMap<>();
 
     // --- 상수 설정 ---
     private static final long DRAW_COOLDOWN_MS = 30_000L;
     private static final String ADMIN_NAME = "SYSTEM";
+    private static final int MAX_ROOM_USERS = 30;
     private static final int MAX_ACTIONS = 1_200;
     private static final int MAX_TOTAL_SEGMENTS = 40_000;
     private static final long MAX_ACTION_AGE_MS = 10 * 60_000L;
+    private static final int SNAPSHOT_CHUNK_SEGMENTS = 1_000;
+    private static final int MAX_ARCHIVE_SEGMENTS = 100_000;
+    private static final String SCOREBOARD_KEY = "scoreboard";
 
     /* -------------------------------------------------------------------------- */
-    /* 1. Session (Login/Logout) */
+    /* 1. Session (Login/Logout/Room) */
     /* -------------------------------------------------------------------------- */
 
+    /**
+     * 로그인 처리. 로그인 핸들러와 웹소켓 연결에서 한 번씩 불리므로, 이미 로스터에 있으면 DB를 다시 읽지 않는다.
+     * 접속자 목록 발행은 {@link PresenceAggregator}로 묶어서 보낸다.
+     */
     @Transactional
     public boolean login(String name) {
-        if (!userRepo.existsByName(name))
-            return false;
-        if (online.size() >= 30 && !online.contains(name))
-            return false;
+        Player known = roster.get(name);
+        User u = null;
+        if (known == null) {
+            u = userRepo.findByName(name).orElse(null);
+            if (u == null)
+                return false;
+        }
 
-        online.add(name);
+        GameRoom room = enterRoom(name, rooms.roomOf(name).id);
+        if (room == null)
+            return false;
 
-        userRepo.findByName(name).ifPresent(u -> {
+        if (u != null) {
             if (ADMIN_NAME.equals(u.getName())) {
                 u.setRole(Role.ADMIN);
-            } else if (u.getRole() == null) {
+            } else if (u.getRole() == null || (u.getRole() == Role.DRAWER && !room.isDrawer(name))) {
                 u.setRole(Role.PARTICIPANT);
             }
-            log.info("[게임] 유저 로그인: {} (현재 접속자: {}명)", u.getName(), online.size());
-        });
+            roster.put(name, Player.from(u));
+        }
+        log.info("[게임] 유저 로그인: {} (방: {}, 현재 접속자: {}명)", name, room.id, room.onlineCount());
 
-        publishUsersAndScoreboard();
+        publishUsersSoon(room);
+        presence.submit(SCOREBOARD_KEY, this::publishScoreboard);
         return true;
     }
 
-    @Transactional
     public void logout(String name) {
-        if (online.remove(name)) {
-            log.info("[게임] 유저 로그아웃: {} (현재 접속자: {}명)", name, online.size());
+        rooms.currentRoomOf(name).ifPresent(room -> {
+            leaveRoom(name, room);
+            roster.remove(name);
+            log.info("[게임] 유저 로그아웃: {} (방: {}, 현재 접속자: {}명)", name, room.id, room.onlineCount());
+            publishUsersSoon(room);
+        });
+    }
+
+    /**
+     * 유저를 지정한 방으로 옮긴다. 이미 그 방에 있다면 아무 것도 하지 않는다.
+     * 이전 방에서 출제자였다면 그 방의 출제자 자리는 비워진다.
+     */
+    @Transactional
+    public void joinRoom(String name, String roomId) {
+        GameRoom prev = rooms.currentRoomOf(name).orElse(null);
+        if (prev != null && prev.id.equals(roomId))
+            return;
+
+        GameRoom next = enterRoom(name, roomId);
+        if (next == null)
+            throw new IllegalStateException("방 정원(" + MAX_ROOM_USERS + "명)이 가득 찼습니다.");
+
+        if (prev != null) {
+            long waitStart = System.nanoTime();
+            synchronized (prev.lock) {
+                long acquired = metrics.roomLockAcquired(waitStart);
+                try {
+                    if (prev.isDrawer(name)) {
+                        prev.drawerName = null;
+                        demoteDrawer(name);
+                    }
+                } finally {
+                    metrics.roomLockReleased(acquired);
+                }
+            }
+            leaveRoom(name, prev);
+            publishUsersSoon(prev);
         }
-        publishUsersAndScoreboard();
+        log.info("[게임] 방 이동: {} ({} -> {})", name, prev != null ? prev.id : "-", next.id);
+        publishUsersSoon(next);
+    }
+
+    /** 방에 입장시킨다. 정원 초과면 null. 정리 중인 방에 들어가지 않도록 살아있는 방을 다시 확인한다. */
+    private GameRoom enterRoom(String name, String roomId) {
+        while (true) {
+            GameRoom room = rooms.getOrCreate(roomId);
+            long waitStart = System.nanoTime();
+            synchronized (room.lock) {
+                long acquired = metrics.roomLockAcquired(waitStart);
+                try {
+                    if (!rooms.isLive(room))
+                        continue;
+                    if (room.onlineCount() >= MAX_ROOM_USERS && !room.online.contains(name))
+                        return null;
+                    room.online.add(name);
+                    rooms.bind(name, room);
+                    return room;
+                } finally {
+                    metrics.roomLockReleased(acquired);
+                }
+            }
+        }
+    }
+
+    private void leaveRoom(String name, GameRoom room) {
+        long waitStart = System.nanoTime();
+        synchronized (room.lock) {
+            long acquired = metrics.roomLockAcquired(waitStart);
+            try {
+                room.online.remove(name);
+                rooms.unbind(name, room);
+            } finally {
+                metrics.roomLockReleased(acquired);
+            }
+        }
+        removeRoomIfEmpty(room);
+    }
+
+    /** 빈 방을 정리하고 소유권도 내놓는다. */
+    private void removeRoomIfEmpty(GameRoom room) {
+        long waitStart = System.nanoTime();
+        synchronized (room.lock) {
+            long acquired = metrics.roomLockAcquired(waitStart);
+            try {
+                rooms.removeIfEmpty(room);
+                if (rooms.isLive(room))
+                    return;
+                journal.dropRoom(room.id);
+            } finally {
+                metrics.roomLockReleased(acquired);
+            }
+        }
+        backplane.release(room.id);
+    }
+
+    /** 요청한 방이 유저가 현재 속한 방일 때만 그 방을 돌려준다. 어느 방에도 없는 유저(로비 포함)는 null. */
+    private GameRoom memberRoom(String name, String roomId) {
+        if (name == null)
+            return null;
+        return rooms.currentRoomOf(name).filter(room -> room.id.equals(roomId)).orElse(null);
     }
 
     /* -------------------------------------------------------------------------- */
@@ -81,33 +222,63 @@ public class GameService {
     /* -------------------------------------------------------------------------- */
 
     @Transactional
-    public void rerollWord(Principal p) {
+    public void rerollWord(Principal p, String roomId) {
         if (p == null)
             return;
-        User me = userRepo.findByName(p.getName()).orElse(null);
-        if (me == null || me.getRole() != Role.DRAWER)
+        GameRoom room = memberRoom(p.getName(), roomId);
+        if (room == null || !room.isDrawer(p.getName()))
+            return;
+        Player me = roster.get(p.getName());
+        if (me == null)
             return;
 
-        synchronized (lock) {
-            currentWord = pickRandomWordDifferentFrom(currentWord);
-            log.info("[게임] 제시어 다시 받기: {} (새 제시어: {})", me.getName(), currentWord);
-            startNewRoundAndBroadcast(me, me.getName() + "님이 제시어를 다시 받았습니다.");
+        long waitStart = System.nanoTime();
+        synchronized (room.lock) {
+            long acquired = metrics.roomLockAcquired(waitStart);
+            try {
+                archiveRoundLocked(room, null);
+                room.currentWord = words.next(room.recentWords, room.currentWord);
+                log.info("[게임] 제시어 다시 받기: {} (방: {}, 새 제시어: {})", me.getName(), room.id,
+                        room.currentWord.text());
+                startNewRoundAndBroadcast(room, me, me.getName() + "님이 제시어를 다시 받았습니다.");
+            } finally {
+                metrics.roomLockReleased(acquired);
+            }
         }
     }
 
-    private void startNewRoundAndBroadcast(User drawer, String systemMsg) {
-        resetDrawingState(true);
+    /** 관리자가 words 테이블을 고친 뒤 제시어 사전을 다시 읽는다. 진행 중인 라운드의 제시어는 그대로 둔다. */
+    public int reloadWordsByAdmin(String adminName) {
+        Player admin = roster.get(adminName);
+        if (admin == null || !admin.isAdmin())
+            throw new RuntimeException("관리자만 가능");
+        int count = words.reload();
+        log.info("[게임] 관리자 요청으로 제시어 사전 갱신: {} ({}개)", adminName, count);
+        return count;
+    }
 
-        broker.convertAndSendToUser(drawer.getName(), "/queue/word", currentWord);
-        userRepo.findByName(ADMIN_NAME)
-                .ifPresent(admin -> broker.convertAndSendToUser(admin.getName(), "/queue/word", currentWord));
+    private void startNewRoundAndBroadcast(GameRoom room, Player drawer, String systemMsg) {
+        room.round++;
+        room.roundOrigin = backplane.nodeId();
+        room.roundStartedAtMs = System.currentTimeMillis();
+        RoundChanged started = new RoundChanged(room.id, room.round, room.roundOrigin, room.currentWord.text(),
+                room.drawerName);
+        journal.append(started);
+        backplane.publish(started);
+        resetDrawingState(room, true);
+
+        broker.convertAndSendToUser(drawer.getName(), "/queue/word", room.currentWord.text());
+        if (room.online.contains(ADMIN_NAME)) {
+            broker.convertAndSendToUser(ADMIN_NAME, "/queue/word", room.currentWord.text());
+        }
 
         if (systemMsg != null && !systemMsg.isBlank()) {
-            publishChat("SYSTEM", systemMsg, true);
+            publishChat(room, "SYSTEM", systemMsg, true);
         }
 
-        publishUsersAndScoreboard();
-        publishWordLen();
+        publishUsers(room);
+        publishScoreboard();
+        publishWordLen(room);
     }
 
     /* -------------------------------------------------------------------------- */
@@ -115,51 +286,110 @@ public class GameService {
     /* -------------------------------------------------------------------------- */
 
     @Transactional
-    public void setMeAsDrawer(Principal p) {
+    public void setMeAsDrawer(Principal p, String roomId) {
         if (p == null)
             return;
-        User me = userRepo.findByName(p.getName()).orElse(null);
+        GameRoom room = memberRoom(p.getName(), roomId);
+        if (room == null)
+            return;
+        Player me = roster.get(p.getName());
         if (me == null)
             return;
 
-        long elapsed = System.currentTimeMillis() - lastDrawAtMs;
+        long elapsed = System.currentTimeMillis() - room.lastDrawAtMs;
         if (elapsed < DRAW_COOLDOWN_MS) {
             long remain = (DRAW_COOLDOWN_MS - elapsed) / 1000 + 1;
             throw new IllegalStateException("출제자가 그림을 그리는 중입니다. '내가 그리기'는 " + remain + "초 후에 가능합니다.");
         }
 
-        synchronized (lock) {
-            if (me.getRole() == Role.DRAWER)
-                return;
-            makeAllDrawersParticipants();
-            me.setRole(Role.DRAWER);
-            currentWord = pickRandomWord();
-            log.info("[게임] '내가 그리기'로 출제자 변경: {} (새 제시어: {})", me.getName(), currentWord);
-            startNewRoundAndBroadcast(me, me.getName() + "님이 출제자로 지정되었습니다.");
+        long waitStart = System.nanoTime();
+        synchronized (room.lock) {
+            long acquired = metrics.roomLockAcquired(waitStart);
+            try {
+                if (room.isDrawer(me.getName()))
+                    return;
+                archiveRoundLocked(room, null);
+                assignDrawerLocked(room, me);
+                room.currentWord = words.next(room.recentWords, room.currentWord);
+                log.info("[게임] '내가 그리기'로 출제자 변경: {} (방: {}, 새 제시어: {})", me.getName(), room.id,
+                        room.currentWord.text());
+                startNewRoundAndBroadcast(room, me, me.getName() + "님이 출제자로 지정되었습니다.");
+            } finally {
+                metrics.roomLockReleased(acquired);
+            }
         }
     }
 
     @Transactional
-    public void setDrawerByAdmin(String adminName, String targetUserName) {
-        User admin = userRepo.findByName(adminName).orElseThrow();
-        if (admin.getRole() != Role.ADMIN)
+    public void setDrawerByAdmin(String adminName, String roomId, String targetUserName) {
+        Player admin = roster.get(adminName);
+        if (admin == null || !admin.isAdmin())
             throw new RuntimeException("관리자만 가능");
+        GameRoom room = rooms.find(roomId).orElseThrow(() -> new IllegalArgumentException("존재하지 않는 방입니다."));
 
-        synchronized (lock) {
-            makeAllDrawersParticipants();
-            User drawer = userRepo.findByName(targetUserName).orElseThrow();
-            drawer.setRole(Role.DRAWER);
-            currentWord = pickRandomWord();
-            log.info("[게임] 관리자 권한으로 출제자 변경: {} -> {} (새 제시어: {})", adminName, targetUserName, currentWord);
-            startNewRoundAndBroadcast(drawer, null);
+        long waitStart = System.nanoTime();
+        synchronized (room.lock) {
+            long acquired = metrics.roomLockAcquired(waitStart);
+            try {
+                if (!room.hasUser(targetUserName))
+                    throw new IllegalArgumentException("이 방에 접속 중인 사용자가 아닙니다: " + targetUserName);
+                Player drawer = room.online.contains(targetUserName) ? roster.get(targetUserName)
+                        : remotePlayer(room, targetUserName);
+                if (drawer == null)
+                    throw new IllegalArgumentException("이 방에 접속 중인 사용자가 아닙니다: " + targetUserName);
+                archiveRoundLocked(room, null);
+                assignDrawerLocked(room, drawer);
+                room.currentWord = words.next(room.recentWords, room.currentWord);
+                log.info("[게임] 관리자 권한으로 출제자 변경: {} -> {} (방: {}, 새 제시어: {})", adminName, targetUserName,
+                        room.id, room.currentWord.text());
+                startNewRoundAndBroadcast(room, drawer, null);
+            } finally {
+                metrics.roomLockReleased(acquired);
+            }
         }
     }
 
-    private void makeAllDrawersParticipants() {
-        userRepo.findAll().forEach(u -> {
-            if (u.getRole() == Role.DRAWER)
-                u.setRole(Role.PARTICIPANT);
-        });
+    /** 방의 이전 출제자를 참여자로 되돌리고 새 출제자를 지정한다. 관리자 권한은 유지된다. */
+    private void assignDrawerLocked(GameRoom room, Player drawer) {
+        String prev = room.drawerName;
+        if (prev != null && !prev.equals(drawer.getName())) {
+            demoteDrawer(prev);
+        }
+        if (!drawer.isAdmin())
+            updateRole(drawer.getName(), drawer, Role.DRAWER);
+        room.drawerName = drawer.getName();
+    }
+
+    private void demoteDrawer(String name) {
+        Player p = roster.get(name);
+        if (p == null) {
+            // 오프라인 유저는 로스터에 없으므로 DB에만 반영
+            userRepo.updateRoleByName(name, Role.PARTICIPANT);
+        } else if (p.getRole() == Role.DRAWER) {
+            updateRole(name, p, Role.PARTICIPANT);
+        }
+    }
+
+    private void updateRole(String name, Player p, Role role) {
+        p.setRole(role);
+        userRepo.updateRoleByName(name, role);
+    }
+
+    /** 다른 노드에 접속한 유저. 역할 변경에만 쓰므로 팀은 알 필요가 없다. */
+    private Player remotePlayer(GameRoom room, String name) {
+        for (Map<String, Role> users : room.remoteUsers.values()) {
+            Role base = users.get(name);
+            if (base != null)
+                return new Player(name, 0, base);
+        }
+        return null;
+    }
+
+    /** 방 안에서의 역할: 출제자 > 관리자 > 참여자 */
+    private Role roleIn(GameRoom room, Player p) {
+        if (room.isDrawer(p.getName()))
+            return Role.DRAWER;
+        return p.isAdmin() ? Role.ADMIN : Role.PARTICIPANT;
     }
 
     /* -------------------------------------------------------------------------- */
@@ -167,52 +397,77 @@ public class GameService {
     /* -------------------------------------------------------------------------- */
 
     @Transactional
-    public void handleChat(String from, String text) {
+    public void handleChat(String from, String roomId, String text) {
+        GameRoom room = memberRoom(from, roomId);
+        if (room == null)
+            return;
         String raw = (text == null) ? "" : text;
         String msg = raw.trim();
 
-        synchronized (lock) {
-            boolean fromIsDrawer = userRepo.findByName(from).map(u -> u.getRole() == Role.DRAWER).orElse(false);
-            boolean fromIsAdmin = userRepo.findByName(from).map(u -> u.getRole() == Role.ADMIN).orElse(false);
-
-            if ((fromIsDrawer || fromIsAdmin) && currentWord != null && msg.equals(currentWord)) {
-                broker.convertAndSend("/topic/chat",
-                        Map.of("from", from, "text", maskWord(currentWord), "system", false));
-                return;
+        long waitStart = System.nanoTime();
+        synchronized (room.lock) {
+            long acquired = metrics.roomLockAcquired(waitStart);
+            try {
+                answerLocked(room, from, raw, msg);
+            } finally {
+                metrics.roomLockReleased(acquired);
             }
+        }
+    }
 
-            publishChat(from, raw, false);
-
-            if (currentWord != null && msg.equals(currentWord)) {
-                User winner = userRepo.findByName(from).orElseThrow();
-                if (winner.getRole() == Role.PARTICIPANT) {
-                    winner.setScore(winner.getScore() + 1);
-                    makeAllDrawersParticipants();
-                    winner.setRole(Role.DRAWER);
-                    String oldWord = currentWord;
-                    currentWord = pickRandomWord();
-                    log.info("[게임] 정답 발생! 승자: {} (정답: {}), 다음 제시어: {}", from, oldWord, currentWord);
-                    startNewRoundAndBroadcast(winner, winner.getName() + "님 정답! [" + text + "]");
-                }
-            }
+    /**
+     * 채팅을 발행하고 정답이면 라운드를 넘긴다. (lock 안에서 호출)
+     * 정답 판정은 공백/대소문자/NFC 차이를 무시하고, 출제자/관리자 채팅은 정답이 어디에든 들어 있으면 가린다.
+     * 참가자의 오답이 자모 한 글자 차이면 본인에게만 힌트를 보낸다.
+     */
+    private void answerLocked(GameRoom room, String from, String raw, String msg) {
+        WordDictionary.Entry current = room.currentWord;
+        String currentWord = current == null ? null : current.text();
+        AnswerMatcher matcher = current == null ? null : current.matcher();
+        boolean fromIsDrawer = room.isDrawer(from);
+        Player sender = roster.get(from);
+        boolean fromIsAdmin = sender != null && sender.isAdmin();
+
+        if ((fromIsDrawer || fromIsAdmin) && matcher != null && matcher.leaks(msg)) {
+            publishChat(room, from, current.mask(), false);
+            return;
+        }
+
+        publishChat(room, from, raw, false);
+        if (matcher == null || sender == null || roleIn(room, sender) != Role.PARTICIPANT)
+            return;
+
+        if (!matcher.matches(msg)) {
+            if (closeHints && matcher.isClose(msg))
+                broker.convertAndSendToUser(from, "/queue/hint", "아깝습니다! 거의 맞혔어요.");
+            return;
         }
+        leaderboard.increment(from, sender.getTeam());
+        backplane.publish(new ScoreIncremented(from, sender.getTeam()));
+        journal.answer(room.id, from, currentWord);
+        userRepo.incrementScoreByName(from);
+        archiveRoundLocked(room, from);
+        assignDrawerLocked(room, sender);
+        room.currentWord = words.next(room.recentWords, current);
+        log.info("[게임] 정답 발생! 승자: {} (방: {}, 정답: {}), 다음 제시어: {}", from, room.id, currentWord,
+                room.currentWord.text());
+        startNewRoundAndBroadcast(room, sender, sender.getName() + "님 정답! [" + raw + "]");
     }
 
     /* -------------------------------------------------------------------------- */
     /* 5. Drawing & Canvas */
     /* -------------------------------------------------------------------------- */
 
-    public boolean canDraw(Principal principal) {
+    private GameRoom drawableRoom(Principal principal, String roomId) {
         if (principal == null)
-            return false;
-        return userRepo.findByName(principal.getName()).map(u -> u.getRole() == Role.DRAWER).orElse(false);
+            return null;
+        GameRoom room = memberRoom(principal.getName(), roomId);
+        return (room != null && room.isDrawer(principal.getName())) ? room : null;
     }
 
-    private final List<StrokeAction> strokeActions = new ArrayList<>();
-    private int totalSegments = 0;
-
-    public void addStroke(Principal p, DrawEvent e) {
-        if (!canDraw(p))
+    public void addStroke(Principal p, String roomId, DrawEvent e) {
+        GameRoom room = drawableRoom(p, roomId);
+        if (room == null)
             return;
         if (e.getMode() == null || e.getMode().isBlank())
             e.setMode("pen");
@@ -221,66 +476,170 @@ public class GameService {
             e.setNewStroke(Boolean.TRUE);
         }
 
-        synchronized (strokeActions) {
-            if (Boolean.TRUE.equals(e.getNewStroke()) || strokeActions.isEmpty()
-                    || !strokeActions.get(strokeActions.size() - 1).id.equals(e.getActionId())) {
-                StrokeAction a = new StrokeAction(e.getActionId());
-                a.segments.add(e);
-                strokeActions.add(a);
-                totalSegments++;
-            } else {
-                strokeActions.get(strokeActions.size() - 1).segments.add(e);
-                totalSegments++;
+        boolean flushNow;
+        long waitStart = System.nanoTime();
+        synchronized (room.strokes) {
+            long acquired = metrics.strokesLockAcquired(waitStart);
+            try {
+                e.setSeq(room.strokes.append(e));
+                StrokeAppended appended = new StrokeAppended(room.id, e);
+                journal.append(appended);
+                backplane.publish(appended);
+                recordRoundStrokeLocked(room, e);
+                flushNow = strokeBroadcaster.enqueueLocked(room, e);
+                simplifyStrokesLocked(room);
+                trimStrokeHistoryLocked(room);
+            } finally {
+                metrics.strokesLockReleased(acquired);
             }
-            trimStrokeHistoryLocked();
         }
-        broker.convertAndSend("/topic/draw", e);
-        lastDrawAtMs = System.currentTimeMillis();
+        if (flushNow)
+            strokeBroadcaster.flush(room);
+        room.lastDrawAtMs = System.currentTimeMillis();
     }
 
-    public void undoLastStroke(Principal p) {
-        if (!canDraw(p))
+    public void undoLastStroke(Principal p, String roomId) {
+        GameRoom room = drawableRoom(p, roomId);
+        if (room == null)
             return;
-        String removedId;
-        synchronized (strokeActions) {
-            if (strokeActions.isEmpty())
-                return;
-            StrokeAction removed = strokeActions.remove(strokeActions.size() - 1);
-            removedId = removed.id;
-            totalSegments -= removed.segments.size();
+        String actionId;
+        int seq;
+        long waitStart = System.nanoTime();
+        synchronized (room.strokes) {
+            long acquired = metrics.strokesLockAcquired(waitStart);
+            try {
+                StrokeStore strokes = room.strokes;
+                if (strokes.isEmpty())
+                    return;
+                int last = strokes.actionCount() - 1;
+                actionId = strokes.actionIdAt(last);
+                seq = strokes.seqAt(last);
+                strokes.removeLast();
+                undoRoundStrokeLocked(room, seq);
+                room.pendingDraw.removeIf(seg -> seg.getSeq() != null && seg.getSeq() == seq);
+                StrokeUndone undone = new StrokeUndone(room.id, actionId, seq);
+                journal.append(undone);
+                backplane.publish(undone);
+            } finally {
+                metrics.strokesLockReleased(acquired);
+            }
         }
-        broker.convertAndSend("/topic/undo", Map.of("actionId", removedId));
+        strokeBroadcaster.flushThen(room,
+                () -> broker.convertAndSend(room.topic("undo"), Map.of("actionId", actionId, "seq", seq)));
     }
 
-    public void clearCanvas(Principal p) {
-        if (!canDraw(p))
+    public void clearCanvas(Principal p, String roomId) {
+        GameRoom room = drawableRoom(p, roomId);
+        if (room == null)
             return;
-        resetDrawingState(true);
+        backplane.publish(new CanvasCleared(room.id));
+        resetDrawingState(room, true);
     }
 
-    private void resetDrawingState(boolean broadcastClear) {
-        synchronized (strokeActions) {
-            strokeActions.clear();
-            totalSegments = 0;
-        }
-        if (broadcastClear)
-            broker.convertAndSend("/topic/canvas/clear", "");
+    private void resetDrawingState(GameRoom room, boolean broadcastClear) {
+        strokeBroadcaster.flushThen(room, () -> {
+            long waitStart = System.nanoTime();
+            synchronized (room.strokes) {
+                long acquired = metrics.strokesLockAcquired(waitStart);
+                try {
+                    room.strokes.clear();
+                    room.roundStrokes.clear();
+                    room.roundTruncated = false;
+                    room.checkpointPng = null;
+                    room.canvasEpoch++;
+                    journal.append(new CanvasCleared(room.id));
+                } finally {
+                    metrics.strokesLockReleased(acquired);
+                }
+            }
+            if (broadcastClear)
+                broker.convertAndSend(room.topic("canvas/clear"), "");
+        });
+    }
+
+    /**
+     * 끝난 액션을 단순화해 히스토리와 라운드 기록의 세그먼트를 줄인다. 실시간 브로드캐스트는 받은 그대로 나가고,
+     * 스냅샷/체크포인트/보관본이 줄어든 세그먼트를 쓴다. 아직 브로드캐스트되지 않은 꼬리는 스냅샷이
+     * {@code pendingDraw} 개수로 잘라내므로 건드리지 않는다. (strokes 모니터 안에서, enqueue 뒤에 호출)
+     */
+    private void simplifyStrokesLocked(GameRoom room) {
+        if (simplifyTolerance <= 0)
+            return;
+        int removed = room.strokes.simplifyCompleted(simplifyTolerance, room.pendingDraw.size(), false)
+                + room.roundStrokes.simplifyCompleted(simplifyTolerance, 0, false);
+        if (removed > 0)
+            metrics.strokesSimplified(removed);
     }
 
-    private void trimStrokeHistoryLocked() {
+    /**
+     * 한도를 넘으면 오래된 스트로크를 체크포인트 이미지로 굽도록 요청한다(비동기, 선은 화면에 남는다).
+     * 체크포인트가 따라오지 못해 한도의 두 배를 넘는 경우에만 가장 오래된 액션을 그대로 버린다.
+     */
+    void trimStrokeHistoryLocked(GameRoom room) {
+        StrokeStore strokes = room.strokes;
+        if (strokes.isEmpty())
+            return;
         long now = System.currentTimeMillis();
-        while (!strokeActions.isEmpty()) {
-            StrokeAction oldest = strokeActions.get(0);
-            boolean overCount = strokeActions.size() > MAX_ACTIONS;
-            boolean overSegments = totalSegments > MAX_TOTAL_SEGMENTS;
-            boolean tooOld = now - oldest.createdAtMs > MAX_ACTION_AGE_MS;
-            if (!overCount && !overSegments && !tooOld)
-                break;
-            strokeActions.remove(0);
-            totalSegments -= oldest.segments.size();
+        if (strokes.actionCount() > MAX_ACTIONS || strokes.segmentCount() > MAX_TOTAL_SEGMENTS
+                || now - strokes.createdAtMsAt(0) > MAX_ACTION_AGE_MS)
+            checkpointer.request(room);
+
+        while (strokes.actionCount() > 1
+                && (strokes.actionCount() > MAX_ACTIONS * 2 || strokes.segmentCount() > MAX_TOTAL_SEGMENTS * 2))
+            strokes.removeFirst(1);
+    }
+
+    /* -------------------------------------------------------------------------- */
+    /* 5-1. Round Archive */
+    /* -------------------------------------------------------------------------- */
+
+    /**
+     * 라운드 보관용 기록에 덧붙인다. 한도를 넘으면 더 적지 않고 잘렸다고 표시한다. (strokes 모니터 안에서 호출)
+     * 라운드 중에 캔버스를 지우면 기록도 함께 비워지므로, 보관되는 것은 마지막 캔버스의 그림이다.
+     */
+    private void recordRoundStrokeLocked(GameRoom room, DrawEvent e) {
+        if (!archiver.isEnabled())
+            return;
+        if (room.roundStrokes.segmentCount() >= MAX_ARCHIVE_SEGMENTS) {
+            room.roundTruncated = true;
+            return;
         }
-        if (totalSegments < 0)
-            totalSegments = 0;
+        room.roundStrokes.appendReplicated(e);
+    }
+
+    private static void undoRoundStrokeLocked(GameRoom room, int seq) {
+        StrokeStore recorded = room.roundStrokes;
+        if (!recorded.isEmpty() && recorded.seqAt(recorded.actionCount() - 1) == seq)
+            recorded.removeLast();
+    }
+
+    /**
+     * 끝나는 라운드를 보관한다. 제시어와 출제자를 바꾸기 전에 room.lock 안에서 호출한다.
+     * 기록은 여기서 복사만 하고, 인코딩과 저장은 {@link RoundArchiver}가 따로 한다.
+     * 다른 노드에서 시작된 라운드도 이 노드에서 끝나면 여기서 보관한다. (라운드를 끝낸 노드만 보관)
+     */
+    private void archiveRoundLocked(GameRoom room, String winner) {
+        WordDictionary.Entry word = room.currentWord;
+        if (word == null || !archiver.isEnabled())
+            return;
+        StrokeStore.Slice copied;
+        boolean truncated;
+        long waitStart = System.nanoTime();
+        synchronized (room.strokes) {
+            long acquired = metrics.strokesLockAcquired(waitStart);
+            try {
+                if (room.roundStrokes.isEmpty())
+                    return;
+                if (simplifyTolerance > 0) // 라운드가 끝났으니 마지막 액션도 끝난 것으로 본다
+                    room.roundStrokes.simplifyCompleted(simplifyTolerance, 0, true);
+                copied = room.roundStrokes.copy(0, room.roundStrokes.segmentCount());
+                truncated = room.roundTruncated;
+            } finally {
+                metrics.strokesLockReleased(acquired);
+            }
+        }
+        archiver.submit(room.id, word.text(), room.drawerName, winner, room.roundStartedAtMs,
+                System.currentTimeMillis(), copied, truncated);
     }
 
     /* -------------------------------------------------------------------------- */
@@ -288,102 +647,583 @@ public class GameService {
     /* -------------------------------------------------------------------------- */
 
     public void sendSnapshotTo(String username) {
-        List<User> onlineUsers = online.isEmpty() ? List.of() : userRepo.findByNameIn(online);
-        List<String> users = onlineUsers.stream().map(u -> u.getName() + " (" + u.getRole() + ")").toList();
-        broker.convertAndSendToUser(username, "/queue/users", users);
-
-        List<ScoreBoardEntry> ranking = userRepo.findAll().stream()
-                .filter(u -> u.getScore() > 0)
-                .sorted(Comparator.comparingInt(User::getScore).reversed())
-                .map(u -> new ScoreBoardEntry(u.getName(), u.getTeam(), u.getScore()))
-                .toList();
-        broker.convertAndSendToUser(username, "/queue/scoreboard", ranking);
-
-        broker.convertAndSendToUser(username, "/queue/wordlen", computeWordLen(currentWord));
-        userRepo.findByName(username).ifPresent(u -> {
-            if (currentWord != null && (u.getRole() == Role.DRAWER || u.getRole() == Role.ADMIN)) {
-                broker.convertAndSendToUser(username, "/queue/word", currentWord);
+        GameRoom room = sendRosterSnapshotTo(username);
+
+        WordDictionary.Entry currentWord = room.currentWord;
+        broker.convertAndSendToUser(username, "/queue/wordlen", wordLen(currentWord));
+        Player me = roster.get(username);
+        if (me != null && currentWord != null) {
+            Role role = roleIn(room, me);
+            if (role == Role.DRAWER || role == Role.ADMIN) {
+                broker.convertAndSendToUser(username, "/queue/word", currentWord.text());
             }
-        });
+        }
+
+        sendCanvasSnapshotTo(room, username, null);
+    }
 
-        sendCanvasSnapshotTo(username);
+    /**
+     * 보낼 대기열이 밀려 드로잉 프레임을 건너뛴 연결에만 캔버스를 다시 보낸다. (스냅샷 첫 조각이 캔버스를 새로 그린다)
+     * 같은 유저의 다른 연결은 밀리지 않았으므로 받지 않는다.
+     */
+    @EventListener
+    public void onCanvasResync(CanvasResyncRequest request) {
+        rooms.currentRoomOf(request.username())
+                .ifPresent(room -> sendCanvasSnapshotTo(room, request.username(), request.sessionId()));
     }
 
-    public void sendCanvasSnapshotTo(String username) {
-        broker.convertAndSendToUser(username, "/queue/canvas/clear", "");
-        synchronized (strokeActions) {
-            for (var action : strokeActions) {
-                for (var seg : action.segments) {
-                    broker.convertAndSendToUser(username, "/queue/draw", seg);
+    /**
+     * 캔버스 전체를 몇 개의 큰 조각으로 보낸다. 모니터 안에서는 원시 배열만 복사하고, DrawEvent 생성과 JSON 직렬화는
+     * lock 밖에서 끝낸 뒤 flushLock 안에서는 만들어 둔 메시지를 넣기만 한다. ({@link StrokeBroadcaster#sendInOrder})
+     * 아직 브로드캐스트되지 않은 대기 세그먼트(히스토리의 꼬리)는 스냅샷이 나간 뒤 토픽으로 나가므로 제외한다.
+     * 체크포인트 이미지가 있으면 첫 조각에 싣는다. sessionId 를 주면 유저의 그 연결로만 보낸다.
+     */
+    void sendCanvasSnapshotTo(GameRoom room, String username, String sessionId) {
+        long started = System.nanoTime();
+        String destination = broker.getUserDestinationPrefix() + username.replace("/", "%2F") + "/queue/canvas/snapshot";
+        strokeBroadcaster.sendInOrder(room,
+                () -> new CanvasCopy(
+                        room.strokes.copy(0, Math.max(0, room.strokes.segmentCount() - room.pendingDraw.size())),
+                        room.checkpointPng),
+                copy -> {
+                    List<DrawEvent> segments = copy.segments().toEvents();
+                    String checkpoint = copy.checkpointPng() == null ? null
+                            : "data:image/png;base64," + Base64.getEncoder().encodeToString(copy.checkpointPng());
+                    int chunks = Math.max(1, (segments.size() + SNAPSHOT_CHUNK_SEGMENTS - 1) / SNAPSHOT_CHUNK_SEGMENTS);
+                    List<Message<?>> frames = new ArrayList<>(chunks);
+                    for (int i = 0; i < chunks; i++) {
+                        int from = i * SNAPSHOT_CHUNK_SEGMENTS;
+                        int to = Math.min(segments.size(), from + SNAPSHOT_CHUNK_SEGMENTS);
+                        frames.add(serialize(
+                                new CanvasSnapshot(i, chunks, segments.subList(from, to), i == 0 ? checkpoint : null),
+                                sessionId));
+                    }
+                    metrics.snapshotSent(segments.size(), copy.checkpointPng() == null ? 0 : copy.checkpointPng().length,
+                            System.nanoTime() - started);
+                    return () -> {
+                        for (Message<?> frame : frames)
+                            broker.send(destination, frame);
+                    };
+                });
+    }
+
+    /** 스냅샷을 뜰 때 함께 복사하는 것들 */
+    private record CanvasCopy(StrokeStore.Slice segments, byte[] checkpointPng) {
+    }
+
+    /**
+     * convertAndSend 와 같은 변환기로 미리 직렬화한 메시지. 보낼 때 목적지만 채운다.
+     * sessionId 가 있으면 유저 목적지를 그 연결 하나로만 푼다.
+     */
+    private Message<?> serialize(Object payload, String sessionId) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        if (sessionId != null)
+            headers.setSessionId(sessionId);
+        headers.setLeaveMutable(true);
+        Message<?> message = broker.getMessageConverter().toMessage(payload, headers.getMessageHeaders());
+        if (message == null)
+            throw new IllegalStateException("메시지로 변환할 수 없습니다: " + payload.getClass().getSimpleName());
+        return message;
+    }
+
+    /**
+     * 접속자 목록과 점수판 전체를 현재 버전과 함께 보낸다. 클라이언트가 변경분 버전을 놓쳤을 때(state.resync)도 쓴다.
+     * 방 목록은 밀린 변경분을 먼저 발행한 뒤 같은 lock 안에서 보내, 스냅샷 버전 이후의 변경분만 토픽으로 나가게 한다.
+     */
+    public GameRoom sendRosterSnapshotTo(String username) {
+        GameRoom room = rooms.roomOf(username);
+        backplane.tryAcquire(room.id);
+        long waitStart = System.nanoTime();
+        synchronized (room.lock) {
+            long acquired = metrics.roomLockAcquired(waitStart);
+            try {
+                publishUsers(room);
+                List<RoomUser> users = new ArrayList<>(room.publishedUsers.size());
+                room.publishedUsers.forEach((name, role) -> users.add(new RoomUser(name, role)));
+                broker.convertAndSendToUser(username, "/queue/users", UsersUpdate.full(room.usersVersion, users));
+            } finally {
+                metrics.roomLockReleased(acquired);
+            }
+        }
+        broker.convertAndSendToUser(username, "/queue/scoreboard", leaderboard.snapshot());
+        return room;
+    }
+
+    /**
+     * 마지막 발행 이후 바뀐 접속자/역할만 다음 버전으로 보낸다. 바뀐 것이 없으면 보내지 않는다.
+     * 버전은 방 소유 노드만 매긴다. 소유 노드가 아니면 이 노드의 접속자만 소유 노드에 알린다.
+     * 소유권은 여기서 잡지 않는다. ({@link #publishUsersSoon}, {@link #claimRooms}가 lock 밖에서 잡는다)
+     * 이미 lock 을 쥔 채 부르면(라운드 시작, 목록 스냅샷) 바깥 구간에 포함되므로 다시 재지 않는다.
+     */
+    private void publishUsers(GameRoom room) {
+        boolean outermost = !Thread.holdsLock(room.lock);
+        long waitStart = System.nanoTime();
+        synchronized (room.lock) {
+            long acquired = outermost ? metrics.roomLockAcquired(waitStart) : 0L;
+            try {
+                if (!backplane.owns(room.id)) {
+                    publishPresence(room);
+                    return;
                 }
+                Map<String, Role> current = new LinkedHashMap<>();
+                for (String name : room.online) {
+                    Player p = roster.get(name);
+                    if (p != null)
+                        current.put(name, roleIn(room, p));
+                }
+                room.remoteUsers.values().forEach(users -> users.forEach(
+                        (name, base) -> current.putIfAbsent(name, room.isDrawer(name) ? Role.DRAWER : base)));
+
+                if (sendUsersDelta(room, current, room.usersVersion + 1, true))
+                    backplane.publish(new UsersPublished(room.id, room.usersVersion, current));
+            } finally {
+                if (outermost)
+                    metrics.roomLockReleased(acquired);
             }
         }
     }
 
-    private void publishUsersAndScoreboard() {
-        List<User> onlineUsers = online.isEmpty() ? List.of() : userRepo.findByNameIn(online);
-        List<String> users = onlineUsers.stream().map(u -> u.getName() + " (" + u.getRole() + ")").toList();
-        broker.convertAndSend("/topic/users", users);
+    /**
+     * 이전 발행본과 비교한 변경분을 version 으로 기록하고, broadcast 면 토픽으로 보낸다.
+     * 바뀐 것이 없으면 false. (lock 안에서 호출)
+     */
+    private boolean sendUsersDelta(GameRoom room, Map<String, Role> current, long version, boolean broadcast) {
+        List<RoomUser> joined = new ArrayList<>();
+        List<RoomUser> changed = new ArrayList<>();
+        List<String> left = new ArrayList<>();
+        current.forEach((name, role) -> {
+            Role prev = room.publishedUsers.get(name);
+            if (prev == null)
+                joined.add(new RoomUser(name, role));
+            else if (prev != role)
+                changed.add(new RoomUser(name, role));
+        });
+        for (String name : room.publishedUsers.keySet()) {
+            if (!current.containsKey(name))
+                left.add(name);
+        }
+        if (joined.isEmpty() && changed.isEmpty() && left.isEmpty())
+            return false;
+
+        room.publishedUsers = current;
+        room.usersVersion = version;
+        if (broadcast)
+            broker.convertAndSend(room.topic("users"), UsersUpdate.delta(version, joined, left, changed));
+        return true;
+    }
+
+    /** 이 노드에 접속한 방 유저를 다른 노드에 알린다. 역할은 출제자를 뺀 기본 역할만 보낸다. */
+    private void publishPresence(GameRoom room) {
+        Map<String, Role> users = new LinkedHashMap<>();
+        for (String name : room.online) {
+            Player p = roster.get(name);
+            if (p != null)
+                users.put(name, p.isAdmin() ? Role.ADMIN : Role.PARTICIPANT);
+        }
+        backplane.publish(new PresenceChanged(room.id, backplane.nodeId(), users));
+    }
+
+    /** 입장/퇴장처럼 몰려서 일어나는 변경은 짧은 창으로 묶어 한 번에 발행한다. */
+    private void publishUsersSoon(GameRoom room) {
+        presence.submit(room, () -> {
+            backplane.tryAcquire(room.id);
+            publishUsers(room);
+        });
+    }
 
-        List<ScoreBoardEntry> ranking = userRepo.findAll().stream()
-                .filter(u -> u.getScore() > 0)
-                .sorted(Comparator.comparingInt(User::getScore).reversed())
-                .map(u -> new ScoreBoardEntry(u.getName(), u.getTeam(), u.getScore()))
-                .toList();
-        broker.convertAndSend("/topic/scoreboard", ranking);
+    /** 주간 초기화, 프로필 수정처럼 게임 밖에서 바뀐 점수판도 같은 합치기 경로로 발행한다. */
+    @EventListener
+    public void onScoreboardChanged(ScoreboardChanged event) {
+        presence.submit(SCOREBOARD_KEY, this::publishScoreboard);
+    }
+
+    /** 외부 브로커를 함께 쓰면 기본 방을 소유한 노드만 점수판을 발행하고, 다른 노드는 그 버전을 따라간다. */
+    private void publishScoreboard() {
+        if (sharedBroker && !backplane.owns(GameRoomRegistry.DEFAULT_ROOM))
+            return;
+        leaderboard.publishChanges(update -> {
+            broker.convertAndSend("/topic/scoreboard", update);
+            if (sharedBroker)
+                backplane.publish(new ScoreboardPublished(update.getVersion()));
+        });
     }
 
     /* -------------------------------------------------------------------------- */
     /* 7. Utility & Helpers */
     /* -------------------------------------------------------------------------- */
 
-    private int computeWordLen(String word) {
-        if (word == null)
-            return 0;
-        String cleaned = word.replaceAll("\\s+", "");
-        return cleaned.codePointCount(0, cleaned.length());
+    private int wordLen(WordDictionary.Entry word) {
+        return word == null ? 0 : word.length();
     }
 
-    private void publishWordLen() {
-        broker.convertAndSend("/topic/wordlen", computeWordLen(currentWord));
+    private void publishWordLen(GameRoom room) {
+        broker.convertAndSend(room.topic("wordlen"), wordLen(room.currentWord));
     }
 
-    private String maskWord(String word) {
-        int n = Math.max(1, computeWordLen(word));
-        return "☆".repeat(n);
+    private void publishChat(GameRoom room, String from, String text, boolean system) {
+        broker.convertAndSend(room.topic("chat"), Map.of("from", from, "text", text, "system", system));
+        if (!sharedBroker)
+            backplane.publish(new ChatPosted(room.id, from, text, system));
     }
 
-    private String pickRandomWord() {
-        List<Word> all = wordRepo.findAll();
-        if (all.isEmpty())
-            throw new RuntimeException("단어 DB가 비었습니다");
-        return all.get(ThreadLocalRandom.current().nextInt(all.size())).getText();
+    /* -------------------------------------------------------------------------- */
+    /* 8. Replication (Backplane) */
+    /* -------------------------------------------------------------------------- */
+
+    /** 저널로 이전 상태를 먼저 되살린 뒤 다른 노드의 이벤트를 받기 시작한다. */
+    @PostConstruct
+    void init() {
+        restoreFromJournal();
+        backplane.subscribe(this::applyRemote);
     }
 
-    private String pickRandomWordDifferentFrom(String prev) {
-        List<Word> all = wordRepo.findAll();
-        if (all.isEmpty())
-            throw new RuntimeException("단어 DB가 비었습니다");
-        if (all.size() == 1)
-            return all.get(0).getText();
-        String next;
-        do {
-            next = all.get(ThreadLocalRandom.current().nextInt(all.size())).getText();
-        } while (Objects.equals(next, prev));
-        return next;
+    /** 새로 뜬 노드는 다른 노드에게 방 상태와 접속자를 요청한다. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void requestClusterState() {
+        backplane.publish(new SyncRequest(backplane.nodeId()));
     }
 
-    private void publishChat(String from, String text, boolean system) {
-        broker.convertAndSend("/topic/chat", Map.of("from", from, "text", text, "system", system));
+    /**
+     * 소유 노드가 없는 방(소유 노드가 내려갔거나 새로 생긴 방)의 소유권을 가져온다.
+     * 라운드와 스트로크는 이미 복제되어 있으므로 이어받은 노드는 접속자 목록 발행만 넘겨받으면 된다.
+     */
+    @Scheduled(fixedDelayString = "${app.backplane.lease-check-ms:1000}")
+    public void claimRooms() {
+        for (GameRoom room : rooms.rooms()) {
+            if (!backplane.owns(room.id) && backplane.tryAcquire(room.id)) {
+                log.debug("[게임] 방 소유권 획득: {} (노드: {})", room.id, backplane.nodeId());
+                publishUsersSoon(room);
+            }
+        }
     }
 
-    static class StrokeAction {
-        final String id;
-        final long createdAtMs = System.currentTimeMillis();
-        final List<DrawEvent> segments = new ArrayList<>();
+    /**
+     * 다른 노드에서 온 이벤트를 반영한다. DB는 이벤트를 만든 노드가 이미 반영했으므로 건드리지 않는다.
+     * 방 하나에 대한 이벤트는 그 방의 명령 대기열에서 유저 명령과 같은 순서로 실행한다.
+     */
+    private void applyRemote(GameStateBackplane.Event event) {
+        if (event instanceof RoundChanged e)
+            commands.replicate(e.roomId(), () -> applyRound(e));
+        else if (event instanceof StrokeAppended e)
+            commands.replicate(e.roomId(), () -> applyStroke(e));
+        else if (event instanceof StrokeUndone e)
+            commands.replicate(e.roomId(), () -> applyUndo(e));
+        else if (event instanceof CanvasCleared e)
+            commands.replicate(e.roomId(),
+                    () -> rooms.find(e.roomId()).ifPresent(room -> resetDrawingState(room, !sharedBroker)));
+        else if (event instanceof ChatPosted e)
+            commands.replicate(e.roomId(), () -> rooms.find(e.roomId()).ifPresent(room -> broker.convertAndSend(
+                    room.topic("chat"), Map.of("from", e.from(), "text", e.text(), "system", e.system()))));
+        else if (event instanceof PresenceChanged e)
+            commands.replicate(e.roomId(), () -> applyPresence(e));
+        else if (event instanceof UsersPublished e)
+            commands.replicate(e.roomId(), () -> applyUsers(e));
+        else if (event instanceof ScoreIncremented e) {
+            leaderboard.increment(e.name(), e.team());
+            presence.submit(SCOREBOARD_KEY, this::publishScoreboard);
+        } else if (event instanceof ScoreboardPublished e)
+            leaderboard.syncVersion(e.version());
+        else if (event instanceof SyncRequest e)
+            answerSync(e);
+        else if (event instanceof RoomState e)
+            commands.replicate(e.roomId(), () -> applyRoomState(e));
+        else if (event instanceof NodeLeft e)
+            forgetNode(e.node());
+        else if (event instanceof OutboxOverflowed e)
+            resendAllRooms(e);
+    }
+
+    private static boolean isNewerRound(GameRoom room, long round, String origin) {
+        return round > room.round || (round == room.round && origin.compareTo(room.roundOrigin) > 0);
+    }
 
-        StrokeAction(String id) {
-            this.id = id;
+    private void applyRound(RoundChanged e) {
+        GameRoom room = rooms.getOrCreate(e.roomId());
+        long waitStart = System.nanoTime();
+        synchronized (room.lock) {
+            long acquired = metrics.roomLockAcquired(waitStart);
+            try {
+                if (!isNewerRound(room, e.round(), e.origin()))
+                    return;
+                adoptRoundLocked(room, e.round(), e.origin(), e.word(), e.drawer());
+                journal.append(e);
+                resetDrawingState(room, !sharedBroker);
+                if (!sharedBroker) {
+                    sendWordToLocalDrawers(room);
+                    publishWordLen(room);
+                }
+                if (backplane.owns(room.id))
+                    publishUsers(room);
+            } finally {
+                metrics.roomLockReleased(acquired);
+            }
         }
     }
+
+    /** 라운드 정보를 바꾸고 이 노드에 접속한 이전/새 출제자의 역할을 맞춘다. (lock 안에서 호출) */
+    private void adoptRoundLocked(GameRoom room, long round, String origin, String word, String drawer) {
+        String prev = room.drawerName;
+        room.round = round;
+        room.roundOrigin = origin;
+        room.roundStartedAtMs = System.currentTimeMillis();
+        room.currentWord = word == null ? null : words.entryFor(word);
+        if (word != null)
+            room.recentWords.add(word);
+        room.drawerName = drawer;
+
+        Player prevPlayer = prev == null ? null : roster.get(prev);
+        if (prevPlayer != null && prevPlayer.getRole() == Role.DRAWER && !prev.equals(drawer))
+            prevPlayer.setRole(Role.PARTICIPANT);
+        Player next = drawer == null ? null : roster.get(drawer);
+        if (next != null && !next.isAdmin())
+            next.setRole(Role.DRAWER);
+    }
+
+    private void sendWordToLocalDrawers(GameRoom room) {
+        if (room.currentWord == null)
+            return;
+        if (room.drawerName != null && room.online.contains(room.drawerName))
+            broker.convertAndSendToUser(room.drawerName, "/queue/word", room.currentWord.text());
+        if (room.online.contains(ADMIN_NAME) && !room.isDrawer(ADMIN_NAME))
+            broker.convertAndSendToUser(ADMIN_NAME, "/queue/word", room.currentWord.text());
+    }
+
+    private void applyStroke(StrokeAppended e) {
+        GameRoom room = rooms.getOrCreate(e.roomId());
+        DrawEvent seg = e.segment();
+        boolean flushNow = false;
+        long waitStart = System.nanoTime();
+        synchronized (room.strokes) {
+            long acquired = metrics.strokesLockAcquired(waitStart);
+            try {
+                room.strokes.appendReplicated(seg);
+                journal.append(e);
+                recordRoundStrokeLocked(room, seg);
+                if (!sharedBroker)
+                    flushNow = strokeBroadcaster.enqueueLocked(room, seg);
+                simplifyStrokesLocked(room);
+                trimStrokeHistoryLocked(room);
+            } finally {
+                metrics.strokesLockReleased(acquired);
+            }
+        }
+        if (flushNow)
+            strokeBroadcaster.flush(room);
+        room.lastDrawAtMs = System.currentTimeMillis();
+    }
+
+    private void applyUndo(StrokeUndone e) {
+        GameRoom room = rooms.find(e.roomId()).orElse(null);
+        if (room == null)
+            return;
+        long waitStart = System.nanoTime();
+        synchronized (room.strokes) {
+            long acquired = metrics.strokesLockAcquired(waitStart);
+            try {
+                StrokeStore strokes = room.strokes;
+                if (strokes.isEmpty() || strokes.seqAt(strokes.actionCount() - 1) != e.seq())
+                    return;
+                strokes.removeLast();
+                undoRoundStrokeLocked(room, e.seq());
+                room.pendingDraw.removeIf(seg -> seg.getSeq() != null && seg.getSeq() == e.seq());
+                journal.append(e);
+            } finally {
+                metrics.strokesLockReleased(acquired);
+            }
+        }
+        if (!sharedBroker)
+            strokeBroadcaster.flushThen(room, () -> broker.convertAndSend(room.topic("undo"),
+                    Map.of("actionId", e.actionId(), "seq", e.seq())));
+    }
+
+    private void applyPresence(PresenceChanged e) {
+        GameRoom room = e.users().isEmpty() ? rooms.find(e.roomId()).orElse(null) : rooms.getOrCreate(e.roomId());
+        if (room == null)
+            return;
+        long waitStart = System.nanoTime();
+        synchronized (room.lock) {
+            long acquired = metrics.roomLockAcquired(waitStart);
+            try {
+                if (e.users().isEmpty())
+                    room.remoteUsers.remove(e.node());
+                else
+                    room.remoteUsers.put(e.node(), Map.copyOf(e.users()));
+            } finally {
+                metrics.roomLockReleased(acquired);
+            }
+        }
+        publishUsersSoon(room);
+        removeRoomIfEmpty(room);
+    }
+
+    /** 소유 노드가 매긴 버전을 따라간다. 외부 브로커가 없으면 이 노드의 구독자에게 변경분을 직접 보낸다. */
+    private void applyUsers(UsersPublished e) {
+        rooms.find(e.roomId()).ifPresent(room -> {
+            long waitStart = System.nanoTime();
+            synchronized (room.lock) {
+                long acquired = metrics.roomLockAcquired(waitStart);
+                try {
+                    if (e.version() > room.usersVersion)
+                        sendUsersDelta(room, new LinkedHashMap<>(e.users()), e.version(), !sharedBroker);
+                } finally {
+                    metrics.roomLockReleased(acquired);
+                }
+            }
+        });
+    }
+
+    /** 새 노드에게 이 노드의 접속자와, 소유한 방의 전체 상태를 보낸다. */
+    private void answerSync(SyncRequest e) {
+        log.info("[게임] 노드 상태 동기화 요청: {}", e.node());
+        for (GameRoom room : rooms.rooms()) {
+            if (!room.online.isEmpty())
+                publishPresence(room);
+            if (backplane.owns(room.id))
+                backplane.publish(roomState(room));
+        }
+    }
+
+    /**
+     * 이 노드가 보낸 이벤트 일부가 버려졌다. 버려진 것 중 무엇이 중요한지 모르므로 모든 방의 상태와 접속자를 다시 보낸다.
+     * 다른 노드의 이벤트는 모두 받았으므로 이 노드의 캔버스가 가장 완전하다. (점수 증가분은 주간 재적재 때 DB 기준으로 맞춰진다)
+     */
+    private void resendAllRooms(OutboxOverflowed e) {
+        log.warn("[게임] 백플레인 이벤트 {}개 유실, 모든 방 상태를 다시 보냅니다", e.dropped());
+        for (GameRoom room : rooms.rooms()) {
+            publishPresence(room);
+            backplane.publish(roomState(room, true));
+        }
+    }
+
+    private RoomState roomState(GameRoom room) {
+        return roomState(room, false);
+    }
+
+    /** 방 상태 사본. 저널 압축은 두 lock 을 이미 쥐고 부르므로 그때는 재지 않는다. */
+    private RoomState roomState(GameRoom room, boolean resync) {
+        boolean outermost = !Thread.holdsLock(room.lock);
+        long waitStart = System.nanoTime();
+        synchronized (room.lock) {
+            long acquired = outermost ? metrics.roomLockAcquired(waitStart) : 0L;
+            try {
+                StrokeStore.Slice copied;
+                byte[] checkpointPng;
+                boolean strokesOutermost = !Thread.holdsLock(room.strokes);
+                long strokesWaitStart = System.nanoTime();
+                synchronized (room.strokes) {
+                    long strokesAcquired = strokesOutermost ? metrics.strokesLockAcquired(strokesWaitStart) : 0L;
+                    try {
+                        copied = room.strokes.copy(0, room.strokes.segmentCount());
+                        checkpointPng = room.checkpointPng;
+                    } finally {
+                        if (strokesOutermost)
+                            metrics.strokesLockReleased(strokesAcquired);
+                    }
+                }
+                WordDictionary.Entry word = room.currentWord;
+                return new RoomState(room.id, room.round, room.roundOrigin, word == null ? null : word.text(),
+                        room.drawerName, copied.toEvents(), checkpointPng, room.usersVersion,
+                        new LinkedHashMap<>(room.publishedUsers), resync);
+            } finally {
+                if (outermost)
+                    metrics.roomLockReleased(acquired);
+            }
+        }
+    }
+
+    /** 재시작한 노드가 진행 중인 라운드와 캔버스를 그대로 이어받는다. */
+    private void applyRoomState(RoomState e) {
+        GameRoom room = rooms.getOrCreate(e.roomId());
+        long waitStart = System.nanoTime();
+        synchronized (room.lock) {
+            long acquired = metrics.roomLockAcquired(waitStart);
+            try {
+                boolean sameRound = e.round() == room.round && Objects.equals(e.origin(), room.roundOrigin);
+                if (!isNewerRound(room, e.round(), e.origin()) && !(e.resync() && sameRound))
+                    return;
+                adoptRoomStateLocked(room, e, !sharedBroker);
+                if (e.usersVersion() > room.usersVersion) {
+                    room.publishedUsers = new LinkedHashMap<>(e.users());
+                    room.usersVersion = e.usersVersion();
+                }
+            } finally {
+                metrics.roomLockReleased(acquired);
+            }
+        }
+        log.info("[게임] 방 상태 이어받음: {} (라운드 {}, 세그먼트 {}개)", room.id, e.round(), e.segments().size());
+        if (!sharedBroker) {
+            for (String name : room.online)
+                sendSnapshotTo(name);
+        }
+    }
+
+    /** 라운드와 캔버스를 통째로 바꾼다. (lock 안에서 호출) */
+    private void adoptRoomStateLocked(GameRoom room, RoomState e, boolean broadcastClear) {
+        adoptRoundLocked(room, e.round(), e.origin(), e.word(), e.drawer());
+        strokeBroadcaster.flushThen(room, () -> {
+            long waitStart = System.nanoTime();
+            synchronized (room.strokes) {
+                long acquired = metrics.strokesLockAcquired(waitStart);
+                try {
+                    room.strokes.clear();
+                    room.roundStrokes.clear();
+                    room.roundTruncated = e.checkpoint() != null; // 체크포인트로 구워진 앞부분은 보관할 수 없다
+                    room.checkpointPng = e.checkpoint();
+                    room.canvasEpoch++;
+                    for (DrawEvent seg : e.segments()) {
+                        room.strokes.appendReplicated(seg);
+                        recordRoundStrokeLocked(room, seg);
+                    }
+                    journal.append(e);
+                } finally {
+                    metrics.strokesLockReleased(acquired);
+                }
+            }
+            if (broadcastClear)
+                broker.convertAndSend(room.topic("canvas/clear"), "");
+        });
+    }
+
+    /** 연결이 끊긴 노드의 접속자를 목록에서 뺀다. 그 노드가 소유하던 방은 {@link #claimRooms}가 이어받는다. */
+    private void forgetNode(String node) {
+        for (GameRoom room : rooms.rooms()) {
+            if (room.remoteUsers.remove(node) != null) {
+                publishUsersSoon(room);
+                removeRoomIfEmpty(room);
+            }
+        }
+    }
+
+    /* -------------------------------------------------------------------------- */
+    /* 9. Journal (Crash Recovery) */
+    /* -------------------------------------------------------------------------- */
+
+    /**
+     * 저널을 재생해 재시작 전의 라운드(제시어, 출제자)와 캔버스를 되살린다. 요청을 받기 전에 한 번 실행된다.
+     * 다른 노드가 더 최신 라운드를 가지고 있으면 이후 {@link SyncRequest} 응답이 덮어쓴다.
+     */
+    private void restoreFromJournal() {
+        for (RoomState state : journal.replay()) {
+            if (state.word() == null && state.segments().isEmpty() && state.checkpoint() == null)
+                continue;
+            GameRoom room = rooms.getOrCreate(state.roomId());
+            long waitStart = System.nanoTime();
+            synchronized (room.lock) {
+                long acquired = metrics.roomLockAcquired(waitStart);
+                try {
+                    adoptRoomStateLocked(room, state, false);
+                } finally {
+                    metrics.roomLockReleased(acquired);
+                }
+            }
+            log.info("[게임] 저널에서 방 복구: {} (제시어: {}, 출제자: {}, 세그먼트 {}개)", room.id,
+                    state.word(), state.drawer(), state.segments().size());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.journal.compact-check-ms:30000}")
+    public void compactJournal() {
+        if (journal.needsCompaction())
+            journal.compact(() -> List.copyOf(rooms.rooms()), this::roomState);
+    }
 }
@@ -0,0 +1,114 @@
+package dev.starq.picassolve.service;
+
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import dev.starq.picassolve.dto.DrawEvent;
+import dev.starq.picassolve.entity.User.Role;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 여러 게임 서버 노드가 같은 방 상태(라운드, 스트로크, 접속자)를 나눠 갖도록 이벤트를 복제하는 통로.
+ * 각 노드는 자신이 바꾼 상태를 {@link #publish}로 내보내고, 다른 노드가 보낸 이벤트를 {@link #subscribe}로 받아 반영한다.
+ * 같은 노드가 보낸 이벤트는 보낸 순서대로 도착해야 하며, 자기 자신에게는 돌아오지 않는다.
+ *
+ * <p>방마다 소유 노드가 하나 있다. 소유 노드는 접속자 목록 버전을 매기고, 새로 뜬 노드에 방 상태를 넘겨준다.
+ * 소유권은 노드가 살아 있는 동안만 유지되며, 노드가 죽으면 다른 노드가 {@link #tryAcquire}로 이어받는다.
+ */
+public interface GameStateBackplane extends AutoCloseable {
+
+    String nodeId();
+
+    /** 다른 노드로 이벤트를 보낸다. 방 lock 안에서 불릴 수 있으므로 막히지 않아야 한다. */
+    void publish(Event event);
+
+    void subscribe(Consumer<Event> listener);
+
+    /** 방 소유권을 얻거나 이미 가지고 있으면 true. 파일 잠금처럼 I/O 를 할 수 있으므로 방 lock 밖에서 부른다. */
+    boolean tryAcquire(String roomId);
+
+    /** 이미 소유권을 가지고 있는지만 확인한다. 막히지 않으므로 방 lock 안에서 불러도 된다. */
+    boolean owns(String roomId);
+
+    void release(String roomId);
+
+    @Override
+    void close();
+
+    /* -------------------------------------------------------------------------- */
+    /* 복제 이벤트 */
+    /* -------------------------------------------------------------------------- */
+
+    @JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "type")
+    @JsonSubTypes({
+            @JsonSubTypes.Type(value = RoundChanged.class, name = "round"),
+            @JsonSubTypes.Type(value = StrokeAppended.class, name = "stroke"),
+            @JsonSubTypes.Type(value = StrokeUndone.class, name = "undo"),
+            @JsonSubTypes.Type(value = CanvasCleared.class, name = "clear"),
+            @JsonSubTypes.Type(value = ChatPosted.class, name = "chat"),
+            @JsonSubTypes.Type(value = PresenceChanged.class, name = "presence"),
+            @JsonSubTypes.Type(value = UsersPublished.class, name = "users"),
+            @JsonSubTypes.Type(value = ScoreIncremented.class, name = "score"),
+            @JsonSubTypes.Type(value = ScoreboardPublished.class, name = "scoreboard"),
+            @JsonSubTypes.Type(value = SyncRequest.class, name = "sync"),
+            @JsonSubTypes.Type(value = RoomState.class, name = "state"),
+            @JsonSubTypes.Type(value = NodeLeft.class, name = "left"),
+            @JsonSubTypes.Type(value = OutboxOverflowed.class, name = "overflow")
+    })
+    sealed interface Event permits RoundChanged, StrokeAppended, StrokeUndone, CanvasCleared, ChatPosted,
+            PresenceChanged, UsersPublished, ScoreIncremented, ScoreboardPublished, SyncRequest, RoomState, NodeLeft,
+            OutboxOverflowed {
+    }
+
+    /** 새 라운드. (round, origin)이 더 큰 쪽이 이긴다. */
+    record RoundChanged(String roomId, long round, String origin, String word, String drawer) implements Event {
+    }
+
+    record StrokeAppended(String roomId, DrawEvent segment) implements Event {
+    }
+
+    record StrokeUndone(String roomId, String actionId, int seq) implements Event {
+    }
+
+    record CanvasCleared(String roomId) implements Event {
+    }
+
+    record ChatPosted(String roomId, String from, String text, boolean system) implements Event {
+    }
+
+    /** 한 노드에 접속한 방 유저 목록(이름 -> 기본 역할). 비어 있으면 그 노드에는 더 이상 유저가 없다. */
+    record PresenceChanged(String roomId, String node, Map<String, Role> users) implements Event {
+    }
+
+    /** 소유 노드가 발행한 접속자 목록 전체와 그 버전. */
+    record UsersPublished(String roomId, long version, Map<String, Role> users) implements Event {
+    }
+
+    record ScoreIncremented(String name, int team) implements Event {
+    }
+
+    record ScoreboardPublished(long version) implements Event {
+    }
+
+    /** 새로 뜬 노드가 다른 노드들에게 현재 상태를 요청한다. */
+    record SyncRequest(String node) implements Event {
+    }
+
+    /**
+     * 방 상태 전체. 새로 뜬 노드를 따라잡게 할 때 쓴다.
+     * resync 면 버려진 이벤트를 메우려고 보낸 것이므로 같은 라운드여도 받는 쪽이 캔버스를 통째로 바꾼다.
+     */
+    record RoomState(String roomId, long round, String origin, String word, String drawer,
+            List<DrawEvent> segments, byte[] checkpoint, long usersVersion, Map<String, Role> users, boolean resync)
+            implements Event {
+    }
+
+    /** 노드와의 연결이 끊겼다. 백플레인이 직접 만들어 전달한다. */
+    record NodeLeft(String node) implements Event {
+    }
+
+    /** 송신 큐가 넘쳐 이 노드가 보낸 이벤트 일부가 버려졌다. 백플레인이 자기 노드에만 전달한다. */
+    record OutboxOverflowed(long dropped) implements Event {
+    }
+}
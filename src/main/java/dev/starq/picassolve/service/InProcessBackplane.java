@@ -0,0 +1,104 @@
+package dev.starq.picassolve.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 한 JVM 안에서만 동작하는 백플레인. 같은 {@link Hub}를 공유하는 노드끼리 이벤트를 주고받는다.
+ * 단일 서버 운영(기본값)에서는 다른 노드가 없으므로 모든 방을 이 노드가 소유하고 아무 것도 보내지 않는다.
+ * 여러 노드를 한 프로세스에 띄워 복제/인계를 확인할 때도 쓴다.
+ */
+@Slf4j
+public class InProcessBackplane implements GameStateBackplane {
+
+    /** 노드 목록과 방 소유권을 공유하는 허브. */
+    public static final class Hub {
+        private final Map<String, InProcessBackplane> nodes = new ConcurrentHashMap<>();
+        private final Map<String, String> owners = new ConcurrentHashMap<>();
+    }
+
+    private final Hub hub;
+    private final String nodeId;
+    private final List<Consumer<Event>> listeners = new CopyOnWriteArrayList<>();
+    // 노드마다 한 스레드로 전달해 보낸 순서를 지키고, 보내는 쪽이 잡고 있는 lock 과 엮이지 않게 한다
+    private final ExecutorService delivery;
+
+    public InProcessBackplane(Hub hub, String nodeId) {
+        this.hub = hub;
+        this.nodeId = nodeId;
+        this.delivery = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "backplane-" + nodeId);
+            t.setDaemon(true);
+            return t;
+        });
+        hub.nodes.put(nodeId, this);
+    }
+
+    @Override
+    public String nodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void publish(Event event) {
+        for (InProcessBackplane node : hub.nodes.values()) {
+            if (node != this)
+                node.enqueue(event);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<Event> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public boolean tryAcquire(String roomId) {
+        String owner = hub.owners.putIfAbsent(roomId, nodeId);
+        return owner == null || owner.equals(nodeId);
+    }
+
+    @Override
+    public boolean owns(String roomId) {
+        return nodeId.equals(hub.owners.get(roomId));
+    }
+
+    @Override
+    public void release(String roomId) {
+        hub.owners.remove(roomId, nodeId);
+    }
+
+    /** 노드가 내려간 것처럼 소유권을 내놓고 다른 노드에 알린다. */
+    @Override
+    public void close() {
+        if (!hub.nodes.remove(nodeId, this))
+            return;
+        hub.owners.values().removeIf(nodeId::equals);
+        publish(new NodeLeft(nodeId));
+        delivery.shutdownNow();
+    }
+
+    private void enqueue(Event event) {
+        try {
+            delivery.execute(() -> deliver(event));
+        } catch (RuntimeException ex) {
+            // 이미 내려간 노드
+        }
+    }
+
+    private void deliver(Event event) {
+        for (Consumer<Event> l : listeners) {
+            try {
+                l.accept(event);
+            } catch (Exception ex) {
+                log.warn("[게임] 복제 이벤트 처리 실패 ({}): {}", event.getClass().getSimpleName(), ex.toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package dev.starq.picassolve.service;
+
+import dev.starq.picassolve.dto.ScoreBoardEntry;
+import dev.starq.picassolve.dto.ScoreboardUpdate;
+import dev.starq.picassolve.entity.User;
+import dev.starq.picassolve.repository.UserRepository;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * 실시간 점수판. 점수가 있는 유저를 (점수 내림차순, 이름 오름차순)으로 정렬된 인덱스에 두고
+ * 점수 변경은 O(log n)으로 반영한다. 발행용 목록은 변경이 있을 때만 다시 만들어 두고 그대로 재사용한다.
+ * DB(users.score)가 원본이며, 시작할 때와 주간 초기화 뒤에 {@link #reload()}로 다시 맞춘다.
+ *
+ * <p>변경은 발행 전까지 이름별로 모아 두었다가 {@link #publishChanges}에서 버전이 붙은 변경분 하나로 내보낸다.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class Leaderboard {
+
+    private record Standing(String name, int team, int score) {
+    }
+
+    private static final Comparator<Standing> ORDER = Comparator.comparingInt(Standing::score).reversed()
+            .thenComparing(Standing::name);
+
+    private final UserRepository userRepo;
+
+    // 아래 두 구조는 this 모니터로 보호한다
+    private final Map<String, Standing> byName = new HashMap<>();
+    private final TreeSet<Standing> ranked = new TreeSet<>(ORDER);
+    private volatile List<ScoreBoardEntry> view = List.of();
+    private volatile boolean dirty = false;
+
+    // 아직 발행하지 않은 변경분 (this 모니터로 보호)
+    private long version = 0;
+    private final Map<String, Standing> pendingChanged = new LinkedHashMap<>();
+    private final Set<String> pendingRemoved = new LinkedHashSet<>();
+    private boolean pendingFull = false;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        reload();
+    }
+
+    /** DB 점수로 인덱스를 다시 만든다. */
+    public synchronized void reload() {
+        byName.clear();
+        ranked.clear();
+        for (User u : userRepo.findAll()) {
+            if (u.getScore() > 0)
+                put(new Standing(u.getName(), u.getTeam(), u.getScore()));
+        }
+        dirty = true;
+        pendingChanged.clear();
+        pendingRemoved.clear();
+        pendingFull = true;
+        log.info("[랭킹] 실시간 점수판 로드: {}명", byName.size());
+    }
+
+    /** 점수를 1 올리고 새 점수를 돌려준다. DB 반영은 호출자가 한다. */
+    public synchronized int increment(String name, int team) {
+        Standing prev = byName.get(name);
+        Standing next = new Standing(name, team, (prev == null ? 0 : prev.score()) + 1);
+        if (prev != null)
+            ranked.remove(prev);
+        put(next);
+        markChanged(next);
+        return next.score();
+    }
+
+    public synchronized int scoreOf(String name) {
+        Standing s = byName.get(name);
+        return s == null ? 0 : s.score();
+    }
+
+    /** 이름/팀 변경을 반영한다. */
+    public synchronized void updateProfile(String oldName, String newName, int team) {
+        Standing prev = byName.remove(oldName);
+        if (prev == null)
+            return;
+        ranked.remove(prev);
+        Standing next = new Standing(newName, team, prev.score());
+        put(next);
+        if (!oldName.equals(newName))
+            markRemoved(oldName);
+        markChanged(next);
+    }
+
+    public synchronized void remove(String name) {
+        Standing prev = byName.remove(name);
+        if (prev != null) {
+            ranked.remove(prev);
+            markRemoved(name);
+        }
+    }
+
+    /** 정렬된 점수판. 변경이 없으면 같은 불변 목록을 돌려준다. */
+    public List<ScoreBoardEntry> view() {
+        if (!dirty)
+            return view;
+        synchronized (this) {
+            if (dirty) {
+                List<ScoreBoardEntry> rebuilt = new ArrayList<>(ranked.size());
+                for (Standing s : ranked)
+                    rebuilt.add(new ScoreBoardEntry(s.name(), s.team(), s.score()));
+                view = Collections.unmodifiableList(rebuilt);
+                dirty = false;
+            }
+            return view;
+        }
+    }
+
+    /** 구독 직후/재동기화용 전체 목록과 현재 버전. */
+    public synchronized ScoreboardUpdate snapshot() {
+        return ScoreboardUpdate.full(version, view());
+    }
+
+    /**
+     * 모아 둔 변경을 다음 버전으로 발행한다. 버전 순서가 뒤바뀌지 않도록 sink 는 모니터 안에서 호출된다.
+     * 변경이 없으면 아무 것도 보내지 않는다.
+     */
+    public synchronized void publishChanges(Consumer<ScoreboardUpdate> sink) {
+        ScoreboardUpdate update;
+        if (pendingFull) {
+            update = ScoreboardUpdate.full(++version, view());
+        } else if (!pendingChanged.isEmpty() || !pendingRemoved.isEmpty()) {
+            List<ScoreBoardEntry> changed = new ArrayList<>(pendingChanged.size());
+            for (Standing s : pendingChanged.values())
+                changed.add(new ScoreBoardEntry(s.name(), s.team(), s.score()));
+            update = ScoreboardUpdate.delta(++version, changed, new ArrayList<>(pendingRemoved));
+        } else {
+            return;
+        }
+        pendingFull = false;
+        pendingChanged.clear();
+        pendingRemoved.clear();
+        sink.accept(update);
+    }
+
+    /**
+     * 다른 노드가 발행한 버전을 따라간다. 외부 브로커를 함께 쓰면 점수판은 한 노드만 발행하므로,
+     * 나머지 노드는 그 버전으로 스냅샷을 보내고 모아 둔 변경분은 버린다(같은 변경이 이미 발행되었다).
+     */
+    public synchronized void syncVersion(long published) {
+        version = Math.max(version, published);
+        pendingFull = false;
+        pendingChanged.clear();
+        pendingRemoved.clear();
+    }
+
+    private void markChanged(Standing s) {
+        pendingRemoved.remove(s.name());
+        pendingChanged.put(s.name(), s);
+        dirty = true;
+    }
+
+    private void markRemoved(String name) {
+        pendingChanged.remove(name);
+        pendingRemoved.add(name);
+        dirty = true;
+    }
+
+    private void put(Standing s) {
+        byName.put(s.name(), s);
+        ranked.add(s);
+    }
+}
@@ -0,0 +1,46 @@
+package dev.starq.picassolve.service;
+
+import dev.starq.picassolve.entity.User;
+import dev.starq.picassolve.entity.User.Role;
+
+/**
+ * 접속 중인 유저의 메모리 상태(이름, 팀, 역할). 점수는 {@link Leaderboard}가 관리한다.
+ * {@link GameService}가 로스터로 보관하며, 변경은 {@code UserRepository}에 write-through 된다.
+ * 채팅/드로잉 경로는 이 값만 읽고 DB를 조회하지 않는다.
+ */
+public class Player {
+
+    private final String name;
+    private final int team;
+    private volatile Role role;
+
+    Player(String name, int team, Role role) {
+        this.name = name;
+        this.team = team;
+        this.role = role;
+    }
+
+    static Player from(User u) {
+        return new Player(u.getName(), u.getTeam(), u.getRole());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getTeam() {
+        return team;
+    }
+
+    public Role getRole() {
+        return role;
+    }
+
+    public boolean isAdmin() {
+        return role == Role.ADMIN;
+    }
+
+    void setRole(Role role) {
+        this.role = role;
+    }
+}
@@ -0,0 +1,59 @@
+package dev.starq.picassolve.service;
+
+import jakarta.annotation.PreDestroy;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 입장/퇴장 브로드캐스트를 짧은 창(window) 단위로 묶는다. 배포 직후처럼 N명이 한꺼번에 재접속해도
+ * 방마다 창 하나에 목록 발행 한 번만 나가므로 O(N²) 메시지가 O(N)이 된다.
+ * 첫 변경 시점에 한 번만 예약하므로(최대 지연 = window) 변경이 계속 이어져도 발행이 밀리지 않는다.
+ */
+@Component
+@Slf4j
+public class PresenceAggregator {
+
+    private final long windowMs;
+    private final Set<Object> pending = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "presence-debounce");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public PresenceAggregator(@Value("${app.presence.debounce-ms:150}") long windowMs) {
+        this.windowMs = windowMs;
+    }
+
+    /**
+     * key(방 등) 단위로 publish 를 예약한다. 창 안에서 같은 key 로 다시 들어온 요청은 이미 예약된 발행에 합쳐진다.
+     * publish 는 실행 시점의 최신 상태를 보내야 한다.
+     */
+    void submit(Object key, Runnable publish) {
+        if (windowMs <= 0) {
+            publish.run();
+            return;
+        }
+        if (!pending.add(key))
+            return;
+        timer.schedule(() -> {
+            pending.remove(key); // 발행 전에 빼야 실행 중 들어온 변경이 다음 창으로 넘어간다
+            try {
+                publish.run();
+            } catch (Exception ex) {
+                log.warn("[게임] 접속자 목록 발행 실패 ({}): {}", key, ex.toString());
+            }
+        }, windowMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        timer.shutdownNow();
+    }
+}
@@ -1,19 +1,14 @@
 package dev.starq.picassolve.service;
 
 import dev.starq.picassolve.dto.ScoreBoardEntry;
-import dev.starq.picassolve.entity.ScoreSnapshot;
 import dev.starq.picassolve.entity.ScoreSnapshot.SnapshotPeriod;
 import dev.starq.picassolve.repository.ScoreSnapshotRepository;
-import dev.starq.picassolve.repository.UserRepository;
 import java.time.LocalDate;
 import java.time.ZoneId;
-import java.util.Comparator;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
-import java.util.UUID;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,10 +17,12 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional(readOnly = true)
 public class RankingQueryService {
 
-    private final UserRepository userRepository;
     private final ScoreSnapshotRepository snapshotRepository;
+    private final Leaderboard leaderboard;
 
     private static final ZoneId KST = ZoneId.of("Asia/Seoul");
+    // 스냅샷 랭킹은 0점을 뺀 전체 목록이다 (정렬/합산은 DB 에서, 개수는 자르지 않는다)
+    private static final Pageable ALL = Pageable.unpaged();
 
     public enum RankingPeriod {
         LIVE, DAILY, WEEKLY, MONTHLY;
@@ -51,45 +48,25 @@ public class RankingQueryService {
     }
 
     private List<ScoreBoardEntry> liveRanking() {
-        return userRepository.findAll().stream()
-            .filter(u -> u.getScore() > 0)
-            .sorted(Comparator.comparingInt((dev.starq.picassolve.entity.User u) -> u.getScore()).reversed())
-            .map(u -> new ScoreBoardEntry(u.getName(), u.getTeam(), u.getScore()))
-            .toList();
+        return leaderboard.view();
     }
 
     private List<ScoreBoardEntry> latestSnapshotRanking(SnapshotPeriod period) {
-        LocalDate latest = snapshotRepository.findTopByPeriodOrderBySnapshotDateDesc(period)
-            .map(ScoreSnapshot::getSnapshotDate)
-            .orElse(null);
-        if (latest == null) return List.of();
-
-        return snapshotRepository.findByPeriodAndSnapshotDate(period, latest).stream()
-            .filter(s -> s.getScore() > 0)
-            .sorted(Comparator.comparingInt(ScoreSnapshot::getScore).reversed())
-            .map(s -> new ScoreBoardEntry(s.getUsername(), s.getTeam(), s.getScore()))
-            .toList();
+        return snapshotRepository.findLatestSnapshotDate(period)
+            .map(latest -> snapshotRepository.findRanking(period, latest, ALL))
+            .orElse(List.of());
     }
 
     /**
-        * 월간 랭킹: 이번 달 일간 스냅샷 합산.
-        * 주간 리셋 후에도 월간 누적이 유지되도록 날짜 범위를 모읍니다.
+        * 월간 랭킹: 이번 달 월간 롤업(일간 스냅샷 누적, 배치가 매일 더함)을 그대로 읽습니다.
+        * 롤업이 아직 없는 달(배포 직후 등)에는 이번 달 일간 스냅샷을 DB 에서 합산합니다.
         */
     private List<ScoreBoardEntry> monthlyAggregateRanking() {
         LocalDate today = LocalDate.now(KST);
         LocalDate monthStart = today.withDayOfMonth(1);
 
-        Map<UUID, ScoreBoardEntry> acc = new LinkedHashMap<>();
-        snapshotRepository.findByPeriodAndSnapshotDateBetween(SnapshotPeriod.DAILY, monthStart, today)
-            .forEach(s -> {
-                ScoreBoardEntry entry = acc.computeIfAbsent(s.getUserId(),
-                    id -> new ScoreBoardEntry(s.getUsername(), s.getTeam(), 0));
-                entry.setScore(entry.getScore() + s.getScore());
-            });
-
-        return acc.values().stream()
-            .filter(e -> e.getScore() > 0)
-            .sorted(Comparator.comparingInt(ScoreBoardEntry::getScore).reversed())
-            .toList();
+        List<ScoreBoardEntry> rollup = snapshotRepository.findRanking(SnapshotPeriod.MONTHLY, monthStart, ALL);
+        if (!rollup.isEmpty()) return rollup;
+        return snapshotRepository.sumRanking(SnapshotPeriod.DAILY, monthStart, today, ALL);
     }
 }
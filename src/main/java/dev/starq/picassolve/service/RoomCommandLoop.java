@@ -0,0 +1,157 @@
+package dev.starq.picassolve.service;
+
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * 방 단위 게임 명령(채팅, 스트로크, 실행취소, 초기화, 제시어 다시받기, 출제자 변경)과
+ * 다른 노드에서 복제된 방 이벤트({@link #replicate})를 방마다 한 줄로 세워 실행한다.
+ * 인바운드/백플레인 스레드는 방의 대기열({@link GameRoom#commands})에 넣기만 하고 바로 돌아가며,
+ * 한 방의 명령은 한 번에 한 워커만 꺼내 실행하므로 같은 방 명령끼리 lock 을 두고 다투지 않는다.
+ * 워커 풀은 모든 방이 나눠 쓰고, 한 방이 한 번에 {@value #BATCH}개까지만 처리한 뒤 다른 방에 양보한다.
+ * <p>
+ * 방 상태를 쓰는 것이 이 대기열만은 아니다. 입장/퇴장(STOMP 연결 이벤트), 시작 시 저널 복구가 상태를 바꾸고,
+ * 스냅샷 전송, 묶음 브로드캐스트, 체크포인트, 저널 압축, 지표 게이지가 다른 스레드에서 상태를 읽는다.
+ * 그래서 방 lock 과 strokes 모니터는 그대로 두며, 이 대기열은 lock 을 없애는 것이 아니라
+ * 게임 명령끼리의 경합을 없애고 인바운드 스레드를 붙잡지 않게 하는 역할이다.
+ * 명령이 던진 예외(Error 포함)는 인바운드의 @MessageExceptionHandler 대신 여기서 보낸 사람의 /queue/errors 로 보내고,
+ * 다음 명령을 이어서 실행한다. 종료 중이라 풀이 새 작업을 받지 않으면 드레인을 맡은 스레드가 끝까지 비운다.
+ */
+@Component
+@Slf4j
+public class RoomCommandLoop {
+
+    static final int BATCH = 64;
+
+    /** 방 하나에 쌓을 수 있는 명령 수. 넘치면 새 명령을 버리고 보낸 사람에게 알린다 */
+    static final int MAX_QUEUED = 8_192;
+
+    /** 대기열의 명령 하나: 보낸 사람(오류 응답용), 넣은 시각, 실행할 작업 */
+    record Command(String user, long queuedAtNs, Runnable action) {
+    }
+
+    private final GameRoomRegistry rooms;
+    private final SimpMessagingTemplate broker;
+    private final GameMetrics metrics;
+    private final ExecutorService workers;
+
+    public RoomCommandLoop(GameRoomRegistry rooms, SimpMessagingTemplate broker, GameMetrics metrics,
+            @Value("${app.game.loop-threads:0}") int threads) {
+        this.rooms = rooms;
+        this.broker = broker;
+        this.metrics = metrics;
+        int n = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger seq = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(n, r -> {
+            Thread t = new Thread(r, "game-loop-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        log.info("[게임] 방 명령 워커: {}개", n);
+    }
+
+    /**
+     * 방의 대기열에 명령을 넣는다. 아직 없는 방이면(첫 입장 전 또는 정리된 방) 호출한 스레드에서 바로 실행해
+     * 예외가 그대로 호출자에게 전달되도록 한다. 어차피 그 방의 멤버가 아니므로 대부분 아무 것도 하지 않는다.
+     */
+    public void submit(String roomId, String user, Runnable action) {
+        GameRoom room = rooms.find(roomId).orElse(null);
+        if (room == null) {
+            action.run();
+            return;
+        }
+        if (room.queuedCommands.get() >= MAX_QUEUED) {
+            metrics.commandRejected();
+            reportError(user, "요청이 너무 많습니다. 잠시 후 다시 시도해 주세요.");
+            return;
+        }
+        enqueue(room, user, action);
+    }
+
+    /**
+     * 다른 노드에서 온 방 이벤트를 같은 대기열에 넣는다. 유저 명령과 달리 버리면 노드 간 상태가 어긋나므로 한도 없이 넣는다.
+     * (백플레인 송신 대기열이 이미 한도를 두고 있다) 아직 없는 방이면 호출한 스레드에서 바로 실행한다.
+     */
+    public void replicate(String roomId, Runnable action) {
+        GameRoom room = rooms.find(roomId).orElse(null);
+        if (room == null) {
+            action.run();
+            return;
+        }
+        enqueue(room, null, action);
+    }
+
+    private void enqueue(GameRoom room, String user, Runnable action) {
+        room.commands.offer(new Command(user, System.nanoTime(), action));
+        // 0 → 1 로 올린 쪽이 드레인을 맡는다. (offer 가 먼저이므로 카운터가 양수면 꺼낼 명령이 있다)
+        if (room.queuedCommands.getAndIncrement() == 0 && !schedule(room))
+            drain(room);
+    }
+
+    /** 드레인을 워커에 맡긴다. 종료 중이라 풀이 받지 않으면 false 를 돌려주고, 드레인을 맡은 호출자가 직접 비운다 */
+    private boolean schedule(GameRoom room) {
+        try {
+            workers.execute(() -> drain(room));
+            return true;
+        } catch (RejectedExecutionException ex) {
+            log.debug("[게임] 워커가 종료 중이라 현재 스레드에서 명령을 처리합니다 (방: {})", room.id);
+            return false;
+        }
+    }
+
+    private void drain(GameRoom room) {
+        int done = 0;
+        while (true) {
+            run(room, room.commands.poll());
+            if (room.queuedCommands.decrementAndGet() == 0)
+                return;
+            if (++done >= BATCH) {
+                if (schedule(room))
+                    return; // 다른 방에 양보, 이 방의 순서는 그대로 이어진다
+                done = 0;
+            }
+        }
+    }
+
+    /** 명령 하나를 실행한다. 무엇을 던져도 여기서 끝내야 카운터가 줄고 이 방의 다음 명령이 실행된다 */
+    private void run(GameRoom room, Command command) {
+        try {
+            metrics.commandDequeued(System.nanoTime() - command.queuedAtNs());
+            command.action().run();
+        } catch (IllegalArgumentException | IllegalStateException ex) {
+            log.debug("[게임] 명령 거부 (방: {}, 유저: {}): {}", room.id, command.user(), ex.getMessage());
+            reportError(command.user(), messageOf(ex));
+        } catch (Throwable ex) {
+            log.error("[게임] 명령 처리 중 예외 (방: {}, 유저: {}): {}", room.id, command.user(), ex.toString(), ex);
+            reportError(command.user(), messageOf(ex));
+        }
+    }
+
+    private static String messageOf(Throwable ex) {
+        return ex.getMessage() != null ? ex.getMessage() : "Unexpected error";
+    }
+
+    private void reportError(String user, String message) {
+        if (user == null)
+            return;
+        try {
+            broker.convertAndSendToUser(user, "/queue/errors", message);
+        } catch (Exception ex) {
+            log.warn("[게임] 오류 응답 전송 실패 ({}): {}", user, ex.toString());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        workers.shutdown();
+        workers.awaitTermination(2, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,254 @@
+package dev.starq.picassolve.service;
+
+import dev.starq.picassolve.dto.DrawEvent;
+import dev.starq.picassolve.dto.ReplayChunk;
+import dev.starq.picassolve.dto.RoundArchiveSummary.ChunkInfo;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 라운드 아카이브 파일 포맷. 세그먼트를 시간 순서대로 일정 개수씩 청크로 나누고,
+ * 청크마다 필드별 열(column)로 모아 델타/varint 로 적은 뒤 Deflate 로 압축한다.
+ * 연속된 선은 시작점 델타가 0, 같은 액션은 시간/번호 델타가 0 이라 열 단위로 모으면 압축이 잘 된다.
+ *
+ * <pre>
+ * file   := "PRA1" chunkCount:i32 index[chunkCount] body*
+ * index  := startMs:i32 endMs:i32 segments:i32 offset:i64 length:i32   (offset 은 파일 처음부터)
+ * body   := deflate(n:uvarint column{t, flags, seq, x1y1, dxdy, width, rgb})
+ * column := byteLength:uvarint bytes
+ * </pre>
+ *
+ * 좌표와 굵기는 1/{@value #SCALE} px 고정소수점이다. 파일 앞의 색인만 읽으면 원하는 시간대의 청크를
+ * 바이트 범위로 바로 찾을 수 있어 드로잉 전체를 메모리에 올리지 않는다.
+ */
+final class RoundArchiveCodec {
+
+    static final byte[] MAGIC = { 'P', 'R', 'A', '1' };
+    static final int SCALE = 4;
+    static final int INDEX_ENTRY_BYTES = 4 + 4 + 4 + 8 + 4;
+
+    private static final int F_NEW_STROKE = 1;
+    private static final int F_ERASER = 1 << 1;
+    private static final int COLUMNS = 7;
+
+    private RoundArchiveCodec() {
+    }
+
+    /** 인코딩 결과: 색인과 파일 전체 바이트 */
+    record Encoded(List<ChunkInfo> chunks, byte[] bytes) {
+    }
+
+    static int headerBytes(int chunkCount) {
+        return MAGIC.length + 4 + chunkCount * INDEX_ENTRY_BYTES;
+    }
+
+    /** 세그먼트 시각은 그 세그먼트가 속한 액션의 시작 시각(라운드 시작 기준 ms)이다. */
+    static Encoded encode(StrokeStore.Slice s, long roundStartMs, int chunkSegments) {
+        int n = s.size();
+        int[] times = segmentTimes(s, roundStartMs);
+        List<byte[]> bodies = new ArrayList<>();
+        List<int[]> ranges = new ArrayList<>();
+        for (int from = 0; from < n; from += chunkSegments) {
+            int to = Math.min(n, from + chunkSegments);
+            bodies.add(deflate(encodeChunk(s, times, from, to)));
+            ranges.add(new int[] { from, to });
+        }
+
+        long offset = headerBytes(bodies.size());
+        List<ChunkInfo> chunks = new ArrayList<>(bodies.size());
+        for (int i = 0; i < bodies.size(); i++) {
+            int from = ranges.get(i)[0], to = ranges.get(i)[1];
+            chunks.add(new ChunkInfo(i, times[from], times[to - 1], to - from, offset, bodies.get(i).length));
+            offset += bodies.get(i).length;
+        }
+
+        ByteBuffer out = ByteBuffer.allocate((int) offset);
+        out.put(MAGIC).putInt(chunks.size());
+        for (ChunkInfo c : chunks)
+            out.putInt((int) c.getStartMs()).putInt((int) c.getEndMs()).putInt(c.getSegments())
+                    .putLong(c.getOffset()).putInt(c.getLength());
+        for (byte[] body : bodies)
+            out.put(body);
+        return new Encoded(chunks, out.array());
+    }
+
+    /** 파일 앞부분(색인)을 읽는다. header 는 최소 {@link #headerBytes}(chunkCount) 바이트여야 한다. */
+    static List<ChunkInfo> readIndex(ByteBuffer header) {
+        byte[] magic = new byte[MAGIC.length];
+        header.get(magic);
+        if (!Arrays.equals(magic, MAGIC))
+            throw new IllegalArgumentException("라운드 아카이브 파일이 아닙니다.");
+        int count = header.getInt();
+        List<ChunkInfo> chunks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            chunks.add(new ChunkInfo(i, header.getInt(), header.getInt(), header.getInt(), header.getLong(),
+                    header.getInt()));
+        return chunks;
+    }
+
+    static ReplayChunk decodeChunk(ChunkInfo info, byte[] body) {
+        ByteBuffer in = ByteBuffer.wrap(inflate(body));
+        int n = readUVarint(in);
+        ByteBuffer[] col = new ByteBuffer[COLUMNS];
+        for (int c = 0; c < COLUMNS; c++) {
+            int len = readUVarint(in);
+            col[c] = in.slice(in.position(), len);
+            in.position(in.position() + len);
+        }
+
+        List<DrawEvent> segments = new ArrayList<>(n);
+        List<Integer> offsets = new ArrayList<>(n);
+        int t = (int) info.getStartMs(), seq = 0, px = 0, py = 0, width = 0, rgb = 0;
+        for (int i = 0; i < n; i++) {
+            t += readUVarint(col[0]);
+            int flags = col[1].get() & 0xFF;
+            seq += readSVarint(col[2]);
+            int x1 = px + readSVarint(col[3]);
+            int y1 = py + readSVarint(col[3]);
+            int x2 = x1 + readSVarint(col[4]);
+            int y2 = y1 + readSVarint(col[4]);
+            width += readSVarint(col[5]);
+            rgb += readSVarint(col[6]);
+            segments.add(DrawEvent.builder()
+                    .x1(dq(x1)).y1(dq(y1)).x2(dq(x2)).y2(dq(y2))
+                    .width(dq(width))
+                    .color(StrokeStore.toHex(rgb))
+                    .mode((flags & F_ERASER) != 0 ? "eraser" : "pen")
+                    .newStroke((flags & F_NEW_STROKE) != 0)
+                    .actionId("#" + seq)
+                    .seq(seq)
+                    .build());
+            offsets.add(t);
+            px = x2;
+            py = y2;
+        }
+        return new ReplayChunk(info.getIndex(), info.getStartMs(), info.getEndMs(), offsets, segments);
+    }
+
+    /* -------------------------------------------------------------------------- */
+    /* Helpers */
+    /* -------------------------------------------------------------------------- */
+
+    private static int[] segmentTimes(StrokeStore.Slice s, long roundStartMs) {
+        int[] times = new int[s.size()];
+        int action = -1, t = 0;
+        for (int i = 0; i < s.size(); i++) {
+            if (i == 0 || s.seq[i] != s.seq[i - 1]) {
+                action++;
+                long at = action < s.actionCreatedAt.length ? s.actionCreatedAt[action] : roundStartMs;
+                t = Math.max(t, (int) Math.min(Integer.MAX_VALUE, Math.max(0, at - roundStartMs))); // 시간 순서 보장
+            }
+            times[i] = t;
+        }
+        return times;
+    }
+
+    private static byte[] encodeChunk(StrokeStore.Slice s, int[] times, int from, int to) {
+        ByteArrayOutputStream[] col = new ByteArrayOutputStream[COLUMNS];
+        for (int c = 0; c < COLUMNS; c++)
+            col[c] = new ByteArrayOutputStream((to - from) * 2);
+        int t = times[from], seq = 0, px = 0, py = 0, width = 0, rgb = 0;
+        for (int i = from; i < to; i++) {
+            int x1 = q(s.x1[i]), y1 = q(s.y1[i]), x2 = q(s.x2[i]), y2 = q(s.y2[i]), w = q(s.width[i]);
+            writeUVarint(col[0], times[i] - t);
+            col[1].write((s.isNewStroke(i) ? F_NEW_STROKE : 0) | (s.isEraser(i) ? F_ERASER : 0));
+            writeSVarint(col[2], s.seq[i] - seq);
+            writeSVarint(col[3], x1 - px);
+            writeSVarint(col[3], y1 - py);
+            writeSVarint(col[4], x2 - x1);
+            writeSVarint(col[4], y2 - y1);
+            writeSVarint(col[5], w - width);
+            writeSVarint(col[6], s.rgb[i] - rgb);
+            t = times[i];
+            seq = s.seq[i];
+            px = x2;
+            py = y2;
+            width = w;
+            rgb = s.rgb[i];
+        }
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        writeUVarint(raw, to - from);
+        for (ByteArrayOutputStream c : col) {
+            writeUVarint(raw, c.size());
+            raw.writeBytes(c.toByteArray());
+        }
+        return raw.toByteArray();
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater d = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            d.setInput(raw);
+            d.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+            byte[] buf = new byte[8192];
+            while (!d.finished())
+                out.write(buf, 0, d.deflate(buf));
+            return out.toByteArray();
+        } finally {
+            d.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] body) {
+        Inflater inf = new Inflater();
+        try {
+            inf.setInput(body);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(body.length * 4);
+            byte[] buf = new byte[8192];
+            while (!inf.finished()) {
+                int read = inf.inflate(buf);
+                if (read == 0 && (inf.needsInput() || inf.needsDictionary()))
+                    throw new IllegalArgumentException("라운드 아카이브 청크가 잘렸습니다.");
+                out.write(buf, 0, read);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException ex) {
+            throw new IllegalArgumentException("라운드 아카이브 청크가 손상되었습니다.", ex);
+        } finally {
+            inf.end();
+        }
+    }
+
+    private static int q(float v) {
+        return Math.round(v * SCALE);
+    }
+
+    private static double dq(int v) {
+        return (double) v / SCALE;
+    }
+
+    private static void writeUVarint(ByteArrayOutputStream out, int v) {
+        while ((v & ~0x7F) != 0) {
+            out.write((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.write(v);
+    }
+
+    private static void writeSVarint(ByteArrayOutputStream out, int v) {
+        writeUVarint(out, (v << 1) ^ (v >> 31));
+    }
+
+    private static int readUVarint(ByteBuffer in) {
+        int result = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.get() & 0xFF;
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return result;
+        }
+        throw new IllegalArgumentException("잘못된 varint 입니다.");
+    }
+
+    private static int readSVarint(ByteBuffer in) {
+        int v = readUVarint(in);
+        return (v >>> 1) ^ -(v & 1);
+    }
+}
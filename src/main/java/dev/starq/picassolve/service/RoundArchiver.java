@@ -0,0 +1,233 @@
+package dev.starq.picassolve.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.starq.picassolve.dto.ReplayChunk;
+import dev.starq.picassolve.dto.RoundArchiveSummary;
+import dev.starq.picassolve.dto.RoundArchiveSummary.ChunkInfo;
+import dev.starq.picassolve.entity.RoundArchive;
+import dev.starq.picassolve.repository.RoundArchiveRepository;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+/**
+ * 끝난 라운드(제시어, 출제자, 정답자, 진행 시간, 스트로크)를 보관하고 다시보기를 제공한다.
+ * 메타데이터는 DB, 스트로크는 {@link RoundArchiveCodec} 포맷의 파일에 둔다. 인코딩과 저장은 전용 스레드에서 하므로
+ * 라운드 전환이 디스크나 DB를 기다리지 않는다. 읽을 때는 파일 앞의 색인과 필요한 청크만 읽는다.
+ */
+@Component
+@Slf4j
+public class RoundArchiver {
+
+    private static final ZoneId KST = ZoneId.of("Asia/Seoul");
+    private static final DateTimeFormatter MONTH_DIR = DateTimeFormatter.ofPattern("yyyy-MM");
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final RoundArchiveRepository repository;
+    private final ObjectMapper json;
+    private final boolean enabled;
+    private final Path dir;
+    private final int chunkSegments;
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "round-archive");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public RoundArchiver(RoundArchiveRepository repository, ObjectMapper json,
+            @Value("${app.archive.enabled:true}") boolean enabled,
+            @Value("${app.archive.dir:./data/rounds}") String dir,
+            @Value("${app.archive.chunk-segments:2000}") int chunkSegments) {
+        this.repository = repository;
+        this.json = json;
+        this.enabled = enabled;
+        this.dir = Path.of(dir).toAbsolutePath().normalize();
+        this.chunkSegments = Math.max(100, chunkSegments);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /* -------------------------------------------------------------------------- */
+    /* 쓰기 */
+    /* -------------------------------------------------------------------------- */
+
+    /** 끝난 라운드를 비동기로 보관한다. strokes 는 이미 복사해 둔 구간이라 호출한 쪽의 lock 과 무관하다. */
+    void submit(String roomId, String word, String drawer, String winner, long startedAtMs, long endedAtMs,
+            StrokeStore.Slice strokes, boolean truncated) {
+        if (!enabled)
+            return;
+        worker.execute(() -> {
+            try {
+                store(roomId, word, drawer, winner, startedAtMs, endedAtMs, strokes, truncated);
+            } catch (Exception ex) {
+                log.warn("[게임] 라운드 보관 실패 (방: {}, 제시어: {}): {}", roomId, word, ex.toString());
+            }
+        });
+    }
+
+    private void store(String roomId, String word, String drawer, String winner, long startedAtMs, long endedAtMs,
+            StrokeStore.Slice strokes, boolean truncated) throws IOException {
+        long started = System.nanoTime();
+        RoundArchiveCodec.Encoded encoded = RoundArchiveCodec.encode(strokes, startedAtMs, chunkSegments);
+
+        OffsetDateTime endedAt = toTime(endedAtMs);
+        String fileName = MONTH_DIR.format(endedAt) + "/" + UUID.randomUUID() + ".pra";
+        Path file = dir.resolve(fileName);
+        Files.createDirectories(file.getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(tmp, encoded.bytes());
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+
+        try {
+            repository.save(RoundArchive.builder()
+                    .roomId(roomId)
+                    .word(word)
+                    .drawer(drawer)
+                    .winner(winner)
+                    .startedAt(toTime(startedAtMs))
+                    .endedAt(endedAt)
+                    .durationMs(Math.max(0, endedAtMs - startedAtMs))
+                    .segmentCount(strokes.size())
+                    .chunkCount(encoded.chunks().size())
+                    .byteSize(encoded.bytes().length)
+                    .truncated(truncated)
+                    .fileName(fileName)
+                    .build());
+        } catch (RuntimeException ex) {
+            Files.deleteIfExists(file); // 메타데이터 없는 파일을 남기지 않는다
+            throw ex;
+        }
+        log.debug("[게임] 라운드 보관: 방 {}, 제시어 {}, 세그먼트 {}개 -> {} bytes ({} ms)", roomId, word, strokes.size(),
+                encoded.bytes().length, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        worker.shutdown();
+        worker.awaitTermination(5, TimeUnit.SECONDS); // 대기 중인 라운드는 최대한 저장하고 내려간다
+    }
+
+    /* -------------------------------------------------------------------------- */
+    /* 읽기 */
+    /* -------------------------------------------------------------------------- */
+
+    public List<RoundArchiveSummary> list(String roomId, int page, int size) {
+        Pageable pageable = PageRequest.of(Math.max(0, page), Math.min(MAX_PAGE_SIZE, Math.max(1, size)));
+        List<RoundArchive> found = (roomId == null || roomId.isBlank())
+                ? repository.findAllByOrderByEndedAtDesc(pageable)
+                : repository.findByRoomIdOrderByEndedAtDesc(roomId.strip(), pageable);
+        return found.stream().map(a -> summary(a, null)).toList();
+    }
+
+    /** 메타데이터와 청크 색인. 파일에서는 앞부분 색인만 읽는다. */
+    public RoundArchiveSummary detail(UUID id) throws IOException {
+        RoundArchive archive = find(id);
+        try (FileChannel ch = FileChannel.open(pathOf(archive), StandardOpenOption.READ)) {
+            return summary(archive, readIndex(ch));
+        }
+    }
+
+    /** 아카이브 원본 파일. Range 요청으로 색인과 원하는 청크의 바이트만 받아 갈 수 있다. */
+    public Path file(UUID id) {
+        return pathOf(find(id));
+    }
+
+    /**
+     * [fromMs, toMs] 구간(라운드 시작 기준)에 걸친 청크를 시간 순서대로 한 줄에 하나씩(NDJSON) 쓴다.
+     * 한 번에 청크 하나만 풀어서 내보내므로 긴 라운드도 메모리 사용량은 청크 크기로 제한된다.
+     */
+    public void writeReplay(Path file, long fromMs, long toMs, OutputStream out) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            for (ChunkInfo info : readIndex(ch)) {
+                if (info.getEndMs() < fromMs)
+                    continue;
+                if (info.getStartMs() > toMs)
+                    break;
+                ByteBuffer body = ByteBuffer.allocate(info.getLength());
+                readFully(ch, body, info.getOffset());
+                ReplayChunk chunk = RoundArchiveCodec.decodeChunk(info, body.array());
+                out.write(json.writeValueAsBytes(chunk));
+                out.write('\n');
+                out.flush();
+            }
+        }
+    }
+
+    /* -------------------------------------------------------------------------- */
+    /* Helpers */
+    /* -------------------------------------------------------------------------- */
+
+    private RoundArchive find(UUID id) {
+        return repository.findById(id).orElseThrow(() -> new IllegalArgumentException("존재하지 않는 라운드입니다."));
+    }
+
+    private Path pathOf(RoundArchive archive) {
+        Path file = dir.resolve(archive.getFileName()).normalize();
+        if (!file.startsWith(dir) || !Files.isRegularFile(file))
+            throw new IllegalStateException("라운드 아카이브 파일을 찾을 수 없습니다.");
+        return file;
+    }
+
+    private static List<ChunkInfo> readIndex(FileChannel ch) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(RoundArchiveCodec.headerBytes(0));
+        readFully(ch, head, 0);
+        int count = head.getInt(RoundArchiveCodec.MAGIC.length);
+        if (count < 0 || RoundArchiveCodec.headerBytes(count) > ch.size())
+            throw new IllegalStateException("라운드 아카이브 파일이 손상되었습니다.");
+        ByteBuffer header = ByteBuffer.allocate(RoundArchiveCodec.headerBytes(count));
+        readFully(ch, header, 0);
+        return RoundArchiveCodec.readIndex(header);
+    }
+
+    private static void readFully(FileChannel ch, ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            if (ch.read(buf, position + buf.position()) < 0)
+                throw new IllegalStateException("라운드 아카이브 파일이 잘렸습니다.");
+        }
+        buf.flip();
+    }
+
+    private static OffsetDateTime toTime(long epochMs) {
+        return OffsetDateTime.ofInstant(Instant.ofEpochMilli(epochMs), KST);
+    }
+
+    private static RoundArchiveSummary summary(RoundArchive a, List<ChunkInfo> chunks) {
+        return RoundArchiveSummary.builder()
+                .id(a.getId())
+                .roomId(a.getRoomId())
+                .word(a.getWord())
+                .drawer(a.getDrawer())
+                .winner(a.getWinner())
+                .startedAt(a.getStartedAt())
+                .endedAt(a.getEndedAt())
+                .durationMs(a.getDurationMs())
+                .segmentCount(a.getSegmentCount())
+                .chunkCount(a.getChunkCount())
+                .byteSize(a.getByteSize())
+                .truncated(a.isTruncated())
+                .chunks(chunks)
+                .build();
+    }
+}
@@ -0,0 +1,8 @@
+package dev.starq.picassolve.service;
+
+/**
+ * 게임 밖에서 실시간 점수판({@link Leaderboard})을 바꿨으니 변경분을 발행해 달라는 알림.
+ * 주간 초기화 뒤 다시 읽었을 때, 프로필 수정/계정 삭제가 커밋된 뒤에 발행하고 GameService 가 받는다.
+ */
+public record ScoreboardChanged() {
+}
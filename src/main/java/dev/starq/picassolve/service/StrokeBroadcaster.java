@@ -0,0 +1,151 @@
+package dev.starq.picassolve.service;
+
+import dev.starq.picassolve.dto.DrawEvent;
+import dev.starq.picassolve.support.BinaryDrawSubscribers;
+import dev.starq.picassolve.support.StrokeCodec;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * 드로잉 세그먼트를 짧은 시간 창(window) 동안 모아 방마다 한 프레임(세그먼트 배열)으로 브로드캐스트한다.
+ * 저장 순서 그대로 보내며, 실행취소/초기화 같은 제어 메시지는 대기 중인 세그먼트를 먼저 내보낸 뒤 보낸다.
+ * 타이머 스레드 하나를 모든 방이 같이 쓰므로, flushLock 안에서는 이미 만들어 둔 프레임을 보내는 일만 한다.
+ */
+@Component
+@Slf4j
+public class StrokeBroadcaster {
+
+    private final SimpMessagingTemplate broker;
+    private final BinaryDrawSubscribers binarySubscribers;
+    private final long windowMs;
+    private final int maxSegments;
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "stroke-coalescer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public StrokeBroadcaster(SimpMessagingTemplate broker,
+            BinaryDrawSubscribers binarySubscribers,
+            @Value("${app.draw.coalesce-window-ms:25}") long windowMs,
+            @Value("${app.draw.coalesce-max-segments:32}") int maxSegments) {
+        this.broker = broker;
+        this.binarySubscribers = binarySubscribers;
+        this.windowMs = windowMs;
+        this.maxSegments = Math.max(1, maxSegments);
+        log.info("[드로잉] 세그먼트 묶음 전송: {}ms / 최대 {}개", windowMs, this.maxSegments);
+    }
+
+    /**
+     * strokes 모니터 안에서 호출한다. 저장한 순서대로 대기열에 넣고,
+     * 바로 내보내야 하면(창 비활성화 또는 개수 초과) true 를 돌려준다. 이때 호출자는 모니터를 놓은 뒤 {@link #flush}를 부른다.
+     */
+    boolean enqueueLocked(GameRoom room, DrawEvent e) {
+        room.pendingDraw.add(e);
+        if (windowMs <= 0 || room.pendingDraw.size() >= maxSegments)
+            return true;
+        if (!room.flushScheduled) {
+            room.flushScheduled = true;
+            timer.schedule(() -> flush(room), windowMs, TimeUnit.MILLISECONDS);
+        }
+        return false;
+    }
+
+    void flush(GameRoom room) {
+        synchronized (room.flushLock) {
+            flushLocked(room);
+        }
+    }
+
+    /** 대기 중인 세그먼트를 먼저 보낸 뒤 같은 순서 보장 안에서 action 을 실행한다. 준비 중인 스냅샷이 있으면 그 발송을 기다린다. */
+    void flushThen(GameRoom room, Runnable action) {
+        synchronized (room.flushLock) {
+            awaitHolds(room);
+            flushLocked(room);
+            action.run();
+        }
+    }
+
+    /**
+     * 히스토리 사본으로 만든 무거운 메시지(캔버스 스냅샷)를 세그먼트 발송 순서 안에 끼워 넣는다.
+     * <ol>
+     * <li>capture: flushLock 과 strokes 모니터 안에서 사본만 뜬다. 이때부터 이 방의 세그먼트 발송을 보류한다.</li>
+     * <li>prepare: lock 밖에서 사본을 DrawEvent 로 바꾸고 직렬화까지 끝낸 뒤, 보내기만 하면 되는 작업을 돌려준다.</li>
+     * <li>그 작업을 flushLock 안에서 실행하고 보류를 풀어, 사본에 빠진 대기 세그먼트를 그 뒤에 보낸다.</li>
+     * </ol>
+     * 보류 중에 타이머가 깨어나도 이 방은 건너뛰므로 공용 타이머 스레드가 직렬화를 기다리지 않는다.
+     */
+    <T> void sendInOrder(GameRoom room, Supplier<T> capture, Function<T, Runnable> prepare) {
+        T captured;
+        synchronized (room.flushLock) {
+            synchronized (room.strokes) {
+                captured = capture.get();
+            }
+            room.flushHolds++;
+        }
+        Runnable send = null;
+        try {
+            send = prepare.apply(captured);
+        } finally {
+            synchronized (room.flushLock) {
+                try {
+                    if (send != null)
+                        send.run();
+                } finally {
+                    if (--room.flushHolds == 0) {
+                        flushLocked(room);
+                        room.flushLock.notifyAll();
+                    }
+                }
+            }
+        }
+    }
+
+    /** flushLock 안에서 호출한다. 준비 중인 스냅샷이 모두 나갈 때까지 기다린다. (wait 동안 flushLock 은 풀린다) */
+    private void awaitHolds(GameRoom room) {
+        boolean interrupted = false;
+        while (room.flushHolds > 0) {
+            try {
+                room.flushLock.wait();
+            } catch (InterruptedException ex) {
+                interrupted = true;
+            }
+        }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+    }
+
+    /** flushLock 안에서 호출한다. 스냅샷 준비 중이면 보내지 않고 둔다. (보류를 푸는 쪽이 보낸다) */
+    private void flushLocked(GameRoom room) {
+        List<DrawEvent> batch;
+        synchronized (room.strokes) {
+            room.flushScheduled = false;
+            if (room.flushHolds > 0 || room.pendingDraw.isEmpty())
+                return;
+            batch = new ArrayList<>(room.pendingDraw);
+            room.pendingDraw.clear();
+        }
+        try {
+            broker.convertAndSend(room.topic("draw"), batch);
+            if (binarySubscribers.hasSubscribers(room.id))
+                broker.convertAndSend(room.topic("draw.bin"), StrokeCodec.encodeBase64(batch));
+        } catch (Exception ex) {
+            log.warn("[드로잉] 세그먼트 전송 실패 (방: {}): {}", room.id, ex.toString());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        timer.shutdownNow();
+    }
+}
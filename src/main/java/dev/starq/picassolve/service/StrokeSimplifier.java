@@ -0,0 +1,69 @@
+package dev.starq.picassolve.service;
+
+import java.util.Arrays;
+
+/**
+ * Ramer–Douglas–Peucker 선 단순화. 이어진 점 열에서 양 끝을 잇는 선분과의 거리가 허용 오차를 넘는 점만 남긴다.
+ * 재귀 대신 구간 스택을 써서 점이 많아도 호출 스택이 깊어지지 않는다.
+ */
+final class StrokeSimplifier {
+
+    private StrokeSimplifier() {
+    }
+
+    /**
+     * xs/ys[0..n) 중 남길 점을 keep 에 표시하고 그 개수를 돌려준다. 양 끝 점은 항상 남는다.
+     * 거리는 선분까지의 거리라 시작점과 끝점이 같은 닫힌 선도 접히지 않는다.
+     */
+    static int simplify(float[] xs, float[] ys, int n, float epsilon, boolean[] keep) {
+        if (n <= 2) {
+            Arrays.fill(keep, 0, n, true);
+            return n;
+        }
+        Arrays.fill(keep, 0, n, false);
+        keep[0] = keep[n - 1] = true;
+        int kept = 2;
+        double eps2 = (double) epsilon * epsilon;
+
+        int[] stack = new int[2 * n];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = n - 1;
+        while (top > 0) {
+            int last = stack[--top];
+            int first = stack[--top];
+            if (last - first < 2)
+                continue;
+            double ax = xs[first], ay = ys[first];
+            double dx = xs[last] - ax, dy = ys[last] - ay;
+            double len2 = dx * dx + dy * dy;
+            double farthest = -1;
+            int index = -1;
+            for (int i = first + 1; i < last; i++) {
+                double d = distance2(xs[i] - ax, ys[i] - ay, dx, dy, len2);
+                if (d > farthest) {
+                    farthest = d;
+                    index = i;
+                }
+            }
+            if (farthest > eps2) {
+                keep[index] = true;
+                kept++;
+                stack[top++] = first;
+                stack[top++] = index;
+                stack[top++] = index;
+                stack[top++] = last;
+            }
+        }
+        return kept;
+    }
+
+    /** 시작점 기준 좌표 (px, py) 에서 (0,0)-(dx,dy) 선분까지 거리의 제곱 */
+    private static double distance2(double px, double py, double dx, double dy, double len2) {
+        if (len2 == 0)
+            return px * px + py * py;
+        double t = Math.max(0, Math.min(1, (px * dx + py * dy) / len2));
+        double ex = px - t * dx, ey = py - t * dy;
+        return ex * ex + ey * ey;
+    }
+}
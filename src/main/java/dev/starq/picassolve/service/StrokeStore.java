@@ -0,0 +1,498 @@
+package dev.starq.picassolve.service;
+
+import dev.starq.picassolve.dto.DrawEvent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 방 하나의 스트로크 히스토리. 세그먼트는 원시 타입 컬럼(float/int/byte)의 원형 버퍼에,
+ * 액션(드래그 한 번)은 첫 세그먼트 위치를 가리키는 별도의 원형 버퍼에 담는다.
+ * 추가/가장 오래된 액션 제거/마지막 액션 제거(실행취소)가 모두 O(1)이고 세그먼트마다 객체를 만들지 않는다.
+ *
+ * <p>스레드 안전하지 않다. 호출자가 이 객체를 모니터로 잡고 사용한다.
+ * 위치는 계속 증가하는 절대값(long)으로 관리하고 배열 인덱스는 {@code pos & mask} 로 구한다.
+ */
+final class StrokeStore {
+
+    private static final int INITIAL_ACTIONS = 64;
+    private static final int INITIAL_SEGMENTS = 1024;
+
+    private static final byte F_NEW_STROKE = 1;
+    private static final byte F_ERASER = 1 << 1;
+
+    // --- 세그먼트 컬럼 ---
+    private float[] x1, y1, x2, y2, width;
+    private int[] rgb;
+    private int[] segSeq;
+    private byte[] flags;
+    private long segHead, segTail;
+
+    // --- 액션 컬럼 ---
+    private String[] actionId;
+    private int[] actionSeq;
+    private long[] actionCreatedAt;
+    private long[] actionStart; // 액션의 첫 세그먼트 절대 위치
+    private long actHead, actTail;
+
+    private int nextSeq = 1; // 방 안에서 액션마다 부여하는 작은 정수 ID (초기화해도 재사용하지 않는다)
+    private long simplifiedTo; // 이 절대 위치 앞의 액션은 이미 단순화했다
+
+    // --- 단순화 작업 공간 ---
+    private float[] runX = new float[0], runY = new float[0];
+    private boolean[] runKeep = new boolean[0];
+
+    StrokeStore() {
+        allocSegments(INITIAL_SEGMENTS);
+        allocActions(INITIAL_ACTIONS);
+    }
+
+    /* -------------------------------------------------------------------------- */
+    /* 쓰기 */
+    /* -------------------------------------------------------------------------- */
+
+    /**
+     * 세그먼트를 덧붙이고 그 세그먼트가 속한 액션 번호를 돌려준다.
+     * newStroke 이거나 마지막 액션과 actionId가 다르면 새 액션을 시작한다.
+     */
+    int append(DrawEvent e) {
+        return append(e, 0);
+    }
+
+    /**
+     * 다른 노드에서 복제된 세그먼트를 그 노드가 부여한 액션 번호 그대로 덧붙인다.
+     * 이후 이 저장소가 새로 부여하는 번호는 항상 그보다 크다.
+     */
+    int appendReplicated(DrawEvent e) {
+        Integer seq = e.getSeq();
+        return append(e, seq == null ? 0 : seq);
+    }
+
+    private int append(DrawEvent e, int fixedSeq) {
+        if (Boolean.TRUE.equals(e.getNewStroke()) || actHead == actTail
+                || !Objects.equals(actionId[aIdx(actTail - 1)], e.getActionId())) {
+            if (actTail - actHead == actionId.length)
+                growActions();
+            int a = aIdx(actTail++);
+            actionId[a] = e.getActionId();
+            int seq = fixedSeq > 0 ? fixedSeq : nextSeq;
+            actionSeq[a] = seq;
+            nextSeq = Math.max(nextSeq, seq + 1);
+            actionCreatedAt[a] = System.currentTimeMillis();
+            actionStart[a] = segTail;
+        }
+        if (segTail - segHead == x1.length)
+            growSegments();
+        int seq = actionSeq[aIdx(actTail - 1)];
+        int s = sIdx(segTail++);
+        x1[s] = (float) e.getX1();
+        y1[s] = (float) e.getY1();
+        x2[s] = (float) e.getX2();
+        y2[s] = (float) e.getY2();
+        width[s] = (float) e.getWidth();
+        rgb[s] = parseRgb(e.getColor());
+        segSeq[s] = seq;
+        flags[s] = (byte) ((Boolean.TRUE.equals(e.getNewStroke()) ? F_NEW_STROKE : 0)
+                | ("eraser".equals(e.getMode()) ? F_ERASER : 0));
+        return seq;
+    }
+
+    /** 마지막 액션을 지운다(실행취소). 지운 세그먼트 수를 돌려준다. */
+    int removeLast() {
+        if (actHead == actTail)
+            return 0;
+        int a = aIdx(--actTail);
+        int removed = (int) (segTail - actionStart[a]);
+        segTail = actionStart[a];
+        actionId[a] = null;
+        simplifiedTo = Math.min(simplifiedTo, actTail);
+        return removed;
+    }
+
+    /** 가장 오래된 액션 n개를 지운다. 지운 세그먼트 수를 돌려준다. */
+    int removeFirst(int n) {
+        n = Math.min(n, actionCount());
+        if (n <= 0)
+            return 0;
+        long newSegHead = (n == actionCount()) ? segTail : actionStart[aIdx(actHead + n)];
+        int removed = (int) (newSegHead - segHead);
+        for (int i = 0; i < n; i++)
+            actionId[aIdx(actHead + i)] = null;
+        actHead += n;
+        segHead = newSegHead;
+        return removed;
+    }
+
+    /** 모두 비운다. 라운드 동안 크게 늘어난 버퍼는 초기 크기로 되돌린다. */
+    void clear() {
+        if (x1.length > INITIAL_SEGMENTS * 4)
+            allocSegments(INITIAL_SEGMENTS);
+        if (actionId.length > INITIAL_ACTIONS * 4)
+            allocActions(INITIAL_ACTIONS);
+        else
+            Arrays.fill(actionId, null);
+        segHead = segTail = 0;
+        actHead = actTail = 0;
+        simplifiedTo = 0;
+    }
+
+    /* -------------------------------------------------------------------------- */
+    /* 단순화 */
+    /* -------------------------------------------------------------------------- */
+
+    /**
+     * 끝난 액션(마지막 액션 제외, includeLast 이면 포함)의 세그먼트를 RDP 로 단순화해 제자리에서 줄인다.
+     * 허용 오차는 선 두께 × tolerance 이고, 두께/색/지우개가 같고 끝점이 이어지는 구간끼리만 합친다.
+     * 꼬리의 keepTail 개(아직 브로드캐스트되지 않은 대기분)에 걸친 액션은 건드리지 않고 다음 호출로 미룬다.
+     * 한 번 본 액션은 다시 보지 않는다. 줄어든 세그먼트 수를 돌려준다.
+     */
+    int simplifyCompleted(float tolerance, int keepTail, boolean includeLast) {
+        long limit = includeLast ? actTail : actTail - 1;
+        long stable = segTail - keepTail;
+        int removed = 0;
+        simplifiedTo = Math.max(simplifiedTo, actHead);
+        while (simplifiedTo < limit) {
+            long end = (simplifiedTo + 1 < actTail) ? actionStart[aIdx(simplifiedTo + 1)] : segTail;
+            if (end > stable)
+                break;
+            int r = simplifyAction(simplifiedTo, end, tolerance);
+            removed += r;
+            stable -= r;
+            simplifiedTo++;
+        }
+        return removed;
+    }
+
+    private int simplifyAction(long a, long end, float tolerance) {
+        long start = actionStart[aIdx(a)];
+        if (end - start < 2)
+            return 0;
+        long write = start;
+        long run = start;
+        while (run < end) {
+            long runEnd = run + 1;
+            while (runEnd < end && continues(runEnd - 1, runEnd))
+                runEnd++;
+            write = simplifyRun(run, runEnd, write, tolerance);
+            run = runEnd;
+        }
+        int removed = (int) (end - write);
+        if (removed == 0)
+            return 0;
+        // 뒤따르는 액션(보통 지금 그리는 액션 하나)을 당겨 붙인다
+        for (long p = end; p < segTail; p++)
+            moveSegment(p, p - removed);
+        for (long b = a + 1; b < actTail; b++)
+            actionStart[aIdx(b)] -= removed;
+        segTail -= removed;
+        return removed;
+    }
+
+    /** [from, to) 의 이어진 세그먼트를 남길 점끼리 잇는 세그먼트로 바꿔 write 위치부터 쓴다. 다음 쓸 위치를 돌려준다. */
+    private long simplifyRun(long from, long to, long write, float tolerance) {
+        int m = (int) (to - from);
+        if (m == 1) {
+            moveSegment(from, write);
+            return write + 1;
+        }
+        if (runX.length < m + 1) {
+            runX = new float[(m + 1) * 2];
+            runY = new float[(m + 1) * 2];
+            runKeep = new boolean[(m + 1) * 2];
+        }
+        int first = sIdx(from);
+        runX[0] = x1[first];
+        runY[0] = y1[first];
+        for (int i = 0; i < m; i++) {
+            int s = sIdx(from + i);
+            runX[i + 1] = x2[s];
+            runY[i + 1] = y2[s];
+        }
+        float w = width[first];
+        int color = rgb[first];
+        int seq = segSeq[first];
+        byte f = flags[first];
+
+        StrokeSimplifier.simplify(runX, runY, m + 1, w * tolerance, runKeep);
+        int prev = 0;
+        for (int i = 1; i <= m; i++) {
+            if (!runKeep[i])
+                continue;
+            int d = sIdx(write++);
+            x1[d] = runX[prev];
+            y1[d] = runY[prev];
+            x2[d] = runX[i];
+            y2[d] = runY[i];
+            width[d] = w;
+            rgb[d] = color;
+            segSeq[d] = seq;
+            flags[d] = prev == 0 ? f : (byte) (f & ~F_NEW_STROKE);
+            prev = i;
+        }
+        return write;
+    }
+
+    /** 같은 스타일이고 앞 세그먼트의 끝점에서 다음 세그먼트가 시작하는지 */
+    private boolean continues(long p, long q) {
+        int a = sIdx(p), b = sIdx(q);
+        return x2[a] == x1[b] && y2[a] == y1[b] && width[a] == width[b] && rgb[a] == rgb[b]
+                && ((flags[a] ^ flags[b]) & F_ERASER) == 0 && (flags[b] & F_NEW_STROKE) == 0;
+    }
+
+    private void moveSegment(long from, long to) {
+        if (from == to)
+            return;
+        int o = sIdx(from), d = sIdx(to);
+        x1[d] = x1[o];
+        y1[d] = y1[o];
+        x2[d] = x2[o];
+        y2[d] = y2[o];
+        width[d] = width[o];
+        rgb[d] = rgb[o];
+        segSeq[d] = segSeq[o];
+        flags[d] = flags[o];
+    }
+
+    /* -------------------------------------------------------------------------- */
+    /* 읽기 (액션 인덱스 0 = 가장 오래된 액션) */
+    /* -------------------------------------------------------------------------- */
+
+    boolean isEmpty() {
+        return actHead == actTail;
+    }
+
+    int actionCount() {
+        return (int) (actTail - actHead);
+    }
+
+    int segmentCount() {
+        return (int) (segTail - segHead);
+    }
+
+    String actionIdAt(int i) {
+        return actionId[aIdx(actHead + i)];
+    }
+
+    int seqAt(int i) {
+        return actionSeq[aIdx(actHead + i)];
+    }
+
+    long createdAtMsAt(int i) {
+        return actionCreatedAt[aIdx(actHead + i)];
+    }
+
+    /** i번째 액션의 첫 세그먼트 인덱스. i == actionCount() 이면 segmentCount() */
+    int segmentOffsetOf(int i) {
+        return i >= actionCount() ? segmentCount() : (int) (actionStart[aIdx(actHead + i)] - segHead);
+    }
+
+    /**
+     * [from, to) 세그먼트를 떼어낸 읽기 전용 사본으로 돌려준다. 모니터 안에서는 배열 복사만 하고,
+     * 객체 생성/직렬화/렌더링은 사본으로 모니터 밖에서 한다.
+     */
+    Slice copy(int from, int to) {
+        int n = Math.max(0, to - from);
+        Slice c = new Slice(n);
+        long start = segHead + from;
+        copyRange(x1, start, c.x1, n);
+        copyRange(y1, start, c.y1, n);
+        copyRange(x2, start, c.x2, n);
+        copyRange(y2, start, c.y2, n);
+        copyRange(width, start, c.width, n);
+        copyRange(rgb, start, c.rgb, n);
+        copyRange(segSeq, start, c.seq, n);
+        copyRange(flags, start, c.flags, n);
+
+        // 구간에 걸친 액션들의 ID (세그먼트는 액션 순서대로 모여 있으므로 seq가 바뀔 때마다 다음 액션)
+        List<String> ids = new ArrayList<>();
+        List<Long> times = new ArrayList<>();
+        for (long a = actHead; a < actTail && n > 0; a++) {
+            int ai = aIdx(a);
+            long end = (a + 1 < actTail) ? actionStart[aIdx(a + 1)] : segTail;
+            if (end > start && actionStart[ai] < start + n) {
+                ids.add(actionId[ai]);
+                times.add(actionCreatedAt[ai]);
+            }
+        }
+        c.actionIds = ids.toArray(new String[0]);
+        c.actionCreatedAt = times.stream().mapToLong(Long::longValue).toArray();
+        return c;
+    }
+
+    /** 복사해 둔 세그먼트 구간. 필드는 같은 패키지의 렌더러가 직접 읽는다. */
+    static final class Slice {
+        final float[] x1, y1, x2, y2, width;
+        final int[] rgb, seq;
+        final byte[] flags;
+        String[] actionIds;
+        long[] actionCreatedAt; // actionIds 와 같은 순서
+
+        private Slice(int n) {
+            x1 = new float[n];
+            y1 = new float[n];
+            x2 = new float[n];
+            y2 = new float[n];
+            width = new float[n];
+            rgb = new int[n];
+            seq = new int[n];
+            flags = new byte[n];
+        }
+
+        int size() {
+            return x1.length;
+        }
+
+        boolean isEraser(int i) {
+            return (flags[i] & F_ERASER) != 0;
+        }
+
+        boolean isNewStroke(int i) {
+            return (flags[i] & F_NEW_STROKE) != 0;
+        }
+
+        /** 클라이언트로 보낼 DrawEvent 목록으로 펼친다. */
+        List<DrawEvent> toEvents() {
+            List<DrawEvent> out = new ArrayList<>(size());
+            int action = -1;
+            for (int i = 0; i < size(); i++) {
+                boolean newStroke = (flags[i] & F_NEW_STROKE) != 0;
+                if (i == 0 || seq[i] != seq[i - 1])
+                    action++;
+                out.add(DrawEvent.builder()
+                        .x1(widen(x1[i])).y1(widen(y1[i])).x2(widen(x2[i])).y2(widen(y2[i]))
+                        .width(widen(width[i]))
+                        .color(toHex(rgb[i]))
+                        .mode(isEraser(i) ? "eraser" : "pen")
+                        .actionId(action < actionIds.length ? actionIds[action] : null)
+                        .newStroke(newStroke)
+                        .seq(seq[i])
+                        .build());
+            }
+            return out;
+        }
+    }
+
+    /* -------------------------------------------------------------------------- */
+    /* Helpers */
+    /* -------------------------------------------------------------------------- */
+
+    private int sIdx(long pos) {
+        return (int) (pos & (x1.length - 1));
+    }
+
+    private int aIdx(long pos) {
+        return (int) (pos & (actionId.length - 1));
+    }
+
+    /** float 저장으로 생긴 꼬리 자릿수를 잘라 JSON을 짧게 유지한다 (1/1000px 단위). */
+    private static double widen(float v) {
+        return Math.round(v * 1000.0) / 1000.0;
+    }
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    static String toHex(int rgb) {
+        char[] c = new char[7];
+        c[0] = '#';
+        for (int i = 6; i >= 1; i--) {
+            c[i] = HEX[rgb & 0xF];
+            rgb >>>= 4;
+        }
+        return new String(c);
+    }
+
+    /** "#rrggbb" / "#rgb" → 0xRRGGBB, 형식이 아니면 검정 */
+    static int parseRgb(String color) {
+        if (color == null)
+            return 0;
+        String c = color.trim();
+        if (c.length() == 4 && c.charAt(0) == '#')
+            c = "#" + c.charAt(1) + c.charAt(1) + c.charAt(2) + c.charAt(2) + c.charAt(3) + c.charAt(3);
+        if (c.length() != 7 || c.charAt(0) != '#')
+            return 0;
+        int v = 0;
+        for (int i = 1; i < 7; i++) {
+            int d = Character.digit(c.charAt(i), 16);
+            if (d < 0)
+                return 0;
+            v = (v << 4) | d;
+        }
+        return v;
+    }
+
+    private void copyRange(Object src, long startPos, Object dst, int n) {
+        if (n == 0)
+            return;
+        int cap = x1.length;
+        int from = sIdx(startPos);
+        int first = Math.min(n, cap - from);
+        System.arraycopy(src, from, dst, 0, first);
+        if (first < n)
+            System.arraycopy(src, 0, dst, first, n - first);
+    }
+
+    private void allocSegments(int cap) {
+        x1 = new float[cap];
+        y1 = new float[cap];
+        x2 = new float[cap];
+        y2 = new float[cap];
+        width = new float[cap];
+        rgb = new int[cap];
+        segSeq = new int[cap];
+        flags = new byte[cap];
+    }
+
+    private void allocActions(int cap) {
+        actionId = new String[cap];
+        actionSeq = new int[cap];
+        actionCreatedAt = new long[cap];
+        actionStart = new long[cap];
+    }
+
+    /** 용량을 두 배로 늘린다. 절대 위치는 그대로라 새 mask 기준 자리로 옮겨 담는다. */
+    private void growSegments() {
+        int cap = x1.length * 2;
+        float[] nx1 = new float[cap], ny1 = new float[cap], nx2 = new float[cap], ny2 = new float[cap],
+                nw = new float[cap];
+        int[] nrgb = new int[cap], nseq = new int[cap];
+        byte[] nflags = new byte[cap];
+        for (long p = segHead; p < segTail; p++) {
+            int o = sIdx(p), d = (int) (p & (cap - 1));
+            nx1[d] = x1[o];
+            ny1[d] = y1[o];
+            nx2[d] = x2[o];
+            ny2[d] = y2[o];
+            nw[d] = width[o];
+            nrgb[d] = rgb[o];
+            nseq[d] = segSeq[o];
+            nflags[d] = flags[o];
+        }
+        x1 = nx1;
+        y1 = ny1;
+        x2 = nx2;
+        y2 = ny2;
+        width = nw;
+        rgb = nrgb;
+        segSeq = nseq;
+        flags = nflags;
+    }
+
+    private void growActions() {
+        int cap = actionId.length * 2;
+        String[] nid = new String[cap];
+        int[] nseq = new int[cap];
+        long[] ncreated = new long[cap], nstart = new long[cap];
+        for (long p = actHead; p < actTail; p++) {
+            int o = aIdx(p), d = (int) (p & (cap - 1));
+            nid[d] = actionId[o];
+            nseq[d] = actionSeq[o];
+            ncreated[d] = actionCreatedAt[o];
+            nstart[d] = actionStart[o];
+        }
+        actionId = nid;
+        actionSeq = nseq;
+        actionCreatedAt = ncreated;
+        actionStart = nstart;
+    }
+}
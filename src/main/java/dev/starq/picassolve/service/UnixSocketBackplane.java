@@ -0,0 +1,336 @@
+package dev.starq.picassolve.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 한 리눅스 머신 위의 여러 노드를 공유 디렉터리 하나로 묶는 백플레인. 멀티캐스트나 별도 코디네이터가 필요 없다.
+ * <ul>
+ * <li>노드마다 {@code <dir>/<nodeId>.sock} 유닉스 도메인 소켓을 열고, 디렉터리의 다른 소켓 파일로 이벤트를 보낸다.
+ * 프레임은 4바이트 길이 + JSON 이며, 연결 직후 첫 프레임은 보내는 노드의 ID 다.</li>
+ * <li>방 소유권은 {@code <dir>/leases/<roomId>.lock} 파일 잠금이다. 프로세스가 죽으면 OS가 잠금을 풀어 주므로
+ * 남은 노드가 바로 이어받을 수 있다.</li>
+ * <li>보낼 이벤트는 크기가 정해진 큐에 쌓는다. 상대 노드가 느려 큐가 차면 이벤트를 버리고, 큐를 비운 뒤
+ * {@link OutboxOverflowed}를 이 노드에 전달해 버린 만큼을 방 상태 전체로 다시 맞추게 한다.</li>
+ * </ul>
+ */
+@Slf4j
+public class UnixSocketBackplane implements GameStateBackplane {
+
+    private static final int MAX_FRAME_BYTES = 32 << 20;
+    private static final long PEER_SCAN_MS = 1_000L;
+    private static final String SOCKET_SUFFIX = ".sock";
+
+    private final ObjectMapper json;
+    private final String nodeId;
+    private final Path dir;
+    private final Path leaseDir;
+    private final Path socketPath;
+    private final ServerSocketChannel server;
+    private final List<Consumer<Event>> listeners = new CopyOnWriteArrayList<>();
+    private final BlockingQueue<Event> outbox;
+    private final AtomicLong dropped = new AtomicLong();
+    private final Map<String, FileLock> leases = new ConcurrentHashMap<>();
+    private final Thread acceptor;
+    private final Thread sender;
+    private volatile boolean closed = false;
+    private volatile boolean rescanPeers = true;
+
+    // 보내는 스레드만 사용한다. 연결을 닫는 것도 그 스레드가 끝나면서 한다
+    private final Map<Path, SocketChannel> peers = new HashMap<>();
+    private long lastScanMs = 0L;
+
+    public UnixSocketBackplane(ObjectMapper json, Path dir, String nodeId, int outboxCapacity) throws IOException {
+        this.json = json;
+        this.outbox = new ArrayBlockingQueue<>(outboxCapacity);
+        this.nodeId = nodeId;
+        this.dir = dir;
+        this.leaseDir = dir.resolve("leases");
+        this.socketPath = dir.resolve(nodeId + SOCKET_SUFFIX);
+        Files.createDirectories(leaseDir);
+        Files.deleteIfExists(socketPath);
+        this.server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        server.bind(UnixDomainSocketAddress.of(socketPath));
+
+        this.acceptor = daemon("backplane-accept", this::acceptLoop);
+        this.sender = daemon("backplane-send", this::sendLoop);
+        acceptor.start();
+        sender.start();
+        log.info("[게임] 백플레인 시작: 노드 {} ({})", nodeId, dir);
+    }
+
+    @Override
+    public String nodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void publish(Event event) {
+        if (closed || outbox.offer(event))
+            return;
+        if (dropped.getAndIncrement() == 0)
+            log.warn("[게임] 백플레인 송신 큐가 가득 차 이벤트를 버립니다 (용량 {}). 비워지면 방 상태를 다시 보냅니다",
+                    outbox.remainingCapacity() + outbox.size());
+    }
+
+    @Override
+    public void subscribe(Consumer<Event> listener) {
+        listeners.add(listener);
+    }
+
+    /** 잠금 파일을 여는 I/O 는 같은 방을 동시에 잡으려는 호출끼리만 기다린다. */
+    @Override
+    public boolean tryAcquire(String roomId) {
+        return leases.computeIfAbsent(roomId, this::lockLease) != null;
+    }
+
+    /** 다른 노드가 가지고 있으면 null. */
+    private FileLock lockLease(String roomId) {
+        FileChannel ch = null;
+        try {
+            ch = FileChannel.open(leaseDir.resolve(roomId + ".lock"), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE);
+            FileLock lock = ch.tryLock();
+            if (lock == null)
+                ch.close();
+            return lock;
+        } catch (IOException | OverlappingFileLockException ex) {
+            closeQuietly(ch);
+            return null;
+        }
+    }
+
+    @Override
+    public boolean owns(String roomId) {
+        return leases.containsKey(roomId);
+    }
+
+    @Override
+    public void release(String roomId) {
+        FileLock lock = leases.remove(roomId);
+        if (lock != null)
+            closeQuietly(lock.acquiredBy());
+    }
+
+    @Override
+    public void close() {
+        if (closed)
+            return;
+        closed = true;
+        acceptor.interrupt();
+        sender.interrupt();
+        closeQuietly(server);
+        try {
+            sender.join(1_000L); // 보내는 스레드가 끝나면서 상대 노드와의 연결을 닫는다
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            Files.deleteIfExists(socketPath);
+        } catch (IOException ignored) {
+        }
+        for (String roomId : Set.copyOf(leases.keySet()))
+            release(roomId);
+    }
+
+    /* -------------------------------------------------------------------------- */
+    /* 받기 */
+    /* -------------------------------------------------------------------------- */
+
+    private void acceptLoop() {
+        while (!closed) {
+            try {
+                SocketChannel ch = server.accept();
+                daemon("backplane-peer", () -> readLoop(ch)).start();
+            } catch (IOException ex) {
+                if (!closed)
+                    log.warn("[게임] 백플레인 연결 수락 실패: {}", ex.toString());
+            }
+        }
+    }
+
+    /** 한 노드에서 들어오는 이벤트를 순서대로 전달한다. 연결이 끊기면 그 노드가 나간 것으로 알린다. */
+    private void readLoop(SocketChannel ch) {
+        String peer = null;
+        try (DataInputStream in = new DataInputStream(Channels.newInputStream(ch))) {
+            peer = new String(readFrame(in), StandardCharsets.UTF_8);
+            rescanPeers = true; // 새 노드에게도 바로 보낼 수 있도록
+            log.info("[게임] 백플레인 노드 연결: {}", peer);
+            while (!closed)
+                deliver(json.readValue(readFrame(in), Event.class));
+        } catch (IOException ex) {
+            // 상대 노드가 내려갔거나 연결이 끊김
+        } finally {
+            closeQuietly(ch);
+            if (peer != null && !closed) {
+                log.info("[게임] 백플레인 노드 연결 끊김: {}", peer);
+                deliver(new NodeLeft(peer));
+            }
+        }
+    }
+
+    private static byte[] readFrame(DataInputStream in) throws IOException {
+        int len = in.readInt();
+        if (len < 0 || len > MAX_FRAME_BYTES)
+            throw new IOException("잘못된 프레임 길이: " + len);
+        byte[] buf = new byte[len];
+        in.readFully(buf);
+        return buf;
+    }
+
+    private void deliver(Event event) {
+        for (Consumer<Event> l : listeners) {
+            try {
+                l.accept(event);
+            } catch (Exception ex) {
+                log.warn("[게임] 복제 이벤트 처리 실패 ({}): {}", event.getClass().getSimpleName(), ex.toString());
+            }
+        }
+    }
+
+    /* -------------------------------------------------------------------------- */
+    /* 보내기 */
+    /* -------------------------------------------------------------------------- */
+
+    private void sendLoop() {
+        try {
+            while (!closed) {
+                Event event;
+                try {
+                    event = outbox.take();
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                send(event);
+                if (outbox.isEmpty())
+                    reportDropped();
+            }
+        } finally {
+            // 상대 노드가 바로 NodeLeft 를 받도록
+            peers.values().forEach(UnixSocketBackplane::closeQuietly);
+            peers.clear();
+        }
+    }
+
+    private void send(Event event) {
+        byte[] payload;
+        try {
+            payload = json.writeValueAsBytes(event);
+        } catch (IOException ex) {
+            log.warn("[게임] 복제 이벤트 직렬화 실패 ({}): {}", event.getClass().getSimpleName(), ex.toString());
+            return;
+        }
+        refreshPeers();
+        for (Iterator<Map.Entry<Path, SocketChannel>> it = peers.entrySet().iterator(); it.hasNext();) {
+            Map.Entry<Path, SocketChannel> peer = it.next();
+            try {
+                writeFrame(peer.getValue(), payload);
+            } catch (IOException ex) {
+                closeQuietly(peer.getValue());
+                it.remove(); // 다음 스캔에서 다시 연결을 시도한다
+            }
+        }
+    }
+
+    /** 큐가 비었을 때 버린 이벤트가 있었다면 이 노드의 구독자에게 알려 방 상태를 다시 보내게 한다. */
+    private void reportDropped() {
+        long count = dropped.getAndSet(0);
+        if (count == 0)
+            return;
+        log.warn("[게임] 백플레인 이벤트 {}개를 버렸습니다. 방 상태를 다시 보냅니다", count);
+        deliver(new OutboxOverflowed(count));
+    }
+
+    /** 디렉터리의 소켓 파일을 주기적으로 훑어 새 노드에 연결하고 사라진 노드는 정리한다. */
+    private void refreshPeers() {
+        long now = System.currentTimeMillis();
+        if (!rescanPeers && now - lastScanMs < PEER_SCAN_MS)
+            return;
+        rescanPeers = false;
+        lastScanMs = now;
+
+        Set<Path> found = new HashSet<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + SOCKET_SUFFIX)) {
+            for (Path p : files) {
+                if (!p.equals(socketPath))
+                    found.add(p);
+            }
+        } catch (IOException ex) {
+            log.warn("[게임] 백플레인 디렉터리 읽기 실패: {}", ex.toString());
+            return;
+        }
+
+        peers.entrySet().removeIf(e -> {
+            if (found.contains(e.getKey()))
+                return false;
+            closeQuietly(e.getValue());
+            return true;
+        });
+        for (Path p : found) {
+            if (peers.containsKey(p))
+                continue;
+            SocketChannel ch = null;
+            try {
+                ch = SocketChannel.open(UnixDomainSocketAddress.of(p));
+                writeFrame(ch, nodeId.getBytes(StandardCharsets.UTF_8));
+                peers.put(p, ch);
+            } catch (IOException ex) {
+                closeQuietly(ch); // 비정상 종료한 노드가 남긴 소켓 파일
+            }
+        }
+    }
+
+    private static void writeFrame(SocketChannel ch, byte[] payload) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(4 + payload.length);
+        buf.putInt(payload.length).put(payload).flip();
+        while (buf.hasRemaining())
+            ch.write(buf);
+    }
+
+    /* -------------------------------------------------------------------------- */
+    /* Helpers */
+    /* -------------------------------------------------------------------------- */
+
+    private static Thread daemon(String name, Runnable body) {
+        Thread t = new Thread(body, name);
+        t.setDaemon(true);
+        return t;
+    }
+
+    private static void closeQuietly(AutoCloseable c) {
+        if (c == null)
+            return;
+        try {
+            c.close();
+        } catch (Exception ignored) {
+        }
+    }
+}
@@ -10,9 +10,12 @@ import java.util.Objects;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Service
 @RequiredArgsConstructor
@@ -23,6 +26,8 @@ public class UserServiceImpl implements UserService {
 	private final UserRepository userRepository;
 	private final UserMapper userMapper;
 	private final PasswordEncoder passwordEncoder;
+	private final Leaderboard leaderboard;
+	private final ApplicationEventPublisher events;
 
 	// --- 회원 가입 및 조회 ---
 
@@ -85,6 +90,7 @@ public class UserServiceImpl implements UserService {
 		}
 
 		// 이름 변경
+		String previousName = user.getName();
 		String normalizedNewName = normalize(newName);
 		if (!normalizedNewName.isBlank() && !normalizedNewName.equals(user.getName())) {
 			if (userRepository.existsByName(normalizedNewName)) {
@@ -104,6 +110,9 @@ public class UserServiceImpl implements UserService {
 		}
 
 		User saved = userRepository.save(user);
+		String savedName = saved.getName();
+		int savedTeam = saved.getTeam();
+		afterCommit(() -> leaderboard.updateProfile(previousName, savedName, savedTeam));
 		log.info("[사용자] 프로필 수정 완료: {} (ID: {})", saved.getName(), saved.getId());
 		return userMapper.toDto(saved);
 	}
@@ -145,6 +154,7 @@ public class UserServiceImpl implements UserService {
 		}
 
 		userRepository.delete(user);
+		afterCommit(() -> leaderboard.remove(user.getName()));
 		log.info("[사용자] 계정 본인 삭제 완료: {}", username);
 	}
 
@@ -154,10 +164,32 @@ public class UserServiceImpl implements UserService {
 			return;
 		userRepository.findById(id).ifPresent(user -> {
 			userRepository.delete(user);
+			afterCommit(() -> leaderboard.remove(user.getName()));
 			log.info("[사용자] 계정 강제 삭제 완료 (ID: {}, 이름: {})", id, user.getName());
 		});
 	}
 
+	/**
+	 * 실시간 점수판은 DB 와 따로 있는 메모리 인덱스라 롤백되지 않는다.
+	 * 트랜잭션이 커밋된 뒤에만 반영하고 변경분 발행을 요청한다. (트랜잭션 밖이면 바로)
+	 */
+	private void afterCommit(Runnable change) {
+		Runnable apply = () -> {
+			change.run();
+			events.publishEvent(new ScoreboardChanged());
+		};
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			apply.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				apply.run();
+			}
+		});
+	}
+
 	private String normalize(String value) {
 		return value == null ? "" : value.trim();
 	}
@@ -0,0 +1,127 @@
+package dev.starq.picassolve.service;
+
+import dev.starq.picassolve.entity.Word;
+import dev.starq.picassolve.repository.WordRepository;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * 제시어 사전. 시작할 때 words 테이블을 한 번 읽어 메모리에 두고, 관리자가 요청하면 다시 읽는다.
+ * 단어마다 정규화 형태/글자 수/마스크 문자열/채팅 판정기를 미리 계산해 두며, 선택은 배열에서 O(1) 무작위 추출이다.
+ */
+@Component
+@Slf4j
+public class WordDictionary {
+
+    /**
+     * 미리 계산한 단어 정보. length는 공백을 뺀 코드포인트 수, mask는 정답 가림용 문자열,
+     * matcher는 채팅 정답/유출/근접 판정기다.
+     */
+    public record Entry(String text, String normalized, int length, String mask, AnswerMatcher matcher) {
+
+        static Entry of(String text) {
+            String compact = text.replaceAll("\\s+", "");
+            int length = compact.codePointCount(0, compact.length());
+            String normalized = Normalizer.normalize(compact, Normalizer.Form.NFC).toLowerCase(Locale.ROOT);
+            return new Entry(text, normalized, length, "☆".repeat(Math.max(1, length)), AnswerMatcher.compile(text));
+        }
+    }
+
+    private static final int MAX_ATTEMPTS = 32;
+
+    private final WordRepository wordRepo;
+    private final int recentWindow;
+    private volatile Entry[] entries = new Entry[0];
+    private volatile Map<String, Entry> entriesByText = Map.of();
+
+    public WordDictionary(WordRepository wordRepo,
+            @Value("${app.words.recent-window:20}") int recentWindow) {
+        this.wordRepo = wordRepo;
+        this.recentWindow = Math.max(0, recentWindow);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        reload();
+    }
+
+    /** DB에서 단어 목록을 다시 읽어 통째로 교체한다. 불러온 단어 수를 돌려준다. */
+    public int reload() {
+        List<Entry> loaded = new ArrayList<>();
+        for (Word w : wordRepo.findAll()) {
+            if (w.getText() != null && !w.getText().isBlank())
+                loaded.add(Entry.of(w.getText().strip()));
+        }
+        Map<String, Entry> byText = new HashMap<>(loaded.size() * 2);
+        for (Entry e : loaded)
+            byText.putIfAbsent(e.text(), e);
+        entries = loaded.toArray(new Entry[0]);
+        entriesByText = byText;
+        log.info("[게임] 제시어 사전 로드: {}개 (최근 {}개 중복 제외)", loaded.size(), recentWindow);
+        return loaded.size();
+    }
+
+    public int size() {
+        return entries.length;
+    }
+
+    /**
+     * 다른 노드/저널에서 받은 제시어의 미리 계산한 정보. 대부분 같은 DB 를 읽은 사전에 이미 있으므로 그대로 쓰고,
+     * 없을 때(사전을 읽기 전이거나 단어가 바뀐 직후)만 새로 만든다.
+     */
+    Entry entryFor(String text) {
+        Entry e = entriesByText.get(text);
+        return e != null ? e : Entry.of(text);
+    }
+
+    /**
+     * 다음 제시어를 뽑는다. 현재 단어와 방에서 최근 나온 단어는 제외한다.
+     * 제외 범위는 사전 크기의 절반까지로 제한해 기대 시도 횟수를 2회 이하로 유지한다.
+     * recent 는 방마다 하나씩 두며 호출자(방 lock)가 보호한다.
+     */
+    Entry next(LinkedHashSet<String> recent, Entry current) {
+        Entry[] all = entries;
+        if (all.length == 0) { // 시작 직후이거나 나중에 단어가 추가된 경우
+            reload();
+            all = entries;
+        }
+        if (all.length == 0)
+            throw new IllegalStateException("단어 DB가 비었습니다");
+        String currentText = current == null ? null : current.text();
+        int window = Math.min(recentWindow, all.length / 2);
+        while (recent.size() > window)
+            removeEldest(recent);
+
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        Entry picked = all[rnd.nextInt(all.length)];
+        for (int i = 1; i < MAX_ATTEMPTS && all.length > 1
+                && (Objects.equals(picked.text(), currentText) || recent.contains(picked.text())); i++)
+            picked = all[rnd.nextInt(all.length)];
+
+        if (window > 0) {
+            recent.add(picked.text());
+            if (recent.size() > window)
+                removeEldest(recent);
+        }
+        return picked;
+    }
+
+    private static void removeEldest(LinkedHashSet<String> recent) {
+        Iterator<String> it = recent.iterator();
+        it.next();
+        it.remove();
+    }
+}
@@ -0,0 +1,84 @@
+package dev.starq.picassolve.support;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+/**
+ * 바이너리 드로잉 포맷(/topic/room/{id}/draw.bin)을 구독한 연결 수를 방 별로 센다.
+ * 클라이언트는 draw 대신 draw.bin 을 구독하는 것으로 포맷을 선택하며,
+ * 구독자가 없는 방은 바이너리 인코딩/발행을 건너뛴다.
+ * 외부 브로커 릴레이 모드에서는 다른 인스턴스의 구독을 알 수 없으므로 항상 발행한다.
+ */
+@Component
+public class BinaryDrawSubscribers {
+
+    private static final Pattern BIN_TOPIC = Pattern.compile("^/topic/room/([^/]+)/draw\\.bin$");
+
+    // sessionId -> (subscriptionId -> roomId)
+    private final Map<String, Map<String, String>> sessions = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> countByRoom = new ConcurrentHashMap<>();
+    private final boolean relayEnabled;
+
+    public BinaryDrawSubscribers(@Value("${app.broker.relay.enabled:false}") boolean relayEnabled) {
+        this.relayEnabled = relayEnabled;
+    }
+
+    public boolean hasSubscribers(String roomId) {
+        if (relayEnabled)
+            return true;
+        AtomicInteger c = countByRoom.get(roomId);
+        return c != null && c.get() > 0;
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        SimpMessageHeaderAccessor h = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        String destination = h.getDestination();
+        if (destination == null || h.getSessionId() == null || h.getSubscriptionId() == null)
+            return;
+        Matcher m = BIN_TOPIC.matcher(destination);
+        if (!m.matches())
+            return;
+        String roomId = m.group(1);
+        String prev = sessions.computeIfAbsent(h.getSessionId(), k -> new ConcurrentHashMap<>())
+                .put(h.getSubscriptionId(), roomId);
+        if (prev == null)
+            countByRoom.compute(roomId, (k, c) -> {
+                AtomicInteger n = (c == null) ? new AtomicInteger() : c;
+                n.incrementAndGet();
+                return n;
+            });
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        SimpMessageHeaderAccessor h = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        Map<String, String> subs = h.getSessionId() == null ? null : sessions.get(h.getSessionId());
+        if (subs == null || h.getSubscriptionId() == null)
+            return;
+        String roomId = subs.remove(h.getSubscriptionId());
+        if (roomId != null)
+            decrement(roomId);
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Map<String, String> subs = sessions.remove(event.getSessionId());
+        if (subs != null)
+            subs.values().forEach(this::decrement);
+    }
+
+    private void decrement(String roomId) {
+        countByRoom.computeIfPresent(roomId, (k, c) -> c.decrementAndGet() <= 0 ? null : c);
+    }
+}
@@ -0,0 +1,9 @@
+package dev.starq.picassolve.support;
+
+/**
+ * 보낼 대기열이 밀려 드로잉 프레임을 버린 연결에 캔버스 스냅샷을 다시 보내 달라는 요청.
+ * {@link OutboundSessionQueues}가 발행하고 GameService 가 받는다. 같은 유저의 다른 연결(탭)은 밀리지 않았으므로
+ * sessionId 의 연결로만 보낸다.
+ */
+public record CanvasResyncRequest(String username, String sessionId) {
+}
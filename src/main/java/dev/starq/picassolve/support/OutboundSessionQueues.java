@@ -0,0 +1,344 @@
+package dev.starq.picassolve.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.security.Principal;
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+/**
+ * 연결마다 보낼 프레임 대기열을 두고 전송은 별도 스레드(가상 스레드)에서 한다. 느린 클라이언트 하나가
+ * 아웃바운드 채널 스레드를 붙잡아 다른 연결까지 밀리게 하지 않는다.
+ * <ul>
+ * <li>드로잉 세그먼트(/topic/room/{id}/draw, draw.bin)는 버릴 수 있다. 대기 중인 드로잉 프레임이
+ * {@code draw-queue-kb}를 넘으면 새 프레임을 버리므로, 느린 클라이언트는 듬성듬성한 스트로크를 받다가
+ * 대기열이 빠지면 그 연결로만 캔버스 스냅샷을 다시 받아({@link CanvasResyncRequest}) 빠진 선을 채운다.</li>
+ * <li>그 밖의 프레임(채팅, 라운드/제시어, 접속자, 실행취소/초기화, 스냅샷)은 버리지 않는다. 전체 대기열이
+ * {@code max-queue-kb}를 넘으면 더 따라올 수 없는 연결로 보고 닫는다. 단, 재동기화로 요청한 스냅샷은
+ * 연결을 살리려고 보내는 것이므로 요청할 때마다 {@code max-queue-kb}만큼 따로 허용하고 한도 계산에서 뺀다.</li>
+ * </ul>
+ * 프레임 순서는 바꾸지 않는다. 실행취소가 앞선 세그먼트보다 먼저 도착하면 지운 선이 다시 그려지기 때문이다.
+ * 지표는 연결 수만큼 태그를 만들지 않도록 모든 연결에 걸친 분포와 최댓값으로 낸다.
+ */
+@Component
+@Slf4j
+public class OutboundSessionQueues {
+
+    private static final String DESTINATION = "\ndestination:";
+    private static final String SNAPSHOT_DESTINATION = "/queue/canvas/snapshot";
+    private static final int HEADER_SCAN_CHARS = 256;
+    private static final long MIN_RESYNC_INTERVAL_MS = 2_000L;
+
+    private final boolean enabled;
+    private final long drawQueueBytes;
+    private final long maxQueueBytes;
+    private final ApplicationEventPublisher events;
+    private final Set<QueuedSession> sessions = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final DistributionSummary queueDepth;
+    private final Timer sendTime;
+    private final Counter drawDropped;
+    private final Counter resyncs;
+    private final Counter terminated;
+
+    public OutboundSessionQueues(MeterRegistry registry, ApplicationEventPublisher events,
+            @Value("${app.ws.outbound.enabled:true}") boolean enabled,
+            @Value("${app.ws.outbound.draw-queue-kb:256}") int drawQueueKb,
+            @Value("${app.ws.outbound.max-queue-kb:8192}") int maxQueueKb) {
+        this.events = events;
+        this.enabled = enabled;
+        this.drawQueueBytes = Math.max(1, drawQueueKb) * 1024L;
+        this.maxQueueBytes = Math.max(drawQueueKb * 2L, maxQueueKb) * 1024L;
+
+        this.queueDepth = DistributionSummary.builder("picassolve.ws.outbound.queue")
+                .description("프레임을 넣을 때 그 연결의 대기열 크기")
+                .baseUnit("bytes")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        this.sendTime = Timer.builder("picassolve.ws.outbound.send")
+                .description("프레임 하나를 소켓(송신 버퍼)에 쓰는 데 걸린 시간")
+                .register(registry);
+        this.drawDropped = Counter.builder("picassolve.ws.outbound.draw.dropped")
+                .description("대기열이 밀려 버린 드로잉 프레임 수")
+                .register(registry);
+        this.resyncs = Counter.builder("picassolve.ws.outbound.resync")
+                .description("드로잉 프레임을 버린 뒤 다시 보낸 캔버스 스냅샷 수")
+                .register(registry);
+        this.terminated = Counter.builder("picassolve.ws.outbound.terminated")
+                .description("대기열 한도를 넘어 닫은 연결 수")
+                .register(registry);
+        Gauge.builder("picassolve.ws.outbound.queue.max", sessions, OutboundSessionQueues::maxQueued)
+                .description("가장 밀린 연결의 대기열 크기")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("picassolve.ws.outbound.sessions.lagging", sessions, OutboundSessionQueues::lagging)
+                .description("드로잉 프레임을 버리고 있는 연결 수")
+                .register(registry);
+    }
+
+    /** WebSocketTransportRegistration#addDecoratorFactory 에 넘긴다. */
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        if (!enabled)
+            return handler;
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                QueuedSession queued = new QueuedSession(session);
+                sessions.add(queued);
+                super.afterConnectionEstablished(queued);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
+                sessions.removeIf(s -> {
+                    if (!s.getId().equals(session.getId()))
+                        return false;
+                    s.discard();
+                    return true;
+                });
+                super.afterConnectionClosed(session, status);
+            }
+        };
+    }
+
+    /** /topic/room/{id}/draw, /topic/room/{id}/draw.bin 으로 가는 MESSAGE 프레임인지 (앞부분 헤더만 본다) */
+    static boolean isDrawFrame(WebSocketMessage<?> message) {
+        String destination = destinationOf(message);
+        return destination != null && destination.startsWith("/topic/room/")
+                && (destination.endsWith("/draw") || destination.endsWith("/draw.bin"));
+    }
+
+    /** 유저 큐로 가는 캔버스 스냅샷 조각인지 */
+    static boolean isSnapshotFrame(WebSocketMessage<?> message) {
+        String destination = destinationOf(message);
+        return destination != null && destination.endsWith(SNAPSHOT_DESTINATION);
+    }
+
+    /** STOMP 프레임의 destination 헤더. 텍스트 프레임이 아니거나 앞부분에 없으면 null */
+    private static String destinationOf(WebSocketMessage<?> message) {
+        if (!(message instanceof TextMessage text))
+            return null;
+        String frame = text.getPayload();
+        String head = frame.length() > HEADER_SCAN_CHARS ? frame.substring(0, HEADER_SCAN_CHARS) : frame;
+        int at = head.indexOf(DESTINATION);
+        if (at < 0)
+            return null;
+        int start = at + DESTINATION.length();
+        int stop = head.indexOf('\n', start);
+        return head.substring(start, stop < 0 ? head.length() : stop);
+    }
+
+    private static double maxQueued(Set<QueuedSession> sessions) {
+        long max = 0;
+        for (QueuedSession s : sessions)
+            max = Math.max(max, s.queuedBytes());
+        return max;
+    }
+
+    private static double lagging(Set<QueuedSession> sessions) {
+        int n = 0;
+        for (QueuedSession s : sessions) {
+            if (s.isLagging())
+                n++;
+        }
+        return n;
+    }
+
+    /* -------------------------------------------------------------------------- */
+    /* 연결 하나의 대기열 */
+    /* -------------------------------------------------------------------------- */
+
+    /** 대기 중인 프레임. 크기와 종류는 넣을 때 한 번만 계산한다. exempt 는 한도 계산에서 빼는 재동기화 스냅샷 */
+    private record Frame(WebSocketMessage<?> message, int size, boolean draw, boolean exempt) {
+    }
+
+    private final class QueuedSession extends WebSocketSessionDecorator {
+
+        // 아래 필드는 this 로 보호한다
+        private final ArrayDeque<Frame> queue = new ArrayDeque<>();
+        private long queuedBytes;
+        private long queuedDrawBytes;
+        private long queuedExemptBytes;
+        private long resyncAllowance; // 재동기화 스냅샷에 남은 한도 밖 허용량
+        private boolean draining;
+        private boolean resyncPending;
+        private long lastResyncAtMs;
+        private boolean closing;
+
+        QueuedSession(WebSocketSession delegate) {
+            super(delegate);
+        }
+
+        synchronized long queuedBytes() {
+            return queuedBytes;
+        }
+
+        synchronized boolean isLagging() {
+            return resyncPending;
+        }
+
+        /** 아웃바운드 채널 스레드: 대기열에 넣기만 하고 돌아간다. */
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            int size = message.getPayloadLength();
+            boolean draw = isDrawFrame(message);
+            boolean snapshot = !draw && isSnapshotFrame(message);
+            boolean startDrain;
+            boolean overflow = false;
+            long depth;
+            synchronized (this) {
+                if (closing)
+                    return;
+                if (draw && queuedDrawBytes + size > drawQueueBytes) {
+                    resyncPending = true;
+                    drawDropped.increment();
+                    return;
+                }
+                Frame frame = new Frame(message, size, draw, snapshot && resyncAllowance >= size);
+                if (frame.exempt()) {
+                    resyncAllowance -= size;
+                } else if (queuedBytes - queuedExemptBytes + size > maxQueueBytes) {
+                    overflow = true;
+                    discard();
+                }
+                if (!overflow) {
+                    queue.add(frame);
+                    queuedBytes += size;
+                    if (draw)
+                        queuedDrawBytes += size;
+                    if (frame.exempt())
+                        queuedExemptBytes += size;
+                }
+                depth = queuedBytes;
+                startDrain = !overflow && !draining;
+                if (startDrain)
+                    draining = true;
+            }
+            if (overflow) {
+                terminated.increment();
+                log.warn("[웹소켓] 보낼 대기열이 {}KB 를 넘어 연결을 닫습니다: {} ({})", maxQueueBytes / 1024, userName(),
+                        getId());
+                closeQuietly(CloseStatus.SESSION_NOT_RELIABLE);
+                return;
+            }
+            queueDepth.record(depth);
+            if (startDrain)
+                senders.execute(this::drain);
+        }
+
+        /** 전송 스레드: 대기열이 빌 때까지 순서대로 쓴다. 연결마다 한 번에 하나만 돈다. */
+        private void drain() {
+            while (true) {
+                Frame next;
+                boolean resync = false;
+                synchronized (this) {
+                    if (closing) {
+                        draining = false;
+                        return;
+                    }
+                    if (resyncPending && shouldResync()) {
+                        resyncPending = false;
+                        lastResyncAtMs = System.currentTimeMillis();
+                        resyncAllowance = maxQueueBytes;
+                        resync = true;
+                    }
+                    next = queue.peek();
+                    if (next == null && !resync) {
+                        draining = false;
+                        return;
+                    }
+                }
+                if (resync) {
+                    // 스냅샷 프레임은 이 대기열 뒤에 붙는다. (draining 중이므로 여기서 이어서 보낸다)
+                    requestResync();
+                    continue;
+                }
+
+                long started = System.nanoTime();
+                try {
+                    getDelegate().sendMessage(next.message());
+                } catch (IOException | RuntimeException ex) {
+                    log.debug("[웹소켓] 프레임 전송 실패, 연결을 닫습니다: {} ({}): {}", userName(), getId(), ex.toString());
+                    discard();
+                    closeQuietly(CloseStatus.SESSION_NOT_RELIABLE);
+                    return;
+                }
+                sendTime.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                synchronized (this) {
+                    if (closing)
+                        continue; // 대기열은 이미 비웠다
+                    queue.poll();
+                    queuedBytes -= next.size();
+                    if (next.draw())
+                        queuedDrawBytes -= next.size();
+                    if (next.exempt())
+                        queuedExemptBytes -= next.size();
+                }
+            }
+        }
+
+        /** 연결이 닫혔거나 닫을 때: 남은 프레임을 버린다. */
+        synchronized void discard() {
+            closing = true;
+            queue.clear();
+            queuedBytes = 0;
+            queuedDrawBytes = 0;
+            queuedExemptBytes = 0;
+            resyncAllowance = 0;
+        }
+
+        /** 빈 대기열이거나, 드로잉 대기열이 1/4 아래로 빠졌고 직전 스냅샷에서 충분히 지났을 때 (this 안에서 호출) */
+        private boolean shouldResync() {
+            if (queue.isEmpty())
+                return true;
+            return queuedDrawBytes < drawQueueBytes / 4
+                    && System.currentTimeMillis() - lastResyncAtMs >= MIN_RESYNC_INTERVAL_MS;
+        }
+
+        private void requestResync() {
+            String user = userName();
+            if (user == null)
+                return;
+            resyncs.increment();
+            log.debug("[웹소켓] 드로잉 프레임을 버린 연결에 캔버스 스냅샷을 다시 보냅니다: {} ({})", user, getId());
+            try {
+                events.publishEvent(new CanvasResyncRequest(user, getId()));
+            } catch (RuntimeException ex) {
+                log.warn("[웹소켓] 캔버스 재동기화 실패: {} ({}): {}", user, getId(), ex.toString());
+            }
+        }
+
+        private String userName() {
+            Principal p = getPrincipal();
+            return p != null ? p.getName() : null;
+        }
+
+        private void closeQuietly(CloseStatus status) {
+            try {
+                getDelegate().close(status);
+            } catch (IOException | RuntimeException ignore) {
+                // 이미 닫힌 연결
+            }
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package dev.starq.picassolve.support;
+
+import dev.starq.picassolve.dto.DrawEvent;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 드로잉 세그먼트용 압축 바이너리 포맷 (JSON 대비 세그먼트당 약 200B → 5~12B).
+ *
+ * <pre>
+ * frame   := VERSION segment*
+ * segment := flags [seq:uvarint] [x1:svarint y1:svarint] dx:svarint dy:svarint [width:uvarint color]
+ * color   := paletteIndex:u8 | r:u8 g:u8 b:u8 (F_RGB)
+ * </pre>
+ *
+ * 좌표와 굵기는 1/{@value #SCALE} px 고정소수점으로 양자화한다. 같은 프레임 안에서 직전 세그먼트와
+ * 액션 번호/시작점/스타일이 같으면 해당 필드를 생략한다. SockJS는 텍스트 프레임만 보장하므로
+ * STOMP 본문은 Base64 문자열로 보낸다.
+ */
+public final class StrokeCodec {
+
+    public static final int VERSION = 1;
+    public static final int SCALE = 4;
+    /** 양자화 좌표의 한계. 두 좌표의 차(dx, dy)가 int 를 넘지 않아 JS 디코더의 덧셈과도 같은 값이 나온다. */
+    static final int LIMIT = 1 << 28;
+
+    static final int F_NEW_STROKE = 1;
+    static final int F_ERASER = 1 << 1;
+    static final int F_SAME_ACTION = 1 << 2;
+    static final int F_CONTINUES = 1 << 3;
+    static final int F_SAME_STYLE = 1 << 4;
+    static final int F_RGB = 1 << 5;
+
+    /** 자주 쓰는 색상. 프론트엔드 strokeCodec.js 의 PALETTE 와 순서가 같아야 한다. */
+    static final String[] PALETTE = {
+            "#000000", "#ffffff", "#ff0000", "#00ff00", "#0000ff", "#ffff00", "#ff00ff", "#00ffff",
+            "#808080", "#c0c0c0", "#800000", "#008000", "#000080", "#ffa500", "#a52a2a", "#ffc0cb"
+    };
+
+    private StrokeCodec() {
+    }
+
+    public static String encodeBase64(List<DrawEvent> segments) {
+        return Base64.getEncoder().encodeToString(encode(segments));
+    }
+
+    public static byte[] encode(List<DrawEvent> segments) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(2 + segments.size() * 8);
+        out.write(VERSION);
+        DrawEvent prev = null;
+        for (DrawEvent e : segments) {
+            int seq = e.getSeq() == null ? 0 : e.getSeq();
+            int x1 = q(e.getX1()), y1 = q(e.getY1()), x2 = q(e.getX2()), y2 = q(e.getY2());
+            int width = Math.max(0, q(e.getWidth()));
+            String color = normalizeColor(e.getColor());
+
+            int flags = 0;
+            if (Boolean.TRUE.equals(e.getNewStroke()))
+                flags |= F_NEW_STROKE;
+            if ("eraser".equals(e.getMode()))
+                flags |= F_ERASER;
+            if (prev != null && prev.getSeq() != null && prev.getSeq() == seq)
+                flags |= F_SAME_ACTION;
+            if (prev != null && q(prev.getX2()) == x1 && q(prev.getY2()) == y1)
+                flags |= F_CONTINUES;
+            if (prev != null && q(prev.getWidth()) == width && normalizeColor(prev.getColor()).equals(color))
+                flags |= F_SAME_STYLE;
+            int paletteIndex = paletteIndexOf(color);
+            if ((flags & F_SAME_STYLE) == 0 && paletteIndex < 0)
+                flags |= F_RGB;
+
+            out.write(flags);
+            if ((flags & F_SAME_ACTION) == 0)
+                writeUVarint(out, seq);
+            if ((flags & F_CONTINUES) == 0) {
+                writeSVarint(out, x1);
+                writeSVarint(out, y1);
+            }
+            writeSVarint(out, x2 - x1);
+            writeSVarint(out, y2 - y1);
+            if ((flags & F_SAME_STYLE) == 0) {
+                writeUVarint(out, width);
+                if ((flags & F_RGB) != 0) {
+                    int rgb = parseRgb(color);
+                    out.write((rgb >>> 16) & 0xFF);
+                    out.write((rgb >>> 8) & 0xFF);
+                    out.write(rgb & 0xFF);
+                } else {
+                    out.write(paletteIndex);
+                }
+            }
+            prev = e;
+        }
+        return out.toByteArray();
+    }
+
+    /** 디코딩된 세그먼트의 actionId는 "#seq" 형태다. */
+    public static List<DrawEvent> decode(byte[] frame) {
+        if (frame.length == 0 || (frame[0] & 0xFF) != VERSION)
+            throw new IllegalArgumentException("지원하지 않는 스트로크 포맷입니다.");
+        Reader in = new Reader(frame, 1);
+        List<DrawEvent> result = new ArrayList<>();
+        int seq = 0, px = 0, py = 0, width = 0;
+        String color = PALETTE[0];
+        while (in.pos < frame.length) {
+            int flags = in.readByte();
+            if ((flags & F_SAME_ACTION) == 0)
+                seq = in.readUVarint();
+            int x1 = px, y1 = py;
+            if ((flags & F_CONTINUES) == 0) {
+                x1 = in.readSVarint();
+                y1 = in.readSVarint();
+            }
+            int x2 = x1 + in.readSVarint();
+            int y2 = y1 + in.readSVarint();
+            if ((flags & F_SAME_STYLE) == 0) {
+                width = in.readUVarint();
+                if ((flags & F_RGB) != 0) {
+                    int rgb = (in.readByte() << 16) | (in.readByte() << 8) | in.readByte();
+                    color = String.format(Locale.ROOT, "#%06x", rgb);
+                } else {
+                    int idx = in.readByte();
+                    color = idx < PALETTE.length ? PALETTE[idx] : PALETTE[0];
+                }
+            }
+            result.add(DrawEvent.builder()
+                    .x1(dq(x1)).y1(dq(y1)).x2(dq(x2)).y2(dq(y2))
+                    .width(dq(width))
+                    .color(color)
+                    .mode((flags & F_ERASER) != 0 ? "eraser" : "pen")
+                    .actionId("#" + seq)
+                    .newStroke((flags & F_NEW_STROKE) != 0)
+                    .seq(seq)
+                    .build());
+            px = x2;
+            py = y2;
+        }
+        return result;
+    }
+
+    public static List<DrawEvent> decodeBase64(String frame) {
+        return decode(Base64.getDecoder().decode(frame));
+    }
+
+    /* -------------------------------------------------------------------------- */
+    /* Helpers */
+    /* -------------------------------------------------------------------------- */
+
+    /** 범위를 벗어난 좌표(무한대 포함)는 ±{@link #LIMIT} 로 자르고 NaN 은 0 이 된다. */
+    private static int q(double v) {
+        return (int) Math.max(-LIMIT, Math.min(LIMIT, Math.round(v * SCALE)));
+    }
+
+    private static double dq(int v) {
+        return (double) v / SCALE;
+    }
+
+    static String normalizeColor(String color) {
+        if (color == null)
+            return PALETTE[0];
+        String c = color.trim().toLowerCase(Locale.ROOT);
+        if (c.length() == 4 && c.charAt(0) == '#') // #rgb -> #rrggbb
+            c = "#" + c.charAt(1) + c.charAt(1) + c.charAt(2) + c.charAt(2) + c.charAt(3) + c.charAt(3);
+        return parseRgb(c) < 0 ? PALETTE[0] : c;
+    }
+
+    private static int paletteIndexOf(String color) {
+        for (int i = 0; i < PALETTE.length; i++) {
+            if (PALETTE[i].equals(color))
+                return i;
+        }
+        return -1;
+    }
+
+    /** "#rrggbb" → 0xRRGGBB, 형식이 아니면 -1 */
+    private static int parseRgb(String c) {
+        if (c.length() != 7 || c.charAt(0) != '#')
+            return -1;
+        int rgb = 0;
+        for (int i = 1; i < 7; i++) {
+            int d = Character.digit(c.charAt(i), 16);
+            if (d < 0)
+                return -1;
+            rgb = (rgb << 4) | d;
+        }
+        return rgb;
+    }
+
+    private static void writeUVarint(ByteArrayOutputStream out, int v) {
+        while ((v & ~0x7F) != 0) {
+            out.write((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.write(v);
+    }
+
+    private static void writeSVarint(ByteArrayOutputStream out, int v) {
+        writeUVarint(out, (v << 1) ^ (v >> 31)); // zigzag
+    }
+
+    private static final class Reader {
+        private final byte[] buf;
+        private int pos;
+
+        Reader(byte[] buf, int pos) {
+            this.buf = buf;
+            this.pos = pos;
+        }
+
+        int readByte() {
+            if (pos >= buf.length)
+                throw new IllegalArgumentException("스트로크 프레임이 잘렸습니다.");
+            return buf[pos++] & 0xFF;
+        }
+
+        int readUVarint() {
+            int result = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                int b = readByte();
+                result |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0)
+                    return result;
+            }
+            throw new IllegalArgumentException("잘못된 varint 입니다.");
+        }
+
+        int readSVarint() {
+            int v = readUVarint();
+            return (v >>> 1) ^ -(v & 1);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+-- h2 프로필용 제시어 (data.sql 의 앞부분)
+INSERT INTO words (text)
+SELECT val FROM (VALUES
+    ('스프링'),
+    ('부트'),
+    ('서버'),
+    ('포트'),
+    ('로그'),
+    ('버그'),
+    ('도커'),
+    ('클라우드'),
+    ('토큰'),
+    ('쿠키'),
+    ('파일'),
+    ('폴더'),
+    ('테스트'),
+    ('코드'),
+    ('링크'),
+    ('배포'),
+    ('데이터'),
+    ('화면'),
+    ('키보드'),
+    ('마우스'),
+    ('사과'),
+    ('바나나'),
+    ('포도'),
+    ('수박'),
+    ('딸기'),
+    ('토마토'),
+    ('레몬'),
+    ('망고'),
+    ('멜론'),
+    ('파인애플'),
+    ('라면'),
+    ('김밥'),
+    ('떡볶이'),
+    ('피자'),
+    ('햄버거'),
+    ('샌드위치'),
+    ('케이크'),
+    ('아이스크림'),
+    ('초콜릿'),
+    ('과자')
+) AS tmp(val)
+WHERE NOT EXISTS (
+    SELECT 1 FROM words w WHERE w.text = tmp.val
+);
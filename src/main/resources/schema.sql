@@ -29,3 +29,24 @@ CREATE TABLE IF NOT EXISTS score_snapshots (
     period VARCHAR(16) NOT NULL CHECK (period IN ('DAILY','WEEKLY','MONTHLY')),
     created_at TIMESTAMPTZ NOT NULL DEFAULT NOW()
 );
+-- 기간+날짜로 찾고 점수순으로 읽는다 (최근 날짜 조회, 랭킹 ORDER BY ... LIMIT)
+CREATE INDEX IF NOT EXISTS idx_score_snapshots_period_date ON score_snapshots (period, snapshot_date, score DESC);
+
+-- round archives table (스트로크는 app.archive.dir 의 파일에 따로 보관)
+CREATE TABLE IF NOT EXISTS round_archives (
+    id UUID PRIMARY KEY,
+    room_id VARCHAR(32) NOT NULL,
+    word VARCHAR(100) NOT NULL,
+    drawer VARCHAR(50),
+    winner VARCHAR(50),
+    started_at TIMESTAMPTZ NOT NULL,
+    ended_at TIMESTAMPTZ NOT NULL,
+    duration_ms BIGINT NOT NULL,
+    segment_count INTEGER NOT NULL,
+    chunk_count INTEGER NOT NULL,
+    byte_size BIGINT NOT NULL,
+    truncated BOOLEAN NOT NULL DEFAULT FALSE,
+    file_name VARCHAR(200) NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_round_archives_ended_at ON round_archives (ended_at DESC);
+CREATE INDEX IF NOT EXISTS idx_round_archives_room ON round_archives (room_id, ended_at DESC);
@@ -2,6 +2,9 @@
 (function () {
   // ================== 기본 상태/DOM 참조 ==================
   const myName = window.MY_NAME || document.body.getAttribute('data-my-name') || 'guest';
+  const roomId = new URLSearchParams(location.search).get('room') || 'lobby';
+  const roomTopic = (suffix) => `/topic/room/${roomId}/${suffix}`; // 방 단위 브로드캐스트
+  const roomApp   = (suffix) => `/app/room/${roomId}/${suffix}`;   // 방 단위 발행
 
   const inputMsg  = document.getElementById('msg');
   const canvas    = document.getElementById('board');
@@ -25,6 +28,7 @@
   const MAX_ACTIONS = 1200;     // 최대 유지 액션 수(필요 시 조절)
   const MAX_SEGMENTS = 40000;   // 전체 세그먼트 상한
   let totalLocalSegments = 0;
+  let baseImage = null;         // 서버 체크포인트 이미지(히스토리에서 빠진 오래된 선), 스냅샷 chunk 0으로 받음
   // ================== 상태 ==================
   let isDrawer = false;
   let isAdmin  = false;
@@ -91,6 +95,37 @@
     ctx.restore();
   }
 
+  // 여러 세그먼트 그리기: 이어지는 같은 스타일 구간은 path 하나로 묶어 stroke 1회
+  function drawSegments(segs){
+    let i = 0;
+    while (i < segs.length) {
+      const first = segs[i];
+      ctx.save();
+      if (first.mode === 'eraser') {
+        ctx.globalCompositeOperation = 'destination-out';
+        ctx.strokeStyle = 'rgba(0,0,0,1)';
+      } else {
+        ctx.globalCompositeOperation = 'source-over';
+        ctx.strokeStyle = first.color;
+      }
+      ctx.lineWidth = first.width;
+      ctx.lineCap   = 'round';
+      ctx.lineJoin  = 'round';
+      ctx.beginPath(); ctx.moveTo(first.x1, first.y1); ctx.lineTo(first.x2, first.y2);
+      let j = i + 1;
+      while (j < segs.length) {
+        const s = segs[j], p = segs[j - 1];
+        if (s.mode !== first.mode || s.color !== first.color || s.width !== first.width) break;
+        if (s.x1 !== p.x2 || s.y1 !== p.y2) break;
+        ctx.lineTo(s.x2, s.y2);
+        j++;
+      }
+      ctx.stroke();
+      ctx.restore();
+      i = j;
+    }
+  }
+
   function refreshMeDrawBtn(){
     if (!btnMeDraw) return;
     // PARTICIPANT에게만 보이도록 기존 style.display는 유지됨
@@ -109,6 +144,14 @@
     actions.length = 0;
     currentAction = null;
     totalLocalSegments = 0;
+    baseImage = null;
+  }
+
+  // 체크포인트 이미지 + 로컬 히스토리로 화면을 다시 그린다
+  function redrawAll() {
+    ctx.clearRect(0,0,canvas.width,canvas.height);
+    if (baseImage && baseImage.complete) ctx.drawImage(baseImage, 0, 0);
+    for (const a of actions) drawSegments(a.segs);
   }
 
   function trimLocalHistory() {
@@ -141,13 +184,39 @@
     const nVal = (typeof wordLen === 'number') ? wordLen : '?';
     roleLabel.textContent = `출제자는 ${dName}입니다. 제시어는 ${nVal}글자입니다.`;
   }
-  function parseUserEntry(s){
-    const m = (s || '').match(/^(.+?)\s+\((ADMIN|DRAWER|PARTICIPANT)\)$/);
-    return m ? { name: m[1], role: m[2] } : { name: s, role: null };
+  // 버전이 붙은 목록 상태: 전체 스냅샷을 받은 뒤 version+1 변경분만 적용, 건너뛰면 'gap'
+  function versionedMap(fullList, upserts, removals) {
+    let version = null;
+    let map = new Map();
+    return {
+      apply(u) {
+        if (!u) return 'ignored';
+        if (u.full) {
+          map = new Map((fullList(u) || []).map(item => [item.name, item]));
+          version = u.version;
+          return 'applied';
+        }
+        if (version === null || u.version <= version) return 'ignored';
+        if (u.version !== version + 1) return 'gap';
+        (removals(u) || []).forEach(name => map.delete(name));
+        (upserts(u) || []).forEach(item => map.set(item.name, item));
+        version = u.version;
+        return 'applied';
+      },
+      values() { return [...map.values()]; }
+    };
+  }
+  const userListState = versionedMap(u => u.users, u => [...(u.joined || []), ...(u.changed || [])], u => u.left);
+  const scoreboardState = versionedMap(u => u.entries, u => u.changed, u => u.removed);
+
+  function sortRanking(arr) {
+    return arr.filter(e => e.score > 0)
+        .sort((a, b) => (b.score - a.score) || (a.name < b.name ? -1 : a.name > b.name ? 1 : 0));
   }
+
   function renderUsersAndRoles(list) {
-    // 1) 파싱 + 인덱스 부여(안정 정렬용)
-    const parsed = (list || []).map(parseUserEntry).map((u, i) => ({ ...u, _idx: i }));
+    // 1) 인덱스 부여(안정 정렬용)
+    const parsed = (list || []).map((u, i) => ({ ...u, _idx: i }));
 
     // 2) 정렬: DRAWER 최상단, 나머지는 기존 순서 유지
     const rolePriority = (r) => (r === 'DRAWER' ? 0 : 1);
@@ -226,7 +295,7 @@
   function sendChat() {
     const text = inputMsg.value.trim();
     if (!text) return;
-    stomp.send('/app/chat.send', {}, JSON.stringify({ from: myName, text }));
+    stomp.send(roomApp('chat.send'), {}, JSON.stringify({ from: myName, text }));
     inputMsg.value = '';
   }
 
@@ -239,64 +308,85 @@
 
   stomp.connect({}, () => {
     // ---- 브로드캐스트 구독 ----
-    stomp.subscribe('/topic/users', msg => renderUsersAndRoles(JSON.parse(msg.body)));
-
-    stomp.subscribe('/topic/scoreboard', msg => {
-      const arr = JSON.parse(msg.body);
-      liveRankingCache = arr;
-      if (rankingMode === 'LIVE') renderRanking(arr);
-    });
+    // 접속자/점수판: 변경분 버전을 놓치면 전체 목록만 다시 요청
+    const onUsersUpdate = msg => {
+      const result = userListState.apply(JSON.parse(msg.body));
+      if (result === 'applied') renderUsersAndRoles(userListState.values());
+      else if (result === 'gap') stomp.send(roomApp('state.resync'), {}, '{}');
+    };
+    const onScoreboardUpdate = msg => {
+      const result = scoreboardState.apply(JSON.parse(msg.body));
+      if (result === 'applied') {
+        liveRankingCache = sortRanking(scoreboardState.values());
+        if (rankingMode === 'LIVE') renderRanking(liveRankingCache);
+      } else if (result === 'gap') {
+        stomp.send(roomApp('state.resync'), {}, '{}');
+      }
+    };
+    stomp.subscribe(roomTopic('users'), onUsersUpdate);
+    stomp.subscribe('/topic/scoreboard', onScoreboardUpdate);
 
-    stomp.subscribe('/topic/chat', msg => {
+    stomp.subscribe(roomTopic('chat'), msg => {
       const data = JSON.parse(msg.body);
       addChat(data.from, data.text, !!data.system);
     });
 
     // ✅ draw: 단 1회 구독 (세그먼트 바로 그리기)
-    stomp.subscribe('/topic/draw', msg => {
-      const e = JSON.parse(msg.body);
+    stomp.subscribe(roomTopic('draw'), msg => {
+      // 서버가 세그먼트를 묶어 배열 한 프레임으로 보냄 (단일 객체도 허용)
+      const body = JSON.parse(msg.body);
+      const segs = Array.isArray(body) ? body : [body];
+
+      for (const e of segs) {
+        // 액션 경계(newStroke/actionId) 기준으로 그룹핑
+        if (e.newStroke || !currentAction || currentAction.id !== e.actionId) {
+          currentAction = { id: e.actionId, segs: [] };
+          actions.push(currentAction);
+        }
+        currentAction.segs.push(e);
+        totalLocalSegments++;
 
-      // 액션 경계(newStroke/actionId) 기준으로 그룹핑
-      if (e.newStroke || !currentAction || currentAction.id !== e.actionId) {
-        currentAction = { id: e.actionId, segs: [] };
-        actions.push(currentAction);
+        // 공용 그리기
+        drawSegment(e);
       }
-      currentAction.segs.push(e);
-      totalLocalSegments++;
       trimLocalHistory();
-
-      // 공용 그리기
-      drawSegment(e);
       lastLiveDrawAt = Date.now();
       refreshMeDrawBtn();
     });
 
     // 글자수(브로드캐스트)
-    stomp.subscribe('/topic/wordlen', msg => {
+    stomp.subscribe(roomTopic('wordlen'), msg => {
       wordLen = parseInt(msg.body, 10);
       updateRoleLabel();
     });
 
-    // 개인 큐: 스냅샷용 캔버스 클리어 (내 화면만)
-    stomp.subscribe('/user/queue/canvas/clear', () => {
-      ctx.clearRect(0,0,canvas.width,canvas.height);
-      resetLocalHistory();
-    });
-
-    // 개인 큐: 스냅샷용 드로잉 (과거 선들 순차 재생)
-    stomp.subscribe('/user/queue/draw', msg => {
-      const e = JSON.parse(msg.body);
+    // 개인 큐: 캔버스 스냅샷 (몇 개의 큰 조각, chunk 0에서 내 화면 초기화)
+    stomp.subscribe('/user/queue/canvas/snapshot', msg => {
+      const snap = JSON.parse(msg.body) || {};
+      if (snap.chunk === 0) {
+        ctx.clearRect(0,0,canvas.width,canvas.height);
+        resetLocalHistory();
+        if (snap.checkpoint) {
+          const img = new Image();
+          img.onload = () => { if (baseImage === img) redrawAll(); }; // 그 사이 초기화됐으면 무시
+          img.src = snap.checkpoint;
+          baseImage = img;
+        }
+      }
+      const segs = snap.segments || [];
 
       // 히스토리에도 쌓아둬야 이후 'undo' 재생이 정상 동작
-      if (e.newStroke || !currentAction || currentAction.id !== e.actionId) {
-        currentAction = { id: e.actionId, segs: [] };
-        actions.push(currentAction);
+      for (const e of segs) {
+        if (e.newStroke || !currentAction || currentAction.id !== e.actionId) {
+          currentAction = { id: e.actionId, segs: [] };
+          actions.push(currentAction);
+        }
+        currentAction.segs.push(e);
+        totalLocalSegments++;
       }
-      currentAction.segs.push(e);
-      totalLocalSegments++;
       trimLocalHistory();
 
-      drawSegment(e); // 즉시 화면에 그리기
+      drawSegments(segs); // 한 번에 그리기
     });
 
     // (선택) 강제 로그아웃 신호 처리
@@ -307,12 +397,8 @@
     });
 
     // ---- 개인 큐(스냅샷/제시어) ----
-    stomp.subscribe('/user/queue/users',      msg => renderUsersAndRoles(JSON.parse(msg.body)));
-    stomp.subscribe('/user/queue/scoreboard', msg => {
-      const arr = JSON.parse(msg.body);
-      liveRankingCache = arr;
-      if (rankingMode === 'LIVE') renderRanking(arr);
-    });
+    stomp.subscribe('/user/queue/users',      onUsersUpdate);
+    stomp.subscribe('/user/queue/scoreboard', onScoreboardUpdate);
 
 
     stomp.subscribe('/user/queue/word',    msg => { mySecretWord = msg.body || null; updateRoleLabel(); });
@@ -322,6 +408,9 @@
       updateRoleLabel();
     });
 
+    // 자모 한 글자 차이 오답일 때 나에게만 오는 힌트
+    stomp.subscribe('/user/queue/hint', msg => addChat('SYSTEM', msg.body, true));
+
     stomp.subscribe('/user/queue/errors', msg => {
       const err = msg.body || '요청이 거절되었습니다.';
       // 원하는 UX로 처리 (알림창 or 채팅 로그)
@@ -331,7 +420,7 @@
     });
 
     // ✅ 서버가 undo "명령"만 보낼 때를 지원 (/topic/undo)
-    stomp.subscribe('/topic/undo', msg => {
+    stomp.subscribe(roomTopic('undo'), msg => {
       const { actionId } = JSON.parse(msg.body) || {};
       let removed = false;
       let removedCount = 0;
@@ -346,13 +435,12 @@
       if (removed) {
         totalLocalSegments = Math.max(0, totalLocalSegments - removedCount);
         currentAction = actions.length ? actions[actions.length - 1] : null;
-        ctx.clearRect(0,0,canvas.width,canvas.height);
-        for (const a of actions) for (const s of a.segs) drawSegment(s);
+        redrawAll();
       }
     });
 
 // ✅ clear는 단 1회 구독 (서버가 clear→재생 방식일 때도 OK)
-    stomp.subscribe('/topic/canvas/clear', () => {
+    stomp.subscribe(roomTopic('canvas/clear'), () => {
       ctx.clearRect(0, 0, canvas.width, canvas.height);
 
       // 로컬 히스토리도 초기화 (서버가 곧 재생을 보내면 자연스럽게 다시 채워짐)
@@ -365,7 +453,7 @@
       updateRoleLabel();
     });
     // 연결 직후 현재 상태 요청
-    stomp.send('/app/state.sync', {}, '{}');
+    stomp.send(roomApp('state.sync'), {}, '{}');
 
     // 연결 이후 버튼 활성화
     btnRerollWord && (btnRerollWord.disabled = false);
@@ -387,18 +475,18 @@
   // 관리자: 출제자 지정
   document.getElementById('btnSetDrawer').onclick = () => {
     const name = document.getElementById('drawerName').value.trim();
-    if (name) stomp.send('/app/admin.setDrawer', {}, JSON.stringify({ name }));
+    if (name) stomp.send(roomApp('admin.setDrawer'), {}, JSON.stringify({ name }));
   };
 
   // (출제자) 제시어 다시받기
   btnRerollWord && (btnRerollWord.onclick = () => {
     if (!isDrawer) return;
-    stomp.send('/app/word.reroll', {}, '{}');
+    stomp.send(roomApp('word.reroll'), {}, '{}');
   });
 
   // (참여자) 내가 그리기
   btnMeDraw && (btnMeDraw.onclick = () => {
-    stomp.send('/app/drawer.me', {}, '{}');
+    stomp.send(roomApp('drawer.me'), {}, '{}');
   });
 
   // 지우개/실행취소/전체지우기
@@ -406,8 +494,8 @@
     drawMode = (drawMode === 'eraser') ? 'pen' : 'eraser';
     btnEraser.classList.toggle('active', drawMode === 'eraser');
   });
-  btnUndo  && (btnUndo.onclick  = () => { if (isDrawer) stomp.send('/app/draw.undo',  {}, '{}'); });
-  btnClear && (btnClear.onclick = () => { if (isDrawer) stomp.send('/app/canvas.clear', {}, '{}'); });
+  btnUndo  && (btnUndo.onclick  = () => { if (isDrawer) stomp.send(roomApp('draw.undo'),  {}, '{}'); });
+  btnClear && (btnClear.onclick = () => { if (isDrawer) stomp.send(roomApp('canvas.clear'), {}, '{}'); });
 
   // 단축키: Ctrl+Z, T
   document.addEventListener('keydown', (e) => {
@@ -437,7 +525,7 @@
       actionId: currentActionId,
       newStroke: isNewStroke
     };
-    stomp.send('/app/draw.stroke', {}, JSON.stringify(payload));
+    stomp.send(roomApp('draw.stroke'), {}, JSON.stringify(payload));
     prev = cur;
     isNewStroke = false;
   });
@@ -461,7 +549,7 @@
       actionId: currentActionId,
       newStroke: isNewStroke
     };
-    stomp.send('/app/draw.stroke', {}, JSON.stringify(payload));
+    stomp.send(roomApp('draw.stroke'), {}, JSON.stringify(payload));
     prev = cur;
     isNewStroke = false;
     e.preventDefault();
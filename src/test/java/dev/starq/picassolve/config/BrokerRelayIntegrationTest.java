@@ -0,0 +1,203 @@
+package dev.starq.picassolve.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.starq.picassolve.PicassolveApplication;
+import dev.starq.picassolve.entity.User;
+import dev.starq.picassolve.repository.UserRepository;
+import dev.starq.picassolve.support.BinaryDrawSubscribers;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+/**
+ * 외부 브로커 릴레이 모드. 내장 Artemis(STOMP) 하나에 애플리케이션 두 개(노드 A, B)를 붙이고,
+ * B 에 접속한 유저가 A 에서 보낸 /topic 브로드캐스트와 /user 메시지를 받는지 확인한다.
+ */
+class BrokerRelayIntegrationTest {
+
+    private static final String PASSWORD = "relay-pass";
+
+    private static EmbeddedActiveMQ artemis;
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void start() throws Exception {
+        int stompPort = freePort();
+        ConfigurationImpl config = new ConfigurationImpl();
+        config.setPersistenceEnabled(false);
+        config.setSecurityEnabled(false);
+        config.setJMXManagementEnabled(false);
+        config.addAcceptorConfiguration("stomp", "tcp://127.0.0.1:" + stompPort + "?protocols=STOMP");
+        artemis = new EmbeddedActiveMQ();
+        artemis.setConfiguration(config);
+        artemis.start();
+
+        nodeA = startNode("a", stompPort);
+        nodeB = startNode("b", stompPort);
+    }
+
+    @AfterAll
+    static void stop() throws Exception {
+        if (nodeA != null)
+            nodeA.close();
+        if (nodeB != null)
+            nodeB.close();
+        if (artemis != null)
+            artemis.stop();
+    }
+
+    private static ConfigurableApplicationContext startNode(String name, int stompPort) throws IOException {
+        Path data = Files.createTempDirectory("picassolve-relay-" + name);
+        return new SpringApplicationBuilder(PicassolveApplication.class)
+                .profiles("h2")
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:relay-" + name
+                                + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+                        "app.broker.relay.enabled=true",
+                        "app.broker.relay.host=127.0.0.1",
+                        "app.broker.relay.port=" + stompPort,
+                        "app.backplane.mode=local",
+                        "app.journal.enabled=false",
+                        "app.archive.dir=" + data.resolve("rounds"))
+                .run();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static int port(ConfigurableApplicationContext node) {
+        return ((ServletWebServerApplicationContext) node).getWebServer().getPort();
+    }
+
+    /** 노드의 DB 에 유저를 만들고 폼 로그인으로 받은 세션 쿠키로 STOMP 에 붙는다. */
+    private static StompSession connect(ConfigurableApplicationContext node, String username) throws Exception {
+        node.getBean(UserRepository.class).save(
+                new User(username, node.getBean(PasswordEncoder.class).encode(PASSWORD)));
+
+        HttpClient http = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.NEVER).build();
+        HttpResponse<Void> login = http.send(HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port(node) + "/login"))
+                        .header("Content-Type", "application/x-www-form-urlencoded")
+                        .header("Accept", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString("name=" + username + "&password=" + PASSWORD))
+                        .build(),
+                HttpResponse.BodyHandlers.discarding());
+        assertEquals(200, login.statusCode(), "로그인 실패");
+        String cookie = login.headers().allValues("Set-Cookie").stream()
+                .filter(c -> c.startsWith("JSESSIONID="))
+                .map(c -> c.split(";", 2)[0])
+                .findFirst()
+                .orElseThrow();
+
+        WebSocketStompClient stomp = new WebSocketStompClient(
+                new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+        stomp.setMessageConverter(new StringMessageConverter());
+        WebSocketHttpHeaders headers = new WebSocketHttpHeaders();
+        headers.add("Cookie", cookie);
+        return stomp.connectAsync("http://127.0.0.1:" + port(node) + "/ws", headers, new StompSessionHandlerAdapter() {
+        }).get(15, TimeUnit.SECONDS);
+    }
+
+    private static BlockingQueue<String> subscribe(StompSession session, String destination) {
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        session.subscribe(destination, new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return String.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                received.add((String) payload);
+            }
+        });
+        return received;
+    }
+
+    /** 구독이 브로커에 닿기까지 시간이 걸리므로 받을 때까지 몇 번 다시 보낸다. */
+    private static String sendUntilReceived(Runnable send, BlockingQueue<String> received) throws InterruptedException {
+        for (int attempt = 0; attempt < 50; attempt++) {
+            send.run();
+            String payload = received.poll(200, TimeUnit.MILLISECONDS);
+            if (payload != null)
+                return payload;
+        }
+        return null;
+    }
+
+    private static void await(BooleanSupplier condition, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline)
+            Thread.sleep(100);
+    }
+
+    @Test
+    void fansOutTopicsAndUserDestinationsAcrossNodes() throws Exception {
+        StompSession alice = connect(nodeB, "alice");
+        BlockingQueue<String> topic = subscribe(alice, "/topic/relay-test");
+        BlockingQueue<String> queue = subscribe(alice, "/user/queue/relay-test");
+        SimpMessagingTemplate brokerA = nodeA.getBean(SimpMessagingTemplate.class);
+
+        // 노드 A 에는 구독자가 없다. 외부 브로커가 B 의 구독자에게 전달해야 한다
+        assertEquals("hello-topic", sendUntilReceived(
+                () -> brokerA.convertAndSend("/topic/relay-test", "hello-topic"), topic));
+
+        // alice 는 B 에만 접속해 있다. A 는 userDestinationBroadcast 로 넘기고 B 가 세션을 찾아 보낸다
+        assertEquals("hello-user", sendUntilReceived(
+                () -> brokerA.convertAndSendToUser("alice", "/queue/relay-test", "hello-user"), queue));
+
+        // userRegistryBroadcast: B 의 접속자가 A 의 SimpUserRegistry 에도 보인다 (주기적으로 공유된다)
+        SimpUserRegistry registryA = nodeA.getBean(SimpUserRegistry.class);
+        await(() -> registryA.getUser("alice") != null, Duration.ofSeconds(30));
+        assertNotNull(registryA.getUser("alice"), "노드 A 의 사용자 목록에 alice 가 없습니다");
+
+        alice.disconnect();
+    }
+
+    @Test
+    void binaryDrawIsAlwaysPublishedInRelayMode() {
+        // 다른 노드의 draw.bin 구독은 이 노드의 구독 이벤트로 보이지 않으므로 구독자가 있다고 본다
+        assertTrue(nodeA.getBean(BinaryDrawSubscribers.class).hasSubscribers("no-local-subscriber"));
+        assertTrue(nodeB.getBean(BinaryDrawSubscribers.class).hasSubscribers("no-local-subscriber"));
+    }
+}
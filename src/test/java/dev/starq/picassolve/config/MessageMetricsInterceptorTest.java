@@ -0,0 +1,100 @@
+package dev.starq.picassolve.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.starq.picassolve.service.GameMetrics;
+import dev.starq.picassolve.service.GameRoomRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.annotation.support.SimpAnnotationMethodMessageHandler;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+
+class MessageMetricsInterceptorTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final GameMetrics metrics = new GameMetrics(registry, new GameRoomRegistry());
+    private final ExecutorSubscribableChannel channel = new ExecutorSubscribableChannel();
+    private final SimpAnnotationMethodMessageHandler annotationHandler = new SimpAnnotationMethodMessageHandler(
+            channel, channel, new SimpMessagingTemplate(channel));
+
+    private static Message<byte[]> message(String destination) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create();
+        accessor.setDestination(destination);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private Timer timer(String name, String tag, String value) {
+        return registry.find(name).tag(tag, value).timer();
+    }
+
+    @Test
+    void timesNestedBrokerSendsPerDestination() {
+        MessageMetricsInterceptor broker = MessageMetricsInterceptor.forBroker(metrics);
+        Message<byte[]> user = message("/user/alice/queue/errors");
+        Message<byte[]> resolved = message("/queue/errors-usersess1");
+
+        // 유저 목적지는 보내는 도중에 풀린 목적지로 한 번 더 보내진다
+        broker.preSend(user, channel);
+        broker.preSend(resolved, channel);
+        broker.afterSendCompletion(resolved, channel, true, null);
+        broker.afterSendCompletion(user, channel, true, null);
+
+        Timer outer = timer(GameMetrics.BROADCAST, "destination", "/user/{user}/queue/errors");
+        Timer inner = timer(GameMetrics.BROADCAST, "destination", "/queue/errors");
+        assertEquals(1, outer.count());
+        assertEquals(1, inner.count());
+        assertTrue(outer.totalTime(TimeUnit.NANOSECONDS)
+                >= inner.totalTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Test
+    void brokerInterceptorIgnoresHandling() {
+        MessageMetricsInterceptor broker = MessageMetricsInterceptor.forBroker(metrics);
+        Message<byte[]> chat = message("/app/room/a/chat");
+
+        broker.beforeHandle(chat, channel, annotationHandler);
+        broker.afterMessageHandled(chat, channel, annotationHandler, null);
+
+        assertTrue(registry.find(GameMetrics.INBOUND).timers().isEmpty());
+    }
+
+    @Test
+    void timesOnlyMessageMappingHandlersForAppDestinations() {
+        MessageMetricsInterceptor inbound = MessageMetricsInterceptor.forInbound(metrics);
+        MessageHandler brokerHandler = m -> {
+        };
+
+        Message<byte[]> chat = message("/app/room/a/chat");
+        inbound.beforeHandle(chat, channel, annotationHandler);
+        inbound.afterMessageHandled(chat, channel, annotationHandler, null);
+        // 브로커 핸들러로 가는 같은 메시지는 세지 않는다
+        inbound.beforeHandle(chat, channel, brokerHandler);
+        inbound.afterMessageHandled(chat, channel, brokerHandler, null);
+        // /app/ 이 아닌 목적지(구독 등)도 세지 않는다
+        Message<byte[]> topic = message("/topic/room/a/chat");
+        inbound.beforeHandle(topic, channel, annotationHandler);
+        inbound.afterMessageHandled(topic, channel, annotationHandler, null);
+
+        assertEquals(1, registry.find(GameMetrics.INBOUND).timers().size());
+        assertEquals(1, timer(GameMetrics.INBOUND, "mapping", "/room/{roomId}/chat").count());
+    }
+
+    @Test
+    void inboundInterceptorIgnoresSends() {
+        MessageMetricsInterceptor inbound = MessageMetricsInterceptor.forInbound(metrics);
+        Message<byte[]> chat = message("/topic/room/a/chat");
+
+        inbound.preSend(chat, channel);
+        inbound.afterSendCompletion(chat, channel, true, null);
+
+        assertTrue(registry.find(GameMetrics.BROADCAST).timers().isEmpty());
+    }
+}
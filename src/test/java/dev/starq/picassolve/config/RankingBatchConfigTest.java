@@ -0,0 +1,91 @@
+package dev.starq.picassolve.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import dev.starq.picassolve.entity.ScoreSnapshot;
+import dev.starq.picassolve.entity.ScoreSnapshot.SnapshotPeriod;
+import dev.starq.picassolve.repository.ScoreSnapshotRepository;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/** 월간 롤업 계산: 첫 실행의 합산 채우기, 같은 날 재실행, 다음 날 누적. */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class RankingBatchConfigTest {
+
+    private static final LocalDate MONTH = LocalDate.of(2026, 10, 1);
+
+    private final UUID alice = UUID.randomUUID();
+    private final UUID bob = UUID.randomUUID();
+    private final UUID carol = UUID.randomUUID();
+    private final UUID dave = UUID.randomUUID();
+
+    @Autowired
+    private ScoreSnapshotRepository repository;
+
+    private RankingBatchConfig batch() {
+        return new RankingBatchConfig(null, null, null, repository);
+    }
+
+    private static ScoreSnapshot daily(UUID user, String name, int score, LocalDate date) {
+        return ScoreSnapshot.builder()
+                .userId(user).username(name).team(1).score(score)
+                .snapshotDate(date).period(SnapshotPeriod.DAILY)
+                .build();
+    }
+
+    /** 일간 스텝처럼: 그날 이전 값을 모으고, 지우고, 새로 저장한 뒤 롤업을 갱신한다 */
+    private int runDaily(LocalDate day, List<ScoreSnapshot> snapshots) {
+        Map<UUID, Integer> previous = new HashMap<>();
+        repository.findByPeriodAndSnapshotDate(SnapshotPeriod.DAILY, day)
+                .forEach(s -> previous.merge(s.getUserId(), s.getScore(), Integer::sum));
+        repository.deleteBySnapshotDateAndPeriod(day, SnapshotPeriod.DAILY);
+        repository.saveAll(snapshots);
+        return batch().updateMonthlyRollup(day, snapshots, previous);
+    }
+
+    private Map<String, Integer> rollup() {
+        return repository.findByPeriodAndSnapshotDate(SnapshotPeriod.MONTHLY, MONTH).stream()
+                .collect(Collectors.toMap(ScoreSnapshot::getUsername, ScoreSnapshot::getScore));
+    }
+
+    @Test
+    void fillsMissingRollupFromDailySnapshotsOfTheMonth() {
+        repository.saveAll(List.of(daily(alice, "alice", 10, MONTH), daily(bob, "bob", 4, MONTH),
+                daily(alice, "alice", 1, MONTH.minusDays(1)))); // 지난달은 빠진다
+
+        int rows = runDaily(MONTH.plusDays(1), List.of(daily(alice, "alice", 12, MONTH.plusDays(1)),
+                daily(carol, "carol", 3, MONTH.plusDays(1))));
+
+        assertEquals(3, rows);
+        assertEquals(Map.of("alice", 22, "bob", 4, "carol", 3), rollup());
+    }
+
+    @Test
+    void addsEachDayAndReplacesASameDayRerun() {
+        LocalDate day1 = MONTH, day2 = MONTH.plusDays(1);
+        runDaily(day1, List.of(daily(alice, "alice", 10, day1), daily(bob, "bob", 4, day1)));
+        assertEquals(Map.of("alice", 10, "bob", 4), rollup());
+
+        runDaily(day2, List.of(daily(alice, "alice", 12, day2), daily(bob, "bob", 0, day2),
+                daily(carol, "carol", 3, day2)));
+        assertEquals(Map.of("alice", 22, "bob", 4, "carol", 3), rollup());
+
+        // 같은 날 다시 돌면 앞서 더한 값을 빼고 새 값을 더한다. 새 유저는 행이 생기고, 이름은 최근 값으로 바뀐다
+        int rows = runDaily(day2, List.of(daily(alice, "alice", 15, day2), daily(bob, "bobby", 1, day2),
+                daily(carol, "carol", 3, day2), daily(dave, "dave", 2, day2)));
+
+        assertEquals(4, rows);
+        assertEquals(Map.of("alice", 25, "bobby", 5, "carol", 3, "dave", 2), rollup());
+    }
+}
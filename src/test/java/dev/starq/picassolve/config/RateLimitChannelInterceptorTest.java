@@ -0,0 +1,128 @@
+package dev.starq.picassolve.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.starq.picassolve.service.GameMetrics;
+import dev.starq.picassolve.service.GameRoomRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.security.Principal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+
+class RateLimitChannelInterceptorTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final List<String> errors = new CopyOnWriteArrayList<>();
+    private final SimpMessagingTemplate broker = new SimpMessagingTemplate((message, timeout) -> {
+        errors.add(SimpMessageHeaderAccessor.getDestination(message.getHeaders()));
+        return true;
+    });
+    private long now = TimeUnit.HOURS.toNanos(1);
+    private final RateLimitChannelInterceptor limiter = new RateLimitChannelInterceptor("chat.send=1/2",
+            new GameMetrics(registry, new GameRoomRegistry()), () -> broker, () -> now);
+
+    private static Message<byte[]> message(SimpMessageType type, String user, String session, String destination) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(type);
+        Principal principal = () -> user;
+        accessor.setUser(principal);
+        accessor.setSessionId(session);
+        if (destination != null)
+            accessor.setDestination(destination);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private Message<?> chat(String user, String session) {
+        return limiter.preSend(message(SimpMessageType.MESSAGE, user, session, "/app/room/lobby/chat.send"), null);
+    }
+
+    private double limited() {
+        return registry.find("picassolve.ws.rate.limited").tag("action", "chat.send").counter().count();
+    }
+
+    @Test
+    void parsesRatesAndBursts() {
+        Map<String, RateLimitChannelInterceptor.Rule> rules = RateLimitChannelInterceptor.parse("draw.stroke=240/480, chat.send=5");
+
+        assertEquals(TimeUnit.SECONDS.toNanos(1) / 240, rules.get("draw.stroke").intervalNs());
+        assertEquals(rules.get("draw.stroke").intervalNs() * 479, rules.get("draw.stroke").toleranceNs());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(200) * 4, rules.get("chat.send").toleranceNs());
+        assertTrue(RateLimitChannelInterceptor.parse(" ").isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> RateLimitChannelInterceptor.parse("chat.send=0"));
+        assertThrows(IllegalArgumentException.class, () -> RateLimitChannelInterceptor.parse("chat.send"));
+    }
+
+    @Test
+    void dropsMessagesBeyondBurstAndReportsOnce() {
+        assertNotNull(chat("alice", "s1"));
+        assertNotNull(chat("alice", "s1"));
+        assertNull(chat("alice", "s1"));
+        assertNull(chat("alice", "s1"));
+
+        assertEquals(2, limited(), 1e-9);
+        assertEquals(1, errors.size(), "거절 알림은 1초에 한 번까지만 보낸다");
+
+        now += TimeUnit.SECONDS.toNanos(1);
+        assertNotNull(chat("alice", "s1"));
+        assertNotNull(chat("bob", "s2"), "다른 유저의 버킷은 따로다");
+    }
+
+    @Test
+    void ignoresOtherDestinationsAndFrames() {
+        for (int i = 0; i < 5; i++) {
+            assertNotNull(limiter.preSend(message(SimpMessageType.MESSAGE, "alice", "s1", "/app/room/lobby/draw.stroke"), null));
+            assertNotNull(limiter.preSend(message(SimpMessageType.SUBSCRIBE, "alice", "s1", "/topic/room/lobby/chat"), null));
+        }
+        assertEquals(0, limiter.trackedUsers());
+    }
+
+    @Test
+    void reconnectingDoesNotRefillTheBucket() {
+        chat("alice", "s1");
+        chat("alice", "s1");
+        assertNull(chat("alice", "s1"));
+
+        limiter.preSend(message(SimpMessageType.DISCONNECT, "alice", "s1", null), null);
+
+        assertNull(chat("alice", "s2"), "끊고 다시 붙어도 한도가 그대로여야 한다");
+    }
+
+    @Test
+    void sessionsOfTheSameUserShareTheBucket() {
+        assertNotNull(chat("alice", "tab-1"));
+        assertNotNull(chat("alice", "tab-2"));
+        assertNull(chat("alice", "tab-3"));
+
+        // 한 탭이 닫혀도 남은 탭의 한도는 그대로다
+        limiter.preSend(message(SimpMessageType.DISCONNECT, "alice", "tab-1", null), null);
+        assertNull(chat("alice", "tab-2"));
+    }
+
+    @Test
+    void forgetsUsersOnlyAfterTheirBucketsStayFullWhileIdle() {
+        chat("alice", "s1");
+        chat("alice", "s1");
+        chat("bob", "s2");
+        assertEquals(2, limiter.trackedUsers());
+
+        // alice 는 계속 보내고 bob 은 쉰다
+        now += RateLimitChannelInterceptor.IDLE_NS / 2;
+        chat("alice", "s1");
+        now += RateLimitChannelInterceptor.IDLE_NS / 2 + TimeUnit.SECONDS.toNanos(2);
+        chat("alice", "s1");
+
+        assertEquals(1, limiter.trackedUsers(), "쉬고 있던 bob 만 정리된다");
+        assertNull(registry.find("picassolve.ws.rate.limited").counter());
+    }
+}
@@ -0,0 +1,250 @@
+package dev.starq.picassolve.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import dev.starq.picassolve.PicassolveApplication;
+import dev.starq.picassolve.entity.User;
+import dev.starq.picassolve.repository.UserRepository;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.converter.CompositeMessageConverter;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+/**
+ * 세션 단위 순서 보장. 출제자가 그리고 실행취소하는 동안 관전자가 스냅샷을 계속 다시 받고,
+ * 관전자가 받은 순서대로 캔버스를 재생한 결과가 서버의 최종 캔버스와 같은지 본다.
+ * 스냅샷 -> 밀린 세그먼트 -> 실행취소 중 하나라도 뒤바뀌어 내려가면 선이 빠지거나 지워진 선이 남는다.
+ * 기본 모드와 가상 스레드 모드가 같은 보장을 해야 하므로 두 모드에서 모두 돌린다.
+ */
+class WebSocketOrderingIntegrationTest {
+
+    private static final String PASSWORD = "order-pass";
+    private static final String ROOM = "lobby";
+    private static final int STROKES = 150;
+
+    private ConfigurableApplicationContext node;
+
+    @AfterEach
+    void stop() {
+        if (node != null)
+            node.close();
+    }
+
+    private static ConfigurableApplicationContext startNode(boolean virtualThreads) throws Exception {
+        Path data = Files.createTempDirectory("picassolve-order");
+        return new SpringApplicationBuilder(PicassolveApplication.class)
+                .profiles("h2")
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:order-" + System.nanoTime()
+                                + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+                        "app.backplane.mode=local",
+                        "app.journal.enabled=false",
+                        "app.ws.rate-limit.rules=",
+                        "app.ws.virtual-threads=" + virtualThreads,
+                        "app.archive.dir=" + data.resolve("rounds"))
+                .run();
+    }
+
+    private static int port(ConfigurableApplicationContext node) {
+        return ((ServletWebServerApplicationContext) node).getWebServer().getPort();
+    }
+
+    /** 노드의 DB 에 유저를 만들고 폼 로그인으로 받은 세션 쿠키로 STOMP 에 붙는다. */
+    private static StompSession connect(ConfigurableApplicationContext node, String username) throws Exception {
+        node.getBean(UserRepository.class).save(
+                new User(username, node.getBean(PasswordEncoder.class).encode(PASSWORD)));
+
+        HttpClient http = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.NEVER).build();
+        HttpResponse<Void> login = http.send(HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port(node) + "/login"))
+                        .header("Content-Type", "application/x-www-form-urlencoded")
+                        .header("Accept", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString("name=" + username + "&password=" + PASSWORD))
+                        .build(),
+                HttpResponse.BodyHandlers.discarding());
+        assertEquals(200, login.statusCode(), "로그인 실패");
+        String cookie = login.headers().allValues("Set-Cookie").stream()
+                .filter(c -> c.startsWith("JSESSIONID="))
+                .map(c -> c.split(";", 2)[0])
+                .findFirst()
+                .orElseThrow();
+
+        WebSocketStompClient stomp = new WebSocketStompClient(
+                new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+        stomp.setMessageConverter(new CompositeMessageConverter(
+                List.of(new StringMessageConverter(), new MappingJackson2MessageConverter())));
+        WebSocketHttpHeaders headers = new WebSocketHttpHeaders();
+        headers.add("Cookie", cookie);
+        return stomp.connectAsync("http://127.0.0.1:" + port(node) + "/ws", headers, new StompSessionHandlerAdapter() {
+        }).get(15, TimeUnit.SECONDS);
+    }
+
+    /** 받은 프레임. 목적지가 달라도 한 세션에 내려온 순서대로 쌓인다. */
+    private record Frame(String destination, JsonNode body) {
+    }
+
+    private static void subscribe(StompSession session, String destination, BlockingQueue<Frame> frames) {
+        session.subscribe(destination, new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return JsonNode.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                frames.add(new Frame(destination, (JsonNode) payload));
+            }
+        });
+    }
+
+    private static void send(StompSession session, String action, Object payload) {
+        StompHeaders headers = new StompHeaders();
+        headers.setDestination("/app/room/" + ROOM + "/" + action);
+        if (!(payload instanceof String))
+            headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        session.send(headers, payload);
+    }
+
+    private static Map<String, Object> segment(String actionId, int i, boolean newStroke) {
+        return Map.of("x1", i, "y1", i, "x2", i + 1, "y2", i + 1, "width", 4, "color", "#000000", "mode", "pen",
+                "actionId", actionId, "newStroke", newStroke);
+    }
+
+    /** 출제자 자리를 받을 때까지 요청한다. (제시어가 본인 큐로 오면 출제자가 된 것) */
+    private static void becomeDrawer(StompSession drawer) throws InterruptedException {
+        BlockingQueue<String> word = new LinkedBlockingQueue<>();
+        drawer.subscribe("/user/queue/word", new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return String.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                word.add((String) payload);
+            }
+        });
+        String received = null;
+        for (int attempt = 0; attempt < 50 && received == null; attempt++) {
+            send(drawer, "drawer.me", "");
+            received = word.poll(200, TimeUnit.MILLISECONDS);
+        }
+        assertNotNull(received, "출제자가 되지 못했습니다");
+    }
+
+    /**
+     * 관전자 쪽 캔버스를 받은 순서대로 재생한다. 첫 스냅샷 전의 프레임은 버리고, 스냅샷 chunk 0 은 캔버스를 새로 그린다.
+     * 한 번도 보지 못한 액션의 실행취소(대기 중에 지워져 나가지 않은 선)는 무시한다.
+     */
+    private static final class Replay {
+        private final Set<String> actions = new LinkedHashSet<>();
+        private boolean synced;
+
+        void apply(Frame frame) {
+            JsonNode body = frame.body();
+            if (frame.destination().endsWith("/canvas/snapshot")) {
+                if (body.path("chunk").asInt() == 0)
+                    actions.clear();
+                synced = true;
+                body.path("segments").forEach(seg -> actions.add(seg.path("actionId").asText()));
+            } else if (!synced) {
+                return;
+            } else if (frame.destination().endsWith("/draw")) {
+                body.forEach(seg -> actions.add(seg.path("actionId").asText()));
+            } else if (frame.destination().endsWith("/undo")) {
+                actions.remove(body.path("actionId").asText());
+            }
+        }
+
+        List<String> actions() {
+            return List.copyOf(actions);
+        }
+    }
+
+    @ParameterizedTest(name = "virtual-threads={0}")
+    @ValueSource(booleans = {false, true})
+    void snapshotsAndUndosStayInOrderWithConcurrentDraws(boolean virtualThreads) throws Exception {
+        node = startNode(virtualThreads);
+        StompSession drawer = connect(node, "drawer");
+        StompSession viewer = connect(node, "viewer");
+        becomeDrawer(drawer);
+
+        BlockingQueue<Frame> frames = new LinkedBlockingQueue<>();
+        subscribe(viewer, "/topic/room/" + ROOM + "/draw", frames);
+        subscribe(viewer, "/topic/room/" + ROOM + "/undo", frames);
+        subscribe(viewer, "/user/queue/canvas/snapshot", frames);
+
+        // 관전자는 그리는 동안 계속 스냅샷을 다시 받는다
+        AtomicBoolean drawing = new AtomicBoolean(true);
+        Thread resync = new Thread(() -> {
+            while (drawing.get()) {
+                send(viewer, "state.sync", "");
+                try {
+                    Thread.sleep(15);
+                } catch (InterruptedException ex) {
+                    return;
+                }
+            }
+        });
+        resync.start();
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < STROKES; i++) {
+            String actionId = "a" + i;
+            send(drawer, "draw.stroke", segment(actionId, i, true));
+            send(drawer, "draw.stroke", segment(actionId, i + 1, false));
+            expected.add(actionId);
+            if (i % 10 == 9) {
+                send(drawer, "draw.undo", "");
+                expected.remove(expected.size() - 1);
+            }
+            Thread.sleep(2);
+        }
+        drawing.set(false);
+        resync.join();
+
+        // 더 내려오는 프레임이 없을 때까지 재생한다
+        Replay replay = new Replay();
+        Frame frame;
+        while ((frame = frames.poll(2, TimeUnit.SECONDS)) != null)
+            replay.apply(frame);
+        assertEquals(expected, replay.actions(), "관전자가 받은 순서대로 재생한 캔버스가 서버와 다릅니다");
+
+        drawer.disconnect();
+        viewer.disconnect();
+    }
+}
@@ -0,0 +1,120 @@
+package dev.starq.picassolve.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.starq.picassolve.dto.ScoreBoardEntry;
+import dev.starq.picassolve.entity.ScoreSnapshot;
+import dev.starq.picassolve.entity.ScoreSnapshot.SnapshotPeriod;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.ActiveProfiles;
+
+/** 랭킹 JPQL(생성자 식, 합산/정렬)을 h2 프로필(PostgreSQL 모드 H2)에서 실제로 돌려 본다. */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ScoreSnapshotRepositoryTest {
+
+    private static final LocalDate D1 = LocalDate.of(2026, 10, 1);
+    private static final LocalDate D2 = LocalDate.of(2026, 10, 2);
+
+    private final UUID alice = UUID.randomUUID();
+    private final UUID bob = UUID.randomUUID();
+    private final UUID carol = UUID.randomUUID();
+
+    @Autowired
+    private ScoreSnapshotRepository repository;
+
+    static ScoreSnapshot snapshot(UUID user, String name, int team, int score, LocalDate date, SnapshotPeriod period) {
+        return ScoreSnapshot.builder()
+                .userId(user).username(name).team(team).score(score)
+                .snapshotDate(date).period(period)
+                .build();
+    }
+
+    private static List<String> names(List<ScoreBoardEntry> entries) {
+        return entries.stream().map(ScoreBoardEntry::getName).toList();
+    }
+
+    @BeforeEach
+    void setUp() {
+        repository.saveAll(List.of(
+                snapshot(alice, "alice", 1, 10, D1, SnapshotPeriod.DAILY),
+                snapshot(bob, "bob", 2, 0, D1, SnapshotPeriod.DAILY),
+                snapshot(carol, "carol", 1, 5, D1, SnapshotPeriod.DAILY),
+                snapshot(alice, "alice", 1, 3, D2, SnapshotPeriod.DAILY),
+                snapshot(bob, "bob", 2, 7, D2, SnapshotPeriod.DAILY),
+                snapshot(carol, "carol2", 2, 5, D2, SnapshotPeriod.DAILY),
+                snapshot(alice, "alice", 1, 99, D1, SnapshotPeriod.WEEKLY)));
+    }
+
+    @Test
+    void findsLatestSnapshotDatePerPeriod() {
+        assertEquals(Optional.of(D2), repository.findLatestSnapshotDate(SnapshotPeriod.DAILY));
+        assertEquals(Optional.of(D1), repository.findLatestSnapshotDate(SnapshotPeriod.WEEKLY));
+        assertEquals(Optional.empty(), repository.findLatestSnapshotDate(SnapshotPeriod.MONTHLY));
+    }
+
+    @Test
+    void ranksOneDayWithoutZeroScores() {
+        List<ScoreBoardEntry> ranking = repository.findRanking(SnapshotPeriod.DAILY, D1, Pageable.unpaged());
+
+        assertEquals(List.of("alice", "carol"), names(ranking));
+        assertEquals(10, ranking.get(0).getScore());
+        assertEquals(1, ranking.get(0).getTeam());
+        assertEquals(List.of("alice"), names(repository.findRanking(SnapshotPeriod.DAILY, D1, PageRequest.of(0, 1))));
+    }
+
+    @Test
+    void unpagedRankingIsNotTruncated() {
+        LocalDate day = LocalDate.of(2026, 10, 3);
+        List<ScoreSnapshot> many = new ArrayList<>();
+        for (int i = 0; i < 150; i++)
+            many.add(snapshot(UUID.randomUUID(), "user" + i, i % 2, i + 1, day, SnapshotPeriod.DAILY));
+        repository.saveAll(many);
+
+        List<ScoreBoardEntry> ranking = repository.findRanking(SnapshotPeriod.DAILY, day, Pageable.unpaged());
+
+        assertEquals(150, ranking.size());
+        assertEquals("user149", ranking.get(0).getName());
+        assertTrue(ranking.stream().map(ScoreBoardEntry::getScore)
+                .toList().equals(ranking.stream().map(ScoreBoardEntry::getScore).sorted(Comparator.reverseOrder()).toList()));
+    }
+
+    @Test
+    void sumsDailySnapshotsPerUserIntoConstructorExpression() {
+        List<ScoreBoardEntry> ranking = repository.sumRanking(SnapshotPeriod.DAILY, D1, D2, Pageable.unpaged());
+
+        assertEquals(List.of("alice", "carol2", "bob"), names(ranking));
+        assertEquals(List.of(13, 10, 7), ranking.stream().map(ScoreBoardEntry::getScore).toList());
+        assertEquals(2, ranking.get(1).getTeam(), "max(team) 은 int 생성자 인자로 들어간다");
+        assertEquals(List.of("alice", "carol2"),
+                names(repository.sumRanking(SnapshotPeriod.DAILY, D1, D2, PageRequest.of(0, 2))));
+        assertEquals(List.of("alice", "carol"),
+                names(repository.sumRanking(SnapshotPeriod.DAILY, D1, D1, Pageable.unpaged())));
+    }
+
+    @Test
+    void sumsByUserForRollupFill() {
+        List<ScoreSnapshotRepository.ScoreTotal> totals = repository.sumByUser(SnapshotPeriod.DAILY, D1, D2);
+
+        assertEquals(3, totals.size());
+        ScoreSnapshotRepository.ScoreTotal bobTotal = totals.stream()
+                .filter(t -> t.getUserId().equals(bob)).findFirst().orElseThrow();
+        assertEquals("bob", bobTotal.getUsername());
+        assertEquals(2, bobTotal.getTeam());
+        assertEquals(7L, bobTotal.getScore());
+    }
+}
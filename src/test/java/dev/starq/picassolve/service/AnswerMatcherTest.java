@@ -0,0 +1,75 @@
+package dev.starq.picassolve.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.text.Normalizer;
+import org.junit.jupiter.api.Test;
+
+class AnswerMatcherTest {
+
+    private final AnswerMatcher apple = AnswerMatcher.compile("사과");
+
+    @Test
+    void matchesIgnoringWhitespaceCaseAndNormalization() {
+        assertTrue(apple.matches("사과"));
+        assertTrue(apple.matches("  사 과\t"));
+        assertTrue(apple.matches(Normalizer.normalize("사과", Normalizer.Form.NFD)), "첫가끝 자모로 온 채팅");
+        assertTrue(AnswerMatcher.compile("Big Ben").matches("bigben"));
+        assertTrue(AnswerMatcher.compile("café").matches("cafe\u0301"), "결합 악센트");
+        assertTrue(AnswerMatcher.compile(Normalizer.normalize("café", Normalizer.Form.NFD)).matches("CAFÉ"));
+
+        assertFalse(apple.matches("사과나무"));
+        assertFalse(apple.matches("사"));
+        assertFalse(apple.matches(""));
+        assertFalse(apple.matches(null));
+        assertFalse(AnswerMatcher.compile(" ").matches(" "), "빈 정답은 어떤 채팅과도 맞지 않는다");
+    }
+
+    @Test
+    void detectsAnswerSpelledWithSyllablesOrJamo() {
+        assertTrue(apple.leaks("정답은 사과야"));
+        assertTrue(apple.leaks("사 과 그려요"));
+        assertTrue(apple.leaks("ㅅㅏㄱㅘ"), "호환 자모 (겹모음 한 글자)");
+        assertTrue(apple.leaks("힌트: ㅅㅏㄱㅗㅏ"), "자판 입력 순서 (겹모음을 두 글자로)");
+        assertTrue(apple.leaks(Normalizer.normalize("빨간 사과", Normalizer.Form.NFD)));
+
+        assertFalse(apple.leaks("사고 났어"));
+        assertFalse(apple.leaks("ㅅㄱ"), "초성만으로는 유출로 보지 않는다");
+        assertFalse(apple.leaks(null));
+    }
+
+    @Test
+    void detectsJamoLeaksOfDoubleFinalConsonants() {
+        AnswerMatcher chicken = AnswerMatcher.compile("닭");
+
+        assertTrue(chicken.leaks("ㄷㅏㄺ"), "겹받침 한 글자");
+        assertTrue(chicken.leaks("ㄷㅏㄹㄱ"), "겹받침을 두 글자로");
+        assertFalse(chicken.leaks("ㄷㅏㄹ"));
+        assertTrue(AnswerMatcher.compile("DNA").leaks("그건 dna 잖아"));
+    }
+
+    @Test
+    void closeAnswersAreOneKeystrokeAway() {
+        AnswerMatcher cat = AnswerMatcher.compile("고양이"); // ㄱㅗㅇㅑㅇㅇㅣ
+
+        assertTrue(cat.isClose("고양지"), "치환");
+        assertTrue(cat.isClose("고얀이"), "받침 치환");
+        assertTrue(cat.isClose("고양ㅇ"), "삭제");
+        assertTrue(cat.isClose("고양이ㄱ"), "삽입");
+        assertTrue(apple.isClose("사가"), "겹모음의 한 타 삭제");
+
+        assertFalse(cat.isClose("고양"), "두 타 차이");
+        assertFalse(cat.isClose("고양이다"));
+        assertFalse(cat.isClose("강아지"));
+        assertFalse(cat.isClose(null));
+    }
+
+    @Test
+    void shortAnswersGiveNoCloseHint() {
+        // 자판 4타가 경계: 4타는 힌트를 주고 3타 이하는 주지 않는다
+        assertTrue(AnswerMatcher.compile("가나").isClose("가다"));
+        assertFalse(AnswerMatcher.compile("강").isClose("각"));
+        assertFalse(AnswerMatcher.compile("소").isClose("쇠"));
+    }
+}
@@ -0,0 +1,109 @@
+package dev.starq.picassolve.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.starq.picassolve.dto.DrawEvent;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class CanvasCheckpointerTest {
+
+    private static final int KEEP_ACTIONS = 2;
+
+    private final GameRoomRegistry rooms = new GameRoomRegistry();
+    private final CanvasCheckpointer checkpointer = new CanvasCheckpointer(rooms, KEEP_ACTIONS, 0);
+
+    @AfterEach
+    void tearDown() {
+        checkpointer.shutdown();
+    }
+
+    private static void draw(GameRoom room, int actions) {
+        synchronized (room.strokes) {
+            for (int i = 0; i < actions; i++) {
+                int n = room.strokes.actionCount();
+                room.strokes.append(DrawEvent.builder()
+                        .x1(n).y1(n).x2(n + 10).y2(n + 10)
+                        .width(4).color("#000000").mode("pen")
+                        .actionId("a" + n + "-" + System.nanoTime()).newStroke(true)
+                        .build());
+            }
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline)
+            Thread.sleep(5);
+        assertTrue(condition.getAsBoolean(), "시간 안에 끝나지 않았다");
+    }
+
+    @Test
+    void bakesOldActionsAndKeepsTheRecentOnes() throws InterruptedException {
+        GameRoom room = rooms.getOrCreate("r1");
+        draw(room, 5);
+
+        checkpointer.checkpointAll();
+        await(() -> !room.checkpointScheduled.get());
+
+        synchronized (room.strokes) {
+            assertNotNull(room.checkpointPng);
+            assertEquals(KEEP_ACTIONS, room.strokes.actionCount());
+        }
+    }
+
+    @Test
+    void doesNotQueueAnotherCheckpointWhileTheRoomsLastOneIsPending() throws InterruptedException {
+        GameRoom room = rooms.getOrCreate("r1");
+        draw(room, 5);
+
+        // 래스터 lock 을 잡아 첫 체크포인트를 굽지 못하게 한 채 주기가 여러 번 돈다
+        synchronized (room.rasterLock) {
+            checkpointer.checkpointAll();
+            assertTrue(room.checkpointScheduled.get());
+            checkpointer.checkpointAll();
+            checkpointer.checkpointAll();
+            assertTrue(room.checkpointScheduled.get());
+            synchronized (room.strokes) {
+                assertNull(room.checkpointPng);
+            }
+        }
+        await(() -> !room.checkpointScheduled.get());
+        byte[] first;
+        synchronized (room.strokes) {
+            first = room.checkpointPng;
+            assertNotNull(first);
+        }
+
+        // 끝난 뒤에는 다음 주기에 다시 예약된다
+        draw(room, 3);
+        checkpointer.checkpointAll();
+        await(() -> !room.checkpointScheduled.get());
+        synchronized (room.strokes) {
+            assertNotSame(first, room.checkpointPng);
+            assertEquals(KEEP_ACTIONS, room.strokes.actionCount());
+        }
+    }
+
+    @Test
+    void clearsTheFlagWhenThereIsNothingToBake() throws InterruptedException {
+        GameRoom room = rooms.getOrCreate("r1");
+        draw(room, KEEP_ACTIONS);
+
+        checkpointer.checkpointAll();
+        await(() -> !room.checkpointScheduled.get());
+
+        synchronized (room.strokes) {
+            assertNull(room.checkpointPng);
+            assertEquals(KEEP_ACTIONS, room.strokes.actionCount());
+        }
+        assertFalse(room.checkpointScheduled.get());
+    }
+}
@@ -0,0 +1,69 @@
+package dev.starq.picassolve.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import dev.starq.picassolve.dto.DrawEvent;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.Test;
+
+class CanvasRasterizerTest {
+
+    private static DrawEvent line(String actionId, double x1, double y1, double x2, double y2, String color, String mode) {
+        return DrawEvent.builder()
+                .x1(x1).y1(y1).x2(x2).y2(y2)
+                .width(10).color(color).mode(mode)
+                .actionId(actionId).newStroke(true)
+                .build();
+    }
+
+    private static byte[] render(byte[] base, DrawEvent... segments) {
+        StrokeStore store = new StrokeStore();
+        for (DrawEvent e : segments)
+            store.append(e);
+        return CanvasRasterizer.render(base, store.copy(0, store.segmentCount()));
+    }
+
+    private static BufferedImage decode(byte[] png) throws IOException {
+        return ImageIO.read(new ByteArrayInputStream(png));
+    }
+
+    @Test
+    void rendersCanvasSizedTransparentPng() throws IOException {
+        BufferedImage img = decode(render(null));
+
+        assertEquals(CanvasRasterizer.WIDTH, img.getWidth());
+        assertEquals(CanvasRasterizer.HEIGHT, img.getHeight());
+        assertEquals(0, img.getRGB(100, 100) >>> 24);
+    }
+
+    @Test
+    void drawsSegmentsInTheirColor() throws IOException {
+        BufferedImage img = decode(render(null, line("a", 50, 100, 250, 100, "#ff0000", "pen")));
+
+        assertEquals(0xFFFF0000, img.getRGB(150, 100));
+        assertEquals(0, img.getRGB(150, 130) >>> 24, "선 굵기 밖은 투명해야 한다");
+    }
+
+    @Test
+    void laterSegmentsPaintOverEarlierOnes() throws IOException {
+        BufferedImage img = decode(render(null,
+                line("a", 50, 100, 250, 100, "#ff0000", "pen"),
+                line("b", 150, 50, 150, 150, "#0000ff", "pen")));
+
+        assertEquals(0xFF0000FF, img.getRGB(150, 100));
+        assertEquals(0xFFFF0000, img.getRGB(80, 100));
+    }
+
+    @Test
+    void eraserClearsPixelsOfBaseCheckpoint() throws IOException {
+        byte[] base = render(null, line("a", 50, 100, 250, 100, "#00ff00", "pen"));
+
+        BufferedImage img = decode(render(base, line("b", 150, 50, 150, 150, "#000000", "eraser")));
+
+        assertEquals(0, img.getRGB(150, 100) >>> 24, "지우개 자리는 투명해야 한다");
+        assertEquals(0xFF00FF00, img.getRGB(80, 100), "체크포인트의 나머지는 남아야 한다");
+    }
+}
@@ -0,0 +1,212 @@
+package dev.starq.picassolve.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.starq.picassolve.dto.DrawEvent;
+import dev.starq.picassolve.service.GameStateBackplane.CanvasCleared;
+import dev.starq.picassolve.service.GameStateBackplane.RoomState;
+import dev.starq.picassolve.service.GameStateBackplane.RoundChanged;
+import dev.starq.picassolve.service.GameStateBackplane.StrokeAppended;
+import dev.starq.picassolve.service.GameStateBackplane.StrokeUndone;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class GameJournalTest {
+
+    @TempDir
+    Path dir;
+
+    private final List<GameJournal> opened = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        opened.forEach(GameJournal::shutdown);
+    }
+
+    /** 파일 하나가 1MB, 1MB 쌓이면 압축 대상 */
+    private GameJournal open() {
+        GameJournal journal = new GameJournal(true, dir.toString(), 1, 1);
+        opened.add(journal);
+        return journal;
+    }
+
+    /** 기록을 모두 내려 쓰고 같은 디렉터리를 새 저널로 재생한다. */
+    private List<RoomState> restart(GameJournal journal) {
+        journal.shutdown();
+        return open().replay();
+    }
+
+    private static DrawEvent segment(String actionId, int seq, boolean newStroke) {
+        return DrawEvent.builder()
+                .x1(seq).y1(seq + 0.5).x2(seq + 1).y2(seq + 2).width(3)
+                .color("#12ab34").mode(seq % 2 == 0 ? "pen" : "eraser")
+                .actionId(actionId).newStroke(newStroke).seq(seq)
+                .build();
+    }
+
+    private static RoomState state(List<RoomState> states, String roomId) {
+        return states.stream().filter(s -> s.roomId().equals(roomId)).findFirst().orElse(null);
+    }
+
+    private long files() throws IOException {
+        try (Stream<Path> list = Files.list(dir)) {
+            return list.count();
+        }
+    }
+
+    @Test
+    void replaysRoundStrokesAndUndoPerRoom() {
+        GameJournal journal = open();
+        assertTrue(journal.replay().isEmpty());
+        journal.append(new RoundChanged("r1", 3, "n1", "사과", "alice"));
+        journal.append(new StrokeAppended("r1", segment("a", 1, true)));
+        journal.append(new StrokeAppended("r1", segment("a", 1, false)));
+        journal.append(new StrokeAppended("r1", segment("b", 2, true)));
+        journal.append(new StrokeUndone("r1", "b", 2));
+        journal.append(new RoundChanged("r2", 1, "n2", "포도", "bob"));
+        journal.append(new StrokeAppended("r2", segment("c", 1, true)));
+        journal.append(new CanvasCleared("r2"));
+        journal.answer("r2", "carol", "포도");
+
+        List<RoomState> states = restart(journal);
+
+        RoomState r1 = state(states, "r1");
+        assertEquals(3, r1.round());
+        assertEquals("n1", r1.origin());
+        assertEquals("사과", r1.word());
+        assertEquals("alice", r1.drawer());
+        assertEquals(2, r1.segments().size());
+        DrawEvent first = r1.segments().get(0);
+        assertEquals("a", first.getActionId());
+        assertEquals(1.5, first.getY1(), 1e-6);
+        assertEquals("#12ab34", first.getColor());
+        assertEquals("eraser", first.getMode());
+        assertTrue(first.getNewStroke());
+        assertTrue(state(states, "r2").segments().isEmpty());
+    }
+
+    @Test
+    void droppedRoomIsNotRestored() {
+        GameJournal journal = open();
+        journal.replay();
+        journal.append(new RoundChanged("r1", 1, "n1", "사과", "alice"));
+        journal.dropRoom("r1");
+
+        assertNull(state(restart(journal), "r1"));
+    }
+
+    @Test
+    void rollsOverToNextFileWhenFull() throws IOException {
+        GameJournal journal = open();
+        journal.replay();
+        journal.append(new RoundChanged("r1", 1, "n1", "사과", "alice"));
+        int n = 60_000; // 레코드 하나가 40바이트 안팎이므로 1MB 파일 두세 개
+        for (int i = 0; i < n; i++)
+            journal.append(new StrokeAppended("r1", segment("a" + i / 10, i / 10 + 1, i % 10 == 0)));
+
+        List<RoomState> states = restart(journal);
+
+        assertTrue(files() >= 3, "파일이 넘어가지 않았다");
+        assertEquals(n, state(states, "r1").segments().size());
+    }
+
+    @Test
+    void oversizedSnapshotGetsItsOwnFile() {
+        GameJournal journal = open();
+        journal.replay();
+        byte[] png = new byte[3 << 20];
+        png[png.length - 1] = 7;
+        journal.append(new RoomState("r1", 2, "n1", "사과", "alice", List.of(segment("a", 1, true)), png, 0, Map.of(),
+                false));
+
+        RoomState r1 = state(restart(journal), "r1");
+
+        assertArrayEquals(png, r1.checkpoint());
+        assertEquals(1, r1.segments().size());
+    }
+
+    @Test
+    void compactionKeepsSnapshotsAndRecordsWrittenWhileCompacting() throws Exception {
+        GameJournal journal = open();
+        journal.replay();
+        GameRoom room = new GameRoom("r1");
+        journal.append(new RoundChanged("r1", 1, "n1", "사과", "alice"));
+        for (int i = 0; i < 30_000; i++) {
+            DrawEvent seg = segment("a" + i / 10, i / 10 + 1, i % 10 == 0);
+            room.strokes.appendReplicated(seg);
+            journal.append(new StrokeAppended("r1", seg));
+        }
+        journal.awaitWritten();
+        assertTrue(journal.needsCompaction());
+
+        // 방 목록은 세대 전환 뒤에 읽는다. 그 사이 생긴 방(r2)의 기록은 새 세대에 남아야 한다
+        journal.compact(() -> {
+            journal.append(new RoundChanged("r2", 1, "n1", "포도", "bob"));
+            journal.append(new StrokeAppended("r2", segment("b", 1, true)));
+            return List.of(room);
+        }, r -> new RoomState(r.id, 1, "n1", "사과", "alice", r.strokes.copy(0, r.strokes.segmentCount()).toEvents(),
+                null, 0, Map.of(), false));
+        journal.append(new StrokeAppended("r1", segment("z", 9_999, true)));
+        journal.awaitWritten();
+        assertFalse(journal.needsCompaction());
+
+        List<RoomState> states = restart(journal);
+
+        assertFalse(Files.exists(dir.resolve("journal-0000000001.log")), "이전 세대가 지워지지 않았다");
+        assertEquals(30_001, state(states, "r1").segments().size());
+        assertEquals("z", state(states, "r1").segments().get(30_000).getActionId());
+        assertEquals("포도", state(states, "r2").word());
+        assertEquals(1, state(states, "r2").segments().size());
+    }
+
+    @Test
+    void appendsFromManyThreadsKeepPerRoomOrder() throws Exception {
+        GameJournal journal = open();
+        journal.replay();
+        int rooms = 8, perRoom = 5_000;
+        List<Thread> threads = new ArrayList<>();
+        for (int r = 0; r < rooms; r++) {
+            String roomId = "r" + r;
+            Thread t = new Thread(() -> {
+                journal.append(new RoundChanged(roomId, 1, "n1", "사과", "alice"));
+                for (int i = 0; i < perRoom; i++)
+                    journal.append(new StrokeAppended(roomId, segment("a" + i, i + 1, true)));
+            });
+            threads.add(t);
+            t.start();
+        }
+        for (Thread t : threads)
+            t.join();
+
+        List<RoomState> states = restart(journal);
+
+        for (int r = 0; r < rooms; r++) {
+            List<DrawEvent> segments = state(states, "r" + r).segments();
+            assertEquals(perRoom, segments.size());
+            for (int i = 0; i < perRoom; i++)
+                assertEquals(i + 1, (int) segments.get(i).getSeq());
+        }
+    }
+
+    @Test
+    void disabledJournalWritesNothing() throws IOException {
+        GameJournal journal = new GameJournal(false, dir.toString(), 1, 1);
+        journal.append(new RoundChanged("r1", 1, "n1", "사과", "alice"));
+
+        assertTrue(journal.replay().isEmpty());
+        assertFalse(journal.needsCompaction());
+        assertEquals(0, files());
+    }
+}
@@ -0,0 +1,114 @@
+package dev.starq.picassolve.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.starq.picassolve.dto.DrawEvent;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class GameMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final GameRoomRegistry rooms = new GameRoomRegistry();
+    private final GameMetrics metrics = new GameMetrics(registry, rooms);
+
+    private Timer timer(String name, String tag, String value) {
+        return registry.find(name).tag(tag, value).timer();
+    }
+
+    @Test
+    void mapsDestinationsToPatterns() {
+        assertEquals("/room/{roomId}/draw.stroke", GameMetrics.mappingOf("/app/room/abc/draw.stroke"));
+        assertEquals("/chat", GameMetrics.mappingOf("/app/chat"));
+        assertEquals("unknown", GameMetrics.mappingOf(null));
+
+        assertEquals("/topic/room/{roomId}/draw", GameMetrics.destinationOf("/topic/room/abc/draw"));
+        assertEquals("/user/{user}/queue/errors", GameMetrics.destinationOf("/user/alice/queue/errors"));
+        assertEquals("/queue/errors", GameMetrics.destinationOf("/queue/errors-userk3j2x1"));
+        assertEquals("unknown", GameMetrics.destinationOf(null));
+    }
+
+    @Test
+    void recordsInboundAndBroadcastPerPattern() {
+        metrics.inbound("/app/room/a/chat", 1_000);
+        metrics.inbound("/app/room/b/chat", 3_000);
+        metrics.broadcast("/topic/room/a/chat", 2_000);
+
+        Timer chat = timer(GameMetrics.INBOUND, "mapping", "/room/{roomId}/chat");
+        assertEquals(2, chat.count());
+        assertEquals(4_000, chat.totalTime(TimeUnit.NANOSECONDS), 1e-6);
+        assertEquals(1, timer(GameMetrics.BROADCAST, "destination", "/topic/room/{roomId}/chat").count());
+    }
+
+    @Test
+    void foldsTagValuesBeyondTheCapIntoOther() {
+        for (int i = 0; i < 100; i++)
+            metrics.broadcast("/topic/custom-" + i, 1);
+
+        assertEquals(65, registry.find(GameMetrics.BROADCAST).timers().size());
+        assertEquals(36, timer(GameMetrics.BROADCAST, "destination", "other").count());
+        assertEquals(1, timer(GameMetrics.BROADCAST, "destination", "/topic/custom-0").count());
+        assertNull(timer(GameMetrics.BROADCAST, "destination", "/topic/custom-64"));
+
+        // 이미 만든 태그는 상한을 넘은 뒤에도 그대로 쓴다
+        metrics.broadcast("/topic/custom-0", 1);
+        assertEquals(2, timer(GameMetrics.BROADCAST, "destination", "/topic/custom-0").count());
+    }
+
+    @Test
+    void recordsLockWaitAndHeldTimes() {
+        long acquired = metrics.roomLockAcquired(System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(5));
+        metrics.roomLockReleased(acquired);
+        metrics.strokesLockReleased(metrics.strokesLockAcquired(System.nanoTime()));
+
+        Timer roomWait = timer("picassolve.lock.wait", "lock", "room");
+        assertEquals(1, roomWait.count());
+        assertTrue(roomWait.totalTime(TimeUnit.MILLISECONDS) >= 5);
+        assertEquals(1, timer("picassolve.lock.held", "lock", "room").count());
+        assertEquals(1, timer("picassolve.lock.wait", "lock", "strokes").count());
+        assertEquals(1, timer("picassolve.lock.held", "lock", "strokes").count());
+    }
+
+    @Test
+    void countsRateLimitedPerAction() {
+        metrics.rateLimited("draw");
+        metrics.rateLimited("draw");
+        metrics.rateLimited("chat");
+
+        assertEquals(2, registry.find("picassolve.ws.rate.limited").tag("action", "draw").counter().count());
+        assertEquals(1, registry.find("picassolve.ws.rate.limited").tag("action", "chat").counter().count());
+    }
+
+    @Test
+    void skipsCheckpointSizeWhenSnapshotHasNone() {
+        metrics.snapshotSent(10, 0, 1_000);
+        metrics.snapshotSent(20, 512, 1_000);
+
+        assertEquals(2, registry.find("picassolve.snapshot.duration").timer().count());
+        assertEquals(30, registry.find("picassolve.snapshot.segments").summary().totalAmount(), 1e-6);
+        assertEquals(1, registry.find("picassolve.snapshot.checkpoint").summary().count());
+    }
+
+    @Test
+    void gaugesReadRoomsAndStrokeHistory() {
+        GameRoom a = rooms.getOrCreate("a");
+        GameRoom b = rooms.getOrCreate("b");
+        a.online.add("alice");
+        a.online.add("bob");
+        b.online.add("carol");
+        synchronized (a.strokes) {
+            for (int i = 0; i < 3; i++)
+                a.strokes.append(DrawEvent.builder().x1(i).y1(i).x2(i + 1).y2(i + 1).width(2).color("#000000")
+                        .mode("pen").actionId("s" + i / 2).newStroke(i % 2 == 0).build());
+        }
+
+        assertEquals(3, registry.find("picassolve.users.online").gauge().value(), 1e-6);
+        assertEquals(rooms.rooms().size(), registry.find("picassolve.rooms").gauge().value(), 1e-6);
+        assertEquals(2, registry.find("picassolve.strokes.actions").gauge().value(), 1e-6);
+        assertEquals(3, registry.find("picassolve.strokes.segments").gauge().value(), 1e-6);
+    }
+}
@@ -0,0 +1,346 @@
+package dev.starq.picassolve.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.starq.picassolve.dto.DrawEvent;
+import dev.starq.picassolve.entity.User;
+import dev.starq.picassolve.entity.User.Role;
+import dev.starq.picassolve.entity.Word;
+import dev.starq.picassolve.repository.RoundArchiveRepository;
+import dev.starq.picassolve.repository.UserRepository;
+import dev.starq.picassolve.repository.WordRepository;
+import dev.starq.picassolve.support.BinaryDrawSubscribers;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Path;
+import java.security.Principal;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+class GameServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private final List<String> sent = new CopyOnWriteArrayList<>();
+    private final UserRepository users = mock(UserRepository.class);
+    private final WordRepository wordRepo = mock(WordRepository.class);
+    private final GameRoomRegistry rooms = new GameRoomRegistry();
+    private final SimpMessagingTemplate broker = broker();
+    private PresenceAggregator presence = new PresenceAggregator(0);
+    private StrokeBroadcaster strokeBroadcaster = new StrokeBroadcaster(broker, new BinaryDrawSubscribers(false), 0, 32);
+    private final CanvasCheckpointer checkpointer = new CanvasCheckpointer(rooms, 20, 2_000);
+    private final GameMetrics metrics = new GameMetrics(new SimpleMeterRegistry(), rooms);
+    private final RoomCommandLoop commands = new RoomCommandLoop(rooms, broker, metrics, 1);
+    private WordDictionary words;
+    private Leaderboard leaderboard;
+    private GameService service;
+
+    private SimpMessagingTemplate broker() {
+        SimpMessagingTemplate template = new SimpMessagingTemplate((message, timeout) -> {
+            sent.add(SimpMessageHeaderAccessor.getDestination(message.getHeaders()));
+            return true;
+        });
+        template.setMessageConverter(new MappingJackson2MessageConverter());
+        return template;
+    }
+
+    @BeforeEach
+    void setUp() {
+        when(users.findByName(anyString())).thenAnswer(inv -> Optional.of(
+                User.builder().name(inv.getArgument(0)).password("x").team(1).score(0).build()));
+        when(wordRepo.findAll()).thenReturn(IntStream.range(0, 50).mapToObj(i -> new Word((long) i, "단어" + i)).toList());
+        words = new WordDictionary(wordRepo, 20);
+        words.reload();
+        leaderboard = new Leaderboard(users);
+        leaderboard.reload();
+        service = newService();
+    }
+
+    private GameService newService() {
+        return new GameService(users, words, leaderboard, presence, broker, rooms, strokeBroadcaster, checkpointer,
+                new InProcessBackplane(new InProcessBackplane.Hub(), "test"),
+                new GameJournal(false, dir.resolve("journal").toString(), 64, 16),
+                new RoundArchiver(mock(RoundArchiveRepository.class), new ObjectMapper(), false,
+                        dir.resolve("rounds").toString(), 2_000),
+                metrics, commands);
+    }
+
+    /** 드로잉 세그먼트를 window 동안 모아 보내는 서비스로 바꾼다 */
+    private void coalesceStrokes(long windowMs) {
+        strokeBroadcaster.shutdown();
+        strokeBroadcaster = new StrokeBroadcaster(broker, new BinaryDrawSubscribers(false), windowMs, 32);
+        service = newService();
+    }
+
+    /** 입장/퇴장 발행을 window 단위로 묶는 서비스로 바꾼다 */
+    private void debouncePresence(long windowMs) {
+        presence.shutdown();
+        presence = new PresenceAggregator(windowMs);
+        service = newService();
+    }
+
+    @AfterEach
+    void tearDown() {
+        commands.shutdown();
+        strokeBroadcaster.shutdown();
+        checkpointer.shutdown();
+        presence.shutdown();
+    }
+
+    private static Principal principal(String name) {
+        return () -> name;
+    }
+
+    private GameRoom room(String id) {
+        return rooms.find(id).orElseThrow();
+    }
+
+    private static long usersVersion(GameRoom room) {
+        synchronized (room.lock) {
+            return room.usersVersion;
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline)
+            Thread.sleep(5);
+        assertTrue(condition.getAsBoolean(), "시간 안에 끝나지 않았다");
+    }
+
+    @Test
+    void loginPutsUserInLobby() {
+        assertTrue(service.login("amy"));
+
+        assertSame(room(GameRoomRegistry.DEFAULT_ROOM), rooms.currentRoomOf("amy").orElseThrow());
+        assertTrue(room(GameRoomRegistry.DEFAULT_ROOM).online.contains("amy"));
+    }
+
+    @Test
+    void ignoresCommandsFromUsersNotBoundToAnyRoom() {
+        service.login("amy");
+        sent.clear();
+
+        service.handleChat("ghost", GameRoomRegistry.DEFAULT_ROOM, "안녕");
+        service.setMeAsDrawer(principal("ghost"), GameRoomRegistry.DEFAULT_ROOM);
+
+        assertFalse(sent.contains(room(GameRoomRegistry.DEFAULT_ROOM).topic("chat")), "방에 없는 유저의 채팅이 나갔다: " + sent);
+        assertNull(room(GameRoomRegistry.DEFAULT_ROOM).drawerName);
+    }
+
+    @Test
+    void ignoresCommandsAddressedToAnotherRoom() {
+        service.login("amy");
+        service.login("bob");
+        service.joinRoom("bob", "r1");
+        sent.clear();
+
+        service.handleChat("amy", "r1", "안녕");
+        service.setMeAsDrawer(principal("amy"), "r1");
+
+        assertFalse(sent.contains(room("r1").topic("chat")), "다른 방으로 채팅이 나갔다: " + sent);
+        assertNull(room("r1").drawerName);
+    }
+
+    @Test
+    void routesCommandsToTheBoundRoom() {
+        service.login("amy");
+        service.joinRoom("amy", "r1");
+        sent.clear();
+
+        service.handleChat("amy", "r1", "안녕");
+
+        assertTrue(sent.contains(room("r1").topic("chat")));
+        assertFalse(sent.contains(room(GameRoomRegistry.DEFAULT_ROOM).topic("chat")));
+    }
+
+    @Test
+    void rejectsJoinWhenRoomIsFull() {
+        for (int i = 0; i < 30; i++) {
+            service.login("user" + i);
+            service.joinRoom("user" + i, "full");
+        }
+        service.login("late");
+
+        assertThrows(IllegalStateException.class, () -> service.joinRoom("late", "full"));
+        assertEquals(30, room("full").onlineCount());
+        assertSame(room(GameRoomRegistry.DEFAULT_ROOM), rooms.currentRoomOf("late").orElseThrow());
+    }
+
+    @Test
+    void movingBetweenRoomsLeavesThePreviousRoomAndGivesUpItsDrawer() {
+        service.login("amy");
+        service.login("bob");
+        service.joinRoom("amy", "r1");
+        service.joinRoom("bob", "r1");
+        service.setMeAsDrawer(principal("amy"), "r1");
+        assertEquals("amy", room("r1").drawerName);
+
+        service.joinRoom("amy", "r2");
+
+        assertSame(room("r2"), rooms.currentRoomOf("amy").orElseThrow());
+        assertFalse(room("r1").online.contains("amy"));
+        assertTrue(room("r2").online.contains("amy"));
+        assertNull(room("r1").drawerName);
+    }
+
+    @Test
+    void removesEmptyRoomsButKeepsTheLobby() {
+        service.login("amy");
+        service.joinRoom("amy", "r1");
+        assertTrue(rooms.find(GameRoomRegistry.DEFAULT_ROOM).isPresent());
+
+        service.joinRoom("amy", "r2");
+        assertTrue(rooms.find("r1").isEmpty());
+
+        service.logout("amy");
+        assertTrue(rooms.find("r2").isEmpty());
+        assertTrue(rooms.currentRoomOf("amy").isEmpty());
+
+        service.login("bob");
+        service.logout("bob");
+        assertTrue(rooms.find(GameRoomRegistry.DEFAULT_ROOM).isPresent());
+    }
+
+    @Test
+    void publishesJoinsAndLeavesOfOneWindowAsASingleDelta() throws InterruptedException {
+        debouncePresence(200);
+        for (String name : List.of("amy", "bob", "cat"))
+            service.login(name);
+        service.joinRoom("amy", "r1");
+        await(() -> usersVersion(room("r1")) == 1);
+        sent.clear();
+
+        service.joinRoom("bob", "r1");
+        service.joinRoom("cat", "r1");
+        service.joinRoom("amy", "r2");
+        assertFalse(sent.contains(room("r1").topic("users")), "창이 끝나기 전에 발행했다");
+
+        await(() -> usersVersion(room("r1")) == 2);
+        Thread.sleep(400);
+        assertEquals(1, sent.stream().filter(room("r1").topic("users")::equals).count());
+        assertEquals(2, usersVersion(room("r1")));
+        synchronized (room("r1").lock) {
+            assertEquals(Set.of("bob", "cat"), room("r1").publishedUsers.keySet());
+        }
+    }
+
+    @Test
+    void publishesEveryChangeImmediatelyWithoutDebounce() {
+        service.login("amy");
+        service.login("bob");
+        service.joinRoom("amy", "r1");
+        assertEquals(1, usersVersion(room("r1")));
+
+        service.joinRoom("bob", "r1");
+        assertEquals(2, usersVersion(room("r1")));
+        service.joinRoom("amy", "r2");
+        assertEquals(3, usersVersion(room("r1")));
+    }
+
+    @Test
+    void undoDropsQueuedSegmentsOfTheRemovedAction() {
+        coalesceStrokes(60_000);
+        service.login("amy");
+        service.joinRoom("amy", "r1");
+        service.setMeAsDrawer(principal("amy"), "r1");
+        GameRoom r1 = room("r1");
+        sent.clear();
+
+        for (int i = 0; i < 3; i++)
+            service.addStroke(principal("amy"), "r1", DrawEvent.builder()
+                    .x1(i).y1(i).x2(i + 1).y2(i + 1).width(4).color("#000000").mode("pen")
+                    .actionId("a").newStroke(i == 0).build());
+        assertFalse(sent.contains(r1.topic("draw")), "창이 끝나기 전에 보냈다");
+
+        service.undoLastStroke(principal("amy"), "r1");
+
+        assertEquals(List.of(r1.topic("undo")),
+                sent.stream().filter(d -> d.equals(r1.topic("draw")) || d.equals(r1.topic("undo"))).toList(),
+                "지운 선의 세그먼트가 실행취소와 함께 나갔다");
+        synchronized (r1.strokes) {
+            assertTrue(r1.pendingDraw.isEmpty());
+            assertTrue(r1.strokes.isEmpty());
+        }
+    }
+
+    @Test
+    void loadsEachPlayerFromTheDatabaseOnlyOnce() {
+        service.login("amy");
+        service.login("amy"); // HTTP 로그인 성공과 웹소켓 연결이 둘 다 부른다
+        service.joinRoom("amy", "r1");
+        service.handleChat("amy", "r1", "안녕");
+
+        verify(users, times(1)).findByName("amy");
+    }
+
+    @Test
+    void writesDrawerChangesThroughWithoutReloadingPlayers() {
+        service.login("amy");
+        service.login("bob");
+        service.joinRoom("amy", "r1");
+        service.joinRoom("bob", "r1");
+
+        service.setMeAsDrawer(principal("amy"), "r1");
+        verify(users).updateRoleByName("amy", Role.DRAWER);
+
+        service.setMeAsDrawer(principal("bob"), "r1");
+        verify(users).updateRoleByName("amy", Role.PARTICIPANT);
+        verify(users).updateRoleByName("bob", Role.DRAWER);
+
+        verify(users, times(1)).findByName("amy");
+        verify(users, times(1)).findByName("bob");
+    }
+
+    @Test
+    void scoresACorrectAnswerFromTheRoster() {
+        service.login("amy");
+        service.login("bob");
+        service.joinRoom("amy", "r1");
+        service.joinRoom("bob", "r1");
+        service.setMeAsDrawer(principal("amy"), "r1");
+
+        service.handleChat("bob", "r1", "틀린 답");
+        verify(users, never()).incrementScoreByName("bob");
+        service.handleChat("bob", "r1", room("r1").currentWord.text());
+
+        verify(users).incrementScoreByName("bob");
+        verify(users, times(1)).findByName("bob");
+        assertEquals("bob", room("r1").drawerName, "정답자가 다음 출제자가 된다");
+    }
+
+    @Test
+    void logoutDropsThePlayerSoTheNextLoginReloadsIt() {
+        service.login("amy");
+        service.logout("amy");
+
+        service.handleChat("amy", GameRoomRegistry.DEFAULT_ROOM, "안녕");
+        service.login("amy");
+
+        verify(users, times(2)).findByName("amy");
+    }
+}
@@ -0,0 +1,97 @@
+package dev.starq.picassolve.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.starq.picassolve.service.GameStateBackplane.ChatPosted;
+import dev.starq.picassolve.service.GameStateBackplane.Event;
+import dev.starq.picassolve.service.GameStateBackplane.NodeLeft;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class InProcessBackplaneTest {
+
+    private final InProcessBackplane.Hub hub = new InProcessBackplane.Hub();
+    private final InProcessBackplane a = new InProcessBackplane(hub, "a");
+    private final InProcessBackplane b = new InProcessBackplane(hub, "b");
+
+    @AfterEach
+    void tearDown() {
+        a.close();
+        b.close();
+    }
+
+    private static BlockingQueue<Event> received(GameStateBackplane node) {
+        BlockingQueue<Event> events = new LinkedBlockingQueue<>();
+        node.subscribe(events::add);
+        return events;
+    }
+
+    private static ChatPosted chat(int i) {
+        return new ChatPosted("r1", "u", "m" + i, false);
+    }
+
+    @Test
+    void deliversToOtherNodesInPublishOrderButNotBackToSender() throws InterruptedException {
+        BlockingQueue<Event> atA = received(a);
+        BlockingQueue<Event> atB = received(b);
+
+        for (int i = 0; i < 1000; i++)
+            a.publish(chat(i));
+
+        for (int i = 0; i < 1000; i++)
+            assertEquals(chat(i), atB.poll(5, TimeUnit.SECONDS));
+        assertNull(atA.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void failingListenerDoesNotStopDelivery() throws InterruptedException {
+        b.subscribe(e -> {
+            throw new IllegalStateException("boom");
+        });
+        BlockingQueue<Event> atB = received(b);
+
+        a.publish(chat(1));
+        a.publish(chat(2));
+
+        assertEquals(chat(1), atB.poll(5, TimeUnit.SECONDS));
+        assertEquals(chat(2), atB.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void roomHasOneOwnerUntilReleased() {
+        assertTrue(a.tryAcquire("r1"));
+        assertTrue(a.tryAcquire("r1"));
+        assertFalse(b.tryAcquire("r1"));
+        assertTrue(a.owns("r1"));
+        assertFalse(b.owns("r1"));
+
+        b.release("r1"); // 소유자가 아니면 아무 일도 없다
+        assertTrue(a.owns("r1"));
+
+        a.release("r1");
+        assertTrue(b.tryAcquire("r1"));
+        assertTrue(b.owns("r1"));
+    }
+
+    @Test
+    void closingNodeReleasesRoomsAndTellsOthers() throws InterruptedException {
+        BlockingQueue<Event> atB = received(b);
+        a.tryAcquire("r1");
+        a.tryAcquire("r2");
+
+        a.close();
+
+        assertEquals(new NodeLeft("a"), atB.poll(5, TimeUnit.SECONDS));
+        assertTrue(b.tryAcquire("r1"));
+        assertTrue(b.tryAcquire("r2"));
+
+        b.publish(chat(1)); // 내려간 노드로는 보내지 않는다
+        a.close(); // 두 번 닫아도 된다
+    }
+}
@@ -0,0 +1,191 @@
+package dev.starq.picassolve.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import dev.starq.picassolve.dto.ScoreBoardEntry;
+import dev.starq.picassolve.dto.ScoreboardUpdate;
+import dev.starq.picassolve.entity.User;
+import dev.starq.picassolve.repository.UserRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class LeaderboardTest {
+
+    private final UserRepository users = mock(UserRepository.class);
+    private final Leaderboard leaderboard = new Leaderboard(users);
+    private final List<ScoreboardUpdate> published = new ArrayList<>();
+
+    private static User user(String name, int team, int score) {
+        return User.builder().name(name).password("x").team(team).score(score).build();
+    }
+
+    private static List<String> names(List<ScoreBoardEntry> entries) {
+        return entries.stream().map(ScoreBoardEntry::getName).toList();
+    }
+
+    @BeforeEach
+    void setUp() {
+        when(users.findAll()).thenReturn(List.of(user("bob", 1, 3), user("amy", 2, 3), user("zed", 1, 0), user("cat", 1, 5)));
+        leaderboard.reload();
+    }
+
+    @Test
+    void ordersByScoreThenNameAndSkipsZeroScores() {
+        assertEquals(List.of("cat", "amy", "bob"), names(leaderboard.view()));
+    }
+
+    @Test
+    void reusesViewUntilSomethingChanges() {
+        List<ScoreBoardEntry> first = leaderboard.view();
+        assertSame(first, leaderboard.view());
+
+        assertEquals(4, leaderboard.increment("bob", 1));
+        List<ScoreBoardEntry> second = leaderboard.view();
+        assertNotSame(first, second, "변경 뒤에는 목록을 다시 만든다");
+        assertEquals(List.of("cat", "bob", "amy"), names(second));
+        assertEquals(1, leaderboard.increment("new", 3));
+        assertEquals(1, leaderboard.scoreOf("new"));
+    }
+
+    @Test
+    void publishesFullListAfterReloadThenDeltas() {
+        leaderboard.publishChanges(published::add);
+        leaderboard.increment("amy", 2);
+        leaderboard.remove("bob");
+        leaderboard.publishChanges(published::add);
+        leaderboard.publishChanges(published::add); // 변경이 없으면 보내지 않는다
+
+        assertEquals(2, published.size());
+        ScoreboardUpdate full = published.get(0);
+        assertTrue(full.isFull());
+        assertEquals(1, full.getVersion());
+        assertEquals(List.of("cat", "amy", "bob"), names(full.getEntries()));
+
+        ScoreboardUpdate delta = published.get(1);
+        assertFalse(delta.isFull());
+        assertEquals(2, delta.getVersion());
+        assertEquals(List.of("amy"), names(delta.getChanged()));
+        assertEquals(4, delta.getChanged().get(0).getScore());
+        assertEquals(List.of("bob"), delta.getRemoved());
+    }
+
+    @Test
+    void renameRemovesOldNameAndKeepsScore() {
+        leaderboard.publishChanges(published::add);
+        leaderboard.updateProfile("cat", "kit", 4);
+        leaderboard.publishChanges(published::add);
+
+        ScoreboardUpdate delta = published.get(1);
+        assertEquals(List.of("cat"), delta.getRemoved());
+        assertEquals("kit", delta.getChanged().get(0).getName());
+        assertEquals(4, delta.getChanged().get(0).getTeam());
+        assertEquals(5, leaderboard.scoreOf("kit"));
+        assertEquals(0, leaderboard.scoreOf("cat"));
+    }
+
+    @Test
+    void reloadAfterWeeklyResetPublishesFullList() {
+        leaderboard.publishChanges(published::add);
+        when(users.findAll()).thenReturn(List.of(user("amy", 2, 0), user("bob", 1, 0)));
+
+        leaderboard.reload();
+        leaderboard.publishChanges(published::add);
+
+        ScoreboardUpdate afterReset = published.get(1);
+        assertTrue(afterReset.isFull());
+        assertTrue(afterReset.getEntries().isEmpty());
+        assertNull(afterReset.getChanged());
+    }
+
+    @Test
+    void followingAnotherNodeDropsPendingChanges() {
+        leaderboard.increment("amy", 2);
+        leaderboard.syncVersion(41);
+        leaderboard.publishChanges(published::add);
+        leaderboard.increment("amy", 2);
+        leaderboard.publishChanges(published::add);
+
+        assertEquals(1, published.size());
+        assertEquals(42, published.get(0).getVersion());
+    }
+
+    @Test
+    void movesPlayersPastTiesAsTheirScoreChanges() {
+        leaderboard.increment("bob", 1);
+        leaderboard.increment("bob", 1);
+        assertEquals(List.of("bob", "cat", "amy"), names(leaderboard.view()));
+
+        leaderboard.increment("cat", 1);
+        assertEquals(List.of("cat", "bob", "amy"), names(leaderboard.view()));
+        assertEquals(List.of(6, 5, 3), leaderboard.view().stream().map(ScoreBoardEntry::getScore).toList());
+    }
+
+    @Test
+    void teamChangeKeepsThePlaceAndPublishesOnlyAChange() {
+        leaderboard.publishChanges(published::add);
+        leaderboard.updateProfile("amy", "amy", 4);
+        leaderboard.updateProfile("ghost", "spirit", 1); // 점수판에 없는 유저는 무시한다
+        leaderboard.publishChanges(published::add);
+
+        assertEquals(List.of("cat", "amy", "bob"), names(leaderboard.view()));
+        assertEquals(4, leaderboard.view().get(1).getTeam());
+        ScoreboardUpdate delta = published.get(1);
+        assertEquals(List.of("amy"), names(delta.getChanged()));
+        assertTrue(delta.getRemoved().isEmpty());
+    }
+
+    @Test
+    void scoringAgainAfterRemovalPublishesAChangeInsteadOfARemoval() {
+        leaderboard.publishChanges(published::add);
+        leaderboard.remove("bob");
+        leaderboard.increment("bob", 1);
+        leaderboard.publishChanges(published::add);
+
+        ScoreboardUpdate delta = published.get(1);
+        assertEquals(List.of("bob"), names(delta.getChanged()));
+        assertEquals(1, delta.getChanged().get(0).getScore());
+        assertTrue(delta.getRemoved().isEmpty());
+        assertEquals(List.of("cat", "amy", "bob"), names(leaderboard.view()));
+    }
+
+    @Test
+    void publishedViewIsImmutable() {
+        List<ScoreBoardEntry> view = leaderboard.view();
+
+        assertThrows(UnsupportedOperationException.class, () -> view.remove(0));
+    }
+
+    @Test
+    void keepsTheIndexConsistentUnderConcurrentIncrements() throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 8_000; i++) {
+            String name = "p" + i % 40;
+            pool.execute(() -> leaderboard.increment(name, 1));
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        List<ScoreBoardEntry> view = leaderboard.view();
+        assertEquals(43, view.size());
+        for (int i = 0; i < 40; i++)
+            assertEquals(200, leaderboard.scoreOf("p" + i));
+        for (int i = 1; i < view.size(); i++) {
+            ScoreBoardEntry prev = view.get(i - 1), next = view.get(i);
+            assertTrue(prev.getScore() > next.getScore()
+                    || prev.getScore() == next.getScore() && prev.getName().compareTo(next.getName()) < 0);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package dev.starq.picassolve.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class PresenceAggregatorTest {
+
+    private static final long WINDOW_MS = 100;
+
+    private PresenceAggregator presence = new PresenceAggregator(WINDOW_MS);
+
+    @AfterEach
+    void tearDown() {
+        presence.shutdown();
+    }
+
+    /** 방 하나를 흉내 낸다. 발행할 때마다 그 시점의 접속자를 버전 하나로 내보낸다 */
+    private static final class Room {
+        final List<String> online = new CopyOnWriteArrayList<>();
+        final List<String> published = new CopyOnWriteArrayList<>();
+        final AtomicInteger version = new AtomicInteger();
+
+        void publish() {
+            published.add(version.incrementAndGet() + ":" + String.join(",", online));
+        }
+    }
+
+    private static void await(CountDownLatch latch) throws InterruptedException {
+        assertTrue(latch.await(5, TimeUnit.SECONDS), "시간 안에 발행되지 않았다");
+    }
+
+    @Test
+    void mergesJoinsAndLeavesWithinTheWindowIntoOnePublication() throws InterruptedException {
+        Room room = new Room();
+        CountDownLatch flushed = new CountDownLatch(1);
+        Runnable publish = () -> {
+            room.publish();
+            flushed.countDown();
+        };
+
+        room.online.add("amy");
+        presence.submit(room, publish);
+        room.online.add("bob");
+        presence.submit(room, publish);
+        room.online.remove("amy");
+        presence.submit(room, publish);
+        assertTrue(room.published.isEmpty(), "창이 끝나기 전에 발행했다");
+
+        await(flushed);
+        Thread.sleep(2 * WINDOW_MS);
+        assertEquals(List.of("1:bob"), room.published);
+    }
+
+    @Test
+    void bumpsTheVersionOncePerFlush() throws InterruptedException {
+        Room room = new Room();
+        for (int window = 1; window <= 3; window++) {
+            CountDownLatch flushed = new CountDownLatch(1);
+            for (int i = 0; i < 10; i++) {
+                room.online.add("user" + window + "-" + i);
+                presence.submit(room, () -> {
+                    room.publish();
+                    flushed.countDown();
+                });
+            }
+            await(flushed);
+            Thread.sleep(WINDOW_MS / 2);
+            assertEquals(window, room.version.get());
+        }
+        assertEquals(3, room.published.size());
+    }
+
+    @Test
+    void keepsSeparateWindowsPerKey() throws InterruptedException {
+        Room r1 = new Room();
+        Room r2 = new Room();
+        CountDownLatch flushed = new CountDownLatch(2);
+
+        for (int i = 0; i < 5; i++) {
+            presence.submit(r1, () -> {
+                r1.publish();
+                flushed.countDown();
+            });
+            presence.submit(r2, () -> {
+                r2.publish();
+                flushed.countDown();
+            });
+        }
+
+        await(flushed);
+        Thread.sleep(WINDOW_MS);
+        assertEquals(1, r1.version.get());
+        assertEquals(1, r2.version.get());
+    }
+
+    @Test
+    void publishesImmediatelyWhenTheWindowIsZero() {
+        presence.shutdown();
+        presence = new PresenceAggregator(0);
+        Room room = new Room();
+        Thread caller = Thread.currentThread();
+
+        room.online.add("amy");
+        presence.submit(room, () -> {
+            assertEquals(caller, Thread.currentThread());
+            room.publish();
+        });
+        room.online.add("bob");
+        presence.submit(room, room::publish);
+
+        assertEquals(List.of("1:amy", "2:amy,bob"), room.published);
+    }
+
+    @Test
+    void aFailingPublicationDoesNotBlockTheNextWindow() throws InterruptedException {
+        Room room = new Room();
+        CountDownLatch failed = new CountDownLatch(1);
+        presence.submit(room, () -> {
+            failed.countDown();
+            throw new IllegalStateException("boom");
+        });
+        await(failed);
+
+        CountDownLatch flushed = new CountDownLatch(1);
+        presence.submit(room, () -> {
+            room.publish();
+            flushed.countDown();
+        });
+        await(flushed);
+        assertEquals(1, room.version.get());
+    }
+}
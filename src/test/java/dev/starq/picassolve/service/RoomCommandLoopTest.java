@@ -0,0 +1,171 @@
+package dev.starq.picassolve.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+class RoomCommandLoopTest {
+
+    private final List<String> sent = new CopyOnWriteArrayList<>();
+    private final GameRoomRegistry rooms = new GameRoomRegistry();
+    private final SimpMessagingTemplate broker = new SimpMessagingTemplate((message, timeout) -> {
+        sent.add(SimpMessageHeaderAccessor.getDestination(message.getHeaders()) + " " + message.getPayload());
+        return true;
+    });
+    private final GameMetrics metrics = new GameMetrics(new SimpleMeterRegistry(), rooms);
+    private RoomCommandLoop loop = new RoomCommandLoop(rooms, broker, metrics, 4);
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        loop.shutdown();
+    }
+
+    /** 지금까지 넣은 명령이 모두 끝날 때까지 기다린다. (같은 방의 명령은 넣은 순서대로 실행된다) */
+    private void await(String roomId) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        loop.submit(roomId, "test", done::countDown);
+        assertTrue(done.await(5, TimeUnit.SECONDS), "방 대기열이 멈췄다: " + roomId);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void runsCommandsOfEachRoomInSubmitOrder() throws InterruptedException {
+        rooms.getOrCreate("r1");
+        rooms.getOrCreate("r2");
+        List<Integer> r1 = new ArrayList<>();
+        List<Integer> r2 = new ArrayList<>();
+
+        for (int i = 0; i < 1_000; i++) {
+            int n = i;
+            loop.submit("r1", "amy", () -> r1.add(n));
+            loop.replicate("r2", () -> r2.add(n));
+        }
+        await("r1");
+        await("r2");
+
+        List<Integer> expected = IntStream.range(0, 1_000).boxed().toList();
+        assertEquals(expected, r1);
+        assertEquals(expected, r2);
+    }
+
+    @Test
+    void yieldsToOtherRoomsAfterABatch() throws InterruptedException {
+        loop.shutdown();
+        loop = new RoomCommandLoop(rooms, broker, metrics, 1);
+        rooms.getOrCreate("busy");
+        rooms.getOrCreate("quiet");
+        List<String> order = new CopyOnWriteArrayList<>();
+        CountDownLatch release = new CountDownLatch(1);
+
+        // 하나뿐인 워커를 붙잡아 두고 두 방의 명령을 모두 쌓은 뒤 풀어준다
+        loop.submit("busy", "amy", () -> {
+            await(release);
+            order.add("busy");
+        });
+        for (int i = 1; i < 3 * RoomCommandLoop.BATCH; i++)
+            loop.submit("busy", "amy", () -> order.add("busy"));
+        loop.submit("quiet", "bob", () -> order.add("quiet"));
+        release.countDown();
+        await("busy");
+
+        assertEquals(3 * RoomCommandLoop.BATCH + 1, order.size());
+        assertEquals(RoomCommandLoop.BATCH, order.indexOf("quiet"), "한 묶음을 처리한 뒤 다른 방에 양보해야 한다");
+    }
+
+    @Test
+    void rejectsCommandsPastTheQueueLimitAndTellsTheSender() throws InterruptedException {
+        GameRoom room = rooms.getOrCreate("r1");
+        CountDownLatch release = new CountDownLatch(1);
+        loop.submit("r1", "amy", () -> await(release));
+        for (int i = 1; i < RoomCommandLoop.MAX_QUEUED; i++)
+            loop.submit("r1", "amy", () -> {
+            });
+        assertEquals(RoomCommandLoop.MAX_QUEUED, room.queuedCommands.get());
+
+        boolean[] ran = new boolean[1];
+        loop.submit("r1", "bob", () -> ran[0] = true);
+        release.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (room.queuedCommands.get() > 0 && System.nanoTime() < deadline)
+            Thread.sleep(10);
+
+        assertFalse(ran[0]);
+        assertEquals(List.of("/user/bob/queue/errors 요청이 너무 많습니다. 잠시 후 다시 시도해 주세요."), sent);
+        assertEquals(0, room.queuedCommands.get());
+    }
+
+    @Test
+    void reportsThrowingCommandsAndKeepsTheRoomRunning() throws InterruptedException {
+        GameRoom room = rooms.getOrCreate("r1");
+        List<String> after = new CopyOnWriteArrayList<>();
+
+        loop.submit("r1", "amy", () -> {
+            throw new IllegalStateException("방 정원이 가득 찼습니다.");
+        });
+        loop.submit("r1", "bob", () -> {
+            throw new RuntimeException("boom");
+        });
+        loop.submit("r1", "cat", () -> {
+            throw new StackOverflowError();
+        });
+        loop.replicate("r1", () -> {
+            throw new IllegalArgumentException("복제 이벤트는 보낼 사람이 없다");
+        });
+        loop.submit("r1", "dan", () -> after.add("dan"));
+        await("r1");
+
+        assertEquals(List.of(
+                "/user/amy/queue/errors 방 정원이 가득 찼습니다.",
+                "/user/bob/queue/errors boom",
+                "/user/cat/queue/errors Unexpected error"), sent);
+        assertEquals(List.of("dan"), after);
+        assertEquals(0, room.queuedCommands.get());
+    }
+
+    @Test
+    void drainsOnTheCallingThreadOnceWorkersAreShutDown() throws InterruptedException {
+        GameRoom room = rooms.getOrCreate("r1");
+        loop.shutdown();
+        List<Integer> order = new ArrayList<>();
+        Thread caller = Thread.currentThread();
+
+        for (int i = 0; i < 3 * RoomCommandLoop.BATCH; i++) {
+            int n = i;
+            loop.submit("r1", "amy", () -> {
+                assertEquals(caller, Thread.currentThread());
+                order.add(n);
+            });
+        }
+
+        assertEquals(IntStream.range(0, 3 * RoomCommandLoop.BATCH).boxed().toList(), order);
+        assertEquals(0, room.queuedCommands.get());
+    }
+
+    @Test
+    void runsCommandsForUnknownRoomsOnTheCallingThread() {
+        Thread[] ranOn = new Thread[1];
+
+        loop.submit("nowhere", "amy", () -> ranOn[0] = Thread.currentThread());
+
+        assertEquals(Thread.currentThread(), ranOn[0]);
+    }
+}
@@ -0,0 +1,168 @@
+package dev.starq.picassolve.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.starq.picassolve.dto.DrawEvent;
+import dev.starq.picassolve.dto.ReplayChunk;
+import dev.starq.picassolve.dto.RoundArchiveSummary.ChunkInfo;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class RoundArchiveCodecTest {
+
+    private static final long ROUND_START = 1_700_000_000_000L;
+
+    /** 10개씩 한 액션, 1/4 px 단위 좌표(그대로 복원된다), 음수 좌표와 지우개, 여러 색 */
+    private static DrawEvent segment(int i) {
+        double x = (i % 400) * 1.25 - 20, y = (i % 300) * 0.75 - 10;
+        return DrawEvent.builder()
+                .x1(x).y1(y).x2(x + 0.25).y2(y - 1.5)
+                .width(1 + (i / 10) % 12 * 0.5)
+                .color(i / 10 % 3 == 0 ? "#ff0000" : "#1e90ff")
+                .mode(i / 10 % 7 == 0 ? "eraser" : "pen")
+                .actionId("a" + i / 10).newStroke(i % 10 == 0)
+                .build();
+    }
+
+    /** 액션 a 는 라운드 시작 후 a * 250ms 에 시작했다. */
+    private static StrokeStore.Slice slice(int n) {
+        StrokeStore store = new StrokeStore();
+        for (int i = 0; i < n; i++)
+            store.append(segment(i));
+        StrokeStore.Slice s = store.copy(0, store.segmentCount());
+        for (int a = 0; a < s.actionCreatedAt.length; a++)
+            s.actionCreatedAt[a] = ROUND_START + a * 250L;
+        return s;
+    }
+
+    private static List<ReplayChunk> decodeAll(byte[] bytes) {
+        List<ChunkInfo> index = RoundArchiveCodec.readIndex(ByteBuffer.wrap(bytes));
+        List<ReplayChunk> chunks = new ArrayList<>();
+        for (ChunkInfo info : index) {
+            byte[] body = Arrays.copyOfRange(bytes, (int) info.getOffset(), (int) info.getOffset() + info.getLength());
+            chunks.add(RoundArchiveCodec.decodeChunk(info, body));
+        }
+        return chunks;
+    }
+
+    @Test
+    void roundTripsSegmentsAcrossChunks() {
+        StrokeStore.Slice s = slice(2_500);
+
+        List<ReplayChunk> chunks = decodeAll(RoundArchiveCodec.encode(s, ROUND_START, 1_000).bytes());
+
+        assertEquals(3, chunks.size());
+        List<DrawEvent> decoded = new ArrayList<>();
+        chunks.forEach(c -> decoded.addAll(c.getSegments()));
+        assertEquals(2_500, decoded.size());
+        for (int i = 0; i < decoded.size(); i++) {
+            DrawEvent expected = segment(i), actual = decoded.get(i);
+            assertEquals(expected.getX1(), actual.getX1(), 0.0);
+            assertEquals(expected.getY1(), actual.getY1(), 0.0);
+            assertEquals(expected.getX2(), actual.getX2(), 0.0);
+            assertEquals(expected.getY2(), actual.getY2(), 0.0);
+            assertEquals(expected.getWidth(), actual.getWidth(), 0.0);
+            assertEquals(expected.getColor(), actual.getColor());
+            assertEquals(expected.getMode(), actual.getMode());
+            assertEquals(expected.getNewStroke(), actual.getNewStroke());
+            assertEquals(s.seq[i], (int) actual.getSeq());
+            assertEquals("#" + s.seq[i], actual.getActionId());
+        }
+    }
+
+    @Test
+    void segmentTimesAreTheirActionStart() {
+        List<ReplayChunk> chunks = decodeAll(RoundArchiveCodec.encode(slice(2_500), ROUND_START, 1_000).bytes());
+
+        int i = 0;
+        for (ReplayChunk c : chunks) {
+            assertEquals(c.getStartMs(), (long) c.getOffsetsMs().get(0));
+            assertEquals(c.getEndMs(), (long) c.getOffsetsMs().get(c.getOffsetsMs().size() - 1));
+            for (int t : c.getOffsetsMs())
+                assertEquals(i++ / 10 * 250, t);
+        }
+    }
+
+    @Test
+    void indexDescribesContiguousByteRanges() {
+        RoundArchiveCodec.Encoded encoded = RoundArchiveCodec.encode(slice(2_500), ROUND_START, 1_000);
+
+        List<ChunkInfo> index = RoundArchiveCodec.readIndex(ByteBuffer.wrap(encoded.bytes()));
+        assertEquals(encoded.chunks().size(), index.size());
+        long offset = RoundArchiveCodec.headerBytes(index.size());
+        int segments = 0;
+        for (int k = 0; k < index.size(); k++) {
+            ChunkInfo info = index.get(k), written = encoded.chunks().get(k);
+            assertEquals(k, info.getIndex());
+            assertEquals(offset, info.getOffset());
+            assertEquals(written.getLength(), info.getLength());
+            assertEquals(written.getStartMs(), info.getStartMs());
+            assertTrue(info.getStartMs() <= info.getEndMs());
+            offset += info.getLength();
+            segments += info.getSegments();
+        }
+        assertEquals(encoded.bytes().length, offset);
+        assertEquals(2_500, segments);
+    }
+
+    @Test
+    void actionsStartedBeforeTheRoundAndOutOfOrderClampToNonDecreasingTimes() {
+        StrokeStore.Slice s = slice(30);
+        s.actionCreatedAt[0] = ROUND_START - 5_000; // 이전 라운드에서 이어진 액션
+        s.actionCreatedAt[1] = ROUND_START + 900;
+        s.actionCreatedAt[2] = ROUND_START + 400; // 시계가 거꾸로 간 경우
+
+        List<Integer> offsets = decodeAll(RoundArchiveCodec.encode(s, ROUND_START, 100).bytes()).get(0).getOffsetsMs();
+
+        assertEquals(0, (int) offsets.get(0));
+        assertEquals(900, (int) offsets.get(10));
+        assertEquals(900, (int) offsets.get(29));
+    }
+
+    @Test
+    void emptyRoundHasOnlyAHeader() {
+        RoundArchiveCodec.Encoded encoded = RoundArchiveCodec.encode(slice(0), ROUND_START, 1_000);
+
+        assertEquals(RoundArchiveCodec.headerBytes(0), encoded.bytes().length);
+        assertTrue(decodeAll(encoded.bytes()).isEmpty());
+    }
+
+    @Test
+    void connectedStrokesCompressWell() {
+        StrokeStore store = new StrokeStore();
+        double x = 400, y = 300;
+        for (int i = 0; i < 2_000; i++) {
+            double nx = x + Math.cos(i * 0.05) * 2, ny = y + Math.sin(i * 0.05) * 2;
+            store.append(DrawEvent.builder().x1(x).y1(y).x2(nx).y2(ny).width(4).color("#000000").mode("pen")
+                    .actionId("a" + i / 200).newStroke(i % 200 == 0).build());
+            x = nx;
+            y = ny;
+        }
+
+        byte[] bytes = RoundArchiveCodec.encode(store.copy(0, store.segmentCount()), ROUND_START, 2_000).bytes();
+
+        assertTrue(bytes.length < 2_000 * 3, "세그먼트당 3바이트를 넘었다: " + bytes.length);
+    }
+
+    @Test
+    void rejectsForeignAndCorruptFiles() {
+        byte[] bytes = RoundArchiveCodec.encode(slice(100), ROUND_START, 1_000).bytes();
+
+        byte[] foreign = bytes.clone();
+        foreign[0] = 'X';
+        assertThrows(IllegalArgumentException.class, () -> RoundArchiveCodec.readIndex(ByteBuffer.wrap(foreign)));
+
+        ChunkInfo info = RoundArchiveCodec.readIndex(ByteBuffer.wrap(bytes)).get(0);
+        byte[] truncated = Arrays.copyOfRange(bytes, (int) info.getOffset(), (int) info.getOffset() + info.getLength() / 2);
+        assertThrows(IllegalArgumentException.class, () -> RoundArchiveCodec.decodeChunk(info, truncated));
+
+        byte[] garbage = new byte[info.getLength()];
+        Arrays.fill(garbage, (byte) 0x5A);
+        assertThrows(IllegalArgumentException.class, () -> RoundArchiveCodec.decodeChunk(info, garbage));
+    }
+}
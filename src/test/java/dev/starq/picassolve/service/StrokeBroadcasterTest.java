@@ -0,0 +1,231 @@
+package dev.starq.picassolve.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.starq.picassolve.dto.DrawEvent;
+import dev.starq.picassolve.support.BinaryDrawSubscribers;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+class StrokeBroadcasterTest {
+
+    private final List<String> sent = new CopyOnWriteArrayList<>();
+    private final List<String> payloads = new CopyOnWriteArrayList<>();
+    private final SimpMessagingTemplate broker = broker();
+    private final StrokeBroadcaster broadcaster = new StrokeBroadcaster(broker, new BinaryDrawSubscribers(false), 0, 32);
+    private final GameRoom room = new GameRoom("r1");
+
+    private SimpMessagingTemplate broker() {
+        SimpMessagingTemplate template = new SimpMessagingTemplate((message, timeout) -> {
+            sent.add(SimpMessageHeaderAccessor.getDestination(message.getHeaders()));
+            payloads.add(new String((byte[]) message.getPayload(), StandardCharsets.UTF_8));
+            return true;
+        });
+        template.setMessageConverter(new MappingJackson2MessageConverter());
+        return template;
+    }
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.shutdown();
+    }
+
+    private void draw() {
+        draw(broadcaster, "a");
+    }
+
+    /** 세그먼트 하나를 저장하고 대기열에 넣는다. 바로 내보내야 하면 true */
+    private boolean draw(StrokeBroadcaster broadcaster, String actionId) {
+        synchronized (room.strokes) {
+            DrawEvent e = DrawEvent.builder().x1(1).y1(1).x2(2).y2(2).width(4).color("#000000").mode("pen")
+                    .actionId(actionId).newStroke(true).build();
+            room.strokes.append(e);
+            return broadcaster.enqueueLocked(room, e);
+        }
+    }
+
+    /** 보낸 드로잉 프레임마다 담긴 actionId 목록 */
+    private List<List<String>> drawFrames() throws JsonProcessingException {
+        List<List<String>> frames = new ArrayList<>();
+        for (int i = 0; i < sent.size(); i++) {
+            if (!sent.get(i).equals(room.topic("draw")))
+                continue;
+            List<String> ids = new ArrayList<>();
+            new ObjectMapper().readTree(payloads.get(i)).forEach(seg -> ids.add(seg.path("actionId").asText()));
+            frames.add(ids);
+        }
+        return frames;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline)
+            Thread.sleep(5);
+        assertTrue(condition.getAsBoolean(), "시간 안에 끝나지 않았다");
+    }
+
+    @Test
+    void sendsPendingSegmentsAfterSnapshot() {
+        draw();
+
+        broadcaster.sendInOrder(room, () -> room.pendingDraw.size(), pending -> {
+            assertEquals(1, pending);
+            return () -> broker.convertAndSend("/user/u/queue/canvas/snapshot", "snapshot");
+        });
+
+        assertEquals(List.of("/user/u/queue/canvas/snapshot", room.topic("draw")), sent);
+    }
+
+    @Test
+    void flushDoesNotWaitForSnapshotBeingPrepared() throws InterruptedException {
+        draw();
+
+        broadcaster.sendInOrder(room, () -> null, ignored -> {
+            // 공용 타이머 스레드 역할: 스냅샷을 준비하는 동안 이 방은 건너뛰고 바로 돌아와야 한다
+            Thread timer = new Thread(() -> broadcaster.flush(room));
+            timer.start();
+            try {
+                timer.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            assertFalse(timer.isAlive());
+            assertTrue(sent.isEmpty(), "스냅샷보다 먼저 세그먼트가 나갔다: " + sent);
+            return () -> broker.convertAndSend("/user/u/queue/canvas/snapshot", "snapshot");
+        });
+
+        assertEquals(List.of("/user/u/queue/canvas/snapshot", room.topic("draw")), sent);
+    }
+
+    @Test
+    void controlMessagesWaitForSnapshotBeingPrepared() throws InterruptedException {
+        draw();
+        Thread[] undo = new Thread[1];
+
+        broadcaster.sendInOrder(room, () -> null, ignored -> {
+            undo[0] = new Thread(() -> broadcaster.flushThen(room, () -> broker.convertAndSend(room.topic("undo"), "a")));
+            undo[0].start();
+            try {
+                undo[0].join(200);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            assertTrue(undo[0].isAlive(), "실행취소가 스냅샷을 기다리지 않았다");
+            return () -> broker.convertAndSend("/user/u/queue/canvas/snapshot", "snapshot");
+        });
+        undo[0].join(TimeUnit.SECONDS.toMillis(5));
+
+        assertEquals(List.of("/user/u/queue/canvas/snapshot", room.topic("draw"), room.topic("undo")), sent);
+    }
+
+    @Test
+    void releasesHoldWhenPreparationFails() {
+        draw();
+
+        assertThrows(IllegalStateException.class, () -> broadcaster.sendInOrder(room, () -> null, ignored -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        assertEquals(0, room.flushHolds);
+        assertEquals(List.of(room.topic("draw")), sent);
+    }
+
+    @Test
+    void sendsEverySegmentRightAwayWithoutAWindow() throws JsonProcessingException {
+        assertTrue(draw(broadcaster, "a"));
+        broadcaster.flush(room);
+        assertTrue(draw(broadcaster, "b"));
+        broadcaster.flush(room);
+
+        assertEquals(List.of(List.of("a"), List.of("b")), drawFrames());
+    }
+
+    @Test
+    void coalescesSegmentsOfOneWindowIntoOneFrame() throws Exception {
+        StrokeBroadcaster windowed = new StrokeBroadcaster(broker, new BinaryDrawSubscribers(false), 50, 32);
+        try {
+            for (int i = 0; i < 5; i++)
+                assertFalse(draw(windowed, "a" + i));
+            assertTrue(sent.isEmpty(), "창이 끝나기 전에 보냈다");
+
+            await(() -> !sent.isEmpty());
+            Thread.sleep(100);
+            assertEquals(List.of(List.of("a0", "a1", "a2", "a3", "a4")), drawFrames());
+            assertTrue(room.pendingDraw.isEmpty());
+        } finally {
+            windowed.shutdown();
+        }
+    }
+
+    @Test
+    void flushesOnceMaxSegmentsAreQueued() throws Exception {
+        StrokeBroadcaster windowed = new StrokeBroadcaster(broker, new BinaryDrawSubscribers(false), 60_000, 4);
+        try {
+            for (int i = 0; i < 3; i++)
+                assertFalse(draw(windowed, "a" + i));
+            assertTrue(draw(windowed, "a3"), "최대 개수가 차면 바로 내보내야 한다");
+            windowed.flush(room);
+
+            assertEquals(List.of(List.of("a0", "a1", "a2", "a3")), drawFrames());
+        } finally {
+            windowed.shutdown();
+        }
+    }
+
+    @Test
+    void controlMessagesGoOutAfterQueuedSegments() throws Exception {
+        StrokeBroadcaster windowed = new StrokeBroadcaster(broker, new BinaryDrawSubscribers(false), 60_000, 32);
+        try {
+            draw(windowed, "a0");
+            draw(windowed, "a1");
+
+            windowed.flushThen(room, () -> broker.convertAndSend(room.topic("undo"), "a1"));
+
+            assertEquals(List.of(room.topic("draw"), room.topic("undo")), sent);
+            assertEquals(List.of(List.of("a0", "a1")), drawFrames());
+        } finally {
+            windowed.shutdown();
+        }
+    }
+
+    @Test
+    void sendsTheBinaryFrameOnlyWhenSomeoneSubscribed() {
+        BinaryDrawSubscribers subscribers = new BinaryDrawSubscribers(false);
+        StrokeBroadcaster binary = new StrokeBroadcaster(broker, subscribers, 0, 32);
+        try {
+            draw(binary, "a");
+            binary.flush(room);
+            assertEquals(List.of(room.topic("draw")), sent);
+
+            SimpMessageHeaderAccessor subscribe = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+            subscribe.setSessionId("s1");
+            subscribe.setSubscriptionId("sub-0");
+            subscribe.setDestination(room.topic("draw.bin"));
+            subscribers.onSubscribe(new SessionSubscribeEvent(this,
+                    MessageBuilder.createMessage(new byte[0], subscribe.getMessageHeaders())));
+            sent.clear();
+            draw(binary, "b");
+            binary.flush(room);
+            assertEquals(List.of(room.topic("draw"), room.topic("draw.bin")), sent);
+        } finally {
+            binary.shutdown();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package dev.starq.picassolve.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class StrokeSimplifierTest {
+
+    private static boolean[] simplify(float epsilon, float... xy) {
+        int n = xy.length / 2;
+        float[] xs = new float[n], ys = new float[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = xy[2 * i];
+            ys[i] = xy[2 * i + 1];
+        }
+        boolean[] keep = new boolean[n];
+        int kept = StrokeSimplifier.simplify(xs, ys, n, epsilon, keep);
+        int counted = 0;
+        for (boolean k : keep)
+            counted += k ? 1 : 0;
+        assertEquals(counted, kept);
+        return keep;
+    }
+
+    /** (px,py) 에서 (ax,ay)-(bx,by) 선분까지의 거리 */
+    private static double distance(double px, double py, double ax, double ay, double bx, double by) {
+        double dx = bx - ax, dy = by - ay, len2 = dx * dx + dy * dy;
+        double t = len2 == 0 ? 0 : Math.max(0, Math.min(1, ((px - ax) * dx + (py - ay) * dy) / len2));
+        return Math.hypot(px - ax - t * dx, py - ay - t * dy);
+    }
+
+    @Test
+    void keepsShortRunsAsIs() {
+        assertArrayEquals(new boolean[] { true }, simplify(1, 3, 4));
+        assertArrayEquals(new boolean[] { true, true }, simplify(1, 0, 0, 9, 9));
+    }
+
+    @Test
+    void dropsCollinearPointsAndKeepsEnds() {
+        assertArrayEquals(new boolean[] { true, false, false, false, true },
+                simplify(0.5f, 0, 0, 1, 1, 2, 2, 3, 3, 4, 4));
+    }
+
+    @Test
+    void keepsOnlyPointsFartherThanEpsilon() {
+        assertArrayEquals(new boolean[] { true, false, true }, simplify(0.5f, 0, 0, 5, 0.4f, 10, 0));
+        assertArrayEquals(new boolean[] { true, true, true }, simplify(0.5f, 0, 0, 5, 0.6f, 10, 0));
+    }
+
+    @Test
+    void closedShapeDoesNotCollapse() {
+        // 시작점과 끝점이 같아도 선분 길이 0 을 점까지의 거리로 재므로 모서리가 남는다
+        assertArrayEquals(new boolean[] { true, true, true, true, true },
+                simplify(0.5f, 0, 0, 10, 0, 10, 10, 0, 10, 0, 0));
+    }
+
+    @Test
+    void everyDroppedPointStaysWithinEpsilonOfTheResult() {
+        Random random = new Random(11);
+        int n = 5_000;
+        float[] xs = new float[n], ys = new float[n];
+        float x = 400, y = 300;
+        for (int i = 0; i < n; i++) {
+            x += (float) (random.nextGaussian() * 2);
+            y += (float) (random.nextGaussian() * 2);
+            xs[i] = x;
+            ys[i] = y;
+        }
+        float epsilon = 1.5f;
+        boolean[] keep = new boolean[n];
+        int kept = StrokeSimplifier.simplify(xs, ys, n, epsilon, keep);
+
+        assertTrue(keep[0] && keep[n - 1]);
+        assertTrue(kept < n, "잡음 섞인 선에서도 줄어야 한다");
+        int prev = 0;
+        for (int i = 1; i < n; i++) {
+            if (!keep[i])
+                continue;
+            for (int j = prev + 1; j < i; j++)
+                assertTrue(distance(xs[j], ys[j], xs[prev], ys[prev], xs[i], ys[i]) <= epsilon + 1e-4,
+                        "버린 점 " + j + " 이 허용 오차 밖에 있다");
+            prev = i;
+        }
+    }
+}
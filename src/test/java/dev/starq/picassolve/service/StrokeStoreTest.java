@@ -0,0 +1,287 @@
+package dev.starq.picassolve.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.starq.picassolve.dto.DrawEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class StrokeStoreTest {
+
+    private final StrokeStore store = new StrokeStore();
+
+    /** i 로 좌표/색/모드가 정해지는 세그먼트 (참조 모델과 비교하기 위해) */
+    private static DrawEvent segment(String actionId, boolean newStroke, int i) {
+        return DrawEvent.builder()
+                .x1(i * 0.25).y1(i * 0.5).x2(i * 0.25 + 1).y2(i * 0.5 + 2)
+                .width(1 + i % 7)
+                .color(i % 3 == 0 ? "#FF0000" : "#abc")
+                .mode(i % 5 == 0 ? "eraser" : "pen")
+                .actionId(actionId).newStroke(newStroke)
+                .build();
+    }
+
+    private static void assertSegment(String actionId, int i, DrawEvent actual) {
+        DrawEvent expected = segment(actionId, false, i);
+        assertEquals(actionId, actual.getActionId());
+        assertEquals(expected.getX1(), actual.getX1(), 1e-3);
+        assertEquals(expected.getY2(), actual.getY2(), 1e-3);
+        assertEquals(expected.getWidth(), actual.getWidth(), 1e-3);
+        assertEquals(i % 3 == 0 ? "#ff0000" : "#aabbcc", actual.getColor());
+        assertEquals(i % 5 == 0 ? "eraser" : "pen", actual.getMode());
+    }
+
+    @Test
+    void groupsSegmentsIntoActionsAndNumbersThem() {
+        int first = store.append(segment("a", true, 0));
+        assertEquals(first, store.append(segment("a", false, 1)));
+        int second = store.append(segment("b", false, 2)); // actionId 가 바뀌면 새 액션
+        int third = store.append(segment("b", true, 3)); // newStroke 면 같은 ID 여도 새 액션
+
+        assertEquals(3, store.actionCount());
+        assertEquals(4, store.segmentCount());
+        assertTrue(first < second && second < third);
+        assertEquals(List.of("a", "b", "b"), List.of(store.actionIdAt(0), store.actionIdAt(1), store.actionIdAt(2)));
+        assertEquals(2, store.segmentOffsetOf(1));
+        assertEquals(4, store.segmentOffsetOf(3));
+    }
+
+    @Test
+    void removeLastUndoesOneActionAndRemoveFirstTrimsOldest() {
+        for (int i = 0; i < 6; i++)
+            store.append(segment("a" + i / 2, i % 2 == 0, i));
+
+        assertEquals(2, store.removeLast());
+        assertEquals(2, store.removeFirst(1));
+        assertEquals(1, store.actionCount());
+        assertEquals("a1", store.actionIdAt(0));
+        assertEquals(0, store.removeFirst(0));
+        assertEquals(2, store.removeFirst(5));
+        assertTrue(store.isEmpty());
+        assertEquals(0, store.removeLast());
+    }
+
+    @Test
+    void clearDoesNotReuseActionNumbers() {
+        int before = store.append(segment("a", true, 0));
+        store.clear();
+
+        assertTrue(store.isEmpty());
+        assertTrue(store.append(segment("a", true, 1)) > before);
+    }
+
+    @Test
+    void undoneActionNumbersAreNotReused() {
+        // 체크포인트는 구운 앞뒤 액션의 번호로 히스토리가 바뀌었는지 본다. 지우고 다시 그린 같은 actionId 도 번호가 달라야 한다
+        int undone = store.append(segment("a", true, 0));
+        store.removeLast();
+
+        assertTrue(store.append(segment("a", true, 1)) > undone);
+    }
+
+    @Test
+    void copiesCarryStrokeStartsAndActionNumbers() {
+        int first = store.append(segment("a", true, 0));
+        store.append(segment("a", false, 1));
+        int second = store.append(segment("b", true, 2));
+
+        List<DrawEvent> events = store.copy(0, 3).toEvents();
+
+        assertEquals(List.of(true, false, true), events.stream().map(DrawEvent::getNewStroke).toList());
+        assertEquals(List.of(first, first, second), events.stream().map(DrawEvent::getSeq).toList());
+    }
+
+    @Test
+    void keepsWorkingAfterClearingARoundThatGrewTheBuffers() {
+        for (int i = 0; i < 20_000; i++)
+            store.append(segment("old" + i / 4, i % 4 == 0, i));
+        store.clear();
+
+        // 줄어든 버퍼에서 다시 감기고 늘어나도 순서와 값이 그대로다
+        for (int i = 0; i < 1000; i++)
+            store.append(segment("new" + i / 4, i % 4 == 0, i));
+        store.removeFirst(200);
+        for (int i = 1000; i < 3000; i++)
+            store.append(segment("new" + i / 4, i % 4 == 0, i));
+
+        assertEquals(2200, store.segmentCount());
+        assertEquals(550, store.actionCount());
+        List<DrawEvent> events = store.copy(0, store.segmentCount()).toEvents();
+        for (int k = 0; k < events.size(); k++)
+            assertSegment("new" + (800 + k) / 4, 800 + k, events.get(k));
+    }
+
+    @Test
+    void replicatedSegmentsKeepTheirNumberAndLocalNumbersStayAbove() {
+        DrawEvent remote = segment("r", true, 0);
+        remote.setSeq(500);
+
+        assertEquals(500, store.appendReplicated(remote));
+        assertEquals(501, store.append(segment("l", true, 1)));
+    }
+
+    @Test
+    void copiesAcrossTheWrappedRingAfterGrowing() {
+        // 머리를 앞으로 민 뒤 초기 용량(1024)을 넘게 채워 원형 버퍼가 감긴 상태에서 늘어나게 한다
+        for (int i = 0; i < 1000; i++)
+            store.append(segment("old" + i / 10, i % 10 == 0, i));
+        store.removeFirst(90);
+        for (int i = 1000; i < 4000; i++)
+            store.append(segment("new" + i / 10, i % 10 == 0, i));
+
+        assertEquals(3100, store.segmentCount());
+        List<DrawEvent> events = store.copy(0, store.segmentCount()).toEvents();
+        for (int k = 0; k < events.size(); k++) {
+            int i = 900 + k;
+            assertSegment((i < 1000 ? "old" : "new") + i / 10, i, events.get(k));
+        }
+
+        List<DrawEvent> middle = store.copy(1005, 1015).toEvents();
+        assertEquals(10, middle.size());
+        assertSegment("new190", 1905, middle.get(0));
+        assertSegment("new191", 1914, middle.get(9));
+    }
+
+    @Test
+    void matchesReferenceModelUnderRandomOperations() {
+        Random random = new Random(7);
+        List<List<Integer>> actions = new ArrayList<>(); // 액션별 세그먼트 번호
+        List<String> ids = new ArrayList<>();
+        int nextId = 0;
+        for (int op = 0; op < 50_000; op++) {
+            int k = random.nextInt(100);
+            if (k < 85) {
+                boolean newStroke = actions.isEmpty() || random.nextInt(20) == 0;
+                String id = newStroke ? "a" + nextId++ : ids.get(ids.size() - 1);
+                store.append(segment(id, newStroke, op));
+                if (newStroke) {
+                    actions.add(new ArrayList<>());
+                    ids.add(id);
+                }
+                actions.get(actions.size() - 1).add(op);
+            } else if (k < 90) {
+                int expected = actions.isEmpty() ? 0 : actions.remove(actions.size() - 1).size();
+                if (!ids.isEmpty())
+                    ids.remove(ids.size() - 1);
+                assertEquals(expected, store.removeLast());
+            } else if (k < 99) {
+                int n = Math.min(random.nextInt(3), actions.size());
+                int expected = 0;
+                for (int i = 0; i < n; i++) {
+                    expected += actions.remove(0).size();
+                    ids.remove(0);
+                }
+                assertEquals(expected, store.removeFirst(n));
+            } else {
+                store.clear();
+                actions.clear();
+                ids.clear();
+            }
+
+            assertEquals(actions.size(), store.actionCount());
+            assertEquals(actions.stream().mapToInt(List::size).sum(), store.segmentCount());
+            if (op % 500 == 0 && !actions.isEmpty()) {
+                int fromAction = actions.size() / 2;
+                List<DrawEvent> events = store.copy(store.segmentOffsetOf(fromAction), store.segmentCount()).toEvents();
+                int e = 0;
+                for (int a = fromAction; a < actions.size(); a++)
+                    for (int i : actions.get(a))
+                        assertSegment(ids.get(a), i, events.get(e++));
+                assertEquals(e, events.size());
+            }
+        }
+    }
+
+    /** 액션 하나에 (x0,y0) 에서 dx,dy 씩 이어지는 세그먼트 n 개 */
+    private void line(String actionId, float x0, float y0, float dx, float dy, int n, String color) {
+        for (int i = 0; i < n; i++)
+            store.append(DrawEvent.builder()
+                    .x1(x0 + dx * i).y1(y0 + dy * i).x2(x0 + dx * (i + 1)).y2(y0 + dy * (i + 1))
+                    .width(2).color(color).mode("pen")
+                    .actionId(actionId).newStroke(i == 0)
+                    .build());
+    }
+
+    @Test
+    void simplifiesCompletedActionsButNotTheLastOne() {
+        line("a", 0, 0, 1, 1, 10, "#000000");
+        line("b", 100, 0, 1, 0, 5, "#000000");
+
+        assertEquals(9, store.simplifyCompleted(0.5f, 0, false));
+        assertEquals(1 + 5, store.segmentCount());
+        assertEquals(1, store.segmentOffsetOf(1));
+        DrawEvent merged = store.copy(0, 1).toEvents().get(0);
+        assertEquals(0, merged.getX1(), 1e-6);
+        assertEquals(10, merged.getX2(), 1e-6);
+        assertEquals(10, merged.getY2(), 1e-6);
+        assertEquals("a", merged.getActionId());
+        assertEquals(100, store.copy(1, 2).toEvents().get(0).getX1(), 1e-6);
+
+        assertEquals(0, store.simplifyCompleted(0.5f, 0, false), "한 번 본 액션은 다시 보지 않는다");
+        assertEquals(4, store.simplifyCompleted(0.5f, 0, true));
+        assertEquals(2, store.segmentCount());
+    }
+
+    @Test
+    void defersActionsOverlappingThePendingTail() {
+        line("a", 0, 0, 1, 0, 10, "#000000");
+        line("b", 0, 50, 1, 0, 3, "#000000");
+
+        // 꼬리 4개(b 3개 + a 의 마지막 1개)가 아직 나가지 않았다
+        assertEquals(0, store.simplifyCompleted(0.5f, 4, false));
+        assertEquals(9, store.simplifyCompleted(0.5f, 3, false));
+        assertEquals(4, store.segmentCount());
+    }
+
+    @Test
+    void mergesOnlyConnectedSegmentsOfTheSameStyle() {
+        line("a", 0, 0, 1, 0, 5, "#000000");
+        // 같은 액션 안에서 색이 바뀐 구간, 끊어진 구간은 따로 단순화한다
+        for (int i = 0; i < 5; i++)
+            store.append(DrawEvent.builder().x1(5 + i).y1(0).x2(6 + i).y2(0).width(2).color("#ff0000").mode("pen")
+                    .actionId("a").newStroke(false).build());
+        for (int i = 0; i < 5; i++)
+            store.append(DrawEvent.builder().x1(20 + i).y1(0).x2(21 + i).y2(0).width(2).color("#ff0000").mode("pen")
+                    .actionId("a").newStroke(false).build());
+        line("b", 0, 50, 1, 0, 1, "#000000");
+
+        assertEquals(12, store.simplifyCompleted(0.5f, 0, false));
+        List<DrawEvent> a = store.copy(0, store.segmentOffsetOf(1)).toEvents();
+        assertEquals(3, a.size());
+        assertEquals("#000000", a.get(0).getColor());
+        assertEquals(5, a.get(0).getX2(), 1e-6);
+        assertEquals("#ff0000", a.get(1).getColor());
+        assertEquals(10, a.get(1).getX2(), 1e-6);
+        assertEquals(20, a.get(2).getX1(), 1e-6);
+    }
+
+    @Test
+    void undoAndTrimStillWorkAfterSimplifying() {
+        line("a", 0, 0, 1, 0, 10, "#000000");
+        line("b", 0, 10, 1, 0, 10, "#000000");
+        line("c", 0, 20, 1, 0, 10, "#000000");
+        store.simplifyCompleted(0.5f, 0, false);
+
+        assertEquals(12, store.segmentCount());
+        assertEquals(10, store.removeLast());
+        assertEquals(1, store.removeFirst(1));
+        assertEquals("b", store.actionIdAt(0));
+        assertEquals(10, store.copy(0, 1).toEvents().get(0).getY1(), 1e-6);
+
+        line("d", 0, 30, 1, 0, 4, "#000000");
+        assertEquals(0, store.simplifyCompleted(0.5f, 0, false), "b 는 이미 단순화되었다");
+        assertEquals(3, store.simplifyCompleted(0.5f, 0, true));
+    }
+
+    @Test
+    void parsesAndFormatsColors() {
+        assertEquals(0x1e90ff, StrokeStore.parseRgb("#1E90FF"));
+        assertEquals(0xaabbcc, StrokeStore.parseRgb(" #abc "));
+        assertEquals(0, StrokeStore.parseRgb("blue"));
+        assertEquals(0, StrokeStore.parseRgb(null));
+        assertEquals("#00ff0a", StrokeStore.toHex(0x00ff0a));
+    }
+}
@@ -0,0 +1,131 @@
+package dev.starq.picassolve.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.starq.picassolve.service.GameStateBackplane.ChatPosted;
+import dev.starq.picassolve.service.GameStateBackplane.Event;
+import dev.starq.picassolve.service.GameStateBackplane.NodeLeft;
+import dev.starq.picassolve.service.GameStateBackplane.OutboxOverflowed;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class UnixSocketBackplaneTest {
+
+    @TempDir
+    Path dir;
+
+    private final List<UnixSocketBackplane> nodes = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        nodes.forEach(UnixSocketBackplane::close);
+    }
+
+    private UnixSocketBackplane node(String id, ObjectMapper json, int outboxCapacity) throws IOException {
+        UnixSocketBackplane node = new UnixSocketBackplane(json, dir, id, outboxCapacity);
+        nodes.add(node);
+        return node;
+    }
+
+    private UnixSocketBackplane node(String id) throws IOException {
+        return node(id, new ObjectMapper(), 1024);
+    }
+
+    private static BlockingQueue<Event> received(GameStateBackplane node) {
+        BlockingQueue<Event> events = new LinkedBlockingQueue<>();
+        node.subscribe(events::add);
+        return events;
+    }
+
+    private static ChatPosted chat(int i) {
+        return new ChatPosted("r1", "u", "m" + i, false);
+    }
+
+    @Test
+    void replicatesEventsInPublishOrder() throws Exception {
+        UnixSocketBackplane a = node("a");
+        BlockingQueue<Event> atB = received(node("b"));
+
+        for (int i = 0; i < 500; i++)
+            a.publish(chat(i));
+
+        for (int i = 0; i < 500; i++)
+            assertEquals(chat(i), atB.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void leaseIsExclusiveAcrossNodesAndFreedOnClose() throws Exception {
+        UnixSocketBackplane a = node("a");
+        UnixSocketBackplane b = node("b");
+
+        assertTrue(a.tryAcquire("r1"));
+        assertTrue(a.tryAcquire("r1"));
+        assertFalse(b.tryAcquire("r1"));
+        assertFalse(b.owns("r1"));
+
+        a.release("r1");
+        assertTrue(b.tryAcquire("r1"));
+
+        b.close();
+        assertTrue(a.tryAcquire("r1"));
+    }
+
+    @Test
+    void closingNodeDisconnectsPeers() throws Exception {
+        UnixSocketBackplane a = node("a");
+        BlockingQueue<Event> atB = received(node("b"));
+        a.publish(chat(0));
+        assertEquals(chat(0), atB.poll(5, TimeUnit.SECONDS));
+
+        a.close();
+
+        assertEquals(new NodeLeft("a"), atB.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void fullOutboxDropsEventsAndAsksForResyncOnceDrained() throws Exception {
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ObjectMapper slow = new ObjectMapper() {
+            @Override
+            public byte[] writeValueAsBytes(Object value) throws JsonProcessingException {
+                sending.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.writeValueAsBytes(value);
+            }
+        };
+        UnixSocketBackplane a = node("a", slow, 1);
+        BlockingQueue<Event> atA = received(a);
+        BlockingQueue<Event> atB = received(node("b"));
+
+        a.publish(chat(0)); // 보내는 스레드가 꺼내 직렬화에서 멈춘다
+        assertTrue(sending.await(5, TimeUnit.SECONDS));
+        a.publish(chat(1)); // 큐를 채운다
+        a.publish(chat(2)); // 버려진다 (막히지 않는다)
+        a.publish(chat(3));
+        release.countDown();
+
+        assertEquals(chat(0), atB.poll(5, TimeUnit.SECONDS));
+        assertEquals(chat(1), atB.poll(5, TimeUnit.SECONDS));
+        assertEquals(new OutboxOverflowed(2), atA.poll(5, TimeUnit.SECONDS));
+        assertNull(atB.poll(200, TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,85 @@
+package dev.starq.picassolve.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import dev.starq.picassolve.entity.User;
+import dev.starq.picassolve.entity.UserMapper;
+import dev.starq.picassolve.repository.UserRepository;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/** 실시간 점수판은 트랜잭션이 커밋된 뒤에만 바뀌어야 한다. */
+class UserServiceImplTest {
+
+    private final UserRepository users = mock(UserRepository.class);
+    private final PasswordEncoder passwords = mock(PasswordEncoder.class);
+    private final Leaderboard leaderboard = mock(Leaderboard.class);
+    private final ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+    private final UserServiceImpl service = new UserServiceImpl(users, mock(UserMapper.class), passwords, leaderboard, events);
+    private final User amy = User.builder().id(UUID.randomUUID()).name("amy").password("hash").team(1).score(7).build();
+
+    @BeforeEach
+    void setUp() {
+        when(users.findByName("amy")).thenReturn(Optional.of(amy));
+        when(users.findById(amy.getId())).thenReturn(Optional.of(amy));
+        when(users.save(any(User.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(passwords.matches(anyString(), anyString())).thenReturn(true);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private static void commit() {
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+    }
+
+    private static void rollback() {
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+    }
+
+    @Test
+    void profileChangeReachesLeaderboardOnlyAfterCommit() {
+        service.updateProfile("amy", "amelia", 2, "pw");
+        verifyNoInteractions(leaderboard, events);
+
+        commit();
+        verify(leaderboard).updateProfile("amy", "amelia", 2);
+        verify(events).publishEvent(any(ScoreboardChanged.class));
+    }
+
+    @Test
+    void rolledBackDeletionLeavesLeaderboardAlone() {
+        service.deleteUser("amy", "pw");
+
+        rollback();
+        verify(leaderboard, never()).remove(anyString());
+        verifyNoInteractions(events);
+    }
+
+    @Test
+    void adminDeletionRemovesFromLeaderboardAfterCommit() {
+        service.delete(amy.getId());
+        verify(users).delete(amy);
+        verifyNoInteractions(leaderboard);
+
+        commit();
+        verify(leaderboard).remove("amy");
+    }
+}
@@ -0,0 +1,146 @@
+package dev.starq.picassolve.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.starq.picassolve.entity.Word;
+import dev.starq.picassolve.repository.WordRepository;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class WordDictionaryTest {
+
+    private static WordRepository repository(List<Word> words) {
+        return (WordRepository) Proxy.newProxyInstance(WordRepository.class.getClassLoader(),
+                new Class<?>[] { WordRepository.class }, (proxy, method, args) -> {
+                    if (method.getName().equals("findAll") && method.getParameterCount() == 0)
+                        return words;
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static WordDictionary dictionary(int words, int recentWindow) {
+        WordDictionary dictionary = new WordDictionary(repository(IntStream.range(0, words)
+                .mapToObj(i -> new Word((long) i, "단어" + i)).toList()), recentWindow);
+        dictionary.reload();
+        return dictionary;
+    }
+
+    /** 한 방에서 차례로 n번 뽑은 제시어 */
+    private static List<String> draw(WordDictionary dictionary, LinkedHashSet<String> recent, int n) {
+        List<String> drawn = new ArrayList<>();
+        WordDictionary.Entry current = null;
+        for (int i = 0; i < n; i++) {
+            current = dictionary.next(recent, current);
+            drawn.add(current.text());
+        }
+        return drawn;
+    }
+
+    @Test
+    void reusesPrecompiledEntryForKnownWords() {
+        WordDictionary dictionary = new WordDictionary(
+                repository(List.of(new Word(1L, " 무지개 "), new Word(2L, "고양이"), new Word(3L, " "))), 0);
+        assertEquals(2, dictionary.reload());
+
+        WordDictionary.Entry known = dictionary.entryFor("무지개");
+        assertSame(known, dictionary.entryFor("무지개"), "사전에 있는 단어는 다시 컴파일하지 않는다");
+        assertTrue(known.matcher().matches("무 지 개"));
+
+        WordDictionary.Entry unknown = dictionary.entryFor("강아지");
+        assertNotSame(unknown, dictionary.entryFor("강아지"));
+        assertEquals("☆☆☆", unknown.mask());
+        assertTrue(unknown.matcher().matches("강아지"));
+    }
+
+    @Test
+    void doesNotRepeatWordsWithinTheRecentWindow() {
+        WordDictionary dictionary = dictionary(100, 20);
+        LinkedHashSet<String> recent = new LinkedHashSet<>();
+
+        List<String> drawn = draw(dictionary, recent, 500);
+
+        for (int i = 1; i < drawn.size(); i++) {
+            List<String> window = drawn.subList(Math.max(0, i - 20), i);
+            assertFalse(window.contains(drawn.get(i)), i + "번째 제시어가 최근 20개 안에서 다시 나왔다: " + drawn.get(i));
+        }
+        assertEquals(drawn.subList(480, 500), List.copyOf(recent));
+    }
+
+    @Test
+    void capsTheWindowAtHalfTheDictionary() {
+        WordDictionary dictionary = dictionary(10, 20);
+        LinkedHashSet<String> recent = new LinkedHashSet<>();
+
+        List<String> drawn = draw(dictionary, recent, 200);
+
+        assertEquals(5, recent.size());
+        assertEquals(drawn.subList(195, 200), List.copyOf(recent));
+        for (int i = 1; i < drawn.size(); i++)
+            assertFalse(drawn.subList(Math.max(0, i - 5), i).contains(drawn.get(i)));
+    }
+
+    @Test
+    void trimsARecentSetLeftOverFromALargerDictionary() {
+        WordDictionary dictionary = dictionary(4, 20);
+        LinkedHashSet<String> recent = new LinkedHashSet<>(List.of("옛날1", "옛날2", "옛날3", "단어0"));
+
+        dictionary.next(recent, null);
+
+        assertEquals(2, recent.size(), "창은 사전 크기의 절반(2)까지만 유지한다");
+        assertFalse(recent.contains("옛날1"));
+    }
+
+    @Test
+    void fallsBackToAnExcludedWordAfterMaxAttempts() {
+        WordDictionary dictionary = dictionary(2, 20);
+        WordDictionary.Entry current = dictionary.entryFor("단어1");
+
+        // 창이 1이라 "단어0" 은 최근 목록, "단어1" 은 현재 단어로 둘 다 제외된다
+        for (int i = 0; i < 50; i++) {
+            LinkedHashSet<String> recent = new LinkedHashSet<>(List.of("단어0"));
+            WordDictionary.Entry picked = dictionary.next(recent, current);
+
+            assertTrue(List.of("단어0", "단어1").contains(picked.text()));
+            assertEquals(List.of(picked.text()), List.copyOf(recent));
+        }
+    }
+
+    @Test
+    void singleWordDictionaryAlwaysReturnsThatWord() {
+        WordDictionary dictionary = dictionary(1, 20);
+        LinkedHashSet<String> recent = new LinkedHashSet<>();
+
+        assertEquals(List.of("단어0", "단어0", "단어0"), draw(dictionary, recent, 3));
+        assertTrue(recent.isEmpty(), "창이 0이면 최근 목록에 넣지 않는다");
+    }
+
+    @Test
+    void keepsRecentWordsPerRoom() {
+        WordDictionary dictionary = dictionary(4, 20);
+        LinkedHashSet<String> roomA = new LinkedHashSet<>();
+        LinkedHashSet<String> roomB = new LinkedHashSet<>();
+
+        draw(dictionary, roomA, 10);
+        List<String> recentInA = List.copyOf(roomA);
+        assertEquals(2, recentInA.size());
+        assertTrue(roomB.isEmpty());
+
+        // 다른 방의 최근 제시어는 이 방에서 제외되지 않는다
+        boolean reused = false;
+        for (int i = 0; i < 200 && !reused; i++) {
+            LinkedHashSet<String> fresh = new LinkedHashSet<>();
+            reused = recentInA.contains(dictionary.next(fresh, null).text());
+        }
+        assertTrue(reused);
+        draw(dictionary, roomB, 10);
+        assertEquals(recentInA, List.copyOf(roomA), "다른 방에서 뽑아도 이 방의 최근 목록은 그대로다");
+    }
+}
@@ -0,0 +1,203 @@
+package dev.starq.picassolve.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+class OutboundSessionQueuesTest {
+
+    private static final int DRAW_QUEUE_KB = 4;
+    private static final int MAX_QUEUE_KB = 16;
+    private static final String DRAW = "/topic/room/r1/draw";
+    private static final String CHAT = "/topic/room/r1/chat";
+    private static final String SNAPSHOT = "/user/queue/canvas/snapshot";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final List<Object> events = new CopyOnWriteArrayList<>();
+    private final OutboundSessionQueues queues = new OutboundSessionQueues(registry, events::add, true, DRAW_QUEUE_KB,
+            MAX_QUEUE_KB);
+    private final WebSocketSession socket = mock(WebSocketSession.class);
+    private final List<String> written = new CopyOnWriteArrayList<>();
+    private final CountDownLatch slow = new CountDownLatch(1);
+    private WebSocketSession session;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(socket.getId()).thenReturn("s1");
+        when(socket.getPrincipal()).thenReturn(() -> "amy");
+        // 소켓 쓰기는 slow 를 풀 때까지 막힌다 (느린 클라이언트)
+        doAnswer(inv -> {
+            slow.await(5, TimeUnit.SECONDS);
+            written.add(((TextMessage) inv.getArgument(0)).getPayload());
+            return null;
+        }).when(socket).sendMessage(any());
+
+        WebSocketSession[] established = new WebSocketSession[1];
+        queues.decorate(new TextWebSocketHandler() {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession s) {
+                established[0] = s;
+            }
+        }).afterConnectionEstablished(socket);
+        session = established[0];
+    }
+
+    @AfterEach
+    void tearDown() {
+        slow.countDown();
+    }
+
+    /** 목적지와 본문 크기(바이트)를 정한 STOMP MESSAGE 프레임 */
+    private static TextMessage frame(String destination, String id, int bytes) {
+        String head = "MESSAGE\ndestination:" + destination + "\nmessage-id:" + id + "\n\n";
+        return new TextMessage(head + "x".repeat(Math.max(0, bytes - head.length() - 1)) + "\0");
+    }
+
+    private static String idOf(String payload) {
+        int at = payload.indexOf("message-id:") + "message-id:".length();
+        return payload.substring(at, payload.indexOf('\n', at));
+    }
+
+    private List<String> writtenIds() {
+        return written.stream().map(OutboundSessionQueuesTest::idOf).toList();
+    }
+
+    private double gauge(String name) {
+        return registry.get(name).gauge().value();
+    }
+
+    private double counter(String name) {
+        return registry.get(name).counter().count();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline)
+            Thread.sleep(5);
+        assertTrue(condition.getAsBoolean(), "시간 안에 끝나지 않았다");
+    }
+
+    @Test
+    void recognisesFramesByDestination() {
+        assertTrue(OutboundSessionQueues.isDrawFrame(frame(DRAW, "1", 100)));
+        assertTrue(OutboundSessionQueues.isDrawFrame(frame(DRAW + ".bin", "1", 100)));
+        assertFalse(OutboundSessionQueues.isDrawFrame(frame(CHAT, "1", 100)));
+        assertTrue(OutboundSessionQueues.isSnapshotFrame(frame(SNAPSHOT, "1", 100)));
+        assertFalse(OutboundSessionQueues.isSnapshotFrame(frame(DRAW, "1", 100)));
+    }
+
+    @Test
+    void writesFramesInOrder() throws Exception {
+        slow.countDown();
+        for (int i = 0; i < 100; i++)
+            session.sendMessage(frame(i % 3 == 0 ? DRAW : CHAT, String.valueOf(i), 64));
+
+        await(() -> written.size() == 100);
+        assertEquals(IntStream.range(0, 100).mapToObj(String::valueOf).toList(), writtenIds());
+    }
+
+    @Test
+    void dropsDrawFramesPastDrawQueueAndResyncsOnceDrained() throws Exception {
+        session.sendMessage(frame(CHAT, "c0", 512)); // 쓰는 중에 막힌다
+        for (int i = 0; i < 10; i++)
+            session.sendMessage(frame(DRAW, "d" + i, 1024));
+        session.sendMessage(frame(CHAT, "c1", 512)); // 드로잉이 아닌 프레임은 버리지 않는다
+
+        assertEquals(6, counter("picassolve.ws.outbound.draw.dropped"));
+        assertEquals(1, gauge("picassolve.ws.outbound.sessions.lagging"));
+        assertTrue(events.isEmpty(), "대기열이 빠지기 전에 재동기화했다");
+
+        slow.countDown();
+        await(() -> written.size() == 6 && !events.isEmpty());
+        assertEquals(List.of("c0", "d0", "d1", "d2", "d3", "c1"), writtenIds());
+        assertEquals(List.of(new CanvasResyncRequest("amy", "s1")), events);
+        assertEquals(0, gauge("picassolve.ws.outbound.sessions.lagging"));
+
+        // 따라잡은 뒤의 프레임은 그대로 나가고 재동기화를 다시 요청하지 않는다
+        session.sendMessage(frame(DRAW, "d10", 1024));
+        await(() -> written.size() == 7);
+        assertEquals(1, events.size());
+        assertEquals(1, counter("picassolve.ws.outbound.resync"));
+    }
+
+    @Test
+    void closesTheConnectionPastMaxQueue() throws Exception {
+        for (int i = 0; i < MAX_QUEUE_KB; i++)
+            session.sendMessage(frame(CHAT, "c" + i, 1024));
+        verify(socket, never()).close(any());
+
+        session.sendMessage(frame(CHAT, "over", 1024));
+
+        verify(socket).close(CloseStatus.SESSION_NOT_RELIABLE);
+        assertEquals(1, counter("picassolve.ws.outbound.terminated"));
+        assertEquals(0, gauge("picassolve.ws.outbound.queue.max"));
+    }
+
+    @Test
+    void resyncSnapshotDoesNotCountTowardsMaxQueue() throws Exception {
+        // GameService 대신: 재동기화 요청을 받으면 그 연결로 한도보다 큰 스냅샷을 보낸다
+        CountDownLatch snapshotQueued = new CountDownLatch(1);
+        OutboundSessionQueues resyncing = new OutboundSessionQueues(registry, event -> {
+            events.add(event);
+            try {
+                for (int i = 0; i < 3; i++)
+                    session.sendMessage(frame(SNAPSHOT, "s" + i, 8 * 1024));
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+            snapshotQueued.countDown();
+        }, true, DRAW_QUEUE_KB, MAX_QUEUE_KB);
+        WebSocketSession[] established = new WebSocketSession[1];
+        resyncing.decorate(new TextWebSocketHandler() {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession s) {
+                established[0] = s;
+            }
+        }).afterConnectionEstablished(socket);
+        session = established[0];
+
+        session.sendMessage(frame(CHAT, "c0", 512));
+        for (int i = 0; i < 5; i++)
+            session.sendMessage(frame(DRAW, "d" + i, 1024));
+        slow.countDown();
+        assertTrue(snapshotQueued.await(5, TimeUnit.SECONDS));
+        // 스냅샷이 나가는 동안 들어온 프레임도 한도 안이면 받는다
+        session.sendMessage(frame(CHAT, "c1", 8 * 1024));
+
+        await(() -> written.size() == 9);
+        verify(socket, never()).close(any());
+        assertEquals(List.of("c0", "d0", "d1", "d2", "d3", "s0", "s1", "s2", "c1"), writtenIds());
+    }
+
+    @Test
+    void snapshotsOutsideAResyncStillCountTowardsMaxQueue() throws Exception {
+        session.sendMessage(frame(CHAT, "c0", 512));
+        session.sendMessage(frame(SNAPSHOT, "s0", 12 * 1024));
+        verify(socket, never()).close(any());
+
+        session.sendMessage(frame(SNAPSHOT, "s1", 8 * 1024));
+
+        verify(socket).close(CloseStatus.SESSION_NOT_RELIABLE);
+    }
+}
@@ -0,0 +1,63 @@
+package dev.starq.picassolve.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.starq.picassolve.dto.DrawEvent;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 서버 인코더와 프론트엔드 디코더(frontend/src/lib/strokeCodec.js)가 같은 바이트를 주고받는지 확인한다.
+ * stroke-codec-golden.json 의 frame 은 이 인코더가 만든 값이고, decoded 는 양쪽 디코더가 내야 하는 값이다.
+ * 프론트엔드 쪽은 strokeCodec.test.js 가 같은 파일로 확인한다. (npm test)
+ */
+class StrokeCodecCompatibilityTest {
+
+    private final ObjectMapper json = new ObjectMapper();
+
+    private JsonNode golden() throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/stroke-codec-golden.json")) {
+            return json.readTree(in);
+        }
+    }
+
+    @Test
+    void encoderProducesGoldenFrames() throws IOException {
+        for (JsonNode c : golden()) {
+            List<DrawEvent> segments = new ArrayList<>();
+            for (JsonNode s : c.get("segments"))
+                segments.add(json.treeToValue(s, DrawEvent.class));
+
+            assertEquals(c.get("frame").asText(), StrokeCodec.encodeBase64(segments), c.get("name").asText());
+        }
+    }
+
+    @Test
+    void decoderMatchesGoldenSegments() throws IOException {
+        for (JsonNode c : golden()) {
+            String name = c.get("name").asText();
+            List<DrawEvent> decoded = StrokeCodec.decodeBase64(c.get("frame").asText());
+            JsonNode expected = c.get("decoded");
+
+            assertEquals(expected.size(), decoded.size(), name);
+            for (int i = 0; i < decoded.size(); i++)
+                assertSegment(expected.get(i), json.valueToTree(decoded.get(i)), name + " #" + i);
+        }
+    }
+
+    /** 숫자는 값으로 비교한다. (골든 파일의 10 과 디코더가 낸 10.0 은 같다) */
+    private static void assertSegment(JsonNode expected, JsonNode actual, String name) {
+        expected.fieldNames().forEachRemaining(field -> {
+            JsonNode e = expected.get(field), a = actual.get(field);
+            if (e.isNumber())
+                assertEquals(e.asDouble(), a.asDouble(), 0.0, name + "." + field);
+            else
+                assertEquals(e, a, name + "." + field);
+        });
+    }
+}
@@ -0,0 +1,210 @@
+package dev.starq.picassolve.support;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.starq.picassolve.dto.DrawEvent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class StrokeCodecTest {
+
+    private static DrawEvent segment(int seq, double x1, double y1, double x2, double y2, double width, String color) {
+        return DrawEvent.builder()
+                .x1(x1).y1(y1).x2(x2).y2(y2)
+                .width(width).color(color).mode("pen")
+                .actionId("a-" + seq).newStroke(false).seq(seq)
+                .build();
+    }
+
+    private static void assertSegment(DrawEvent expected, DrawEvent actual) {
+        assertEquals(expected.getX1(), actual.getX1(), 0.0, "x1");
+        assertEquals(expected.getY1(), actual.getY1(), 0.0, "y1");
+        assertEquals(expected.getX2(), actual.getX2(), 0.0, "x2");
+        assertEquals(expected.getY2(), actual.getY2(), 0.0, "y2");
+        assertEquals(expected.getWidth(), actual.getWidth(), 0.0, "width");
+        assertEquals(expected.getColor(), actual.getColor());
+        assertEquals(expected.getMode(), actual.getMode());
+        assertEquals(expected.getNewStroke(), actual.getNewStroke());
+        assertEquals(expected.getSeq(), actual.getSeq());
+        assertEquals("#" + expected.getSeq(), actual.getActionId());
+    }
+
+    private static List<DrawEvent> roundTrip(List<DrawEvent> segments) {
+        List<DrawEvent> decoded = StrokeCodec.decodeBase64(StrokeCodec.encodeBase64(segments));
+        assertEquals(segments.size(), decoded.size());
+        return decoded;
+    }
+
+    @Test
+    void roundTripsConnectedStroke() {
+        List<DrawEvent> segments = List.of(
+                DrawEvent.builder().x1(10).y1(20).x2(12.25).y2(21.5).width(4).color("#ff0000")
+                        .mode("pen").newStroke(true).seq(3).build(),
+                segment(3, 12.25, 21.5, 15, 19.75, 4, "#ff0000"),
+                segment(3, 15, 19.75, 16, 19, 4, "#ff0000"));
+
+        List<DrawEvent> decoded = roundTrip(segments);
+        for (int i = 0; i < segments.size(); i++)
+            assertSegment(segments.get(i), decoded.get(i));
+    }
+
+    @Test
+    void omitsRepeatedFieldsWithinFrame() {
+        byte[] first = StrokeCodec.encode(List.of(segment(3, 10, 20, 12, 21, 4, "#ff0000")));
+        byte[] both = StrokeCodec.encode(List.of(
+                segment(3, 10, 20, 12, 21, 4, "#ff0000"),
+                segment(3, 12, 21, 13, 22, 4, "#ff0000")));
+
+        // 이어지는 세그먼트는 flags + dx + dy 세 바이트뿐이다
+        assertEquals(first.length + 3, both.length);
+        int flags = both[first.length] & 0xFF;
+        assertEquals(StrokeCodec.F_SAME_ACTION | StrokeCodec.F_CONTINUES | StrokeCodec.F_SAME_STYLE, flags);
+    }
+
+    @Test
+    void roundTripsNegativeAndQuarterPixelCoordinates() {
+        List<DrawEvent> segments = List.of(
+                segment(1, -10.25, -0.75, -200.5, 300.25, 2.5, "#000000"),
+                segment(1, -200.5, 300.25, 0, 0, 2.5, "#000000"));
+
+        List<DrawEvent> decoded = roundTrip(segments);
+        for (int i = 0; i < segments.size(); i++)
+            assertSegment(segments.get(i), decoded.get(i));
+    }
+
+    @Test
+    void quantizesToQuarterPixels() {
+        DrawEvent decoded = roundTrip(List.of(segment(1, 1.1, 1.2, 1.13, 1.37, 3.3, "#000000"))).get(0);
+
+        assertEquals(1.0, decoded.getX1(), 0.0);
+        assertEquals(1.25, decoded.getY1(), 0.0);
+        assertEquals(1.25, decoded.getX2(), 0.0);
+        assertEquals(1.25, decoded.getY2(), 0.0);
+        assertEquals(3.25, decoded.getWidth(), 0.0);
+    }
+
+    @Test
+    void clampsOutOfRangeCoordinates() {
+        double limit = (double) StrokeCodec.LIMIT / StrokeCodec.SCALE;
+        List<DrawEvent> decoded = roundTrip(List.of(
+                segment(1, 1e12, -1e12, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, 4, "#000000"),
+                segment(1, Double.NaN, 5, 6, 7, -3, "#000000")));
+
+        DrawEvent huge = decoded.get(0);
+        assertEquals(limit, huge.getX1(), 0.0);
+        assertEquals(-limit, huge.getY1(), 0.0);
+        assertEquals(-limit, huge.getX2(), 0.0);
+        assertEquals(limit, huge.getY2(), 0.0);
+
+        DrawEvent odd = decoded.get(1);
+        assertEquals(0.0, odd.getX1(), 0.0);
+        assertEquals(0.0, odd.getWidth(), 0.0);
+    }
+
+    @Test
+    void fallsBackToBlackForUnknownColors() {
+        List<DrawEvent> decoded = roundTrip(List.of(
+                segment(1, 0, 0, 1, 1, 4, null),
+                segment(2, 5, 5, 6, 6, 4, "red"),
+                segment(3, 9, 9, 8, 8, 4, "#12345g"),
+                segment(4, 1, 2, 3, 4, 4, "#ABC"),
+                segment(5, 4, 3, 2, 1, 4, " #1E90FF "),
+                segment(6, 0, 0, 1, 1, 4, "#FFA500")));
+
+        assertEquals("#000000", decoded.get(0).getColor());
+        assertEquals("#000000", decoded.get(1).getColor());
+        assertEquals("#000000", decoded.get(2).getColor());
+        assertEquals("#aabbcc", decoded.get(3).getColor());
+        assertEquals("#1e90ff", decoded.get(4).getColor());
+        assertEquals("#ffa500", decoded.get(5).getColor());
+    }
+
+    @Test
+    void encodesPaletteColorsInOneByteAndOthersAsRgb() {
+        byte[] palette = StrokeCodec.encode(List.of(segment(1, 0, 0, 1, 1, 4, "#ffa500")));
+        byte[] rgb = StrokeCodec.encode(List.of(segment(1, 0, 0, 1, 1, 4, "#ffa501")));
+
+        assertEquals(palette.length + 2, rgb.length);
+        assertEquals(0, palette[1] & StrokeCodec.F_RGB);
+        assertEquals(StrokeCodec.F_RGB, rgb[1] & StrokeCodec.F_RGB);
+    }
+
+    @Test
+    void roundTripsVarintBoundaries() {
+        int[] seqs = { 0, 127, 128, 16_383, 16_384, 2_097_151, 2_097_152, Integer.MAX_VALUE };
+        List<DrawEvent> segments = new ArrayList<>();
+        for (int seq : seqs)
+            segments.add(segment(seq, 0, 0, 0, 0, 0, "#000000"));
+        // zigzag 경계: ±63/64 (1바이트/2바이트), ±8191/8192 (2바이트/3바이트) — 1/4 px 단위
+        double[] deltas = { 63 / 4.0, 64 / 4.0, -64 / 4.0, -65 / 4.0, 8191 / 4.0, 8192 / 4.0, -8192 / 4.0, -8193 / 4.0 };
+        for (double d : deltas)
+            segments.add(segment(7, 1000, 1000, 1000 + d, 1000 - d, 31.75, "#000000"));
+
+        List<DrawEvent> decoded = roundTrip(segments);
+        for (int i = 0; i < segments.size(); i++)
+            assertSegment(segments.get(i), decoded.get(i));
+    }
+
+    @Test
+    void varintLengthsGrowAtSevenBitBoundaries() {
+        assertEquals(1, seqBytes(127));
+        assertEquals(2, seqBytes(128));
+        assertEquals(2, seqBytes(16_383));
+        assertEquals(3, seqBytes(16_384));
+        assertEquals(5, seqBytes(Integer.MAX_VALUE));
+    }
+
+    /** 같은 세그먼트에서 seq 만 바꿨을 때 seq 가 차지하는 바이트 수 */
+    private static int seqBytes(int seq) {
+        return StrokeCodec.encode(List.of(segment(seq, 0, 0, 0, 0, 0, "#000000"))).length
+                - StrokeCodec.encode(List.of(segment(0, 0, 0, 0, 0, 0, "#000000"))).length + 1;
+    }
+
+    @Test
+    void emptyBatchIsJustTheVersionByte() {
+        byte[] frame = StrokeCodec.encode(List.of());
+
+        assertArrayEquals(new byte[] { StrokeCodec.VERSION }, frame);
+        assertTrue(StrokeCodec.decode(frame).isEmpty());
+    }
+
+    @Test
+    void roundTripsLargeBatch() {
+        List<DrawEvent> segments = new ArrayList<>();
+        double x = 0, y = 0;
+        for (int i = 0; i < 4096; i++) {
+            double nx = (i * 37 % 1600) / 4.0, ny = (i * 53 % 1200) / 4.0;
+            String color = i % 3 == 0 ? "#1e90ff" : StrokeCodec.PALETTE[i % StrokeCodec.PALETTE.length];
+            DrawEvent e = segment(i / 16, i % 16 == 0 ? nx : x, i % 16 == 0 ? ny : y, nx, ny, 1 + i % 8, color);
+            e.setNewStroke(i % 16 == 0);
+            e.setMode(i % 5 == 0 ? "eraser" : "pen");
+            segments.add(e);
+            x = nx;
+            y = ny;
+        }
+
+        byte[] frame = StrokeCodec.encode(segments);
+        List<DrawEvent> decoded = StrokeCodec.decode(frame);
+        assertEquals(segments.size(), decoded.size());
+        for (int i = 0; i < segments.size(); i++)
+            assertSegment(segments.get(i), decoded.get(i));
+        assertTrue(frame.length < segments.size() * 12, "세그먼트당 12B 이하여야 한다: " + frame.length);
+    }
+
+    @Test
+    void rejectsUnknownVersionAndTruncatedFrames() {
+        byte[] frame = StrokeCodec.encode(List.of(segment(300, 10, 20, 30, 40, 4, "#1e90ff")));
+
+        assertThrows(IllegalArgumentException.class, () -> StrokeCodec.decode(new byte[0]));
+        assertThrows(IllegalArgumentException.class, () -> StrokeCodec.decode(new byte[] { 2, 0 }));
+        for (int length = 2; length < frame.length; length++) {
+            byte[] truncated = Arrays.copyOf(frame, length);
+            assertThrows(IllegalArgumentException.class, () -> StrokeCodec.decode(truncated));
+        }
+    }
+}